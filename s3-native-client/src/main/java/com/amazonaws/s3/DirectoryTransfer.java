@@ -0,0 +1,269 @@
+package com.amazonaws.s3;
+
+import com.amazonaws.s3.model.GetObjectRequest;
+import com.amazonaws.s3.model.ListObjectsV2Request;
+import com.amazonaws.s3.model.PutObjectRequest;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mirrors a directory tree to or from a prefix with one dispatcher thread feeding the client. Each file is a
+ * putObject or getObject straight from or to its path, so large files go multipart natively. Work is admitted
+ * against a budget of maxConcurrency part-sized units; small files are packed into batches that share one unit, so
+ * the client keeps its connections busy whether the tree holds a few large files or many tiny ones.
+ */
+final class DirectoryTransfer {
+    private final S3NativeClient client;
+    private final boolean upload;
+    private final String bucket;
+    private final long partSizeBytes;
+    private final int maxConcurrency;
+    private final int smallFileBatchSize;
+    private final Semaphore permits;
+
+    private final CompletableFuture<DirectoryTransferResult> resultFuture = new CompletableFuture<>();
+    private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    private final AtomicLong filesTransferred = new AtomicLong();
+    private final AtomicLong bytesTransferred = new AtomicLong();
+    /* batches in flight, plus one while the dispatcher is still running */
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    private List<Item> batch = new ArrayList<>();
+    private long batchBytes = 0;
+
+    /**
+     * One file and the object it maps to
+     */
+    private static final class Item {
+        private final String key;
+        private final Path path;
+        private final long size;
+
+        private Item(String key, Path path, long size) {
+            this.key = key;
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    private DirectoryTransfer(S3NativeClient client, boolean upload, String bucket, long partSizeBytes,
+                              DirectoryTransferOptions options) {
+        this.client = client;
+        this.upload = upload;
+        this.bucket = bucket;
+        this.partSizeBytes = partSizeBytes;
+        this.maxConcurrency = options.getMaxConcurrency();
+        this.smallFileBatchSize = options.getSmallFileBatchSize();
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    static CompletableFuture<DirectoryTransferResult> upload(S3NativeClient client, long partSizeBytes,
+                                                             Path source, String bucket, String prefix,
+                                                             DirectoryTransferOptions options) {
+        final DirectoryTransfer transfer = new DirectoryTransfer(client, true, bucket, partSizeBytes, options);
+        final String keyPrefix = normalizePrefix(prefix);
+        transfer.start("s3-directory-upload", () -> {
+            try {
+                Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+                            throws IOException {
+                        if (attributes.isRegularFile()) {
+                            StringBuilder key = new StringBuilder(keyPrefix);
+                            for (Path name : source.relativize(file)) {
+                                if (key.length() > keyPrefix.length()) {
+                                    key.append('/');
+                                }
+                                key.append(name.toString());
+                            }
+                            try {
+                                transfer.submit(new Item(key.toString(), file, attributes.size()));
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return FileVisitResult.TERMINATE;
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        transfer.failures.put(file.toString(), e);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                transfer.failures.put(source.toString(), e);
+            }
+        });
+        return transfer.resultFuture;
+    }
+
+    static CompletableFuture<DirectoryTransferResult> download(S3NativeClient client, long partSizeBytes,
+                                                               String bucket, String prefix, Path destination,
+                                                               DirectoryTransferOptions options) {
+        final DirectoryTransfer transfer = new DirectoryTransfer(client, false, bucket, partSizeBytes, options);
+        final String keyPrefix = normalizePrefix(prefix);
+        final Path root = destination.toAbsolutePath().normalize();
+        final List<ObjectSummary> page = new ArrayList<>();
+        final ObjectLister lister = new ObjectLister(client, ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(keyPrefix)
+                .build(), null, page::add);
+        transfer.start("s3-directory-download", () -> {
+            String continuationToken = null;
+            do {
+                page.clear();
+                try {
+                    continuationToken = lister.listPage(null, continuationToken).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    transfer.failures.put(keyPrefix, e.getCause());
+                    return;
+                }
+
+                for (ObjectSummary object : page) {
+                    if (object.getKey().endsWith("/")) {
+                        /* folder placeholder */
+                        continue;
+                    }
+                    Path path = root.resolve(object.getKey().substring(keyPrefix.length())).normalize();
+                    if (!path.startsWith(root) || path.equals(root)) {
+                        transfer.failures.put(object.getKey(),
+                                new IOException("Key does not map to a file under " + root));
+                        continue;
+                    }
+                    try {
+                        transfer.submit(new Item(object.getKey(), path, object.getSize()));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            } while (continuationToken != null);
+        });
+        return transfer.resultFuture;
+    }
+
+    /**
+     * Keys are the prefix joined to the relative path with '/', so "photos" and "photos/" are the same prefix.
+     */
+    private static String normalizePrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty() || prefix.endsWith("/")) {
+            return prefix == null ? "" : prefix;
+        }
+        return prefix + "/";
+    }
+
+    private void start(String threadName, Runnable producer) {
+        /* a dedicated thread, since admission blocks while the budget is used up */
+        Thread dispatcher = new Thread(() -> {
+            try {
+                producer.run();
+                if (!Thread.currentThread().isInterrupted()) {
+                    flushBatch();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                failures.put(bucket, e);
+            } finally {
+                release();
+            }
+        }, threadName);
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    private void submit(Item item) throws InterruptedException {
+        if (item.size > partSizeBytes) {
+            long parts = (item.size + partSizeBytes - 1) / partSizeBytes;
+            dispatch(Collections.singletonList(item), (int) Math.min(parts, maxConcurrency));
+            return;
+        }
+        if (!batch.isEmpty() && (batch.size() >= smallFileBatchSize || batchBytes + item.size > partSizeBytes)) {
+            flushBatch();
+        }
+        batch.add(item);
+        batchBytes += item.size;
+    }
+
+    private void flushBatch() throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Item> items = batch;
+        batch = new ArrayList<>();
+        batchBytes = 0;
+        dispatch(items, 1);
+    }
+
+    private void dispatch(List<Item> items, int weight) throws InterruptedException {
+        permits.acquire(weight);
+        pending.incrementAndGet();
+
+        CompletableFuture<?>[] transfers = new CompletableFuture<?>[items.size()];
+        for (int index = 0; index < items.size(); ++index) {
+            Item item = items.get(index);
+            transfers[index] = transfer(item).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    failures.put(item.key, ex instanceof CompletionException && ex.getCause() != null
+                            ? ex.getCause() : ex);
+                } else {
+                    filesTransferred.incrementAndGet();
+                    bytesTransferred.addAndGet(item.size);
+                }
+            });
+        }
+        CompletableFuture.allOf(transfers).whenComplete((result, ex) -> {
+            permits.release(weight);
+            release();
+        });
+    }
+
+    private CompletableFuture<?> transfer(Item item) {
+        try {
+            if (upload) {
+                return client.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(item.key)
+                        .contentLength(item.size)
+                        .build(), item.path);
+            }
+            Files.createDirectories(item.path.getParent());
+            return client.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(item.key)
+                    .build(), item.path);
+        } catch (IOException | RuntimeException e) {
+            CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() == 0) {
+            resultFuture.complete(new DirectoryTransferResult(filesTransferred.get(), bytesTransferred.get(),
+                    failures));
+        }
+    }
+}
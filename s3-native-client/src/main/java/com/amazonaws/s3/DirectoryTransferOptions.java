@@ -0,0 +1,53 @@
+package com.amazonaws.s3;
+
+/**
+ * Tuning for {@link S3NativeClient#uploadDirectory} and {@link S3NativeClient#downloadDirectory}
+ */
+public class DirectoryTransferOptions {
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+    public static final int DEFAULT_SMALL_FILE_BATCH_SIZE = 32;
+
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int smallFileBatchSize = DEFAULT_SMALL_FILE_BATCH_SIZE;
+
+    public DirectoryTransferOptions() {
+    }
+
+    /**
+     * Limits the work in flight across all files, in units of one part: a file of N parts takes N units (at most
+     * all of them), and a batch of small files whose total fits in one part takes one.
+     *
+     * @param maxConcurrency units of work allowed in flight at once
+     * @return this
+     */
+    public DirectoryTransferOptions withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Files no larger than one part are grouped into batches of up to this many files, sent together as one unit of
+     * concurrency, so that per-request latency rather than bandwidth sets the pace for trees of many tiny files.
+     *
+     * @param smallFileBatchSize most files in one batch; 1 sends every file as its own unit
+     * @return this
+     */
+    public DirectoryTransferOptions withSmallFileBatchSize(int smallFileBatchSize) {
+        if (smallFileBatchSize <= 0) {
+            throw new IllegalArgumentException("smallFileBatchSize must be positive");
+        }
+        this.smallFileBatchSize = smallFileBatchSize;
+        return this;
+    }
+
+    public int getSmallFileBatchSize() {
+        return smallFileBatchSize;
+    }
+}
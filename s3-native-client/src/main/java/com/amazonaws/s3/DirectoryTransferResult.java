@@ -0,0 +1,46 @@
+package com.amazonaws.s3;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a directory upload or download. Files that failed do not stop the others; they are listed in
+ * {@link #getFailures()}.
+ */
+public class DirectoryTransferResult {
+    private final long filesTransferred;
+    private final long bytesTransferred;
+    private final Map<String, Throwable> failures;
+
+    DirectoryTransferResult(long filesTransferred, long bytesTransferred, Map<String, Throwable> failures) {
+        this.filesTransferred = filesTransferred;
+        this.bytesTransferred = bytesTransferred;
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public long getFilesTransferred() {
+        return filesTransferred;
+    }
+
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * @return cause of failure by object key. A failure to walk the directory or list the prefix is reported under
+     *         the directory path or prefix.
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DirectoryTransferResult{filesTransferred=%d, bytesTransferred=%d, failures=%d}",
+                filesTransferred, bytesTransferred, failures.size());
+    }
+}
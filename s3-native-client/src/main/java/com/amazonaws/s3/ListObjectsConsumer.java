@@ -0,0 +1,21 @@
+package com.amazonaws.s3;
+
+/**
+ * Receives the results of a listing as each page's XML is parsed, without holding whole pages in memory.
+ * Sharded listings call it from several threads at once.
+ */
+public interface ListObjectsConsumer extends OperationHandler {
+    /**
+     * Called once per object, in key order within a shard.
+     *
+     * @param object key, size and metadata of the object
+     */
+    public void onObject(ObjectSummary object);
+
+    /**
+     * Called once per common prefix when the request has a delimiter.
+     *
+     * @param commonPrefix keys up to and including the delimiter
+     */
+    default void onCommonPrefix(String commonPrefix) { }
+}
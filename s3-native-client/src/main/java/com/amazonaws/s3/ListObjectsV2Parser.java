@@ -0,0 +1,142 @@
+package com.amazonaws.s3;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for one ListObjectsV2 response page requested with encoding-type=url. Body chunks are fed in as
+ * they arrive; each Contents or CommonPrefixes element is published as soon as its closing tag has been seen and
+ * then dropped, so memory stays bounded by one element rather than the page. The remaining top-level fields are
+ * read once the page is finished.
+ */
+final class ListObjectsV2Parser {
+    private static final byte[] CONTENTS_OPEN = "<Contents>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONTENTS_CLOSE = "</Contents>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PREFIXES_OPEN = "<CommonPrefixes>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PREFIXES_CLOSE = "</CommonPrefixes>".getBytes(StandardCharsets.US_ASCII);
+
+    private final Consumer<ObjectSummary> objectConsumer;
+    private final Consumer<String> commonPrefixConsumer;
+
+    /* bytes not yet parsed, starting at a tag boundary */
+    private byte[] pending = new byte[64 * 1024];
+    private int pendingLength = 0;
+    /* everything outside Contents and CommonPrefixes, which is small */
+    private final StringBuilder topLevel = new StringBuilder();
+
+    private boolean truncated;
+    private String nextContinuationToken;
+
+    ListObjectsV2Parser(Consumer<ObjectSummary> objectConsumer, Consumer<String> commonPrefixConsumer) {
+        this.objectConsumer = objectConsumer;
+        this.commonPrefixConsumer = commonPrefixConsumer;
+    }
+
+    void feed(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        chunk.get(pending, pendingLength, length);
+        pendingLength += length;
+        drain();
+    }
+
+    /**
+     * Parses the top-level fields after the last chunk.
+     */
+    void finish() {
+        drain();
+        topLevel.append(new String(pending, 0, pendingLength, StandardCharsets.UTF_8));
+        pendingLength = 0;
+        String document = topLevel.toString();
+        truncated = "true".equals(S3NativeClient.xmlElement(document, "IsTruncated"));
+        nextContinuationToken = S3NativeClient.xmlElement(document, "NextContinuationToken");
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    String getNextContinuationToken() {
+        return nextContinuationToken;
+    }
+
+    private void drain() {
+        int start = 0;
+        while (true) {
+            int contents = indexOf(CONTENTS_OPEN, start);
+            int prefixes = indexOf(PREFIXES_OPEN, start);
+            boolean isContents = contents >= 0 && (prefixes < 0 || contents < prefixes);
+            int open = isContents ? contents : prefixes;
+            if (open < 0) {
+                /* keep a possibly incomplete tag at the end for the next chunk */
+                int lastTag = lastIndexOf((byte) '<', start);
+                int keep = lastTag >= 0 ? lastTag : pendingLength;
+                topLevel.append(new String(pending, start, keep - start, StandardCharsets.UTF_8));
+                start = keep;
+                break;
+            }
+            byte[] closeTag = isContents ? CONTENTS_CLOSE : PREFIXES_CLOSE;
+            int close = indexOf(closeTag, open);
+            topLevel.append(new String(pending, start, open - start, StandardCharsets.UTF_8));
+            if (close < 0) {
+                start = open;
+                break;
+            }
+            String element = new String(pending, open, close - open, StandardCharsets.UTF_8);
+            if (isContents) {
+                objectConsumer.accept(parseObject(element));
+            } else {
+                commonPrefixConsumer.accept(urlDecode(S3NativeClient.xmlElement(element, "Prefix")));
+            }
+            start = close + closeTag.length;
+        }
+        System.arraycopy(pending, start, pending, 0, pendingLength - start);
+        pendingLength -= start;
+    }
+
+    private static ObjectSummary parseObject(String element) {
+        String lastModified = S3NativeClient.xmlElement(element, "LastModified");
+        return new ObjectSummary(urlDecode(S3NativeClient.xmlElement(element, "Key")),
+                Long.parseLong(S3NativeClient.xmlElement(element, "Size")),
+                S3NativeClient.xmlElement(element, "ETag"),
+                lastModified != null ? Instant.parse(lastModified) : null,
+                S3NativeClient.xmlElement(element, "StorageClass"));
+    }
+
+    private static String urlDecode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int indexOf(byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= pendingLength - pattern.length; ++i) {
+            for (int j = 0; j < pattern.length; ++j) {
+                if (pending[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private int lastIndexOf(byte value, int from) {
+        for (int i = pendingLength - 1; i >= from; --i) {
+            if (pending[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,334 @@
+package com.amazonaws.s3;
+
+import com.amazonaws.s3.model.CopyObjectOutput;
+import com.amazonaws.s3.model.CopyObjectRequest;
+import com.amazonaws.s3.model.CopyObjectResult;
+import com.amazonaws.s3.model.MetadataDirective;
+import com.amazonaws.s3.model.RequestCharged;
+import com.amazonaws.s3.model.ServerSideEncryption;
+import software.amazon.awssdk.crt.CrtRuntimeException;
+import software.amazon.awssdk.crt.http.HttpHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Server-side copy of one object. The source is inspected with a HEAD; an object that fits in one part is copied
+ * with a single CopyObject, anything larger with CreateMultipartUpload, UploadPartCopy for every part (up to
+ * maxConcurrentParts at a time) and CompleteMultipartUpload. Each part is pinned to the source ETag seen by the
+ * HEAD, so a source overwritten mid-copy fails the copy instead of mixing versions. No object bytes pass through
+ * the client. A failed multipart copy is aborted.
+ */
+final class MultipartCopy {
+    /* S3's limits for UploadPartCopy */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_PART_COUNT = 10000;
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    private final S3NativeClient client;
+    private final CopyObjectRequest request;
+    private final long partSizeBytes;
+    private final int maxConcurrentParts;
+    private final String objectPath;
+    private final String sourceBucket;
+    private final String sourcePath;
+
+    private final CompletableFuture<CopyObjectOutput> resultFuture = new CompletableFuture<>();
+
+    /* guarded by this */
+    private String uploadId;
+    private long sourceLength;
+    private long partSize;
+    private int partCount;
+    private int nextPart = 1;
+    private int partsCompleted = 0;
+    private String[] partETags;
+    private boolean failed = false;
+
+    private MultipartCopy(S3NativeClient client, CopyObjectRequest request, long partSizeBytes,
+                          int maxConcurrentParts) {
+        this.client = client;
+        this.request = request;
+        this.partSizeBytes = partSizeBytes;
+        this.maxConcurrentParts = maxConcurrentParts;
+        this.objectPath = "/" + request.key();
+
+        /* copySource is "bucket/key[?versionId=...]", already url-encoded */
+        String copySource = request.copySource().startsWith("/")
+                ? request.copySource().substring(1) : request.copySource();
+        int slash = copySource.indexOf('/');
+        if (slash <= 0 || slash == copySource.length() - 1) {
+            throw new IllegalArgumentException("copySource must be bucket/key, got " + request.copySource());
+        }
+        this.sourceBucket = copySource.substring(0, slash);
+        this.sourcePath = copySource.substring(slash);
+    }
+
+    static CompletableFuture<CopyObjectOutput> copy(S3NativeClient client, CopyObjectRequest request,
+                                                    long partSizeBytes, int maxConcurrentParts) {
+        MultipartCopy copy = new MultipartCopy(client, request, partSizeBytes, maxConcurrentParts);
+        copy.start();
+        return copy.resultFuture;
+    }
+
+    private void start() {
+        List<HttpHeader> headers = new ArrayList<>();
+        /* the source's SSE-C key, if any, is needed to read its metadata */
+        if (request.copySourceSSECustomerAlgorithm() != null) {
+            headers.add(new HttpHeader("x-amz-server-side-encryption-customer-algorithm",
+                    request.copySourceSSECustomerAlgorithm()));
+        }
+        if (request.copySourceSSECustomerKey() != null) {
+            headers.add(new HttpHeader("x-amz-server-side-encryption-customer-key",
+                    request.copySourceSSECustomerKey()));
+        }
+        if (request.expectedSourceBucketOwner() != null) {
+            headers.add(new HttpHeader("x-amz-expected-bucket-owner", request.expectedSourceBucketOwner()));
+        }
+        /* the copy-source preconditions are checked once here; the parts are then pinned to the ETag seen */
+        if (request.copySourceIfMatch() != null) {
+            headers.add(new HttpHeader("If-Match", request.copySourceIfMatch()));
+        }
+        if (request.copySourceIfNoneMatch() != null) {
+            headers.add(new HttpHeader("If-None-Match", request.copySourceIfNoneMatch()));
+        }
+        if (request.copySourceIfModifiedSince() != null) {
+            headers.add(new HttpHeader("If-Modified-Since",
+                    HTTP_DATE.format(request.copySourceIfModifiedSince())));
+        }
+        if (request.copySourceIfUnmodifiedSince() != null) {
+            headers.add(new HttpHeader("If-Unmodified-Since",
+                    HTTP_DATE.format(request.copySourceIfUnmodifiedSince())));
+        }
+        if (request.requestPayer() != null) {
+            headers.add(new HttpHeader("x-amz-request-payer", request.requestPayer().name()));
+        }
+
+        client.executeRequest("HEAD", sourceBucket, sourcePath, headers, null).whenComplete((head, ex) -> {
+            if (ex != null) {
+                fail(ex);
+                return;
+            }
+            String contentLength = head.getHeader("Content-Length");
+            String eTag = head.getHeader("ETag");
+            if (contentLength == null || eTag == null) {
+                fail(new CrtRuntimeException("HEAD of copy source returned no Content-Length or ETag"));
+                return;
+            }
+
+            long length = Long.parseLong(contentLength);
+            if (length <= partSizeBytes) {
+                copyInOneRequest();
+            } else {
+                createMultipartUpload(head, length, eTag);
+            }
+        });
+    }
+
+    private void copyInOneRequest() {
+        List<HttpHeader> headers = new ArrayList<>();
+        client.populateCopyObjectRequestHeaders(headers::add, request);
+        client.executeRequest("PUT", request.bucket(), objectPath, headers, null).whenComplete((response, ex) -> {
+            if (ex != null) {
+                fail(ex);
+            } else if (response.getBodyAsString().contains("<Error>")) {
+                /* CopyObject can fail with a 200 status and an error document */
+                fail(S3NativeClient.toS3Exception(response));
+            } else {
+                finish(response, S3NativeClient.xmlElement(response.getBodyAsString(), "ETag"));
+            }
+        });
+    }
+
+    private void createMultipartUpload(S3Response head, long length, String sourceETag) {
+        List<HttpHeader> headers = new ArrayList<>();
+        client.populateCopyObjectRequestHeaders(header -> {
+            /* CreateMultipartUpload takes the destination's settings, but none of the copy-specific headers */
+            String name = header.getName().toLowerCase();
+            if (!name.startsWith("x-amz-copy-source") && !name.equals("x-amz-metadata-directive")
+                    && !name.equals("x-amz-tagging-directive")) {
+                headers.add(header);
+            }
+        }, request);
+        if (request.metadataDirective() != MetadataDirective.REPLACE) {
+            /* a single CopyObject copies metadata by default; a multipart copy has to carry it over itself */
+            for (HttpHeader header : head.getHeaders()) {
+                String name = header.getName().toLowerCase();
+                if (name.startsWith("x-amz-meta-") || (isContentHeader(name) && !hasHeader(headers, name))) {
+                    headers.add(header);
+                }
+            }
+        }
+
+        client.executeRequest("POST", request.bucket(), objectPath + "?uploads", headers, null)
+                .whenComplete((response, ex) -> {
+                    if (ex != null) {
+                        fail(ex);
+                        return;
+                    }
+                    String id = S3NativeClient.xmlElement(response.getBodyAsString(), "UploadId");
+                    if (id == null) {
+                        fail(new CrtRuntimeException("CreateMultipartUpload returned no UploadId"));
+                        return;
+                    }
+
+                    int partsToStart;
+                    synchronized (this) {
+                        uploadId = id;
+                        sourceLength = length;
+                        partSize = Math.max(Math.max(partSizeBytes, MIN_PART_SIZE),
+                                (length + MAX_PART_COUNT - 1) / MAX_PART_COUNT);
+                        partCount = (int) ((length + partSize - 1) / partSize);
+                        partETags = new String[partCount];
+                        partsToStart = Math.min(maxConcurrentParts, partCount);
+                    }
+                    for (int i = 0; i < partsToStart; ++i) {
+                        copyNextPart(sourceETag);
+                    }
+                });
+    }
+
+    private void copyNextPart(String sourceETag) {
+        final int partNumber;
+        final long rangeStart;
+        final long rangeEnd;
+        synchronized (this) {
+            if (failed || nextPart > partCount) {
+                return;
+            }
+            partNumber = nextPart++;
+            rangeStart = (partNumber - 1) * partSize;
+            rangeEnd = Math.min(rangeStart + partSize, sourceLength) - 1;
+        }
+
+        List<HttpHeader> headers = new ArrayList<>();
+        client.populateCopyObjectRequestHeaders(header -> {
+            /* UploadPartCopy takes the copy source settings and the destination's SSE-C key only */
+            String name = header.getName().toLowerCase();
+            if ((name.startsWith("x-amz-copy-source") && !name.startsWith("x-amz-copy-source-if-"))
+                    || name.startsWith("x-amz-server-side-encryption-customer-")
+                    || name.equals("x-amz-request-payer") || name.endsWith("expected-bucket-owner")) {
+                headers.add(header);
+            }
+        }, request);
+        headers.add(new HttpHeader("x-amz-copy-source-range", "bytes=" + rangeStart + "-" + rangeEnd));
+        headers.add(new HttpHeader("x-amz-copy-source-if-match", sourceETag));
+
+        String path = String.format("%s?partNumber=%d&uploadId=%s", objectPath, partNumber,
+                S3NativeClient.uriEncode(uploadId));
+        client.executeRequest("PUT", request.bucket(), path, headers, null).whenComplete((response, ex) -> {
+            if (ex != null) {
+                fail(ex);
+                return;
+            }
+            String document = response.getBodyAsString();
+            String eTag = S3NativeClient.xmlElement(document, "ETag");
+            if (document.contains("<Error>") || eTag == null) {
+                fail(S3NativeClient.toS3Exception(response));
+                return;
+            }
+
+            boolean complete;
+            synchronized (this) {
+                partETags[partNumber - 1] = eTag;
+                complete = ++partsCompleted == partCount;
+            }
+            if (complete) {
+                completeMultipartUpload();
+            } else {
+                copyNextPart(sourceETag);
+            }
+        });
+    }
+
+    private void completeMultipartUpload() {
+        StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+        for (int i = 0; i < partETags.length; ++i) {
+            xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                    .append(S3NativeClient.xmlEscape(partETags[i])).append("</ETag></Part>");
+        }
+        xml.append("</CompleteMultipartUpload>");
+
+        List<HttpHeader> headers = new ArrayList<>();
+        if (request.requestPayer() != null) {
+            headers.add(new HttpHeader("x-amz-request-payer", request.requestPayer().name()));
+        }
+        if (request.expectedBucketOwner() != null) {
+            headers.add(new HttpHeader("x-amz-expected-bucket-owner", request.expectedBucketOwner()));
+        }
+        String path = objectPath + "?uploadId=" + S3NativeClient.uriEncode(uploadId);
+        client.executeRequest("POST", request.bucket(), path, headers,
+                xml.toString().getBytes(StandardCharsets.UTF_8)).whenComplete((response, ex) -> {
+                    if (ex != null) {
+                        fail(ex);
+                    } else if (response.getBodyAsString().contains("<Error>")) {
+                        /* CompleteMultipartUpload can fail with a 200 status and an error document */
+                        fail(S3NativeClient.toS3Exception(response));
+                    } else {
+                        finish(response, S3NativeClient.xmlElement(response.getBodyAsString(), "ETag"));
+                    }
+                });
+    }
+
+    private void finish(S3Response response, String eTag) {
+        String lastModified = S3NativeClient.xmlElement(response.getBodyAsString(), "LastModified");
+        CopyObjectOutput.Builder output = CopyObjectOutput.builder()
+                .copyObjectResult(CopyObjectResult.builder()
+                        .eTag(eTag)
+                        .lastModified(lastModified != null ? Instant.parse(lastModified) : null)
+                        .build())
+                .expiration(response.getHeader("x-amz-expiration"))
+                .copySourceVersionId(response.getHeader("x-amz-copy-source-version-id"))
+                .versionId(response.getHeader("x-amz-version-id"))
+                .sSEKMSKeyId(response.getHeader("x-amz-server-side-encryption-aws-kms-key-id"));
+        if (response.getHeader("x-amz-server-side-encryption") != null) {
+            output.serverSideEncryption(ServerSideEncryption.fromValue(
+                    response.getHeader("x-amz-server-side-encryption")));
+        }
+        if (response.getHeader("x-amz-request-charged") != null) {
+            output.requestCharged(RequestCharged.fromValue(response.getHeader("x-amz-request-charged")));
+        }
+        resultFuture.complete(output.build());
+    }
+
+    private void fail(Throwable ex) {
+        String abortUploadId;
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            abortUploadId = uploadId;
+        }
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (abortUploadId == null) {
+            resultFuture.completeExceptionally(cause);
+            return;
+        }
+        /* report the failure once the parts already copied have been discarded */
+        client.executeRequest("DELETE", request.bucket(),
+                objectPath + "?uploadId=" + S3NativeClient.uriEncode(abortUploadId), Collections.emptyList(), null)
+                .whenComplete((response, abortEx) -> resultFuture.completeExceptionally(cause));
+    }
+
+    private static boolean isContentHeader(String name) {
+        return name.equals("content-type") || name.equals("content-encoding") || name.equals("content-language")
+                || name.equals("content-disposition") || name.equals("cache-control") || name.equals("expires");
+    }
+
+    private static boolean hasHeader(List<HttpHeader> headers, String name) {
+        for (HttpHeader header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
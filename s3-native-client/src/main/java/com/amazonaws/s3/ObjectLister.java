@@ -0,0 +1,160 @@
+package com.amazonaws.s3;
+
+import com.amazonaws.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.crt.CrtRuntimeException;
+import software.amazon.awssdk.crt.http.HttpHeader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pages through ListObjectsV2 for one shard of a keyspace: keys after startAfter up to and including endKey. Pages
+ * are requested one after another, each streamed through {@link ListObjectsV2Parser}, and paging stops early once
+ * the listing passes endKey.
+ */
+final class ObjectLister {
+    private final S3NativeClient client;
+    private final ListObjectsV2Request request;
+    private final String endKey;
+    private final ListObjectsConsumer consumer;
+    private final AtomicLong objectCount = new AtomicLong();
+    private volatile boolean passedEnd = false;
+
+    /**
+     * @param endKey last key of the shard, or null to list to the end
+     */
+    ObjectLister(S3NativeClient client, ListObjectsV2Request request, String endKey, ListObjectsConsumer consumer) {
+        this.client = client;
+        this.request = request;
+        this.endKey = endKey;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Lists the shards between consecutive boundaries in parallel, plus the shards before the first boundary and
+     * after the last. The consumer is finished or failed once, after every shard has stopped.
+     *
+     * @return future completing with the number of objects published
+     */
+    static CompletableFuture<Long> list(S3NativeClient client, ListObjectsV2Request request, List<String> boundaries,
+                                        ListObjectsConsumer consumer) {
+        List<String> starts = new ArrayList<>();
+        starts.add(request.startAfter());
+        List<String> sorted = new ArrayList<>(boundaries);
+        Collections.sort(sorted);
+        for (String boundary : sorted) {
+            String previous = starts.get(starts.size() - 1);
+            if (previous == null || boundary.compareTo(previous) > 0) {
+                starts.add(boundary);
+            }
+        }
+
+        final List<ObjectLister> listers = new ArrayList<>();
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final CompletableFuture<Long> resultFuture = new CompletableFuture<>();
+        final CompletableFuture<?>[] shards = new CompletableFuture<?>[starts.size()];
+        for (int index = 0; index < starts.size(); ++index) {
+            String startAfter = starts.get(index);
+            String endKey = index + 1 < starts.size() ? starts.get(index + 1) : null;
+            ObjectLister lister = new ObjectLister(client, request, endKey, consumer);
+            listers.add(lister);
+            /* a continuation token can only be given without boundaries, so it belongs to the only shard */
+            shards[index] = lister.listFrom(startAfter, request.continuationToken()).whenComplete((result, ex) -> {
+                if (ex != null && failed.compareAndSet(false, true)) {
+                    Throwable cause = unwrap(ex);
+                    try {
+                        consumer.onException(cause instanceof CrtRuntimeException ? (CrtRuntimeException) cause
+                                : new CrtRuntimeException(cause instanceof S3Exception
+                                        ? ((S3Exception) cause).message() : cause.toString()));
+                    } catch (Exception e) { /* ignore user callback exception */ }
+                }
+            });
+        }
+        CompletableFuture.allOf(shards).whenComplete((result, ex) -> {
+            if (ex != null) {
+                resultFuture.completeExceptionally(unwrap(ex));
+                return;
+            }
+            try {
+                consumer.onFinished();
+            } catch (Exception e) { /* ignore user callback exception */ }
+            resultFuture.complete(listers.stream().mapToLong(lister -> lister.objectCount.get()).sum());
+        });
+        return resultFuture;
+    }
+
+    private CompletableFuture<Void> listFrom(String startAfter, String continuationToken) {
+        return listPage(startAfter, continuationToken).thenCompose(nextContinuationToken ->
+                nextContinuationToken == null ? CompletableFuture.completedFuture(null)
+                        : listFrom(null, nextContinuationToken));
+    }
+
+    /**
+     * Lists one page, publishing its objects to the consumer as they are parsed.
+     *
+     * @return future completing with the token for the next page, or null if the shard is done
+     */
+    CompletableFuture<String> listPage(String startAfter, String continuationToken) {
+        final ListObjectsV2Parser parser = new ListObjectsV2Parser(object -> {
+            if (endKey != null && object.getKey().compareTo(endKey) > 0) {
+                passedEnd = true;
+            } else if (!passedEnd) {
+                objectCount.incrementAndGet();
+                consumer.onObject(object);
+            }
+        }, commonPrefix -> {
+            if (endKey != null && commonPrefix.compareTo(endKey) > 0) {
+                passedEnd = true;
+            } else if (!passedEnd) {
+                consumer.onCommonPrefix(commonPrefix);
+            }
+        });
+
+        List<HttpHeader> headers = new ArrayList<>();
+        if (request.requestPayer() != null) {
+            headers.add(new HttpHeader("x-amz-request-payer", request.requestPayer().name()));
+        }
+        if (request.expectedBucketOwner() != null) {
+            headers.add(new HttpHeader("x-amz-expected-bucket-owner", request.expectedBucketOwner()));
+        }
+
+        return client.executeRequest("GET", request.bucket(), buildQuery(startAfter, continuationToken), headers,
+                null, parser::feed).thenApply(response -> {
+                    parser.finish();
+                    return passedEnd || !parser.isTruncated() ? null : parser.getNextContinuationToken();
+                });
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private String buildQuery(String startAfter, String continuationToken) {
+        /* keys are always requested url-encoded, so control characters survive XML, and decoded for the consumer */
+        StringBuilder query = new StringBuilder("/?list-type=2&encoding-type=url");
+        if (continuationToken != null) {
+            query.append("&continuation-token=").append(S3NativeClient.uriEncode(continuationToken));
+        }
+        if (request.delimiter() != null) {
+            query.append("&delimiter=").append(S3NativeClient.uriEncode(request.delimiter()));
+        }
+        if (Boolean.TRUE.equals(request.fetchOwner())) {
+            query.append("&fetch-owner=true");
+        }
+        if (request.maxKeys() != null) {
+            query.append("&max-keys=").append(request.maxKeys());
+        }
+        if (request.prefix() != null) {
+            query.append("&prefix=").append(S3NativeClient.uriEncode(request.prefix()));
+        }
+        if (startAfter != null && continuationToken == null) {
+            query.append("&start-after=").append(S3NativeClient.uriEncode(startAfter));
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.amazonaws.s3;
+
+import java.time.Instant;
+
+/**
+ * One object in a listing. Unlike the generated model's Object, the size is a long.
+ */
+public final class ObjectSummary {
+    private final String key;
+    private final long size;
+    private final String eTag;
+    private final Instant lastModified;
+    private final String storageClass;
+
+    ObjectSummary(String key, long size, String eTag, Instant lastModified, String storageClass) {
+        this.key = key;
+        this.size = size;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.storageClass = storageClass;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public String getStorageClass() {
+        return storageClass;
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectSummary{key=" + key + ", size=" + size + "}";
+    }
+}
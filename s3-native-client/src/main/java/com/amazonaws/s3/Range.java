@@ -0,0 +1,66 @@
+package com.amazonaws.s3;
+
+/**
+ * Contiguous span of bytes within an object, for {@link S3NativeClient#readRanges}
+ */
+public final class Range {
+    private final long offset;
+    private final long length;
+
+    private Range(final long offset, final long length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @param offset position in the object of the first byte
+     * @param length number of bytes
+     * @return the range [offset, offset + length)
+     */
+    public static Range of(final long offset, final long length) {
+        return new Range(offset, length);
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return position in the object one past the last byte
+     */
+    public long getEnd() {
+        return offset + length;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Range)) {
+            return false;
+        }
+        Range range = (Range) other;
+        return offset == range.offset && length == range.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(offset) * 31 + Long.hashCode(length);
+    }
+
+    @Override
+    public String toString() {
+        return "bytes=" + offset + "-" + (getEnd() - 1);
+    }
+}
@@ -1,5 +1,6 @@
 package com.amazonaws.s3;
 
+import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 
 /**
@@ -16,6 +17,22 @@ public interface ResponseDataConsumer extends Consumer<byte[]>, OperationHandler
      */
     public void onResponseData(byte[] bodyBytesIn);
 
+    /**
+     * Called multiple times until there are no more response body bytes, with the bytes still in native memory and
+     * their position within the object. Override this to write parts straight to a FileChannel or off-heap arena at
+     * objectRangeStart; the default copies the bytes and calls {@link #onResponseData(byte[])}.
+     * Parts may arrive on different threads. bodyBytesIn must not be retained after this call returns.
+     *
+     * @param bodyBytesIn the next sequence of bytes, from position to limit
+     * @param objectRangeStart offset in the object of the first byte in bodyBytesIn
+     * @param objectRangeEnd offset in the object one past the last byte in bodyBytesIn
+     */
+    default void onResponseData(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+        byte[] bytes = new byte[bodyBytesIn.remaining()];
+        bodyBytesIn.get(bytes);
+        onResponseData(bytes);
+    }
+
     /**
      * Invoked when the transfer has completed normally
      */
@@ -5,40 +5,354 @@ import software.amazon.awssdk.crt.CRT;
 import software.amazon.awssdk.crt.CrtRuntimeException;
 import software.amazon.awssdk.crt.auth.credentials.CredentialsProvider;
 import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpHeaders;
 import software.amazon.awssdk.crt.http.HttpRequest;
 import software.amazon.awssdk.crt.http.HttpRequestBodyStream;
 import software.amazon.awssdk.crt.io.ClientBootstrap;
 import software.amazon.awssdk.crt.s3.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class S3NativeClient implements  AutoCloseable {
+    private static final int CACHE_REPLAY_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Largest gap between two ranges passed to {@link #readRanges} that is fetched rather than split into two GETs.
+     * Roughly the bytes a connection delivers in the time a new request takes to start returning data.
+     */
+    public static final long DEFAULT_RANGE_COALESCE_GAP_BYTES = 128 * 1024;
+
+    /**
+     * Parts of one {@link #copyObject} copied at once. A part copy moves no bytes through the client, so this only
+     * bounds the requests one copy keeps open.
+     */
+    public static final int DEFAULT_COPY_CONCURRENT_PARTS = 16;
+
+    /* Response header naming the region of the bucket, sent on wrong-region errors */
+    private static final String BUCKET_REGION_HEADER = "x-amz-bucket-region";
+
+    /* Clients kept for regions other than the signing region; the least recently used one is closed past this */
+    private static final int MAX_REGION_CLIENTS = 4;
+
     private final S3Client s3Client;
     private final String signingRegion;
+    private final long partSizeBytes;
+    private final S3RangeCache rangeCache;
+
+    /* Kept to create a client for each further region, since a native client signs for a single region */
+    private final ClientBootstrap clientBootstrap;
+    private final CredentialsProvider credentialsProvider;
+    private final double targetThroughputGbps;
+    /* Least recently used first. Guarded by itself, along with evictedClients and closed. */
+    private final Map<String, RegionClient> regionClients = new LinkedHashMap<>(16, 0.75f, true);
+    /* Evicted from regionClients while requests were still using them, closed once the last one is done */
+    private final Set<RegionClient> evictedClients = new HashSet<>();
+    private boolean closed = false;
+    private final RegionClient signingRegionClient;
+
+    /* Region of every bucket a wrong-region response has named so far */
+    private final ConcurrentHashMap<String, String> bucketRegions = new ConcurrentHashMap<>();
+
+    /**
+     * A client signing for one region, with the number of requests and channels using it
+     */
+    private static class RegionClient {
+        final S3Client client;
+        /* Guarded by regionClients */
+        int users = 0;
+        boolean evicted = false;
+
+        RegionClient(final S3Client client) {
+            this.client = client;
+        }
+    }
 
     public S3NativeClient(final String signingRegion,
                           final ClientBootstrap clientBootstrap,
                           final CredentialsProvider credentialsProvider,
                           final long partSizeBytes,
                           final double targetThroughputGbps) {
-        //keep signing region to construct Host header per-request
+        this(signingRegion, clientBootstrap, credentialsProvider, partSizeBytes, targetThroughputGbps, null);
+    }
+
+    /**
+     * Buckets may live in any region. Requests to a bucket go to the signing region until S3 answers one of them
+     * with a wrong-region error, whose x-amz-bucket-region header names the bucket's region. That request is sent
+     * again to that region, on a client signing for it, and so are later requests to the bucket. At most
+     * {@link #MAX_REGION_CLIENTS} such clients are kept, the least recently used one being closed once it is idle.
+     *
+     * @param signingRegion region of the client's own connections, and of buckets whose region can't be learned
+     * @param rangeCache on-disk cache consulted by {@link #getObject(GetObjectRequest, ResponseDataConsumer)}, or
+     *                   null to always download
+     */
+    public S3NativeClient(final String signingRegion,
+                          final ClientBootstrap clientBootstrap,
+                          final CredentialsProvider credentialsProvider,
+                          final long partSizeBytes,
+                          final double targetThroughputGbps,
+                          final S3RangeCache rangeCache) {
         this.signingRegion = signingRegion;
+        this.partSizeBytes = partSizeBytes;
+        this.rangeCache = rangeCache;
+        this.clientBootstrap = clientBootstrap;
+        this.credentialsProvider = credentialsProvider;
+        this.targetThroughputGbps = targetThroughputGbps;
+        s3Client = createClient(signingRegion);
+        signingRegionClient = new RegionClient(s3Client);
+    }
+
+    private S3Client createClient(final String region) {
         final S3ClientOptions clientOptions = new S3ClientOptions()
                 .withClientBootstrap(clientBootstrap)
                 .withCredentialsProvider(credentialsProvider)
-                .withRegion(signingRegion)
+                .withRegion(region)
                 .withPartSize(partSizeBytes)
                 .withThroughputTargetGbps(targetThroughputGbps);
-        s3Client = new S3Client(clientOptions);
+        return new S3Client(clientOptions);
+    }
+
+    /**
+     * @return the client signing for region, created on first use. It must be handed back to
+     *         {@link #releaseClient} once the requests sent on it have shut down.
+     */
+    private RegionClient acquireClient(final String region) {
+        synchronized (regionClients) {
+            if (closed) {
+                throw new IllegalStateException("S3NativeClient has been closed");
+            }
+            RegionClient regionClient = region.equals(signingRegion) ? signingRegionClient : regionClients.get(region);
+            if (regionClient == null) {
+                regionClient = new RegionClient(createClient(region));
+                regionClients.put(region, regionClient);
+                evictRegionClients();
+            }
+            ++regionClient.users;
+            return regionClient;
+        }
+    }
+
+    private void releaseClient(final RegionClient regionClient) {
+        synchronized (regionClients) {
+            if (--regionClient.users == 0 && regionClient.evicted && evictedClients.remove(regionClient)) {
+                regionClient.client.close();
+            }
+        }
+    }
+
+    /* Must be called with regionClients locked */
+    private void evictRegionClients() {
+        Iterator<RegionClient> leastRecentlyUsed = regionClients.values().iterator();
+        while (regionClients.size() > MAX_REGION_CLIENTS) {
+            RegionClient regionClient = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            regionClient.evicted = true;
+            if (regionClient.users == 0) {
+                regionClient.client.close();
+            } else {
+                evictedClients.add(regionClient);
+            }
+        }
+    }
+
+    /**
+     * Makes a meta request on the client for region, which is held until the meta request has shut down.
+     *
+     * @return the meta request, or null if it could not be made
+     */
+    private S3MetaRequest makeMetaRequest(final String region, final S3MetaRequestOptions metaRequestOptions) {
+        final RegionClient regionClient = acquireClient(region);
+        final S3MetaRequest metaRequest;
+        try {
+            metaRequest = regionClient.client.makeMetaRequest(metaRequestOptions);
+        } catch (RuntimeException e) {
+            releaseClient(regionClient);
+            throw e;
+        }
+        if (metaRequest == null) {
+            releaseClient(regionClient);
+            return null;
+        }
+        metaRequest.getShutdownCompleteFuture().whenComplete((result, ex) -> releaseClient(regionClient));
+        return metaRequest;
+    }
+
+    private static String bucketHost(final String bucket, final String region) {
+        // TODO: additional logic needed for *special* partitions
+        return bucket + ".s3." + region + ".amazonaws.com";
+    }
+
+    /**
+     * @param bucket the bucket
+     * @return the region a wrong-region response has named for the bucket, or the signing region if none has
+     */
+    public String getBucketRegion(final String bucket) {
+        return bucketRegions.getOrDefault(bucket, signingRegion);
+    }
+
+    /**
+     * @return the region named by a wrong-region response to a request sent to region, or null for any other
+     *         response
+     */
+    private static String redirectRegion(final int statusCode, final String bucketRegion, final String region) {
+        return statusCode / 100 != 2 && bucketRegion != null && !bucketRegion.equals(region) ? bucketRegion : null;
+    }
+
+    /**
+     * Starts a meta request in the bucket's region and binds it to resultFuture. If S3 answers that the bucket lives
+     * in another region, that response is kept from the handler, the region is remembered, and the meta request is
+     * made again for the region S3 named.
+     *
+     * @param options builds the meta request options, including the response handler, for a region
+     */
+    private <T> CompletableFuture<T> startInBucketRegion(final String bucket, final CompletableFuture<T> resultFuture,
+                                                         final Function<String, S3MetaRequestOptions> options) {
+        startInRegion(getBucketRegion(bucket), bucket, resultFuture, options, true);
+        return resultFuture;
+    }
+
+    private <T> void startInRegion(final String region, final String bucket, final CompletableFuture<T> resultFuture,
+                                   final Function<String, S3MetaRequestOptions> options,
+                                   final boolean followRedirect) {
+        if (resultFuture.isDone()) {
+            return;
+        }
+        final S3MetaRequest metaRequest;
+        try {
+            final S3MetaRequestOptions metaRequestOptions = options.apply(region);
+            final S3MetaRequestResponseHandler handler = metaRequestOptions.getResponseHandler();
+            metaRequestOptions.withResponseHandler(new S3MetaRequestResponseHandler() {
+                /* set once S3 has named another region, after which nothing reaches the handler but the retry */
+                private volatile String learnedRegion;
+
+                @Override
+                public void onResponseHeaders(final int statusCode, final HttpHeaders headers) {
+                    learnedRegion = redirectRegion(statusCode, headers.get(BUCKET_REGION_HEADER), region);
+                    if (learnedRegion != null) {
+                        bucketRegions.put(bucket, learnedRegion);
+                        return;
+                    }
+                    handler.onResponseHeaders(statusCode, headers);
+                }
+
+                @Override
+                public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                    return learnedRegion != null ? 0
+                            : handler.onResponseBody(bodyBytesIn, objectRangeStart, objectRangeEnd);
+                }
+
+                @Override
+                public void onProgress(final S3MetaRequestProgress progress) {
+                    if (learnedRegion == null) {
+                        handler.onProgress(progress);
+                    }
+                }
+
+                @Override
+                public void onFinished(int errorCode, int responseStatus) {
+                    if (learnedRegion != null && followRedirect) {
+                        startInRegion(learnedRegion, bucket, resultFuture, options, false);
+                        return;
+                    }
+                    handler.onFinished(errorCode, responseStatus);
+                }
+            });
+            metaRequest = makeMetaRequest(region, metaRequestOptions);
+        } catch (RuntimeException e) {
+            resultFuture.completeExceptionally(e);
+            return;
+        }
+        if (metaRequest == null) {
+            resultFuture.completeExceptionally(new CrtRuntimeException("Could not start request to " + bucket));
+            return;
+        }
+        bindMetaRequest(resultFuture, metaRequest);
     }
 
     public CompletableFuture<GetObjectOutput> getObject(GetObjectRequest request,
                                                         final ResponseDataConsumer dataHandler) {
+        if (rangeCache != null && isCacheable(request)) {
+            return getCachedObject(request, dataHandler);
+        }
+        return getObject(request, dataHandler, null);
+    }
+
+    /**
+     * Downloads an object straight to a file. Parts are written natively at their offsets as they arrive, so no
+     * body bytes cross into Java. An existing file at destination is overwritten.
+     *
+     * @param request the GetObject request
+     * @param destination file to write the object to
+     * @return future completing with the response once the file has been fully written and closed
+     */
+    public CompletableFuture<GetObjectOutput> getObject(GetObjectRequest request, final Path destination) {
+        return getObject(request, new ResponseDataConsumer() {
+            @Override
+            public void onResponseData(byte[] bodyBytesIn) { }
+
+            @Override
+            public void onFinished() { }
+        }, destination);
+    }
+
+    /**
+     * Opens a read-only channel over an object for seek-heavy readers such as columnar formats. Reads are served
+     * from ranged GETs of {@link S3SeekableByteChannel#DEFAULT_BLOCK_SIZE} bytes, with read-ahead on sequential
+     * access. The request's range is ignored; its preconditions and SSE-C headers are sent with every GET.
+     *
+     * The channel's GETs don't follow wrong-region responses. They go to the region {@link #getBucketRegion} gives
+     * when the channel is opened.
+     *
+     * @param request the GetObject request
+     * @return channel positioned at the start of the object, to be closed by the caller
+     */
+    public S3SeekableByteChannel openSeekableChannel(GetObjectRequest request) {
+        final String region = getBucketRegion(request.bucket());
+        List<HttpHeader> headers = new LinkedList<>();
+        headers.add(new HttpHeader("Host", bucketHost(request.bucket(), region)));
+        populateGetObjectRequestHeaders(header -> {
+            if (!"Range".equalsIgnoreCase(header.getName())) {
+                headers.add(header);
+            }
+        }, request);
+        HttpRequest httpRequest = new HttpRequest("GET", "/" + request.key(),
+                headers.toArray(new HttpHeader[0]), null);
+
+        /* the region's client is held until the channel is closed */
+        final RegionClient regionClient = acquireClient(region);
+        try {
+            return new S3SeekableByteChannel(regionClient.client, httpRequest) {
+                @Override
+                public synchronized void close() {
+                    if (isOpen()) {
+                        super.close();
+                        releaseClient(regionClient);
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            releaseClient(regionClient);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<GetObjectOutput> getObject(GetObjectRequest request,
+                                                         final ResponseDataConsumer dataHandler,
+                                                         final Path destination) {
         final CompletableFuture<GetObjectOutput> resultFuture = new CompletableFuture<>();
         final GetObjectOutput.Builder resultBuilder = GetObjectOutput.builder();
         final S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
@@ -57,8 +371,8 @@ public class S3NativeClient implements  AutoCloseable {
             }
 
             @Override
-            public int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
-                dataHandler.onResponseData(bodyBytesIn);
+            public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                dataHandler.onResponseData(bodyBytesIn, objectRangeStart, objectRangeEnd);
                 return 0;
             }
 
@@ -84,34 +398,253 @@ public class S3NativeClient implements  AutoCloseable {
             }
         };
 
-        List<HttpHeader> headers = new LinkedList<>();
-        // TODO: additional logic needed for *special* partitions
-        headers.add(new HttpHeader("Host", request.bucket() + ".s3."+ signingRegion + ".amazonaws.com"));
-        populateGetObjectRequestHeaders(header -> headers.add(header), request);
         final StringBuilder keyString = new StringBuilder("/" + request.key());
         final Map<String, String> requestParams = new HashMap<>();
         if (request.partNumber() != null) {
             requestParams.put("PartNumber", Integer.toString(request.partNumber()));
         }
 
-        HttpRequest httpRequest = new HttpRequest("GET", keyString.toString(),
-                headers.toArray(new HttpHeader[0]), null);
+        return startInBucketRegion(request.bucket(), resultFuture, region -> {
+            List<HttpHeader> headers = new LinkedList<>();
+            headers.add(new HttpHeader("Host", bucketHost(request.bucket(), region)));
+            populateGetObjectRequestHeaders(header -> headers.add(header), request);
+            HttpRequest httpRequest = new HttpRequest("GET", keyString.toString(),
+                    headers.toArray(new HttpHeader[0]), null);
 
-        S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
-                .withMetaRequestType(S3MetaRequestOptions.MetaRequestType.GET_OBJECT)
-                .withHttpRequest(httpRequest)
-                .withResponseHandler(responseHandler);
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(S3MetaRequestOptions.MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withResponseFilePath(destination)
+                    .withResponseFilePreallocate(destination != null);
+            return metaRequestOptions;
+        });
+    }
 
-        try (final S3MetaRequest metaRequest = s3Client.makeMetaRequest(metaRequestOptions)) {
-            return resultFuture;
+    /**
+     * Requests that already carry preconditions or select a part are passed through, and SSE-C bodies are never
+     * written to disk.
+     */
+    private static boolean isCacheable(final GetObjectRequest request) {
+        return request.ifMatch() == null && request.ifNoneMatch() == null && request.ifModifiedSince() == null
+                && request.ifUnmodifiedSince() == null && request.partNumber() == null
+                && request.sSECustomerKey() == null;
+    }
+
+    /**
+     * Serves the body from the range cache when S3 confirms the cached ETag is current, otherwise downloads it and
+     * stores it for next time. Cached bodies are replayed on a pool thread with offsets relative to the start of
+     * the requested range.
+     */
+    private CompletableFuture<GetObjectOutput> getCachedObject(final GetObjectRequest request,
+                                                               final ResponseDataConsumer dataHandler) {
+        final String range = request.range() != null ? request.range() : "";
+        final boolean ranged = request.range() != null;
+        final S3RangeCache.Entry cached = rangeCache.lookup(request.bucket(), request.key(), range);
+        if (cached != null && rangeCache.isFresh(cached)) {
+            rangeCache.recordHit();
+            return replayCachedObject(cached, dataHandler);
+        }
+
+        final CompletableFuture<GetObjectOutput> resultFuture = new CompletableFuture<>();
+        final GetObjectOutput.Builder resultBuilder = GetObjectOutput.builder();
+        final S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+            private volatile S3RangeCache.Writer cacheWriter;
+            private volatile int responseStatus;
+            private volatile HttpHeader[] responseHeaders;
+            private volatile String eTag;
+            private long bytesWritten;
+
+            @Override
+            public void onResponseHeaders(final int statusCode, final HttpHeader[] headers) {
+                if (statusCode == 304) {
+                    /* the cached copy is current, its own headers are replayed instead */
+                    return;
+                }
+                synchronized (this) {
+                    if (cacheWriter == null && statusCode / 100 == 2) {
+                        responseStatus = statusCode;
+                        responseHeaders = headers;
+                        cacheWriter = rangeCache.begin(request.bucket(), request.key(), range);
+                    }
+                }
+                for (int headerIndex = 0; headerIndex < headers.length; ++headerIndex) {
+                    if ("ETag".equalsIgnoreCase(headers[headerIndex].getName())) {
+                        eTag = headers[headerIndex].getValue();
+                    }
+                    try {
+                        populateGetObjectOutputHeader(resultBuilder, headers[headerIndex]);
+                    } catch (Exception e) {
+                        resultFuture.completeExceptionally(
+                                new RuntimeException( String.format("Could not process response header {%s}: ",
+                                        headers[headerIndex].getName()), e));
+                    }
+                }
+                dataHandler.onResponseHeaders(statusCode, headers);
+            }
+
+            @Override
+            public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                S3RangeCache.Writer writer = cacheWriter;
+                if (writer != null) {
+                    long position;
+                    if (ranged) {
+                        /* a ranged GET is a single request, so its body arrives in order */
+                        position = bytesWritten;
+                        bytesWritten += bodyBytesIn.remaining();
+                    } else {
+                        position = objectRangeStart;
+                    }
+                    writer.write(bodyBytesIn.duplicate(), position);
+                }
+                dataHandler.onResponseData(bodyBytesIn, objectRangeStart, objectRangeEnd);
+                return 0;
+            }
+
+            @Override
+            public void onFinished(int errorCode, int responseStatus) {
+                S3RangeCache.Writer writer = cacheWriter;
+                if (cached != null && responseStatus == 304) {
+                    if (writer != null) {
+                        rangeCache.abort(writer);
+                    }
+                    rangeCache.markValidated(cached);
+                    rangeCache.recordHit();
+                    replayCachedObject(cached, dataHandler).whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            resultFuture.completeExceptionally(ex);
+                        } else {
+                            resultFuture.complete(result);
+                        }
+                    });
+                    return;
+                }
+
+                rangeCache.recordMiss();
+                if (writer != null) {
+                    if (errorCode == CRT.AWS_CRT_SUCCESS) {
+                        rangeCache.commit(writer, eTag, this.responseStatus, responseHeaders);
+                    } else {
+                        rangeCache.abort(writer);
+                    }
+                }
+                completeGetObject(errorCode, dataHandler, resultFuture, resultBuilder);
+            }
+        };
+
+        return startInBucketRegion(request.bucket(), resultFuture, region -> {
+            List<HttpHeader> headers = new LinkedList<>();
+            headers.add(new HttpHeader("Host", bucketHost(request.bucket(), region)));
+            populateGetObjectRequestHeaders(header -> headers.add(header), request);
+            if (cached != null) {
+                headers.add(new HttpHeader("If-None-Match", cached.getETag()));
+            }
+            HttpRequest httpRequest = new HttpRequest("GET", "/" + request.key(),
+                    headers.toArray(new HttpHeader[0]), null);
+
+            /* a ranged GET is sent as-is, so the range is fetched by one request and cached as one body */
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(S3MetaRequestOptions.MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withSmallObject(ranged);
+            return metaRequestOptions;
+        });
+    }
+
+    private CompletableFuture<GetObjectOutput> replayCachedObject(final S3RangeCache.Entry cached,
+                                                                  final ResponseDataConsumer dataHandler) {
+        return CompletableFuture.supplyAsync(() -> {
+            final GetObjectOutput.Builder resultBuilder = GetObjectOutput.builder();
+            for (HttpHeader header : cached.getHeaders()) {
+                populateGetObjectOutputHeader(resultBuilder, header);
+            }
+            dataHandler.onResponseHeaders(cached.getStatusCode(), cached.getHeaders());
+
+            try (FileChannel channel = rangeCache.open(cached)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(CACHE_REPLAY_BUFFER_SIZE,
+                        Math.max(1, cached.getSize())));
+                long position = 0;
+                while (position < cached.getSize()) {
+                    ((Buffer) buffer).clear();
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new EOFException("Cached body is shorter than recorded");
+                    }
+                    ((Buffer) buffer).flip();
+                    dataHandler.onResponseData(buffer, position, position + read);
+                    position += read;
+                }
+            } catch (IOException e) {
+                rangeCache.invalidate(cached);
+                CrtRuntimeException ex = new CrtRuntimeException(e.toString());
+                try {
+                    dataHandler.onException(ex);
+                } catch (Exception ignored) { /* ignore user callback exception */ }
+                throw new CompletionException(ex);
+            }
+
+            try {
+                dataHandler.onFinished();
+            } catch (Exception e) { /* ignore user callback exception */ }
+            return resultBuilder.build();
+        });
+    }
+
+    private static void completeGetObject(final int errorCode,
+                                          final ResponseDataConsumer dataHandler,
+                                          final CompletableFuture<GetObjectOutput> resultFuture,
+                                          final GetObjectOutput.Builder resultBuilder) {
+        CrtRuntimeException ex = null;
+        try {
+            if (errorCode != CRT.AWS_CRT_SUCCESS) {
+                ex = new CrtRuntimeException(errorCode);
+                dataHandler.onException(ex);
+            } else {
+                dataHandler.onFinished();
+            }
+        } catch (Exception e) { /* ignore user callback exception */
+        } finally {
+            if (ex != null) {
+                resultFuture.completeExceptionally(ex);
+            }
+            else {
+                resultFuture.complete(resultBuilder.build());
+            }
         }
     }
 
+    /**
+     * Uploads an object from a supplier. Without a content length on the request, the body is uploaded as it is
+     * supplied, one part at a time, and the upload is completed once the supplier reports the end of the data.
+     *
+     * @param request the PutObject request
+     * @param requestDataSupplier supplies the body
+     * @return future completing with the response once the upload has finished
+     */
     public CompletableFuture<PutObjectOutput> putObject(PutObjectRequest request,
                                                         final RequestDataSupplier requestDataSupplier) {
+        return putObject(request, requestDataSupplier, null);
+    }
+
+    /**
+     * Uploads an object straight from a file. Parts are read natively at their offsets, so no body bytes cross
+     * into Java. Content-Length defaults to the size of the file.
+     *
+     * @param request the PutObject request
+     * @param source file to upload
+     * @return future completing with the response once the upload has finished
+     */
+    public CompletableFuture<PutObjectOutput> putObject(PutObjectRequest request, final Path source) {
+        return putObject(request, buffer -> true, source);
+    }
+
+    private CompletableFuture<PutObjectOutput> putObject(PutObjectRequest request,
+                                                         final RequestDataSupplier requestDataSupplier,
+                                                         final Path source) {
         final CompletableFuture<PutObjectOutput> resultFuture = new CompletableFuture<>();
         final PutObjectOutput.Builder resultBuilder = PutObjectOutput.builder();
-        HttpRequestBodyStream payloadStream = new HttpRequestBodyStream() {
+        HttpRequestBodyStream payloadStream = (source != null) ? null : new HttpRequestBodyStream() {
             @Override
             public boolean sendRequestBody(final ByteBuffer outBuffer) {
                 try {
@@ -140,17 +673,11 @@ public class S3NativeClient implements  AutoCloseable {
 
             @Override
             public long getLength() {
-                return request.contentLength();
+                return request.contentLength() != null ? request.contentLength() : 0;
             }
         };
 
-        final List<HttpHeader> headers = new LinkedList<>();
-        //TODO: additional logic needed for *special* partitions
-        headers.add(new HttpHeader("Host", request.bucket() + ".s3." + signingRegion + ".amazonaws.com"));
-        populatePutObjectRequestHeaders(header -> headers.add(header), request);
         final StringBuilder keyString = new StringBuilder("/" + request.key());
-        HttpRequest httpRequest = new HttpRequest("PUT", keyString.toString(),
-                headers.toArray(new HttpHeader[0]), payloadStream);
 
         final S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
             @Override
@@ -181,18 +708,578 @@ public class S3NativeClient implements  AutoCloseable {
                 }
             }
         };
+        return startInBucketRegion(request.bucket(), resultFuture, region -> {
+            final List<HttpHeader> headers = new LinkedList<>();
+            headers.add(new HttpHeader("Host", bucketHost(request.bucket(), region)));
+            populatePutObjectRequestHeaders(header -> headers.add(header), request);
+            HttpRequest httpRequest = new HttpRequest("PUT", keyString.toString(),
+                    headers.toArray(new HttpHeader[0]), payloadStream);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(S3MetaRequestOptions.MetaRequestType.PUT_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withRequestFilePath(source)
+                    .withSmallObject(request.contentLength() != null && request.contentLength() <= partSizeBytes);
+            return metaRequestOptions;
+        });
+    }
+
+    /**
+     * Reads several byte ranges of one object, with ranges closer together than
+     * {@link #DEFAULT_RANGE_COALESCE_GAP_BYTES} fetched by the same GET.
+     *
+     * @see #readRanges(String, String, List, long)
+     */
+    public List<CompletableFuture<ByteBuffer>> readRanges(final String bucket, final String key,
+                                                          final List<Range> ranges) {
+        return readRanges(bucket, key, ranges, DEFAULT_RANGE_COALESCE_GAP_BYTES);
+    }
+
+    /**
+     * Reads several byte ranges of one object. Ranges are sorted and merged into one ranged GET while the gap to the
+     * next range is at most maxGapBytes and the merged span stays within the part size; the bytes in the gaps are
+     * downloaded and discarded. The merged GETs are issued in parallel, and each range's future completes as soon as
+     * the GET covering it has finished, with a buffer sliced out of that GET's body. Ranges running past the end of
+     * the object are truncated.
+     *
+     * Cancelling every future served by one GET cancels that GET.
+     *
+     * @param bucket the bucket
+     * @param key the object key
+     * @param ranges ranges to read, in any order and possibly overlapping
+     * @param maxGapBytes largest number of unrequested bytes between two ranges that are fetched together
+     * @return one future per range, in the order of ranges
+     */
+    public List<CompletableFuture<ByteBuffer>> readRanges(final String bucket, final String key,
+                                                          final List<Range> ranges, final long maxGapBytes) {
+        if (maxGapBytes < 0) {
+            throw new IllegalArgumentException("maxGapBytes must not be negative");
+        }
+        final List<CompletableFuture<ByteBuffer>> futures = new ArrayList<>(ranges.size());
+        for (int index = 0; index < ranges.size(); ++index) {
+            futures.add(new CompletableFuture<>());
+            if (ranges.get(index).getLength() == 0) {
+                futures.get(index).complete(ByteBuffer.allocate(0));
+            }
+        }
+
+        for (List<Integer> group : coalesceRanges(ranges, maxGapBytes, partSizeBytes)) {
+            long groupStart = ranges.get(group.get(0)).getOffset();
+            long groupEnd = 0;
+            for (int index : group) {
+                groupEnd = Math.max(groupEnd, ranges.get(index).getEnd());
+            }
+            readCoalescedRange(bucket, key, groupStart, groupEnd, group, ranges, futures);
+        }
+        return futures;
+    }
+
+    /**
+     * Groups ranges that are fetched by one GET. Empty ranges are left out.
+     *
+     * @return indexes into ranges, one list per GET, sorted by offset and with each list's first range starting
+     *         the GET
+     */
+    static List<List<Integer>> coalesceRanges(final List<Range> ranges, final long maxGapBytes,
+                                              final long maxSpanBytes) {
+        final List<Integer> order = new ArrayList<>(ranges.size());
+        for (int index = 0; index < ranges.size(); ++index) {
+            if (ranges.get(index).getLength() != 0) {
+                order.add(index);
+            }
+        }
+        order.sort(Comparator.comparingLong(index -> ranges.get(index).getOffset()));
+
+        final List<List<Integer>> groups = new ArrayList<>();
+        List<Integer> group = null;
+        long groupStart = 0;
+        long groupEnd = 0;
+        for (int index : order) {
+            Range range = ranges.get(index);
+            if (group != null && range.getOffset() - groupEnd <= maxGapBytes
+                    && Math.max(groupEnd, range.getEnd()) - groupStart <= maxSpanBytes) {
+                groupEnd = Math.max(groupEnd, range.getEnd());
+            } else {
+                group = new ArrayList<>();
+                groups.add(group);
+                groupStart = range.getOffset();
+                groupEnd = range.getEnd();
+            }
+            group.add(index);
+        }
+        return groups;
+    }
+
+    /**
+     * Fetches [start, end) with one GET and completes the futures of the ranges it covers.
+     */
+    private void readCoalescedRange(final String bucket, final String key, final long start, final long end,
+                                    final List<Integer> members, final List<Range> ranges,
+                                    final List<CompletableFuture<ByteBuffer>> futures) {
+        if (end - start > Integer.MAX_VALUE) {
+            IllegalArgumentException ex = new IllegalArgumentException("Range is too large to read into memory");
+            members.forEach(index -> futures.get(index).completeExceptionally(ex));
+            return;
+        }
+        final byte[] data = new byte[(int) (end - start)];
+        final CompletableFuture<Integer> getFuture = new CompletableFuture<>();
+        final S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+            /* object offset of the first body byte; 0 if the server ignored Range and sent the whole object */
+            private long bodyOffset = start;
+            private long bodyPosition = 0;
+            private int length = 0;
+
+            @Override
+            public void onResponseHeaders(final int statusCode, final HttpHeaders headers) {
+                if (statusCode == 200) {
+                    bodyOffset = 0;
+                }
+            }
+
+            @Override
+            public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                /* a single request, so the body arrives in order on one thread */
+                long chunkStart = bodyOffset + bodyPosition;
+                bodyPosition += bodyBytesIn.remaining();
+                long copyStart = Math.max(chunkStart, start);
+                long copyEnd = Math.min(chunkStart + bodyBytesIn.remaining(), end);
+                if (copyStart < copyEnd) {
+                    ((Buffer) bodyBytesIn).position(bodyBytesIn.position() + (int) (copyStart - chunkStart));
+                    bodyBytesIn.get(data, (int) (copyStart - start), (int) (copyEnd - copyStart));
+                    length = Math.max(length, (int) (copyEnd - start));
+                }
+                return 0;
+            }
+
+            @Override
+            public void onFinished(int errorCode) {
+                if (errorCode == CRT.AWS_CRT_SUCCESS) {
+                    getFuture.complete(length);
+                } else {
+                    getFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                }
+            }
+        };
+
+        startInBucketRegion(bucket, getFuture, region -> {
+            final List<HttpHeader> headers = new LinkedList<>();
+            headers.add(new HttpHeader("Host", bucketHost(bucket, region)));
+            headers.add(new HttpHeader("Range", "bytes=" + start + "-" + (end - 1)));
+            HttpRequest httpRequest = new HttpRequest("GET", "/" + key, headers.toArray(new HttpHeader[0]), null);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(S3MetaRequestOptions.MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withSmallObject(true);
+            return metaRequestOptions;
+        });
+
+        getFuture.whenComplete((length, ex) -> {
+            for (int index : members) {
+                if (ex != null) {
+                    futures.get(index).completeExceptionally(ex);
+                    continue;
+                }
+                Range range = ranges.get(index);
+                int offset = (int) (range.getOffset() - start);
+                int available = Math.max(0, Math.min((int) range.getLength(), length - offset));
+                futures.get(index).complete(ByteBuffer.wrap(data, offset, available).slice());
+            }
+        });
+        for (int index : members) {
+            futures.get(index).whenComplete((result, ex) -> {
+                if (members.stream().allMatch(member -> futures.get(member).isCancelled())) {
+                    getFuture.cancel(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies an object within S3 without downloading it. Objects no larger than the part size are copied with one
+     * CopyObject; larger ones with a multipart upload whose parts are copied server-side by UploadPartCopy,
+     * {@link #DEFAULT_COPY_CONCURRENT_PARTS} at a time over this client's connections. The source is read once
+     * with a HEAD to size the copy, and every part is conditional on the ETag that HEAD returned.
+     *
+     * Unless request.metadataDirective() is REPLACE, a multipart copy carries over the source's user metadata and
+     * content headers, as CopyObject does. Its tags are not carried over; pass them in request.tagging().
+     * copySource must be "bucket/key", optionally with "?versionId=".
+     *
+     * @param request the CopyObject request
+     * @return future completing once the destination object exists
+     */
+    public CompletableFuture<CopyObjectOutput> copyObject(final CopyObjectRequest request) {
+        return MultipartCopy.copy(this, request, partSizeBytes, DEFAULT_COPY_CONCURRENT_PARTS);
+    }
+
+    /**
+     * Lists the objects matching request, following continuation tokens, and publishes each object to the consumer
+     * as soon as its entry in the response has been parsed. Keys are always requested url-encoded and are decoded
+     * before they reach the consumer, so request.encodingType() is ignored.
+     *
+     * @param request bucket, prefix, delimiter, page size and starting point of the listing
+     * @param consumer receives objects and common prefixes, then onFinished or onException
+     * @return future completing with the number of objects published
+     */
+    public CompletableFuture<Long> listObjectsV2(final ListObjectsV2Request request,
+                                                 final ListObjectsConsumer consumer) {
+        return ObjectLister.list(this, request, Collections.emptyList(), consumer);
+    }
+
+    /**
+     * Lists the objects matching request as parallel shards split at the given keys: the first shard lists up to and
+     * including the first boundary, each later shard starts after one boundary and ends at the next, and the last
+     * runs to the end. Every shard pages independently, so a keyspace of N pages split into S even shards takes
+     * about N / S round trips. Objects arrive in key order within a shard but interleaved across shards, from
+     * several threads at once.
+     *
+     * Boundaries can come from {@link #prefixShardBoundaries(String, String)}, from a previous listing, or from
+     * any knowledge of how keys are distributed.
+     *
+     * @param request bucket, prefix, delimiter, page size and starting point of the listing. It must not carry a
+     *                continuation token.
+     * @param boundaries keys to split the listing at, in any order
+     * @param consumer receives objects and common prefixes, then onFinished or onException once all shards stop
+     * @return future completing with the number of objects published
+     */
+    public CompletableFuture<Long> listObjectsV2(final ListObjectsV2Request request, final List<String> boundaries,
+                                                 final ListObjectsConsumer consumer) {
+        if (request.continuationToken() != null && !boundaries.isEmpty()) {
+            throw new IllegalArgumentException("A sharded listing cannot resume from a continuation token");
+        }
+        return ObjectLister.list(this, request, boundaries, consumer);
+    }
+
+    /**
+     * Splits the keys under prefix by their next character, for a sharded
+     * {@link #listObjectsV2(ListObjectsV2Request, List, ListObjectsConsumer)}. With characters "0123456789abcdef"
+     * and hex-named keys this gives 16 even shards.
+     *
+     * @param prefix prefix shared by all keys being listed
+     * @param characters characters expected to follow the prefix
+     * @return the keys prefix + c for each character c, as shard boundaries
+     */
+    public static List<String> prefixShardBoundaries(final String prefix, final String characters) {
+        List<String> boundaries = new ArrayList<>();
+        for (int index = 0; index < characters.length(); ) {
+            int codePoint = characters.codePointAt(index);
+            boundaries.add(prefix + new String(Character.toChars(codePoint)));
+            index += Character.charCount(codePoint);
+        }
+        return boundaries;
+    }
+
+    /**
+     * Uploads every regular file under source with default {@link DirectoryTransferOptions}.
+     *
+     * @see #uploadDirectory(Path, String, String, DirectoryTransferOptions)
+     */
+    public CompletableFuture<DirectoryTransferResult> uploadDirectory(final Path source, final String bucket,
+                                                                      final String prefix) {
+        return uploadDirectory(source, bucket, prefix, new DirectoryTransferOptions());
+    }
+
+    /**
+     * Uploads every regular file under source to the object named by prefix, then the file's path relative to
+     * source with '/' separators. Files are fed to this client continuously under one concurrency limit; files
+     * larger than the part size are uploaded in parts. A file that fails does not stop the others.
+     *
+     * @param source root of the tree to upload
+     * @param bucket destination bucket
+     * @param prefix key prefix; a trailing '/' is added if missing, and "" uploads to the bucket root
+     * @param options concurrency limit and small-file batching
+     * @return future completing once every file has been attempted, with the failures by key
+     */
+    public CompletableFuture<DirectoryTransferResult> uploadDirectory(final Path source, final String bucket,
+                                                                      final String prefix,
+                                                                      final DirectoryTransferOptions options) {
+        return DirectoryTransfer.upload(this, partSizeBytes, source, bucket, prefix, options);
+    }
+
+    /**
+     * Downloads every object under prefix with default {@link DirectoryTransferOptions}.
+     *
+     * @see #downloadDirectory(String, String, Path, DirectoryTransferOptions)
+     */
+    public CompletableFuture<DirectoryTransferResult> downloadDirectory(final String bucket, final String prefix,
+                                                                        final Path destination) {
+        return downloadDirectory(bucket, prefix, destination, new DirectoryTransferOptions());
+    }
+
+    /**
+     * Downloads every object under prefix to destination, at the key's path after prefix, creating directories as
+     * needed and overwriting existing files. Keys ending in '/' are skipped, and keys that would land outside
+     * destination are reported as failures. Objects are fetched while the prefix is still being listed.
+     *
+     * @param bucket source bucket
+     * @param prefix key prefix; a trailing '/' is added if missing, and "" downloads the whole bucket
+     * @param destination root of the tree to write
+     * @param options concurrency limit and small-file batching
+     * @return future completing once every object has been attempted, with the failures by key
+     */
+    public CompletableFuture<DirectoryTransferResult> downloadDirectory(final String bucket, final String prefix,
+                                                                        final Path destination,
+                                                                        final DirectoryTransferOptions options) {
+        return DirectoryTransfer.download(this, partSizeBytes, bucket, prefix, destination, options);
+    }
+
+    /**
+     * Sends one request as-is, without splitting it into parts, and buffers the response body. Responses other than
+     * 2xx fail the future with an {@link S3Exception} carrying S3's error code and message.
+     *
+     * @param method HTTP method
+     * @param bucket bucket the request is addressed to
+     * @param pathAndQuery encoded path, starting with '/', and query string
+     * @param extraHeaders headers to send besides Host and Content-Length
+     * @param body request body, or null
+     */
+    CompletableFuture<S3Response> executeRequest(final String method, final String bucket, final String pathAndQuery,
+                                                 final List<HttpHeader> extraHeaders, final byte[] body) {
+        return executeRequest(method, bucket, pathAndQuery, extraHeaders, body, null);
+    }
+
+    /**
+     * Like {@link #executeRequest(String, String, String, List, byte[])}, but the body of a 2xx response is handed
+     * to bodyConsumer chunk by chunk as it arrives instead of being buffered. Error bodies are still buffered.
+     */
+    CompletableFuture<S3Response> executeRequest(final String method, final String bucket, final String pathAndQuery,
+                                                 final List<HttpHeader> extraHeaders, final byte[] body,
+                                                 final Consumer<ByteBuffer> bodyConsumer) {
+        final CompletableFuture<S3Response> resultFuture = new CompletableFuture<>();
+        executeInRegion(getBucketRegion(bucket), method, bucket, pathAndQuery, extraHeaders, body, bodyConsumer,
+                resultFuture, true);
+        return resultFuture;
+    }
+
+    /**
+     * Sends the request to one region. If S3 answers that the bucket lives elsewhere, the cache is corrected and,
+     * when followRedirect is set, the request is signed for and sent to that region instead.
+     */
+    private void executeInRegion(final String region, final String method, final String bucket,
+                                 final String pathAndQuery, final List<HttpHeader> extraHeaders, final byte[] body,
+                                 final Consumer<ByteBuffer> bodyConsumer,
+                                 final CompletableFuture<S3Response> resultFuture, final boolean followRedirect) {
+        if (resultFuture.isDone()) {
+            return;
+        }
+        final CompletableFuture<S3Response> attempt;
+        try {
+            attempt = sendRequest(region, method, bucket, pathAndQuery, extraHeaders, body, bodyConsumer);
+        } catch (RuntimeException e) {
+            resultFuture.completeExceptionally(e);
+            return;
+        }
+        resultFuture.whenComplete((result, ex) -> {
+            if (resultFuture.isCancelled()) {
+                attempt.cancel(false);
+            }
+        });
+
+        attempt.whenComplete((response, ex) -> {
+            if (ex != null) {
+                resultFuture.completeExceptionally(ex);
+                return;
+            }
+            if (response.getStatusCode() / 100 == 2) {
+                resultFuture.complete(response);
+                return;
+            }
+
+            String bucketRegion = redirectRegion(response.getStatusCode(), response.getHeader(BUCKET_REGION_HEADER),
+                    region);
+            if (bucketRegion != null) {
+                bucketRegions.put(bucket, bucketRegion);
+                if (followRedirect) {
+                    executeInRegion(bucketRegion, method, bucket, pathAndQuery, extraHeaders, body, bodyConsumer,
+                            resultFuture, false);
+                    return;
+                }
+            }
+            resultFuture.completeExceptionally(toS3Exception(response));
+        });
+    }
+
+    /**
+     * Sends one single-request meta request to a region as-is.
+     *
+     * @return future completing with the response whatever its status, or exceptionally if there was none
+     */
+    private CompletableFuture<S3Response> sendRequest(final String region, final String method, final String bucket,
+                                                      final String pathAndQuery, final List<HttpHeader> extraHeaders,
+                                                      final byte[] body, final Consumer<ByteBuffer> bodyConsumer) {
+        final CompletableFuture<S3Response> resultFuture = new CompletableFuture<>();
+        final S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+            private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+            private int statusCode;
+            private HttpHeaders headers = HttpHeaders.fromMarshalledHeadersBlob(ByteBuffer.allocate(0));
+
+            @Override
+            public void onResponseHeaders(final int statusCode, final HttpHeaders headers) {
+                this.statusCode = statusCode;
+                this.headers = headers.copy();
+            }
+
+            @Override
+            public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                if (bodyConsumer != null && statusCode / 100 == 2) {
+                    try {
+                        bodyConsumer.accept(bodyBytesIn);
+                    } catch (RuntimeException e) {
+                        resultFuture.completeExceptionally(e);
+                        throw e;
+                    }
+                } else {
+                    byte[] bytes = new byte[bodyBytesIn.remaining()];
+                    bodyBytesIn.get(bytes);
+                    responseBody.write(bytes, 0, bytes.length);
+                }
+                return 0;
+            }
+
+            @Override
+            public void onFinished(int errorCode, int responseStatus) {
+                S3Response response = new S3Response(responseStatus != 0 ? responseStatus : statusCode, headers,
+                        responseBody.toByteArray());
+                if (response.getStatusCode() / 100 != 2 && response.getStatusCode() != 0) {
+                    resultFuture.complete(response);
+                } else if (errorCode != CRT.AWS_CRT_SUCCESS) {
+                    resultFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                } else {
+                    resultFuture.complete(response);
+                }
+            }
+        };
+
+        final List<HttpHeader> headers = new LinkedList<>();
+        headers.add(new HttpHeader("Host", bucketHost(bucket, region)));
+        headers.addAll(extraHeaders);
+        HttpRequestBodyStream bodyStream = null;
+        if (body != null) {
+            headers.add(new HttpHeader("Content-Length", Integer.toString(body.length)));
+            final ByteBuffer bodyBuffer = ByteBuffer.wrap(body);
+            bodyStream = new HttpRequestBodyStream() {
+                @Override
+                public boolean sendRequestBody(final ByteBuffer outBuffer) {
+                    int count = Math.min(outBuffer.remaining(), bodyBuffer.remaining());
+                    outBuffer.put(body, bodyBuffer.position(), count);
+                    ((Buffer) bodyBuffer).position(bodyBuffer.position() + count);
+                    return !bodyBuffer.hasRemaining();
+                }
+
+                @Override
+                public boolean resetPosition() {
+                    ((Buffer) bodyBuffer).rewind();
+                    return true;
+                }
+
+                @Override
+                public long getLength() {
+                    return body.length;
+                }
+            };
+        }
+        HttpRequest httpRequest = new HttpRequest(method, pathAndQuery, headers.toArray(new HttpHeader[0]),
+                bodyStream);
+
         S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
-                .withMetaRequestType(S3MetaRequestOptions.MetaRequestType.PUT_OBJECT)
+                .withMetaRequestType(body != null ? S3MetaRequestOptions.MetaRequestType.PUT_OBJECT
+                        : S3MetaRequestOptions.MetaRequestType.GET_OBJECT)
                 .withHttpRequest(httpRequest)
-                .withResponseHandler(responseHandler);
+                .withResponseHandler(responseHandler)
+                .withSmallObject(true);
+        S3MetaRequest metaRequest = makeMetaRequest(region, metaRequestOptions);
+        if (metaRequest == null) {
+            resultFuture.completeExceptionally(
+                    new CrtRuntimeException("Could not start " + method + " " + pathAndQuery));
+            return resultFuture;
+        }
+        return bindMetaRequest(resultFuture, metaRequest);
+    }
+
+    static S3Exception toS3Exception(final S3Response response) {
+        String document = response.getBodyAsString();
+        String code = xmlElement(document, "Code");
+        String message = xmlElement(document, "Message");
+        return S3Exception.builder()
+                .statusCode(response.getStatusCode())
+                .requestId(response.getHeader("x-amz-request-id"))
+                .message(code == null ? "HTTP " + response.getStatusCode()
+                        : message == null ? code : code + ": " + message)
+                .build();
+    }
+
+    /**
+     * @return the unescaped text of the first element with this name in an S3 XML document, or null
+     */
+    static String xmlElement(final String document, final String name) {
+        int start = document.indexOf("<" + name + ">");
+        if (start < 0) {
+            return null;
+        }
+        start += name.length() + 2;
+        int end = document.indexOf("</" + name + ">", start);
+        return end < 0 ? null : xmlUnescape(document.substring(start, end));
+    }
+
+    static String xmlUnescape(final String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&#13;", "\r").replace("&#10;", "\n").replace("&amp;", "&");
+    }
 
-        try (final S3MetaRequest metaRequest = s3Client.makeMetaRequest(metaRequestOptions)) {
+    static String xmlEscape(final String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;")
+                .replace("'", "&apos;");
+    }
+
+    /**
+     * Percent-encodes a query parameter value as SigV4 expects: everything but unreserved characters.
+     */
+    static String uriEncode(final String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8").replace("+", "%20").replace("*", "%2A")
+                    .replace("%7E", "~");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Keeps the meta request open until the result future completes, so that cancelling the future cancels the
+     * transfer instead of letting it run to completion in the background.
+     */
+    private static <T> CompletableFuture<T> bindMetaRequest(final CompletableFuture<T> resultFuture,
+                                                            final S3MetaRequest metaRequest) {
+        if (metaRequest == null) {
             return resultFuture;
         }
+
+        resultFuture.whenComplete((result, ex) -> {
+            if (resultFuture.isCancelled()) {
+                metaRequest.cancel();
+            }
+            metaRequest.close();
+        });
+        return resultFuture;
     }
 
     @Override
     public void close() {
+        synchronized (regionClients) {
+            closed = true;
+            for (RegionClient regionClient : regionClients.values()) {
+                regionClient.client.close();
+            }
+            regionClients.clear();
+            for (RegionClient regionClient : evictedClients) {
+                regionClient.client.close();
+            }
+            evictedClients.clear();
+        }
         if (s3Client != null) {
             s3Client.close();
         }
@@ -362,6 +1449,130 @@ public class S3NativeClient implements  AutoCloseable {
         }
     }
 
+    protected void populateCopyObjectRequestHeaders(final Consumer<HttpHeader> headerConsumer,
+                                                    final CopyObjectRequest request) {
+        //https://docs.aws.amazon.com/AmazonS3/latest/API/API_CopyObject.html
+        final DateTimeFormatter httpDate = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+        headerConsumer.accept(new HttpHeader("x-amz-copy-source", request.copySource()));
+        if (request.aCL() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-acl", request.aCL().name()));
+        }
+        if (request.cacheControl() != null) {
+            headerConsumer.accept(new HttpHeader("Cache-Control", request.cacheControl()));
+        }
+        if (request.contentDisposition() != null) {
+            headerConsumer.accept(new HttpHeader("Content-Disposition", request.contentDisposition()));
+        }
+        if (request.contentEncoding() != null) {
+            headerConsumer.accept(new HttpHeader("Content-Encoding", request.contentEncoding()));
+        }
+        if (request.contentLanguage() != null) {
+            headerConsumer.accept(new HttpHeader("Content-Language", request.contentLanguage()));
+        }
+        if (request.contentType() != null) {
+            headerConsumer.accept(new HttpHeader("Content-Type", request.contentType()));
+        }
+        if (request.copySourceIfMatch() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-copy-source-if-match", request.copySourceIfMatch()));
+        }
+        if (request.copySourceIfModifiedSince() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-copy-source-if-modified-since",
+                    httpDate.format(request.copySourceIfModifiedSince())));
+        }
+        if (request.copySourceIfNoneMatch() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-copy-source-if-none-match",
+                    request.copySourceIfNoneMatch()));
+        }
+        if (request.copySourceIfUnmodifiedSince() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-copy-source-if-unmodified-since",
+                    httpDate.format(request.copySourceIfUnmodifiedSince())));
+        }
+        if (request.expires() != null) {
+            headerConsumer.accept(new HttpHeader("Expires", httpDate.format(request.expires())));
+        }
+        if (request.grantFullControl() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-grant-full-control", request.grantFullControl()));
+        }
+        if (request.grantRead() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-grant-read", request.grantRead()));
+        }
+        if (request.grantReadACP() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-grant-read-acp", request.grantReadACP()));
+        }
+        if (request.grantWriteACP() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-grant-write-acp", request.grantWriteACP()));
+        }
+        if (request.metadataDirective() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-metadata-directive", request.metadataDirective().name()));
+        }
+        if (request.taggingDirective() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-tagging-directive", request.taggingDirective().name()));
+        }
+        if (request.serverSideEncryption() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-server-side-encryption",
+                    request.serverSideEncryption().name()));
+        }
+        if (request.storageClass() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-storage-class", request.storageClass().name()));
+        }
+        if (request.websiteRedirectLocation() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-website-redirect-location",
+                    request.websiteRedirectLocation()));
+        }
+        if (request.sSECustomerAlgorithm() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-server-side-encryption-customer-algorithm",
+                    request.sSECustomerAlgorithm()));
+        }
+        if (request.sSECustomerKey() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-server-side-encryption-customer-key",
+                    request.sSECustomerKey()));
+        }
+        if (request.sSEKMSKeyId() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-server-side-encryption-aws-kms-key-id",
+                    request.sSEKMSKeyId()));
+        }
+        if (request.sSEKMSEncryptionContext() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-server-side-encryption-context",
+                    request.sSEKMSEncryptionContext()));
+        }
+        if (request.bucketKeyEnabled() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-server-side-encryption-bucket-key-enabled",
+                    Boolean.toString(request.bucketKeyEnabled())));
+        }
+        if (request.copySourceSSECustomerAlgorithm() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-copy-source-server-side-encryption-customer-algorithm",
+                    request.copySourceSSECustomerAlgorithm()));
+        }
+        if (request.copySourceSSECustomerKey() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-copy-source-server-side-encryption-customer-key",
+                    request.copySourceSSECustomerKey()));
+        }
+        if (request.requestPayer() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-request-payer", request.requestPayer().name()));
+        }
+        if (request.tagging() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-tagging", request.tagging()));
+        }
+        if (request.objectLockMode() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-object-lock-mode", request.objectLockMode().name()));
+        }
+        if (request.objectLockRetainUntilDate() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-object-lock-retain-until-date",
+                    DateTimeFormatter.ISO_INSTANT.format(request.objectLockRetainUntilDate())));
+        }
+        if (request.objectLockLegalHoldStatus() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-object-lock-legal-hold",
+                    request.objectLockLegalHoldStatus().name()));
+        }
+        if (request.expectedBucketOwner() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-expected-bucket-owner", request.expectedBucketOwner()));
+        }
+        if (request.expectedSourceBucketOwner() != null) {
+            headerConsumer.accept(new HttpHeader("x-amz-source-expected-bucket-owner",
+                    request.expectedSourceBucketOwner()));
+        }
+    }
+
     protected void populatePutObjectOutputHeader(final PutObjectOutput.Builder builder, final HttpHeader header) {
         //https://docs.aws.amazon.com/AmazonS3/latest/API/API_PutObject.html
         if ("xamz-id-2".equalsIgnoreCase(header.getName())) {
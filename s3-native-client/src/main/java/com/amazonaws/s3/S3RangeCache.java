@@ -0,0 +1,499 @@
+package com.amazonaws.s3;
+
+import software.amazon.awssdk.crt.http.HttpHeader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * On-disk LRU cache of GetObject response bodies, keyed by bucket, key and Range and tagged with the object's ETag.
+ * A cached entry is only served after S3 confirms the ETag is still current (a conditional GET answered with 304),
+ * unless it was validated less than revalidateAfter ago. Entries survive restarts: the index is rebuilt from the
+ * directory on construction.
+ *
+ * Pass an instance to {@link S3NativeClient} to enable caching. One directory must not be shared by two caches.
+ */
+public class S3RangeCache {
+    private static final String BODY_SUFFIX = ".bin";
+    private static final String META_SUFFIX = ".meta";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxSizeInBytes;
+    private final long revalidateAfterMillis;
+
+    /* access-ordered, so iteration starts at the least recently used entry */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes;
+    private long hitCount;
+    private long missCount;
+    private long tempFileCount;
+
+    /**
+     * Creates a cache that revalidates every entry with S3 before serving it.
+     *
+     * @param directory directory holding the cached bodies, created if missing
+     * @param maxSizeInBytes total size of cached bodies above which least recently used entries are evicted
+     * @throws IOException if the directory cannot be created or read
+     */
+    public S3RangeCache(final Path directory, final long maxSizeInBytes) throws IOException {
+        this(directory, maxSizeInBytes, Duration.ZERO);
+    }
+
+    /**
+     * @param directory directory holding the cached bodies, created if missing
+     * @param maxSizeInBytes total size of cached bodies above which least recently used entries are evicted
+     * @param revalidateAfter how long after a successful validation an entry is served without asking S3 again.
+     *                        Duration.ZERO revalidates on every read.
+     * @throws IOException if the directory cannot be created or read
+     */
+    public S3RangeCache(final Path directory, final long maxSizeInBytes, final Duration revalidateAfter)
+            throws IOException {
+        if (maxSizeInBytes <= 0) {
+            throw new IllegalArgumentException("maxSizeInBytes must be positive");
+        }
+        if (revalidateAfter == null || revalidateAfter.isNegative()) {
+            throw new IllegalArgumentException("revalidateAfter must be zero or positive");
+        }
+        this.directory = directory;
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.revalidateAfterMillis = revalidateAfter.toMillis();
+        Files.createDirectories(directory);
+        load();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return reads served from the cache, whether or not they were revalidated with S3 first
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return cacheable reads whose body had to be downloaded
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return hits divided by all cacheable reads, or 0 before the first read
+     */
+    public synchronized double getHitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Removes every entry and its files.
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            deleteFiles(entry);
+        }
+        entries.clear();
+        sizeInBytes = 0;
+    }
+
+    /**
+     * Cached body for an object range, tagged with the ETag it was downloaded under
+     */
+    static final class Entry {
+        private final String id;
+        private final String bucket;
+        private final String key;
+        private final String range;
+        private final String eTag;
+        private final int statusCode;
+        private final HttpHeader[] headers;
+        private final long size;
+        private volatile long validatedAtMillis;
+
+        private Entry(String id, String bucket, String key, String range, String eTag, int statusCode,
+                      HttpHeader[] headers, long size, long validatedAtMillis) {
+            this.id = id;
+            this.bucket = bucket;
+            this.key = key;
+            this.range = range;
+            this.eTag = eTag;
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.size = size;
+            this.validatedAtMillis = validatedAtMillis;
+        }
+
+        String getETag() {
+            return eTag;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        HttpHeader[] getHeaders() {
+            return headers;
+        }
+
+        long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * Body being downloaded into a temporary file. Parts may be written from several threads.
+     */
+    final class Writer {
+        private final String bucket;
+        private final String key;
+        private final String range;
+        private final Path tempPath;
+        private FileChannel channel;
+        private long size;
+
+        private Writer(String bucket, String key, String range, Path tempPath, FileChannel channel) {
+            this.bucket = bucket;
+            this.key = key;
+            this.range = range;
+            this.tempPath = tempPath;
+            this.channel = channel;
+        }
+
+        /**
+         * Writes the remaining bytes of data at position. A failed write abandons the entry instead of throwing,
+         * since the download itself is unaffected.
+         */
+        void write(final ByteBuffer data, final long position) {
+            FileChannel current;
+            synchronized (this) {
+                current = channel;
+            }
+            if (current == null) {
+                return;
+            }
+            try {
+                long offset = position;
+                while (data.hasRemaining()) {
+                    offset += current.write(data, offset);
+                }
+                synchronized (this) {
+                    size = Math.max(size, offset);
+                }
+            } catch (IOException e) {
+                abort(this);
+            }
+        }
+
+        private synchronized FileChannel detach() {
+            FileChannel detached = channel;
+            channel = null;
+            return detached;
+        }
+    }
+
+    /**
+     * @return the entry for this range, or null. Counts as a use for LRU ordering.
+     */
+    synchronized Entry lookup(final String bucket, final String key, final String range) {
+        return entries.get(indexKey(bucket, key, range));
+    }
+
+    /**
+     * @return true if the entry was validated recently enough to be served without asking S3
+     */
+    boolean isFresh(final Entry entry) {
+        return revalidateAfterMillis > 0
+                && System.currentTimeMillis() - entry.validatedAtMillis < revalidateAfterMillis;
+    }
+
+    /**
+     * Records that S3 confirmed the entry's ETag is still current.
+     */
+    void markValidated(final Entry entry) {
+        entry.validatedAtMillis = System.currentTimeMillis();
+        try {
+            writeMetadata(entry, metaPath(entry.id));
+        } catch (IOException e) {
+            /* the entry is still correct, it will just be revalidated earlier after a restart */
+        }
+    }
+
+    synchronized void recordHit() {
+        ++hitCount;
+    }
+
+    synchronized void recordMiss() {
+        ++missCount;
+    }
+
+    /**
+     * Opens the body of an entry for reading. The file stays readable after a concurrent eviction on platforms
+     * that allow deleting open files.
+     */
+    FileChannel open(final Entry entry) throws IOException {
+        return FileChannel.open(bodyPath(entry.id), StandardOpenOption.READ);
+    }
+
+    /**
+     * Drops an entry whose file turned out to be unreadable or stale.
+     */
+    synchronized void invalidate(final Entry entry) {
+        String indexKey = indexKey(entry.bucket, entry.key, entry.range);
+        if (entries.get(indexKey) == entry) {
+            entries.remove(indexKey);
+            sizeInBytes -= entry.size;
+        }
+        deleteFiles(entry);
+    }
+
+    /**
+     * @return a writer for a new body, or null if the temporary file cannot be created
+     */
+    Writer begin(final String bucket, final String key, final String range) {
+        long tempIndex;
+        synchronized (this) {
+            tempIndex = tempFileCount++;
+        }
+        Path tempPath = directory.resolve(hash(bucket, key, range) + "-" + tempIndex + TEMP_SUFFIX);
+        try {
+            FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            return new Writer(bucket, key, range, tempPath, channel);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Publishes a fully written body under eTag, replacing any older entry for the same range and evicting least
+     * recently used entries beyond the size limit. Bodies larger than the whole cache are discarded.
+     */
+    void commit(final Writer writer, final String eTag, final int statusCode, final HttpHeader[] headers) {
+        FileChannel channel = writer.detach();
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            deleteQuietly(writer.tempPath);
+            return;
+        }
+        if (eTag == null || writer.size > maxSizeInBytes) {
+            deleteQuietly(writer.tempPath);
+            return;
+        }
+
+        String id = hash(writer.bucket, writer.key, writer.range, eTag);
+        Entry entry = new Entry(id, writer.bucket, writer.key, writer.range, eTag, statusCode, headers,
+                writer.size, System.currentTimeMillis());
+        synchronized (this) {
+            try {
+                Files.move(writer.tempPath, bodyPath(id), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                writeMetadata(entry, metaPath(id));
+            } catch (IOException e) {
+                deleteFiles(entry);
+                deleteQuietly(writer.tempPath);
+                return;
+            }
+            Entry previous = entries.put(indexKey(writer.bucket, writer.key, writer.range), entry);
+            if (previous != null) {
+                sizeInBytes -= previous.size;
+                if (!previous.id.equals(id)) {
+                    deleteFiles(previous);
+                }
+            }
+            sizeInBytes += entry.size;
+            evict();
+        }
+    }
+
+    /**
+     * Discards a body that was not fully downloaded.
+     */
+    void abort(final Writer writer) {
+        FileChannel channel = writer.detach();
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            /* deleted below regardless */
+        }
+        deleteQuietly(writer.tempPath);
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            sizeInBytes -= eldest.size;
+            deleteFiles(eldest);
+        }
+    }
+
+    private void load() throws IOException {
+        List<Entry> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    /* left behind by a download interrupted by a crash */
+                    deleteQuietly(file);
+                } else if (name.endsWith(META_SUFFIX)) {
+                    Entry entry = readMetadata(name.substring(0, name.length() - META_SUFFIX.length()), file);
+                    if (entry == null) {
+                        deleteQuietly(file);
+                        deleteQuietly(bodyPath(name.substring(0, name.length() - META_SUFFIX.length())));
+                    } else {
+                        loaded.add(entry);
+                    }
+                }
+            }
+        }
+
+        /* oldest validation first, so the most recently used entries are the last to be evicted */
+        loaded.sort(Comparator.comparingLong(entry -> entry.validatedAtMillis));
+        synchronized (this) {
+            for (Entry entry : loaded) {
+                Entry previous = entries.put(indexKey(entry.bucket, entry.key, entry.range), entry);
+                if (previous != null) {
+                    sizeInBytes -= previous.size;
+                    deleteFiles(previous);
+                }
+                sizeInBytes += entry.size;
+            }
+            evict();
+        }
+    }
+
+    private Entry readMetadata(final String id, final Path metaPath) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(metaPath)) {
+            properties.load(in);
+            String bucket = properties.getProperty("bucket");
+            String key = properties.getProperty("key");
+            String range = properties.getProperty("range");
+            String eTag = properties.getProperty("eTag");
+            if (bucket == null || key == null || range == null || eTag == null
+                    || !id.equals(hash(bucket, key, range, eTag))) {
+                return null;
+            }
+            long size = Long.parseLong(properties.getProperty("size"));
+            Path bodyPath = bodyPath(id);
+            if (!Files.isRegularFile(bodyPath) || Files.size(bodyPath) != size) {
+                return null;
+            }
+            int headerCount = Integer.parseInt(properties.getProperty("headerCount", "0"));
+            HttpHeader[] headers = new HttpHeader[headerCount];
+            for (int i = 0; i < headerCount; ++i) {
+                headers[i] = new HttpHeader(properties.getProperty("header." + i + ".name"),
+                        properties.getProperty("header." + i + ".value"));
+            }
+            return new Entry(id, bucket, key, range, eTag, Integer.parseInt(properties.getProperty("statusCode")),
+                    headers, size, Long.parseLong(properties.getProperty("validatedAt")));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void writeMetadata(final Entry entry, final Path metaPath) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("bucket", entry.bucket);
+        properties.setProperty("key", entry.key);
+        properties.setProperty("range", entry.range);
+        properties.setProperty("eTag", entry.eTag);
+        properties.setProperty("statusCode", Integer.toString(entry.statusCode));
+        properties.setProperty("size", Long.toString(entry.size));
+        properties.setProperty("validatedAt", Long.toString(entry.validatedAtMillis));
+        properties.setProperty("headerCount", Integer.toString(entry.headers.length));
+        for (int i = 0; i < entry.headers.length; ++i) {
+            properties.setProperty("header." + i + ".name", entry.headers[i].getName());
+            properties.setProperty("header." + i + ".value", entry.headers[i].getValue());
+        }
+
+        Path tempPath = metaPath.resolveSibling(metaPath.getFileName() + TEMP_SUFFIX);
+        try (OutputStream out = Files.newOutputStream(tempPath)) {
+            properties.store(out, null);
+        }
+        Files.move(tempPath, metaPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteFiles(final Entry entry) {
+        deleteQuietly(metaPath(entry.id));
+        deleteQuietly(bodyPath(entry.id));
+    }
+
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            /* an orphaned file is dropped on the next load */
+        }
+    }
+
+    private Path bodyPath(final String id) {
+        return directory.resolve(id + BODY_SUFFIX);
+    }
+
+    private Path metaPath(final String id) {
+        return directory.resolve(id + META_SUFFIX);
+    }
+
+    private static String indexKey(final String bucket, final String key, final String range) {
+        return bucket + '\n' + key + '\n' + range;
+    }
+
+    private static String hash(final String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
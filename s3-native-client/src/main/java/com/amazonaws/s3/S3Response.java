@@ -0,0 +1,43 @@
+package com.amazonaws.s3;
+
+import software.amazon.awssdk.crt.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Status, headers and fully buffered body of a single S3 request sent by {@link S3NativeClient#executeRequest}
+ */
+final class S3Response {
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    S3Response(final int statusCode, final HttpHeaders headers, final byte[] body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return value of the first header with this name, ignoring case, or null
+     */
+    String getHeader(final String name) {
+        return headers.get(name);
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    String getBodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
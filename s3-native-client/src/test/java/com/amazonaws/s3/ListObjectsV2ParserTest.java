@@ -0,0 +1,108 @@
+package com.amazonaws.s3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ListObjectsV2ParserTest {
+    private static final String PAGE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+            + "<Name>bucket</Name><Prefix>d%C3%A9j%C3%A0%2F</Prefix><KeyCount>3</KeyCount>"
+            + "<MaxKeys>1000</MaxKeys><Delimiter>%2F</Delimiter><EncodingType>url</EncodingType>"
+            + "<IsTruncated>true</IsTruncated>"
+            + "<Contents><Key>d%C3%A9j%C3%A0%2Fa+b%26c.txt</Key><LastModified>2021-01-02T03:04:05.000Z</LastModified>"
+            + "<ETag>&quot;e1&quot;</ETag><Size>11</Size><StorageClass>STANDARD</StorageClass></Contents>"
+            + "<Contents><Key>d%C3%A9j%C3%A0%2F%E6%97%A5%E6%9C%AC.bin</Key>"
+            + "<LastModified>2021-01-02T03:04:06.000Z</LastModified>"
+            + "<ETag>&quot;e2&quot;</ETag><Size>0</Size><StorageClass>GLACIER</StorageClass></Contents>"
+            + "<CommonPrefixes><Prefix>d%C3%A9j%C3%A0%2Fsub%2F</Prefix></CommonPrefixes>"
+            + "<CommonPrefixes><Prefix>d%C3%A9j%C3%A0%2F%F0%9F%98%80%2F</Prefix></CommonPrefixes>"
+            + "<NextContinuationToken>token+/=</NextContinuationToken>"
+            + "</ListBucketResult>";
+    private static final List<String> COMMON_PREFIXES =
+            Arrays.asList("d\u00e9j\u00e0/sub/", "d\u00e9j\u00e0/\ud83d\ude00/");
+
+    private final List<ObjectSummary> objects = new ArrayList<>();
+    private final List<String> prefixes = new ArrayList<>();
+    private final ListObjectsV2Parser parser = new ListObjectsV2Parser(objects::add, prefixes::add);
+
+    private void parse(byte[] page, int... splits) {
+        int start = 0;
+        for (int split : splits) {
+            parser.feed(ByteBuffer.wrap(page, start, split - start));
+            start = split;
+        }
+        parser.feed(ByteBuffer.wrap(page, start, page.length - start));
+        parser.finish();
+    }
+
+    private void assertPage() {
+        Assert.assertEquals(2, objects.size());
+        Assert.assertEquals("d\u00e9j\u00e0/a b&c.txt", objects.get(0).getKey());
+        Assert.assertEquals(11, objects.get(0).getSize());
+        Assert.assertEquals("\"e1\"", objects.get(0).getETag());
+        Assert.assertEquals(Instant.parse("2021-01-02T03:04:05Z"), objects.get(0).getLastModified());
+        Assert.assertEquals("STANDARD", objects.get(0).getStorageClass());
+        Assert.assertEquals("d\u00e9j\u00e0/\u65e5\u672c.bin", objects.get(1).getKey());
+        Assert.assertEquals(0, objects.get(1).getSize());
+        Assert.assertEquals("GLACIER", objects.get(1).getStorageClass());
+
+        Assert.assertEquals(COMMON_PREFIXES, prefixes);
+
+        Assert.assertTrue(parser.isTruncated());
+        Assert.assertEquals("token+/=", parser.getNextContinuationToken());
+    }
+
+    @Test
+    public void testWholePage() {
+        parse(PAGE.getBytes(StandardCharsets.UTF_8));
+        assertPage();
+    }
+
+    @Test
+    public void testEverySplitPoint() {
+        byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+        for (int split = 1; split < page.length; ++split) {
+            objects.clear();
+            prefixes.clear();
+            ListObjectsV2Parser splitParser = new ListObjectsV2Parser(objects::add, prefixes::add);
+            splitParser.feed(ByteBuffer.wrap(page, 0, split));
+            splitParser.feed(ByteBuffer.wrap(page, split, page.length - split));
+            splitParser.finish();
+
+            Assert.assertEquals("split at " + split, 2, objects.size());
+            Assert.assertEquals("split at " + split, "d\u00e9j\u00e0/\u65e5\u672c.bin", objects.get(1).getKey());
+            Assert.assertEquals("split at " + split, COMMON_PREFIXES, prefixes);
+            Assert.assertTrue("split at " + split, splitParser.isTruncated());
+            Assert.assertEquals("split at " + split, "token+/=", splitParser.getNextContinuationToken());
+        }
+    }
+
+    @Test
+    public void testOneBytePerChunk() {
+        byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+        int[] splits = new int[page.length - 1];
+        for (int i = 0; i < splits.length; ++i) {
+            splits[i] = i + 1;
+        }
+        parse(page, splits);
+        assertPage();
+    }
+
+    @Test
+    public void testLastPage() {
+        parse(("<ListBucketResult><IsTruncated>false</IsTruncated><KeyCount>0</KeyCount></ListBucketResult>")
+                .getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertTrue(objects.isEmpty());
+        Assert.assertTrue(prefixes.isEmpty());
+        Assert.assertFalse(parser.isTruncated());
+        Assert.assertNull(parser.getNextContinuationToken());
+    }
+}
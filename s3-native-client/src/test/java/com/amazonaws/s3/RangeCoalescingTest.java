@@ -0,0 +1,62 @@
+package com.amazonaws.s3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RangeCoalescingTest {
+    private static final long MAX_GAP = 100;
+    private static final long MAX_SPAN = 1000;
+
+    private static List<List<Integer>> coalesce(Range... ranges) {
+        return S3NativeClient.coalesceRanges(Arrays.asList(ranges), MAX_GAP, MAX_SPAN);
+    }
+
+    @Test
+    public void testNoRanges() {
+        Assert.assertEquals(Collections.emptyList(), coalesce());
+    }
+
+    @Test
+    public void testGapLimit() {
+        /* 100 bytes between the first two is within the gap, 101 before the third is not */
+        Assert.assertEquals(Arrays.asList(Arrays.asList(0, 1), Collections.singletonList(2)),
+                coalesce(Range.of(0, 10), Range.of(110, 10), Range.of(221, 10)));
+        /* adjacent ranges always merge, even with no gap allowed */
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(0, 1)),
+                S3NativeClient.coalesceRanges(Arrays.asList(Range.of(0, 10), Range.of(10, 10)), 0, MAX_SPAN));
+    }
+
+    @Test
+    public void testSortsByOffset() {
+        /* indexes refer to the caller's order, groups come out in object order */
+        Assert.assertEquals(Arrays.asList(Arrays.asList(2, 0), Collections.singletonList(1)),
+                coalesce(Range.of(50, 10), Range.of(5000, 10), Range.of(0, 10)));
+    }
+
+    @Test
+    public void testOverlappingRanges() {
+        /* the second range lies inside the first, so the gap to the third is measured from the first's end */
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(0, 1, 2)),
+                coalesce(Range.of(0, 500), Range.of(100, 10), Range.of(600, 10)));
+    }
+
+    @Test
+    public void testSpanLimit() {
+        /* merging the third would make the GET 1001 bytes long */
+        Assert.assertEquals(Arrays.asList(Arrays.asList(0, 1), Collections.singletonList(2)),
+                coalesce(Range.of(0, 400), Range.of(450, 400), Range.of(900, 101)));
+        /* a range larger than the span on its own still gets its own GET */
+        Assert.assertEquals(Arrays.asList(Collections.singletonList(0), Collections.singletonList(1)),
+                coalesce(Range.of(0, 5000), Range.of(5010, 10)));
+    }
+
+    @Test
+    public void testEmptyRangesLeftOut() {
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(0, 2)),
+                coalesce(Range.of(0, 10), Range.of(20, 0), Range.of(30, 10)));
+    }
+}
@@ -1,8 +1,12 @@
 package com.amazonaws.s3;
 
+import com.amazonaws.s3.model.CopyObjectOutput;
+import com.amazonaws.s3.model.CopyObjectRequest;
 import com.amazonaws.s3.model.GetObjectRequest;
+import com.amazonaws.s3.model.ListObjectsV2Request;
 import com.amazonaws.s3.model.PutObjectRequest;
 import com.amazonaws.test.AwsClientTestFixture;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import software.amazon.awssdk.crt.CrtRuntimeException;
@@ -12,6 +16,16 @@ import software.amazon.awssdk.crt.io.EventLoopGroup;
 import software.amazon.awssdk.crt.io.HostResolver;
 import org.junit.Assume;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 public class S3NativeClientTest extends AwsClientTestFixture {
     private static final String BUCKET = System.getProperty("crt.test_s3_bucket", "<bucket>>");
     private static final String REGION = System.getProperty("crt.test_s3_region", "us-east-1");
@@ -79,4 +93,173 @@ public class S3NativeClientTest extends AwsClientTestFixture {
 
         }
     }
+
+    @Test
+    public void testGetObjectWithRangeCache() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+
+        final Path cacheDirectory = Files.createTempDirectory("s3-range-cache");
+        try (final EventLoopGroup elGroup = new EventLoopGroup(9);
+             final HostResolver resolver = new HostResolver(elGroup, 128);
+             final ClientBootstrap clientBootstrap = new ClientBootstrap(elGroup, resolver);
+             final CredentialsProvider provider = getTestCredentialsProvider()) {
+            final S3RangeCache cache = new S3RangeCache(cacheDirectory, 16 * 1024 * 1024);
+            try (final S3NativeClient nativeClient = new S3NativeClient(REGION, clientBootstrap, provider,
+                    64_000_000l, 100., cache)) {
+                final long length[] = { 0, 0 };
+                for (int attempt = 0; attempt < 2; ++attempt) {
+                    final int index = attempt;
+                    nativeClient.getObject(GetObjectRequest.builder()
+                            .bucket(BUCKET)
+                            .key(GET_OBJECT_KEY)
+                            .range("bytes=0-1023")
+                            .build(), new ResponseDataConsumer() {
+
+                        @Override
+                        public void onResponseData(byte[] bodyBytesIn) {
+                            length[index] += bodyBytesIn.length;
+                        }
+
+                        @Override
+                        public void onFinished() { }
+                    }).get(60, TimeUnit.SECONDS);
+                }
+
+                Assert.assertEquals(length[0], length[1]);
+                Assert.assertEquals(1, cache.getMissCount());
+                Assert.assertEquals(1, cache.getHitCount());
+                Assert.assertEquals(0.5, cache.getHitRatio(), 0.0);
+            } finally {
+                cache.clear();
+            }
+        }
+    }
+
+    @Test
+    public void testReadRanges() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+
+        try (final EventLoopGroup elGroup = new EventLoopGroup(9);
+             final HostResolver resolver = new HostResolver(elGroup, 128);
+             final ClientBootstrap clientBootstrap = new ClientBootstrap(elGroup, resolver);
+             final CredentialsProvider provider = getTestCredentialsProvider();
+             final S3NativeClient nativeClient = new S3NativeClient(REGION, clientBootstrap, provider,
+                    64_000_000l, 100.)) {
+            /*
+             * the first two are merged into one GET and the last is fetched on its own. The zero-length range needs
+             * no GET, so its future is complete as soon as readRanges returns.
+             */
+            final List<Range> ranges = Arrays.asList(Range.of(100, 10), Range.of(0, 50), Range.of(1_000_000, 0),
+                    Range.of(512 * 1024, 16));
+            final List<CompletableFuture<ByteBuffer>> futures = nativeClient.readRanges(BUCKET, GET_OBJECT_KEY,
+                    ranges, 64);
+
+            Assert.assertEquals(ranges.size(), futures.size());
+            Assert.assertTrue(futures.get(2).isDone());
+            Assert.assertEquals(0, futures.get(2).get().remaining());
+            for (int index = 0; index < ranges.size(); ++index) {
+                Assert.assertEquals(ranges.get(index).getLength(),
+                        futures.get(index).get(60, TimeUnit.SECONDS).remaining());
+            }
+        }
+    }
+
+    @Test
+    public void testUploadDownloadDirectory() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+
+        final Path source = Files.createTempDirectory("s3-directory-upload");
+        final Path destination = Files.createTempDirectory("s3-directory-download");
+        Files.createDirectories(source.resolve("nested"));
+        Files.write(source.resolve("small.txt"), new byte[] { 42 });
+        Files.write(source.resolve("nested").resolve("large.bin"), new byte[6 * 1024 * 1024]);
+
+        try (final EventLoopGroup elGroup = new EventLoopGroup(9);
+             final HostResolver resolver = new HostResolver(elGroup, 128);
+             final ClientBootstrap clientBootstrap = new ClientBootstrap(elGroup, resolver);
+             final CredentialsProvider provider = getTestCredentialsProvider();
+             final S3NativeClient nativeClient = new S3NativeClient(REGION, clientBootstrap, provider,
+                    5 * 1024 * 1024, 100.)) {
+            final String prefix = PUT_OBJECT_KEY + "-directory";
+            final DirectoryTransferOptions options = new DirectoryTransferOptions().withMaxConcurrency(4);
+
+            final DirectoryTransferResult uploaded = nativeClient.uploadDirectory(source, BUCKET, prefix, options)
+                    .get(120, TimeUnit.SECONDS);
+            Assert.assertTrue(uploaded.getFailures().toString(), uploaded.isSuccessful());
+            Assert.assertEquals(2, uploaded.getFilesTransferred());
+
+            final DirectoryTransferResult downloaded = nativeClient.downloadDirectory(BUCKET, prefix, destination,
+                    options).get(120, TimeUnit.SECONDS);
+            Assert.assertTrue(downloaded.getFailures().toString(), downloaded.isSuccessful());
+            Assert.assertEquals(uploaded.getBytesTransferred(), downloaded.getBytesTransferred());
+            Assert.assertArrayEquals(Files.readAllBytes(source.resolve("nested").resolve("large.bin")),
+                    Files.readAllBytes(destination.resolve("nested").resolve("large.bin")));
+        }
+    }
+
+    @Test
+    public void testListObjectsV2Sharded() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+
+        try (final EventLoopGroup elGroup = new EventLoopGroup(9);
+             final HostResolver resolver = new HostResolver(elGroup, 128);
+             final ClientBootstrap clientBootstrap = new ClientBootstrap(elGroup, resolver);
+             final CredentialsProvider provider = getTestCredentialsProvider();
+             final S3NativeClient nativeClient = new S3NativeClient(REGION, clientBootstrap, provider,
+                    64_000_000l, 100.)) {
+            final ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(BUCKET)
+                    .maxKeys(100)
+                    .build();
+            final Set<String> keys = ConcurrentHashMap.newKeySet();
+            final long listed = nativeClient.listObjectsV2(request, object -> keys.add(object.getKey()))
+                    .get(120, TimeUnit.SECONDS);
+            Assert.assertEquals(listed, keys.size());
+
+            final Set<String> shardedKeys = ConcurrentHashMap.newKeySet();
+            final long shardedListed = nativeClient.listObjectsV2(request,
+                    S3NativeClient.prefixShardBoundaries("", "0123456789abcdefghijklmnopqrstuvwxyz"),
+                    object -> Assert.assertTrue(shardedKeys.add(object.getKey()))).get(120, TimeUnit.SECONDS);
+            Assert.assertEquals(listed, shardedListed);
+            Assert.assertEquals(keys, shardedKeys);
+        }
+    }
+
+    @Test
+    public void testCopyObject() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+
+        try (final EventLoopGroup elGroup = new EventLoopGroup(9);
+             final HostResolver resolver = new HostResolver(elGroup, 128);
+             final ClientBootstrap clientBootstrap = new ClientBootstrap(elGroup, resolver);
+             final CredentialsProvider provider = getTestCredentialsProvider();
+             final S3NativeClient nativeClient = new S3NativeClient(REGION, clientBootstrap, provider,
+                    5 * 1024 * 1024, 100.)) {
+            final CopyObjectOutput output = nativeClient.copyObject(CopyObjectRequest.builder()
+                    .bucket(BUCKET)
+                    .key(PUT_OBJECT_KEY + ".copy")
+                    .copySource(BUCKET + "/" + GET_OBJECT_KEY)
+                    .build()).get(120, TimeUnit.SECONDS);
+            Assert.assertNotNull(output.copyObjectResult().eTag());
+        }
+    }
+
+    @Test
+    public void testGetObjectFromOtherRegion() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+
+        /* a client signing for some other region still reaches the bucket, once it has learned where it is */
+        final String otherRegion = "us-east-1".equals(REGION) ? "us-west-2" : "us-east-1";
+        try (final EventLoopGroup elGroup = new EventLoopGroup(9);
+             final HostResolver resolver = new HostResolver(elGroup, 128);
+             final ClientBootstrap clientBootstrap = new ClientBootstrap(elGroup, resolver);
+             final CredentialsProvider provider = getTestCredentialsProvider();
+             final S3NativeClient nativeClient = new S3NativeClient(otherRegion, clientBootstrap, provider,
+                    64_000_000l, 100.)) {
+            final List<CompletableFuture<ByteBuffer>> futures = nativeClient.readRanges(BUCKET, GET_OBJECT_KEY,
+                    Arrays.asList(Range.of(0, 16)));
+            Assert.assertEquals(16, futures.get(0).get(60, TimeUnit.SECONDS).remaining());
+            Assert.assertEquals(REGION, nativeClient.getBucketRegion(BUCKET));
+        }
+    }
 }
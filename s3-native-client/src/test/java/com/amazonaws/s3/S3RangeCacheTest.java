@@ -0,0 +1,189 @@
+package com.amazonaws.s3;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.crt.http.HttpHeader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class S3RangeCacheTest {
+    private static final String BUCKET = "bucket";
+    private static final String RANGE = "bytes=0-99";
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("s3-range-cache-test");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static void put(S3RangeCache cache, String key, int size, String eTag) {
+        S3RangeCache.Writer writer = cache.begin(BUCKET, key, RANGE);
+        Assert.assertNotNull(writer);
+        byte[] body = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            body[i] = (byte) (key.hashCode() + i);
+        }
+        /* written back to front, the way parts may land out of order */
+        int half = size / 2;
+        writer.write(ByteBuffer.wrap(body, half, size - half), half);
+        writer.write(ByteBuffer.wrap(body, 0, half), 0);
+        cache.commit(writer, eTag, 206, new HttpHeader[] { new HttpHeader("Content-Range", "bytes 0-99/1000") });
+    }
+
+    private static byte[] read(S3RangeCache cache, S3RangeCache.Entry entry) throws IOException {
+        ByteBuffer body = ByteBuffer.allocate((int) entry.getSize());
+        try (FileChannel channel = cache.open(entry)) {
+            while (body.hasRemaining()) {
+                if (channel.read(body) < 0) {
+                    break;
+                }
+            }
+        }
+        return body.array();
+    }
+
+    private int countFiles() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path ignored : files) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testCommitAndLookup() throws IOException {
+        S3RangeCache cache = new S3RangeCache(directory, 1000);
+        put(cache, "a", 100, "\"etag-a\"");
+
+        S3RangeCache.Entry entry = cache.lookup(BUCKET, "a", RANGE);
+        Assert.assertNotNull(entry);
+        Assert.assertEquals("\"etag-a\"", entry.getETag());
+        Assert.assertEquals(206, entry.getStatusCode());
+        Assert.assertEquals(100, entry.getSize());
+        Assert.assertEquals("Content-Range", entry.getHeaders()[0].getName());
+        Assert.assertEquals((byte) ("a".hashCode() + 99), read(cache, entry)[99]);
+        Assert.assertNull(cache.lookup(BUCKET, "a", "bytes=100-199"));
+        Assert.assertEquals(100, cache.getSizeInBytes());
+        Assert.assertEquals(2, countFiles());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        S3RangeCache cache = new S3RangeCache(directory, 300);
+        put(cache, "a", 100, "\"a\"");
+        put(cache, "b", 100, "\"b\"");
+        put(cache, "c", 100, "\"c\"");
+
+        /* touching a makes b the least recently used */
+        Assert.assertNotNull(cache.lookup(BUCKET, "a", RANGE));
+        put(cache, "d", 100, "\"d\"");
+
+        Assert.assertNull(cache.lookup(BUCKET, "b", RANGE));
+        Assert.assertNotNull(cache.lookup(BUCKET, "a", RANGE));
+        Assert.assertNotNull(cache.lookup(BUCKET, "c", RANGE));
+        Assert.assertNotNull(cache.lookup(BUCKET, "d", RANGE));
+        Assert.assertEquals(3, cache.getEntryCount());
+        Assert.assertEquals(300, cache.getSizeInBytes());
+        Assert.assertEquals(6, countFiles());
+    }
+
+    @Test
+    public void testReplaceAndOversizedBodies() throws IOException {
+        S3RangeCache cache = new S3RangeCache(directory, 300);
+        put(cache, "a", 100, "\"old\"");
+        put(cache, "a", 50, "\"new\"");
+
+        S3RangeCache.Entry entry = cache.lookup(BUCKET, "a", RANGE);
+        Assert.assertEquals("\"new\"", entry.getETag());
+        Assert.assertEquals(50, cache.getSizeInBytes());
+        Assert.assertEquals(2, countFiles());
+
+        /* larger than the whole cache, so it's dropped instead of evicting everything */
+        put(cache, "b", 301, "\"b\"");
+        Assert.assertNull(cache.lookup(BUCKET, "b", RANGE));
+        Assert.assertNotNull(cache.lookup(BUCKET, "a", RANGE));
+
+        /* no ETag, so it could never be revalidated */
+        put(cache, "c", 10, null);
+        Assert.assertNull(cache.lookup(BUCKET, "c", RANGE));
+        Assert.assertEquals(2, countFiles());
+    }
+
+    @Test
+    public void testAbortLeavesNothingBehind() throws IOException {
+        S3RangeCache cache = new S3RangeCache(directory, 300);
+        S3RangeCache.Writer writer = cache.begin(BUCKET, "a", RANGE);
+        writer.write(ByteBuffer.wrap(new byte[10]), 0);
+        cache.abort(writer);
+        /* a commit after an abort is ignored */
+        cache.commit(writer, "\"a\"", 206, new HttpHeader[0]);
+
+        Assert.assertNull(cache.lookup(BUCKET, "a", RANGE));
+        Assert.assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        S3RangeCache cache = new S3RangeCache(directory, 300);
+        put(cache, "a", 100, "\"a\"");
+        /* reload order follows the validation time, which has millisecond resolution */
+        Thread.sleep(5);
+        put(cache, "b", 100, "\"b\"");
+        Thread.sleep(5);
+        put(cache, "c", 100, "\"c\"");
+        Files.write(directory.resolve("interrupted-0.tmp"), new byte[10]);
+        Files.write(directory.resolve("corrupt.meta"), "bucket=bucket\n".getBytes("UTF-8"));
+
+        S3RangeCache reloaded = new S3RangeCache(directory, 300);
+        Assert.assertEquals(3, reloaded.getEntryCount());
+        Assert.assertEquals(300, reloaded.getSizeInBytes());
+        S3RangeCache.Entry entry = reloaded.lookup(BUCKET, "b", RANGE);
+        Assert.assertEquals("\"b\"", entry.getETag());
+        Assert.assertEquals(206, entry.getStatusCode());
+        Assert.assertEquals("bytes 0-99/1000", entry.getHeaders()[0].getValue());
+        Assert.assertEquals((byte) ("b".hashCode() + 42), read(reloaded, entry)[42]);
+        /* the temporary file and the unreadable metadata are cleaned up */
+        Assert.assertEquals(6, countFiles());
+
+        /* a smaller cache evicts the entry validated longest ago */
+        S3RangeCache smaller = new S3RangeCache(directory, 200);
+        Assert.assertEquals(2, smaller.getEntryCount());
+        Assert.assertNull(smaller.lookup(BUCKET, "a", RANGE));
+        Assert.assertNotNull(smaller.lookup(BUCKET, "c", RANGE));
+        Assert.assertEquals(4, countFiles());
+    }
+
+    @Test
+    public void testTruncatedBodyIsNotReloaded() throws IOException {
+        S3RangeCache cache = new S3RangeCache(directory, 300);
+        put(cache, "a", 100, "\"a\"");
+        try (DirectoryStream<Path> bodies = Files.newDirectoryStream(directory, "*.bin")) {
+            for (Path body : bodies) {
+                Files.write(body, new byte[99]);
+            }
+        }
+
+        S3RangeCache reloaded = new S3RangeCache(directory, 300);
+        Assert.assertEquals(0, reloaded.getEntryCount());
+        Assert.assertEquals(0, countFiles());
+    }
+}
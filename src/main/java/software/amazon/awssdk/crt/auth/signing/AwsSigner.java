@@ -4,6 +4,7 @@
  */
 package software.amazon.awssdk.crt.auth.signing;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 
 import software.amazon.awssdk.crt.CrtRuntimeException;
@@ -16,7 +17,8 @@ public class AwsSigner {
         CompletableFuture<HttpRequest> future = new CompletableFuture<HttpRequest>();
 
         try {
-            awsSignerSignRequest(request, request.marshalForJni(), config, future);
+            ByteBuffer marshalledRequest = request.marshalForJniDirect();
+            awsSignerSignRequest(request, marshalledRequest, marshalledRequest.limit(), config, future);
         } catch (Exception e) {
             future.completeExceptionally(e);
         }
@@ -41,7 +43,8 @@ public class AwsSigner {
      ******************************************************************************/
     private static native void awsSignerSignRequest(
         HttpRequest request,
-        byte[] marshalledRequest,
+        ByteBuffer marshalledRequest,
+        int marshalledRequestLength,
         AwsSigningConfig config,
         CompletableFuture<HttpRequest> future) throws CrtRuntimeException;
 
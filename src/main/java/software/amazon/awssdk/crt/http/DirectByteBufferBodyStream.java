@@ -0,0 +1,61 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+package software.amazon.awssdk.crt.http;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Request body held in a direct ByteBuffer. When the request is sent, native reads the buffer's memory in place and
+ * never calls back into Java for the body. Code that reads the stream from Java gets the same bytes through
+ * {@link #sendRequestBody}.
+ *
+ * The buffer's contents must not change while a request using this stream is in flight. The stream can be reused
+ * for several requests, e.g. retries of the same upload.
+ */
+public final class DirectByteBufferBodyStream implements HttpRequestBodyStream {
+    /* Read by native. The body from its start to its capacity; its position and limit are never moved. */
+    private final ByteBuffer body;
+    /* Position of reads made from Java */
+    private final ByteBuffer javaView;
+
+    /**
+     * @param body direct buffer holding the body from its position to its limit. Later changes to its position or
+     *             limit don't affect the stream.
+     */
+    public DirectByteBufferBodyStream(ByteBuffer body) {
+        if (body == null || !body.isDirect()) {
+            throw new IllegalArgumentException("body must be a direct ByteBuffer");
+        }
+        this.body = body.slice();
+        this.javaView = this.body.duplicate();
+    }
+
+    @Override
+    public boolean sendRequestBody(ByteBuffer bodyBytesOut) {
+        synchronized (javaView) {
+            int count = Math.min(bodyBytesOut.remaining(), javaView.remaining());
+            ByteBuffer chunk = javaView.duplicate();
+            ((Buffer) chunk).limit(chunk.position() + count);
+            bodyBytesOut.put(chunk);
+            ((Buffer) javaView).position(javaView.position() + count);
+            return !javaView.hasRemaining();
+        }
+    }
+
+    @Override
+    public boolean resetPosition() {
+        synchronized (javaView) {
+            ((Buffer) javaView).rewind();
+        }
+        return true;
+    }
+
+    @Override
+    public long getLength() {
+        return body.capacity();
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+package software.amazon.awssdk.crt.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Request body read from a file. When the request is sent, native opens the file and reads it with positional reads,
+ * never calling back into Java for the body. Code that reads the stream from Java gets the same bytes through
+ * {@link #sendRequestBody}.
+ *
+ * The stream can cover a range of the file rather than all of it. Every request opens the file for itself, so
+ * requests sending different ranges of one file read it concurrently, e.g. the parts of a multipart upload.
+ *
+ * The length is taken when the stream is created, so it can be sent as the Content-Length. The file must not change
+ * while a request using this stream is in flight. The stream can be reused for several requests, e.g. retries of the
+ * same upload.
+ */
+public final class FileBodyStream implements HttpRequestBodyStream {
+    private final Path path;
+    /* Read by native */
+    private final byte[] pathBytes;
+    private final long offset;
+    private final long length;
+
+    /* Guarded by this, for reads made from Java */
+    private FileChannel channel;
+    private long position = 0;
+
+    /**
+     * @param path file holding the body
+     * @throws IOException if the file's size can't be read
+     */
+    public FileBodyStream(Path path) throws IOException {
+        this(path, 0, -1);
+    }
+
+    /**
+     * @param path file holding the body
+     * @param offset where the body starts in the file
+     * @param length number of bytes to send from offset, or -1 for the rest of the file
+     * @throws IOException if the file's size can't be read
+     */
+    public FileBodyStream(Path path, long offset, long length) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("path must not be null");
+        }
+        if (offset < 0 || length < -1) {
+            throw new IllegalArgumentException("offset must be >= 0 and length >= -1");
+        }
+        long fileLength = Files.size(path);
+        if (offset > fileLength || (length >= 0 && length > fileLength - offset)) {
+            throw new IllegalArgumentException(String.format(
+                    "Range of %d bytes at offset %d is past the end of %s (%d bytes)", length, offset, path,
+                    fileLength));
+        }
+        this.path = path;
+        this.pathBytes = path.toString().getBytes(StandardCharsets.UTF_8);
+        this.offset = offset;
+        this.length = length >= 0 ? length : fileLength - offset;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public synchronized boolean sendRequestBody(ByteBuffer bodyBytesOut) {
+        try {
+            if (position < length && bodyBytesOut.hasRemaining()) {
+                if (channel == null) {
+                    channel = FileChannel.open(path, StandardOpenOption.READ);
+                }
+                ByteBuffer window = bodyBytesOut.duplicate();
+                ((Buffer) window).limit(window.position() + (int) Math.min(window.remaining(), length - position));
+                int read = channel.read(window, offset + position);
+                if (read < 0) {
+                    throw new IOException("File " + path + " is shorter than the " + length + " bytes expected");
+                }
+                ((Buffer) bodyBytesOut).position(window.position());
+                position += read;
+            }
+            if (position >= length) {
+                closeChannel();
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized boolean resetPosition() {
+        try {
+            closeChannel();
+        } catch (IOException e) {
+            return false;
+        }
+        position = 0;
+        return true;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            FileChannel closing = channel;
+            channel = null;
+            closing.close();
+        }
+    }
+}
@@ -5,6 +5,7 @@
 
 package software.amazon.awssdk.crt.http;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import software.amazon.awssdk.crt.CrtResource;
 import software.amazon.awssdk.crt.CrtRuntimeException;
@@ -44,8 +45,10 @@ public class HttpClientConnection extends CrtResource {
             throw new IllegalStateException("HttpClientConnection has been closed, can't make requests on it.");
         }
 
+        ByteBuffer marshalledRequest = request.marshalForJniDirect();
         HttpStream stream = httpClientConnectionMakeRequest(getNativeHandle(),
-            request.marshalForJni(),
+            marshalledRequest,
+            marshalledRequest.limit(),
             request.getBodyStream(),
             new HttpStreamResponseHandlerNativeAdapter(streamHandler));
         if (stream == null || stream.isNull()) {
@@ -80,7 +83,8 @@ public class HttpClientConnection extends CrtResource {
      * Native methods
      ******************************************************************************/
     private static native HttpStream httpClientConnectionMakeRequest(long connection,
-                                                                     byte[] marshalledRequest,
+                                                                     ByteBuffer marshalledRequest,
+                                                                     int marshalledRequestLength,
                                                                      HttpRequestBodyStream bodyStream,
                                                                      HttpStreamResponseHandlerNativeAdapter responseHandler) throws CrtRuntimeException;
 
@@ -0,0 +1,325 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+package software.amazon.awssdk.crt.http;
+
+import software.amazon.awssdk.crt.CrtRuntimeException;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view of a block of marshalled headers, as delivered by native. Creating the view only records where each
+ * name and value starts; strings are decoded when asked for, so a handler that reads a few headers does not pay for
+ * the rest. Names are compared case-insensitively, and common names are returned as shared constants.
+ *
+ * A view created over a native header block is only valid for the duration of the callback it was passed to. Use
+ * {@link #copy()} to keep the headers longer.
+ */
+public final class HttpHeaders implements Iterable<HttpHeader> {
+    private final static Charset UTF8 = StandardCharsets.UTF_8;
+    private final static int BUFFER_INT_SIZE = 4;
+    /* index holds [name offset, name length, value offset, value length] per header */
+    private final static int INDEX_FIELDS = 4;
+
+    private final static String[] COMMON_NAMES = {
+            "Accept-Ranges", "Cache-Control", "Connection", "Content-Encoding", "Content-Length", "Content-Range",
+            "Content-Type", "Date", "ETag", "Expires", "Last-Modified", "Location", "Server", "Transfer-Encoding",
+            "x-amz-bucket-region", "x-amz-checksum-crc32", "x-amz-checksum-crc32c", "x-amz-delete-marker",
+            "x-amz-expiration", "x-amz-id-2", "x-amz-mp-parts-count", "x-amz-request-id",
+            "x-amz-server-side-encryption", "x-amz-storage-class", "x-amz-version-id",
+    };
+    /* COMMON_NAMES and their lower case forms, as sent over HTTP/2, bucketed by length */
+    private final static String[][] INTERNED_NAMES = buildInternedNames();
+
+    private final ByteBuffer blob;
+    private final int[] index;
+    private final int count;
+
+    private HttpHeaders(ByteBuffer blob, int[] index, int count) {
+        this.blob = blob;
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Each header is marshalled as
+     * [4-bytes BE name length] [variable length name value] [4-bytes BE value length] [variable length value value]
+     *
+     * @param headersBlob encoded headers, from position to limit. The view reads the blob in place, so it must not
+     *                    be modified while the view is in use.
+     * @return view of the headers in the blob. Headers with an empty name are skipped.
+     */
+    public static HttpHeaders fromMarshalledHeadersBlob(ByteBuffer headersBlob) {
+        ByteBuffer blob = headersBlob.slice();
+        int[] index = new int[INDEX_FIELDS * 16];
+        int count = 0;
+        int position = 0;
+        int limit = blob.limit();
+
+        while (position < limit) {
+            int nameLength = readLength(blob, position);
+            int nameOffset = position + BUFFER_INT_SIZE;
+            int valueLength = readLength(blob, nameOffset + nameLength);
+            int valueOffset = nameOffset + nameLength + BUFFER_INT_SIZE;
+            position = valueOffset + valueLength;
+            if (position > limit || position < 0) {
+                throw new CrtRuntimeException("Invalid marshalled headers blob.");
+            }
+
+            if (nameLength > 0) {
+                if (index.length < (count + 1) * INDEX_FIELDS) {
+                    int[] grown = new int[index.length * 2];
+                    System.arraycopy(index, 0, grown, 0, index.length);
+                    index = grown;
+                }
+                int field = count * INDEX_FIELDS;
+                index[field] = nameOffset;
+                index[field + 1] = nameLength;
+                index[field + 2] = valueOffset;
+                index[field + 3] = valueLength;
+                ++count;
+            }
+        }
+
+        return new HttpHeaders(blob, index, count);
+    }
+
+    /**
+     * @return number of headers
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param i index of the header, from 0 to {@link #size()} - 1
+     * @return name of the header
+     */
+    public String getName(int i) {
+        int field = checkIndex(i) * INDEX_FIELDS;
+        String interned = findInterned(index[field], index[field + 1]);
+        return interned != null ? interned : decode(index[field], index[field + 1]);
+    }
+
+    /**
+     * @param i index of the header, from 0 to {@link #size()} - 1
+     * @return value of the header
+     */
+    public String getValue(int i) {
+        int field = checkIndex(i) * INDEX_FIELDS;
+        return decode(index[field + 2], index[field + 3]);
+    }
+
+    /**
+     * @param i index of the header, from 0 to {@link #size()} - 1
+     * @return a copy of the header
+     */
+    public HttpHeader getHeader(int i) {
+        int field = checkIndex(i) * INDEX_FIELDS;
+        return new HttpHeader(copyBytes(index[field], index[field + 1]),
+                copyBytes(index[field + 2], index[field + 3]));
+    }
+
+    /**
+     * @param name header name, compared case-insensitively
+     * @return value of the first header with that name, or null if there is none
+     */
+    public String get(String name) {
+        int i = indexOf(name);
+        return i >= 0 ? getValue(i) : null;
+    }
+
+    /**
+     * @param name header name, compared case-insensitively
+     * @return true if there is a header with that name
+     */
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * @param name header name, compared case-insensitively
+     * @return index of the first header with that name, or -1 if there is none
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < count; ++i) {
+            if (nameEquals(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a copy of every header
+     */
+    public HttpHeader[] toArray() {
+        HttpHeader[] headers = new HttpHeader[count];
+        for (int i = 0; i < count; ++i) {
+            headers[i] = getHeader(i);
+        }
+        return headers;
+    }
+
+    /**
+     * @return a view over a heap copy of the headers, valid after the callback returns
+     */
+    public HttpHeaders copy() {
+        byte[] bytes = new byte[blob.limit()];
+        ByteBuffer source = blob.duplicate();
+        ((Buffer) source).clear();
+        source.get(bytes);
+        return new HttpHeaders(ByteBuffer.wrap(bytes), index, count);
+    }
+
+    /**
+     * Iterates over copies of the headers, see {@link #getHeader(int)}
+     */
+    @Override
+    public Iterator<HttpHeader> iterator() {
+        return new Iterator<HttpHeader>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public HttpHeader next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                return getHeader(next++);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; ++i) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(getName(i)).append(':').append(getValue(i));
+        }
+        return builder.append(']').toString();
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Header index " + i + " out of range [0, " + count + ")");
+        }
+        return i;
+    }
+
+    private boolean nameEquals(int i, String name) {
+        int field = i * INDEX_FIELDS;
+        int offset = index[field];
+        int length = index[field + 1];
+        if (!isAscii(name)) {
+            return getName(i).equalsIgnoreCase(name);
+        }
+        if (length != name.length()) {
+            return false;
+        }
+        for (int k = 0; k < length; ++k) {
+            int b = blob.get(offset + k);
+            int c = name.charAt(k);
+            if (b != c && toLowerAscii(b) != toLowerAscii(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String findInterned(int offset, int length) {
+        if (length >= INTERNED_NAMES.length || INTERNED_NAMES[length] == null) {
+            return null;
+        }
+        for (String candidate : INTERNED_NAMES[length]) {
+            boolean matches = true;
+            for (int k = 0; k < length && matches; ++k) {
+                matches = blob.get(offset + k) == candidate.charAt(k);
+            }
+            if (matches) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private String decode(int offset, int length) {
+        if (blob.hasArray()) {
+            return new String(blob.array(), blob.arrayOffset() + offset, length, UTF8);
+        }
+        return new String(copyBytes(offset, length), UTF8);
+    }
+
+    private byte[] copyBytes(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int k = 0; k < length; ++k) {
+            bytes[k] = blob.get(offset + k);
+        }
+        return bytes;
+    }
+
+    private static int readLength(ByteBuffer blob, int position) {
+        if (position < 0 || position > blob.limit() - BUFFER_INT_SIZE) {
+            throw new CrtRuntimeException("Invalid marshalled headers blob.");
+        }
+        int length = blob.getInt(position);
+        if (length < 0) {
+            throw new CrtRuntimeException("Invalid marshalled headers blob.");
+        }
+        return length;
+    }
+
+    private static boolean isAscii(String name) {
+        for (int k = 0; k < name.length(); ++k) {
+            if (name.charAt(k) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toLowerAscii(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    private static String[][] buildInternedNames() {
+        int maxLength = 0;
+        for (String name : COMMON_NAMES) {
+            maxLength = Math.max(maxLength, name.length());
+        }
+        String[][] interned = new String[maxLength + 1][];
+        for (String name : COMMON_NAMES) {
+            String lowerCase = name.toLowerCase(Locale.ROOT);
+            interned[name.length()] = append(interned[name.length()], name);
+            if (!lowerCase.equals(name)) {
+                interned[name.length()] = append(interned[name.length()], lowerCase);
+            }
+        }
+        return interned;
+    }
+
+    private static String[] append(String[] names, String name) {
+        if (names == null) {
+            return new String[] { name };
+        }
+        String[] grown = new String[names.length + 1];
+        System.arraycopy(names, 0, grown, 0, names.length);
+        grown[names.length] = name;
+        return grown;
+    }
+}
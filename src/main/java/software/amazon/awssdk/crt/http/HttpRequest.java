@@ -6,11 +6,13 @@
 package software.amazon.awssdk.crt.http;
 import software.amazon.awssdk.crt.CrtRuntimeException;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.IntFunction;
 
 /**
  * Represents a single Client Request to be sent on a HTTP connection
@@ -18,10 +20,15 @@ import java.util.List;
 public class HttpRequest {
     private final static Charset UTF8 = java.nio.charset.StandardCharsets.UTF_8;
     private final static int BUFFER_INT_SIZE = 4;
+    private final static int INITIAL_MARSHALLING_BUFFER_SIZE = 4096;
+    /* Each thread's buffer for marshalForJniDirect(), grown as needed and reused for every request it sends */
+    private final static ThreadLocal<ByteBuffer> MARSHALLING_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(INITIAL_MARSHALLING_BUFFER_SIZE));
     private final String method;
     private String encodedPath;
     private List<HttpHeader> headers;
     private HttpRequestBodyStream bodyStream;
+    private final HttpRequestTemplate template;
 
     /**
      *
@@ -45,6 +52,20 @@ public class HttpRequest {
         this.encodedPath = encodedPath;
         this.headers = Arrays.asList(headers);
         this.bodyStream = bodyStream;
+        this.template = null;
+    }
+
+    /**
+     * Package private. Used by {@link HttpRequestTemplate} to create a request whose headers start with the
+     * template's, so that the template's pre-marshalled method and headers can be reused.
+     */
+    HttpRequest(HttpRequestTemplate template, String encodedPath, List<HttpHeader> headers,
+            HttpRequestBodyStream bodyStream) {
+        this.method = template.getMethod();
+        this.encodedPath = encodedPath;
+        this.headers = headers;
+        this.bodyStream = bodyStream;
+        this.template = template;
     }
 
     /**
@@ -81,6 +102,7 @@ public class HttpRequest {
 
         this.headers = HttpHeader.loadHeadersListFromMarshalledHeadersBlob(marshalledRequest);
         this.bodyStream = bodyStream;
+        this.template = null;
     }
 
     public String getMethod() {
@@ -128,35 +150,94 @@ public class HttpRequest {
      *
      * Each request is then:
      * [method][path][header name-value pairs]
+     *
+     * A request created from an {@link HttpRequestTemplate} copies the template's pre-marshalled method and headers
+     * instead of encoding them again, as long as its headers still start with the template's.
      * @return encoded blob of headers
      */
     public byte[] marshalForJni() {
-        int size = 0;
-        size += BUFFER_INT_SIZE + method.length();
-        size += BUFFER_INT_SIZE + encodedPath.length();
-        size += (BUFFER_INT_SIZE * 2) * headers.size();
+        return marshal(ByteBuffer::allocate).array();
+    }
 
-        for(HttpHeader header : headers) {
-            if (header.getNameBytes().length > 0) {
-                size += header.getNameBytes().length + header.getValueBytes().length;
-            }
+    /**
+     * Marshals the request as {@link #marshalForJni()} does, into a direct buffer owned by the calling thread and
+     * reused for every request it marshals, so sending a request doesn't allocate a new array each time. Native
+     * copies what it needs before the call the buffer is passed to returns. The contents are only valid until the
+     * thread marshals another request.
+     *
+     * @return the calling thread's buffer, holding the request from position 0 to its limit
+     */
+    public ByteBuffer marshalForJniDirect() {
+        ByteBuffer buffer = marshal(HttpRequest::threadMarshallingBuffer);
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    private static ByteBuffer threadMarshallingBuffer(int size) {
+        ByteBuffer buffer = MARSHALLING_BUFFER.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Math.max(size, buffer.capacity() * 2));
+            MARSHALLING_BUFFER.set(buffer);
         }
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * @param allocator returns an empty buffer with room for at least the given number of bytes
+     * @return the buffer from allocator, with the request written from its position
+     */
+    private ByteBuffer marshal(IntFunction<ByteBuffer> allocator) {
+        byte[] pathBytes = encodedPath.getBytes(UTF8);
+        if (template != null && template.isPrefixOf(headers)) {
+            return template.marshal(allocator, pathBytes,
+                    headers.subList(template.getHeaders().size(), headers.size()));
+        }
+
+        byte[] methodBytes = method.getBytes(UTF8);
+        int size = BUFFER_INT_SIZE + methodBytes.length + BUFFER_INT_SIZE + pathBytes.length
+                + marshalledHeadersSize(headers);
 
-        ByteBuffer buffer = ByteBuffer.allocate(size);
-        buffer.putInt(method.length());
-        buffer.put(method.getBytes(UTF8));
-        buffer.putInt(encodedPath.length());
-        buffer.put(encodedPath.getBytes(UTF8));
-
-        for(HttpHeader header : headers) {
-            if (header.getNameBytes().length > 0) {
-                buffer.putInt(header.getNameBytes().length);
-                buffer.put(header.getNameBytes());
-                buffer.putInt(header.getValueBytes().length);
-                buffer.put(header.getValueBytes());
+        ByteBuffer buffer = allocator.apply(size);
+        buffer.putInt(methodBytes.length);
+        buffer.put(methodBytes);
+        buffer.putInt(pathBytes.length);
+        buffer.put(pathBytes);
+        marshalHeaders(buffer, headers);
+
+        return buffer;
+    }
+
+    /**
+     * @return number of bytes {@link #marshalHeaders} writes for these headers. Headers with an empty name are
+     *         skipped.
+     */
+    static int marshalledHeadersSize(List<HttpHeader> headers) {
+        int size = 0;
+        for (HttpHeader header : headers) {
+            byte[] name = header.getNameBytes();
+            if (name != null && name.length > 0) {
+                byte[] value = header.getValueBytes();
+                size += BUFFER_INT_SIZE * 2 + name.length + (value != null ? value.length : 0);
             }
         }
+        return size;
+    }
 
-        return buffer.array();
+    static void marshalHeaders(ByteBuffer buffer, List<HttpHeader> headers) {
+        for (HttpHeader header : headers) {
+            byte[] name = header.getNameBytes();
+            if (name != null && name.length > 0) {
+                byte[] value = header.getValueBytes();
+                buffer.putInt(name.length);
+                buffer.put(name);
+                if (value != null) {
+                    buffer.putInt(value.length);
+                    buffer.put(value);
+                } else {
+                    buffer.putInt(0);
+                }
+            }
+        }
     }
 }
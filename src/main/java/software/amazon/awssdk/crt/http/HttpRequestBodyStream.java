@@ -48,4 +48,17 @@ public interface HttpRequestBodyStream {
      * @return Stream length, or 0 if unknown stream or length is unsupported
      */
     default long getLength() { return 0; }
+
+    /**
+     * Called from native once, when the stream is handed to native, to choose how the body is read.
+     *
+     * By default every native read calls {@link #sendRequestBody} once with a new ByteBuffer over the destination,
+     * which is costly for bodies written in many small pieces. If this returns a positive size, native instead
+     * allocates one direct buffer of that size for the life of the stream and reuses it for every read. Each refill
+     * calls {@link #sendRequestBody} as many times as it takes to fill the buffer, until the body is complete or a
+     * call writes nothing, and native serves its reads from the buffered bytes.
+     *
+     * @return size in bytes of the reused read buffer, or 0 to hand every native read to {@link #sendRequestBody}
+     */
+    default int getBulkReadSize() { return 0; }
 }
@@ -0,0 +1,37 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+package software.amazon.awssdk.crt.http;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Called from native to refill the reused read buffer of a body stream that asked for bulk reads, see
+ * {@link HttpRequestBodyStream#getBulkReadSize()}.
+ */
+class HttpRequestBodyStreamPump {
+
+    private HttpRequestBodyStreamPump() {}
+
+    /**
+     * Fills buffer from its start with as many calls to sendRequestBody as fit.
+     *
+     * @return the number of bytes written, or -1 minus that number once the body is complete
+     */
+    static int fill(HttpRequestBodyStream bodyStream, ByteBuffer buffer) {
+        ((Buffer) buffer).clear();
+        boolean done = false;
+        while (!done && buffer.hasRemaining()) {
+            int position = buffer.position();
+            done = bodyStream.sendRequestBody(buffer);
+            if (buffer.position() == position) {
+                /* nothing more to send right now, native will ask again */
+                break;
+            }
+        }
+        return done ? -1 - buffer.position() : buffer.position();
+    }
+}
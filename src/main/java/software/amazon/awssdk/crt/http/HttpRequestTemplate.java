@@ -0,0 +1,115 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+package software.amazon.awssdk.crt.http;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable method and set of headers shared by many requests, such as the Host and other headers of every
+ * ranged GET of one object. The method and headers are marshalled once, so each request created from the template
+ * only has to encode its own path and headers when it is sent.
+ */
+public final class HttpRequestTemplate {
+    private final static Charset UTF8 = StandardCharsets.UTF_8;
+    private final static int BUFFER_INT_SIZE = 4;
+    private final String method;
+    private final List<HttpHeader> headers;
+    /* [method length][method] */
+    private final byte[] marshalledMethod;
+    /* [header name-value pairs], as marshalled by HttpRequest */
+    private final byte[] marshalledHeaders;
+
+    /**
+     * @param method http verb of every request
+     * @param headers headers every request starts with, typically including Host. They must not be modified
+     *                afterwards.
+     */
+    public HttpRequestTemplate(String method, HttpHeader[] headers) {
+        if (method == null) { throw new IllegalArgumentException("Method can't be null"); }
+        if (headers == null) { throw new IllegalArgumentException("Headers can be empty, but can't be null"); }
+        this.method = method;
+        this.headers = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(headers)));
+
+        byte[] methodBytes = method.getBytes(UTF8);
+        ByteBuffer methodBuffer = ByteBuffer.allocate(BUFFER_INT_SIZE + methodBytes.length);
+        methodBuffer.putInt(methodBytes.length);
+        methodBuffer.put(methodBytes);
+        this.marshalledMethod = methodBuffer.array();
+
+        ByteBuffer headersBuffer = ByteBuffer.allocate(HttpRequest.marshalledHeadersSize(this.headers));
+        HttpRequest.marshalHeaders(headersBuffer, this.headers);
+        this.marshalledHeaders = headersBuffer.array();
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the template's headers, unmodifiable
+     */
+    public List<HttpHeader> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @param encodedPath path of the http request
+     * @param headers (optional) headers sent after the template's
+     * @param bodyStream (optional) interface to an object that will stream out the request body
+     * @return a new request with the template's method and headers followed by the given headers
+     */
+    public HttpRequest newRequest(String encodedPath, HttpHeader[] headers, HttpRequestBodyStream bodyStream) {
+        int extraHeaders = headers != null ? headers.length : 0;
+        List<HttpHeader> requestHeaders = new ArrayList<>(this.headers.size() + extraHeaders);
+        requestHeaders.addAll(this.headers);
+        if (headers != null) {
+            Collections.addAll(requestHeaders, headers);
+        }
+        return new HttpRequest(this, encodedPath, requestHeaders, bodyStream);
+    }
+
+    /**
+     * @return true if headers still begins with the template's own header objects
+     */
+    boolean isPrefixOf(List<HttpHeader> headers) {
+        if (headers.size() < this.headers.size()) {
+            return false;
+        }
+        for (int i = 0; i < this.headers.size(); ++i) {
+            if (headers.get(i) != this.headers.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param allocator returns an empty buffer with room for at least the given number of bytes
+     * @param pathBytes UTF-8 encoded path
+     * @param extraHeaders headers following the template's
+     * @return the buffer from allocator, with the request marshalled as {@link HttpRequest#marshalForJni()} does
+     */
+    ByteBuffer marshal(IntFunction<ByteBuffer> allocator, byte[] pathBytes, List<HttpHeader> extraHeaders) {
+        int size = marshalledMethod.length + BUFFER_INT_SIZE + pathBytes.length + marshalledHeaders.length
+                + HttpRequest.marshalledHeadersSize(extraHeaders);
+
+        ByteBuffer buffer = allocator.apply(size);
+        buffer.put(marshalledMethod);
+        buffer.putInt(pathBytes.length);
+        buffer.put(pathBytes);
+        buffer.put(marshalledHeaders);
+        HttpRequest.marshalHeaders(buffer, extraHeaders);
+
+        return buffer;
+    }
+}
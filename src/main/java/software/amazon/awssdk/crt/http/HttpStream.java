@@ -9,6 +9,8 @@ import software.amazon.awssdk.crt.CRT;
 import software.amazon.awssdk.crt.CrtResource;
 import software.amazon.awssdk.crt.CrtRuntimeException;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -98,19 +100,113 @@ public class HttpStream extends CrtResource {
      */
     public CompletableFuture<Void> writeChunk(final byte[] chunkData, boolean isFinalChunk) {
         CompletableFuture<Void> completionFuture = new CompletableFuture<>();
+        writeChunk(chunkData, isFinalChunk, newFutureCallback(completionFuture));
+        return completionFuture;
+    }
 
-        HttpStreamWriteChunkCompletionCallback completionCallback = new HttpStreamWriteChunkCompletionCallback() {
-            @Override
-            public void onChunkCompleted(int errorCode) {
-                if (errorCode == 0) {
-                    completionFuture.complete(null);
-                } else {
-                    completionFuture.completeExceptionally(new CrtRuntimeException(errorCode));
-                }
+    /**
+     * Use only for Http 1.1 Chunked Encoding. At some later point we may adapt this interface for H2, but not yet.
+     * You must call activate() before using this function.
+     *
+     * @param chunkData chunk of data to send, from position to limit. Direct buffers are read in place. The data is
+     *                  copied before this returns, the buffer's position is advanced to its limit and the buffer can
+     *                  be reused right away.
+     * @param isFinalChunk if set to true, this will terminate the request stream.
+     * @param chunkCompletionCallback Invoked upon the data being flushed to the wire or an error occurring.
+     */
+    public void writeChunk(final ByteBuffer chunkData, boolean isFinalChunk, final HttpStreamWriteChunkCompletionCallback chunkCompletionCallback) {
+        if (chunkData == null) {
+            throw new IllegalArgumentException("You must provide a non-null chunkData");
+        }
+
+        writeChunk(new ByteBuffer[] { chunkData }, isFinalChunk, chunkCompletionCallback);
+    }
+
+    /**
+     * Use only for Http 1.1 Chunked Encoding. At some later point we may adapt this interface for H2, but not yet.
+     * You must call activate() before using this function.
+     *
+     * Sends the remaining bytes of every buffer, in order, as a single chunk.
+     *
+     * @param chunkData buffers to gather into the chunk, each from position to limit. Direct buffers are read in
+     *                  place. The data is copied before this returns, each buffer's position is advanced to its limit
+     *                  and the buffers can be reused right away.
+     * @param isFinalChunk if set to true, this will terminate the request stream.
+     * @param chunkCompletionCallback Invoked upon the data being flushed to the wire or an error occurring.
+     */
+    public void writeChunk(final ByteBuffer[] chunkData, boolean isFinalChunk, final HttpStreamWriteChunkCompletionCallback chunkCompletionCallback) {
+        if (chunkCompletionCallback == null) {
+            throw new IllegalArgumentException("You must supply a chunkCompletionCallback");
+        }
+
+        if (chunkData == null) {
+            throw new IllegalArgumentException("You must provide a non-null chunkData");
+        }
+
+        Object[] sources = new Object[chunkData.length];
+        int[] offsets = new int[chunkData.length];
+        int[] lengths = new int[chunkData.length];
+        for (int i = 0; i < chunkData.length; ++i) {
+            ByteBuffer buffer = chunkData[i];
+            if (buffer == null) {
+                throw new IllegalArgumentException("You must provide non-null chunkData buffers");
             }
-        };
 
-        writeChunk(chunkData, isFinalChunk, completionCallback);
+            lengths[i] = buffer.remaining();
+            if (buffer.isDirect()) {
+                sources[i] = buffer;
+                offsets[i] = buffer.position();
+            } else if (buffer.hasArray()) {
+                sources[i] = buffer.array();
+                offsets[i] = buffer.arrayOffset() + buffer.position();
+            } else {
+                /* read-only heap buffer, its array can't be reached */
+                byte[] copy = new byte[lengths[i]];
+                buffer.duplicate().get(copy);
+                sources[i] = copy;
+                offsets[i] = 0;
+            }
+        }
+
+        int error = httpStreamWriteChunkBuffers(getNativeHandle(), sources, offsets, lengths, isFinalChunk,
+                chunkCompletionCallback);
+
+        if (error != 0) {
+            int lastError = CRT.awsLastError();
+            throw new CrtRuntimeException(lastError);
+        }
+
+        for (ByteBuffer buffer : chunkData) {
+            ((Buffer) buffer).position(buffer.limit());
+        }
+    }
+
+    /**
+     * Use only for Http 1.1 Chunked Encoding. At some later point we may adapt this interface for H2, but not yet.
+     * You must call activate() before using this function.
+     *
+     * @param chunkData chunk of data to send, from position to limit. It is copied before this returns.
+     * @param isFinalChunk if set to true, this will terminate the request stream.
+     * @return completable future which will complete upon the data being flushed to the wire or an error occurring.
+     */
+    public CompletableFuture<Void> writeChunk(final ByteBuffer chunkData, boolean isFinalChunk) {
+        CompletableFuture<Void> completionFuture = new CompletableFuture<>();
+        writeChunk(chunkData, isFinalChunk, newFutureCallback(completionFuture));
+        return completionFuture;
+    }
+
+    /**
+     * Use only for Http 1.1 Chunked Encoding. At some later point we may adapt this interface for H2, but not yet.
+     * You must call activate() before using this function.
+     *
+     * @param chunkData buffers to gather into the chunk, each from position to limit. They are copied before this
+     *                  returns.
+     * @param isFinalChunk if set to true, this will terminate the request stream.
+     * @return completable future which will complete upon the data being flushed to the wire or an error occurring.
+     */
+    public CompletableFuture<Void> writeChunk(final ByteBuffer[] chunkData, boolean isFinalChunk) {
+        CompletableFuture<Void> completionFuture = new CompletableFuture<>();
+        writeChunk(chunkData, isFinalChunk, newFutureCallback(completionFuture));
         return completionFuture;
     }
 
@@ -134,9 +230,24 @@ public class HttpStream extends CrtResource {
         throw new IllegalStateException("Can't get Status Code on Closed Stream");
     }
 
+    private static HttpStreamWriteChunkCompletionCallback newFutureCallback(
+            final CompletableFuture<Void> completionFuture) {
+        return new HttpStreamWriteChunkCompletionCallback() {
+            @Override
+            public void onChunkCompleted(int errorCode) {
+                if (errorCode == 0) {
+                    completionFuture.complete(null);
+                } else {
+                    completionFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                }
+            }
+        };
+    }
+
     private static native void httpStreamRelease(long http_stream);
     private static native void httpStreamIncrementWindow(long http_stream, int window_size);
     private static native void httpStreamActivate(long http_stream, HttpStream streamObj);
     private static native int  httpStreamGetResponseStatusCode(long http_stream);
     private static native int httpStreamWriteChunk(long http_stream, byte[] chunkData, boolean isFinalChunk, HttpStreamWriteChunkCompletionCallback completionCallback);
+    private static native int httpStreamWriteChunkBuffers(long http_stream, Object[] sources, int[] offsets, int[] lengths, boolean isFinalChunk, HttpStreamWriteChunkCompletionCallback completionCallback);
 }
@@ -0,0 +1,200 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+package software.amazon.awssdk.crt.http;
+
+import software.amazon.awssdk.crt.CrtRuntimeException;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pipelines many chunk writes on one Http 1.1 chunked stream. Rather than a future and callback per chunk, the writer
+ * shares one completion callback across every chunk and only counts the bytes that have not been flushed yet. Once
+ * that count reaches the in-flight limit, {@link #tryWrite} refuses more data and {@link #write} blocks, so a fast
+ * producer can't queue an unbounded amount of memory behind a slow connection.
+ *
+ * Chunks complete in the order they were written. The stream must be activated before the first write.
+ */
+public final class HttpStreamChunkWriter {
+    private final HttpStream stream;
+    private final long maxInFlightBytes;
+    private final HttpStream.HttpStreamWriteChunkCompletionCallback completionCallback = this::onChunkCompleted;
+    private final CompletableFuture<Void> finishFuture = new CompletableFuture<>();
+
+    /* Guarded by this */
+    /* ring buffer of the sizes of chunks written but not completed, oldest first */
+    private int[] pendingSizes = new int[16];
+    private int pendingHead = 0;
+    private int pendingCount = 0;
+    private long inFlightBytes = 0;
+    private int errorCode = 0;
+    private boolean finished = false;
+
+    /**
+     * @param stream activated stream using Http 1.1 chunked encoding
+     * @param maxInFlightBytes number of written but not yet flushed bytes at which writes start to wait. A single
+     *                         write larger than this is still accepted once nothing else is in flight.
+     */
+    public HttpStreamChunkWriter(HttpStream stream, long maxInFlightBytes) {
+        if (stream == null) {
+            throw new IllegalArgumentException("stream must not be null");
+        }
+        if (maxInFlightBytes <= 0) {
+            throw new IllegalArgumentException("maxInFlightBytes must be > 0. Actual value: " + maxInFlightBytes);
+        }
+        this.stream = stream;
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffers as one chunk, unless the in-flight limit has been reached.
+     *
+     * @param chunkData buffers to gather into the chunk, each from position to limit. They are copied and advanced
+     *                  to their limit if the write is accepted, and left untouched if it is refused.
+     * @return true if the chunk was written, false if there are too many bytes in flight
+     */
+    public boolean tryWrite(ByteBuffer... chunkData) {
+        synchronized (this) {
+            checkWritable();
+            int size = remaining(chunkData);
+            if (!hasRoomFor(size)) {
+                return false;
+            }
+            submit(chunkData, size, false);
+            return true;
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the buffers as one chunk, waiting for earlier chunks to be flushed first if the
+     * in-flight limit has been reached.
+     *
+     * @param chunkData buffers to gather into the chunk, each from position to limit. They are copied and advanced
+     *                  to their limit before this returns.
+     * @throws InterruptedException if interrupted while waiting, in which case nothing was written
+     */
+    public void write(ByteBuffer... chunkData) throws InterruptedException {
+        synchronized (this) {
+            checkWritable();
+            int size = remaining(chunkData);
+            while (!hasRoomFor(size)) {
+                wait();
+                checkWritable();
+            }
+            submit(chunkData, size, false);
+        }
+    }
+
+    /**
+     * Writes the final chunk, terminating the request body. No more writes are accepted afterwards.
+     *
+     * @param chunkData (optional) buffers to send before the body ends. The in-flight limit does not apply.
+     * @return future completing once every chunk has been flushed, or exceptionally with the first write error
+     */
+    public CompletableFuture<Void> finish(ByteBuffer... chunkData) {
+        synchronized (this) {
+            checkWritable();
+            submit(chunkData, remaining(chunkData), true);
+            finished = true;
+        }
+        return finishFuture;
+    }
+
+    /**
+     * @return bytes written but not yet flushed
+     */
+    public synchronized long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    private boolean hasRoomFor(int size) {
+        return inFlightBytes == 0 || inFlightBytes + size <= maxInFlightBytes;
+    }
+
+    private void checkWritable() {
+        if (errorCode != 0) {
+            throw new CrtRuntimeException(errorCode);
+        }
+        if (finished) {
+            throw new IllegalStateException("The final chunk has already been written");
+        }
+    }
+
+    private void submit(ByteBuffer[] chunkData, int size, boolean isFinalChunk) {
+        /* a zero length chunk terminates a chunked body, so an empty write only goes out when it is the last one */
+        if (size == 0 && !isFinalChunk) {
+            return;
+        }
+
+        if (pendingCount == pendingSizes.length) {
+            int[] grown = new int[pendingSizes.length * 2];
+            for (int i = 0; i < pendingCount; ++i) {
+                grown[i] = pendingSizes[(pendingHead + i) % pendingSizes.length];
+            }
+            pendingSizes = grown;
+            pendingHead = 0;
+        }
+        pendingSizes[(pendingHead + pendingCount) % pendingSizes.length] = size;
+        ++pendingCount;
+        inFlightBytes += size;
+
+        /* still under the lock, so chunks reach the stream in the order their sizes were queued */
+        try {
+            stream.writeChunk(chunkData != null ? chunkData : new ByteBuffer[0], isFinalChunk, completionCallback);
+        } catch (RuntimeException ex) {
+            --pendingCount;
+            inFlightBytes -= size;
+            throw ex;
+        }
+    }
+
+    private void onChunkCompleted(int chunkErrorCode) {
+        boolean complete;
+        int finalErrorCode;
+        synchronized (this) {
+            if (pendingCount > 0) {
+                inFlightBytes -= pendingSizes[pendingHead];
+                pendingHead = (pendingHead + 1) % pendingSizes.length;
+                --pendingCount;
+            }
+            if (chunkErrorCode != 0 && errorCode == 0) {
+                errorCode = chunkErrorCode;
+            }
+            complete = (finished && pendingCount == 0) || errorCode != 0;
+            finalErrorCode = errorCode;
+            notifyAll();
+        }
+
+        /* completed outside the lock so dependent stages can't deadlock against writers */
+        if (complete) {
+            if (finalErrorCode == 0) {
+                finishFuture.complete(null);
+            } else {
+                finishFuture.completeExceptionally(new CrtRuntimeException(finalErrorCode));
+            }
+        }
+    }
+
+    private static int remaining(ByteBuffer[] chunkData) {
+        long size = 0;
+        if (chunkData != null) {
+            for (ByteBuffer buffer : chunkData) {
+                if (buffer == null) {
+                    throw new IllegalArgumentException("You must provide non-null chunkData buffers");
+                }
+                size += buffer.remaining();
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk is too large: " + size + " bytes");
+        }
+        return (int) size;
+    }
+}
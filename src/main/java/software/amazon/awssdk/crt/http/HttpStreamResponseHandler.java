@@ -23,7 +23,29 @@ public interface HttpStreamResponseHandler {
      * @param blockType The HTTP header block type
      * @param nextHeaders The headers received in the latest IO event.
      */
-    void onResponseHeaders(HttpStream stream, int responseStatusCode, int blockType, HttpHeader[] nextHeaders);
+    default void onResponseHeaders(HttpStream stream, int responseStatusCode, int blockType,
+            HttpHeader[] nextHeaders) {
+        /* Optional Callback, do nothing by default */
+    }
+
+    /**
+     * Called from Native when new Http Headers have been received, without copying them into HttpHeader objects first.
+     * Override this instead of {@link #onResponseHeaders(HttpStream, int, int, HttpHeader[])} to only decode the
+     * headers that are read. The default implementation copies every header into an array and forwards it to
+     * {@link #onResponseHeaders(HttpStream, int, int, HttpHeader[])}.
+     *
+     * nextHeaders is a view of native memory that is only valid for the duration of this call. Use
+     * {@link HttpHeaders#copy()} to keep it.
+     *
+     * @param stream The HttpStream object
+     * @param responseStatusCode The HTTP Response Status Code
+     * @param blockType The HTTP header block type
+     * @param nextHeaders The headers received in the latest IO event.
+     */
+    default void onResponseHeaders(HttpStream stream, int responseStatusCode, int blockType,
+            HttpHeaders nextHeaders) {
+        onResponseHeaders(stream, responseStatusCode, blockType, nextHeaders.toArray());
+    }
 
     /**
      * Called from Native once all HTTP Headers are processed. Will not be called if there are no Http Headers in the
@@ -64,6 +86,29 @@ public interface HttpStreamResponseHandler {
         return bodyBytesIn.length;
     }
 
+    /**
+     * Called when new Response Body bytes have been received, without copying them onto the Java heap first.
+     * Override this instead of {@link #onResponseBody(HttpStream, byte[])} to avoid a byte[] allocation per body chunk.
+     * The default implementation copies the buffer's remaining bytes into a new array and forwards them to
+     * {@link #onResponseBody(HttpStream, byte[])}.
+     *
+     * Lifetime:
+     * bodyBytesIn is a direct view of native memory owned by the HttpStream and must be treated as read-only. It is
+     * only valid for the duration of this call: do NOT keep a reference to it, or to any slice/duplicate of it, after
+     * returning, and do not hand it to another thread. Copy out whatever needs to outlive the callback.
+     *
+     * The sliding window semantics of the return value are identical to {@link #onResponseBody(HttpStream, byte[])}.
+     *
+     * @param stream The HTTP Stream the body was delivered to
+     * @param bodyBytesIn The HTTP Body Bytes received in the last IO Event, from position to limit.
+     * @return The number of bytes to move the sliding window by.
+     */
+    default int onResponseBody(HttpStream stream, ByteBuffer bodyBytesIn) {
+        byte[] body = new byte[bodyBytesIn.remaining()];
+        bodyBytesIn.get(body);
+        return onResponseBody(stream, body);
+    }
+
     /**
      * Called from Native when the Response has completed.
      * @param stream completed stream
@@ -15,8 +15,8 @@ class HttpStreamResponseHandlerNativeAdapter {
     }
 
     void onResponseHeaders(HttpStream stream, int responseStatusCode, int blockType, ByteBuffer headersBlob) {
-        HttpHeader[] headersArray = HttpHeader.loadHeadersFromMarshalledHeadersBlob(headersBlob);
-        responseHandler.onResponseHeaders(stream, responseStatusCode, blockType, headersArray);
+        responseHandler.onResponseHeaders(stream, responseStatusCode, blockType,
+                HttpHeaders.fromMarshalledHeadersBlob(headersBlob));
     }
 
     void onResponseHeadersDone(HttpStream stream, int blockType) {
@@ -24,9 +24,7 @@ class HttpStreamResponseHandlerNativeAdapter {
     }
 
     int onResponseBody(HttpStream stream, ByteBuffer bodyBytesIn) {
-        byte[] body = new byte[bodyBytesIn.limit()];
-        bodyBytesIn.get(body);
-        return responseHandler.onResponseBody(stream, body);
+        return responseHandler.onResponseBody(stream, bodyBytesIn);
     }
 
     void onResponseComplete(HttpStream stream, int errorCode) {
@@ -5,24 +5,114 @@
  */
 package software.amazon.awssdk.crt.s3;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import software.amazon.awssdk.crt.CrtResource;
 import software.amazon.awssdk.crt.CrtRuntimeException;
+import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpRequest;
 import software.amazon.awssdk.crt.http.HttpRequestBodyStream;
 import software.amazon.awssdk.crt.io.TlsContext;
 import software.amazon.awssdk.crt.Log;
+import software.amazon.awssdk.crt.s3.S3MetaRequestOptions.MetaRequestType;
 
 public class S3Client extends CrtResource {
 
     private final static Charset UTF8 = java.nio.charset.StandardCharsets.UTF_8;
 
+    /* Part size aws-c-s3 uses when the client is created with a part size of 0 */
+    private final static long DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+
+    /* Parts' worth of body a closed read window may queue when the meta request doesn't set its own cap */
+    private final static long DEFAULT_MAX_PENDING_READ_PARTS = 4;
+
+    /* Streaming uploads past this many at once wait for a thread to read their body stream on */
+    private final static int MAX_UPLOAD_THREADS = 8;
+    private final static long UPLOAD_THREAD_KEEP_ALIVE_SECONDS = 30;
+
     private final CompletableFuture<Void> shutdownComplete = new CompletableFuture<>();
 
+    /*
+     * Shared by every client for work that must not run on the thread that triggered it, such as starting meta requests
+     * that were waiting for admission or for their rate limit slot, or writing upload checkpoints. A single daemon
+     * thread, created on first use.
+     */
+    private final static ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "s3-client-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long partSize;
+    private final long admissionBudgetInBytes;
+
+    /* Guarded by itself, along with reservedBytes and peakReservedBytes */
+    private final Deque<PendingMetaRequest> pendingMetaRequests = new ArrayDeque<>();
+    private long reservedBytes = 0;
+    private long peakReservedBytes = 0;
+
+    /* Null unless the client was created with an initial request rate. Paces meta request starts only. */
+    private final S3RequestRateLimiter rateLimiter;
+
+    /* Null unless the client was created with metrics enabled */
+    private final S3ClientMetrics.Aggregator metricsAggregator;
+
+    /* Runs the blocking work of uploads split in Java, such as reading a body stream into part buffers */
+    private final ThreadPoolExecutor uploadExecutor;
+
+    /**
+     * A meta request that was accepted but is waiting for room in the admission budget before being handed to native.
+     */
+    private static class PendingMetaRequest {
+        final S3MetaRequestOptions options;
+        final S3MetaRequest metaRequest;
+        final S3MetaRequestResponseHandlerNativeAdapter responseHandlerNativeAdapter;
+        final long reservationBytes;
+
+        PendingMetaRequest(S3MetaRequestOptions options, S3MetaRequest metaRequest,
+                S3MetaRequestResponseHandlerNativeAdapter responseHandlerNativeAdapter, long reservationBytes) {
+            this.options = options;
+            this.metaRequest = metaRequest;
+            this.responseHandlerNativeAdapter = responseHandlerNativeAdapter;
+            this.reservationBytes = reservationBytes;
+        }
+    }
+
     public S3Client(S3ClientOptions options) throws CrtRuntimeException {
         TlsContext tlsCtx = options.getTlsContext();
 
-        acquireNativeHandle(s3ClientNew(this, options.getRegion().getBytes(UTF8), 
+        this.partSize = options.getPartSize() > 0 ? options.getPartSize() : DEFAULT_PART_SIZE;
+        this.admissionBudgetInBytes = options.getAdmissionBudgetInBytes();
+
+        this.metricsAggregator = options.getMetricsEnabled() ? new S3ClientMetrics.Aggregator() : null;
+
+        this.uploadExecutor = new ThreadPoolExecutor(MAX_UPLOAD_THREADS, MAX_UPLOAD_THREADS,
+                UPLOAD_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "s3-upload");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+
+        this.rateLimiter = options.getInitialRequestRate() > 0
+                ? new S3RequestRateLimiter(options.getInitialRequestRate()) : null;
+
+        acquireNativeHandle(s3ClientNew(this, options.getRegion().getBytes(UTF8),
                 options.getEndpoint() != null ? options.getEndpoint().getBytes(UTF8) : null,
                 options.getClientBootstrap().getNativeHandle(), tlsCtx != null ? tlsCtx.getNativeHandle() : 0,
                 options.getCredentialsProvider().getNativeHandle(),
@@ -30,14 +120,27 @@ public class S3Client extends CrtResource {
 
         addReferenceTo(options.getClientBootstrap());
         addReferenceTo(options.getCredentialsProvider());
+        if (tlsCtx != null) {
+            addReferenceTo(tlsCtx);
+        }
     }
 
     private void onShutdownComplete() {
+        uploadExecutor.shutdown();
+
         releaseReferences();
 
         this.shutdownComplete.complete(null);
     }
 
+    Executor getUploadExecutor() {
+        return uploadExecutor;
+    }
+
+    static Executor getScheduler() {
+        return SCHEDULER;
+    }
+
     public S3MetaRequest makeMetaRequest(S3MetaRequestOptions options) {
 
         if(options.getHttpRequest() == null) {
@@ -50,22 +153,343 @@ public class S3Client extends CrtResource {
             return null;
         }
 
+        if(options.getRequestFilePath() != null && options.getHttpRequest().getBodyStream() != null) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, "S3Client.makeMetaRequest has invalid options; Request File Path and Http Request body stream cannot both be set.");
+            return null;
+        }
+
+        if(options.isSmallObject() && options.getMetaRequestType() == MetaRequestType.PUT_OBJECT
+                && options.getRequestFilePath() == null && !hasContentLength(options.getHttpRequest())) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, "S3Client.makeMetaRequest has invalid options; Small object PUT requires a Content-Length header or a Request File Path.");
+            return null;
+        }
+
+        if(options.getCheckpointFilePath() != null) {
+            if(options.getMetaRequestType() != MetaRequestType.PUT_OBJECT || options.getRequestFilePath() == null) {
+                Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, "S3Client.makeMetaRequest has invalid options; Checkpoint File Path requires a PUT_OBJECT with a Request File Path.");
+                return null;
+            }
+
+            final long resumablePartSize = getMetaRequestPartSize(options);
+            long fileLength;
+            try {
+                fileLength = Files.size(options.getRequestFilePath());
+            } catch (IOException e) {
+                Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, "S3Client.makeMetaRequest has invalid options; Request File Path can't be read: " + e.getMessage());
+                return null;
+            }
+            if(exceedsMaxParts(fileLength, resumablePartSize)) {
+                return null;
+            }
+
+            S3ResumableUpload upload = new S3ResumableUpload(this, options, resumablePartSize);
+            upload.start();
+            return upload;
+        }
+
+        /*
+         * aws-c-s3 fixes the part size for the whole native client and can't limit how many parts of one meta request
+         * are in flight, so PUTs that override either are split in Java on this same client instead
+         */
+        final boolean hasPartOverrides = (options.getPartSize() > 0 && options.getPartSize() != partSize)
+                || options.getMaxConcurrentParts() > 0;
+        final boolean isSplittablePut = options.getMetaRequestType() == MetaRequestType.PUT_OBJECT
+                && !options.isSmallObject();
+
+        /* aws-c-s3 reads the file of a PUT it splits itself one part after another, so larger files are split in Java */
+        if(isSplittablePut && options.getRequestFilePath() != null) {
+            final long filePartSize = getMetaRequestPartSize(options);
+            long fileLength;
+            try {
+                fileLength = Files.size(options.getRequestFilePath());
+            } catch (IOException e) {
+                Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, "S3Client.makeMetaRequest has invalid options; Request File Path can't be read: " + e.getMessage());
+                return null;
+            }
+
+            /* A file within both part sizes is a single request either way, so native sends it as the override asks */
+            if(fileLength > Math.min(partSize, filePartSize)) {
+                if(exceedsMaxParts(fileLength, filePartSize)) {
+                    return null;
+                }
+
+                S3FileUpload upload = new S3FileUpload(this, options, filePartSize);
+                upload.start();
+                return upload;
+            }
+        }
+
+        /* aws-c-s3 needs the size up front to split a PUT, so a body of unknown length is cut into parts in Java */
+        if(isSplittablePut && options.getRequestFilePath() == null && options.getHttpRequest().getBodyStream() != null
+                && (hasPartOverrides || !hasContentLength(options.getHttpRequest()))) {
+            final long streamingPartSize = getMetaRequestPartSize(options);
+            if(streamingPartSize > Integer.MAX_VALUE) {
+                Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, "S3Client.makeMetaRequest has invalid options; PUT split in Java requires a Part Size that fits a single buffer.");
+                return null;
+            }
+
+            S3StreamingUpload upload = new S3StreamingUpload(this, options, (int) streamingPartSize);
+            upload.start(uploadExecutor);
+            return upload;
+        }
+
+        if(hasPartOverrides && !(isSplittablePut && options.getRequestFilePath() != null)) {
+            throw new IllegalArgumentException("Part Size and Max Concurrent Parts can only be overridden on a PUT_OBJECT "
+                    + "with a body stream or Request File Path; other meta requests use the client's part size and "
+                    + "concurrency");
+        }
+
         S3MetaRequest metaRequest = new S3MetaRequest();
-        S3MetaRequestResponseHandlerNativeAdapter responseHandlerNativeAdapter = new S3MetaRequestResponseHandlerNativeAdapter(
-                options.getResponseHandler());
+        if (options.isManualWindowManagement()) {
+            long maxPendingReadBytes = options.getMaxPendingReadBytes() > 0
+                    ? options.getMaxPendingReadBytes() : DEFAULT_MAX_PENDING_READ_PARTS * partSize;
+            metaRequest.initReadWindow(options.getResponseHandler(), options.getInitialReadWindow(),
+                    maxPendingReadBytes);
+        }
 
-        byte[] httpRequestBytes = options.getHttpRequest().marshalForJni();
+        /* A small object is a single request, so it only ever reserves one part */
+        final long reservationBytes = options.isSmallObject()
+                ? partSize : partSize * Math.max(1, options.getReservationInParts());
+        final S3RequestRateLimiter.Reservation reservation = rateLimiter != null
+                ? rateLimiter.reserve(S3RequestRateLimiter.keyOf(options.getHttpRequest())) : null;
+        S3MetaRequestResponseHandlerNativeAdapter responseHandlerNativeAdapter = new S3MetaRequestResponseHandlerNativeAdapter(
+                options.getResponseHandler(), metaRequest, responseStatus -> {
+                    releaseReservation(reservationBytes);
+                    if (reservation != null) {
+                        rateLimiter.onFinished(reservation, responseStatus);
+                    }
+                }, new S3MetaRequestMetrics.Recorder(getHost(options.getHttpRequest()), metricsAggregator));
 
+        if (reservation != null && reservation.delayNanos > 0) {
+            /* Held the same way as a queued meta request until its slot comes up */
+            addRef();
+            metaRequest.addRef();
+            final PendingMetaRequest delayed =
+                    new PendingMetaRequest(options, metaRequest, responseHandlerNativeAdapter, reservationBytes);
+            SCHEDULER.schedule(() -> startDelayedMetaRequest(delayed), reservation.delayNanos, TimeUnit.NANOSECONDS);
+            return metaRequest;
+        }
 
-        long metaRequestNativeHandle = s3ClientMakeMetaRequest(getNativeHandle(), metaRequest,
-                options.getMetaRequestType().getNativeValue(), httpRequestBytes,
-                options.getHttpRequest().getBodyStream(), responseHandlerNativeAdapter);
+        synchronized (pendingMetaRequests) {
+            /* Anything queued goes first, so admission stays in submission order */
+            if (!pendingMetaRequests.isEmpty() || !tryReserve(reservationBytes)) {
+                /*
+                 * Keep the client and the meta request alive while queued, so that closing either one before the
+                 * native meta request exists still tears it down once it has been started.
+                 */
+                addRef();
+                metaRequest.addRef();
+                pendingMetaRequests.add(
+                        new PendingMetaRequest(options, metaRequest, responseHandlerNativeAdapter, reservationBytes));
+                return metaRequest;
+            }
+        }
 
-        metaRequest.setMetaRequestNativeHandle(metaRequestNativeHandle);
+        try {
+            startMetaRequest(options, metaRequest, responseHandlerNativeAdapter);
+        } catch (RuntimeException e) {
+            releaseReservation(reservationBytes);
+            throw e;
+        }
 
         return metaRequest;
     }
 
+    /**
+     * @return the client-wide admission budget in bytes, or 0 if unlimited
+     */
+    public long getAdmissionBudgetInBytes() {
+        return admissionBudgetInBytes;
+    }
+
+    /**
+     * Reservations are an estimate taken when a meta request is admitted, not a measure of the buffers aws-c-s3
+     * actually holds, which also grow with the number of connections it opens.
+     *
+     * @return bytes currently reserved from the admission budget by active meta requests
+     */
+    public long getReservedBytes() {
+        synchronized (pendingMetaRequests) {
+            return reservedBytes;
+        }
+    }
+
+    /**
+     * @return the highest value getReservedBytes() has reached over the lifetime of the client
+     */
+    public long getPeakReservedBytes() {
+        synchronized (pendingMetaRequests) {
+            return peakReservedBytes;
+        }
+    }
+
+    /**
+     * @return number of meta requests waiting for room in the admission budget before they are started
+     */
+    public int getPendingMetaRequestCount() {
+        synchronized (pendingMetaRequests) {
+            return pendingMetaRequests.size();
+        }
+    }
+
+    /**
+     * @return the rate in meta request starts per second currently allowed to the bucket and key prefix this
+     *         request goes to, or 0 if the client has no request rate limit
+     */
+    public double getRequestRate(HttpRequest request) {
+        return rateLimiter != null ? rateLimiter.getRate(S3RequestRateLimiter.keyOf(request)) : 0;
+    }
+
+    /**
+     * @return the rate in meta request starts per second currently allowed to each bucket and key prefix the client
+     *         has sent requests to, keyed by host and prefix (e.g. "bucket.s3.us-west-2.amazonaws.com/logs")
+     */
+    public Map<String, Double> getRequestRates() {
+        return rateLimiter != null ? rateLimiter.getRates() : new HashMap<>();
+    }
+
+    /* Must be called with pendingMetaRequests locked. */
+    private boolean tryReserve(long reservationBytes) {
+        /* Always admit when nothing is in flight, so a budget smaller than one part cannot stall the client */
+        boolean fits = admissionBudgetInBytes == 0 || reservedBytes == 0
+                || reservedBytes + reservationBytes <= admissionBudgetInBytes;
+        if (!fits) {
+            return false;
+        }
+
+        reservedBytes += reservationBytes;
+        peakReservedBytes = Math.max(peakReservedBytes, reservedBytes);
+        return true;
+    }
+
+    /* Called from the finish callback, so queued meta requests are started on the scheduler instead */
+    private void releaseReservation(long reservationBytes) {
+        List<PendingMetaRequest> readyMetaRequests = new ArrayList<>();
+        synchronized (pendingMetaRequests) {
+            reservedBytes -= reservationBytes;
+
+            /* Strictly in order, so a large request at the head is not starved by smaller ones behind it */
+            while (!pendingMetaRequests.isEmpty() && tryReserve(pendingMetaRequests.peek().reservationBytes)) {
+                readyMetaRequests.add(pendingMetaRequests.poll());
+            }
+        }
+
+        for (PendingMetaRequest pending : readyMetaRequests) {
+            SCHEDULER.execute(() -> startPendingMetaRequest(pending));
+        }
+    }
+
+    /* The references taken while delayed move over to the queue if it has to wait for budget as well */
+    private void startDelayedMetaRequest(PendingMetaRequest delayed) {
+        synchronized (pendingMetaRequests) {
+            if (!pendingMetaRequests.isEmpty() || !tryReserve(delayed.reservationBytes)) {
+                pendingMetaRequests.add(delayed);
+                return;
+            }
+        }
+
+        startPendingMetaRequest(delayed);
+    }
+
+    private void startPendingMetaRequest(PendingMetaRequest pending) {
+        try {
+            startMetaRequest(pending.options, pending.metaRequest, pending.responseHandlerNativeAdapter);
+        } catch (RuntimeException e) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                    "S3Client failed to start queued meta request: " + e.getMessage());
+            int errorCode = e instanceof CrtRuntimeException ? ((CrtRuntimeException) e).errorCode
+                    : getCallbackFailureErrorCode();
+            /*
+             * The caller already has the meta request, so report the failure the same way native would. Finishing
+             * releases the reservation, so the requests queued behind this one still get their turn.
+             */
+            try {
+                pending.responseHandlerNativeAdapter.onFinished(errorCode, 0);
+            } finally {
+                pending.metaRequest.onShutdownComplete();
+            }
+        } finally {
+            pending.metaRequest.decRef();
+            decRef();
+        }
+    }
+
+    /**
+     * @return the error code reported when Java-side processing of a meta request fails
+     */
+    static int getCallbackFailureErrorCode() {
+        return s3ClientCallbackFailureErrorCode();
+    }
+
+    private long getMetaRequestPartSize(S3MetaRequestOptions options) {
+        return options.getPartSize() > 0 ? options.getPartSize() : partSize;
+    }
+
+    /* S3 refuses to complete an upload of more parts than that, so such an upload isn't started at all */
+    private static boolean exceedsMaxParts(long fileLength, long filePartSize) {
+        long partCount = (fileLength + filePartSize - 1) / filePartSize;
+        if (partCount <= S3MultipartUpload.MAX_PARTS) {
+            return false;
+        }
+
+        Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, String.format(
+                "S3Client.makeMetaRequest has invalid options; Request File Path needs %d parts of %d bytes, more than "
+                        + "the %d S3 allows in one upload.", partCount, filePartSize, S3MultipartUpload.MAX_PARTS));
+        return true;
+    }
+
+    /**
+     * @return totals over every meta request finished so far, or null if the client was created without metrics
+     *         enabled
+     */
+    public S3ClientMetrics getMetrics() {
+        return metricsAggregator != null ? metricsAggregator.snapshot() : null;
+    }
+
+    private static String getHost(HttpRequest httpRequest) {
+        for (HttpHeader header : httpRequest.getHeaders()) {
+            if (header.getName().equalsIgnoreCase("Host")) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasContentLength(HttpRequest httpRequest) {
+        for (HttpHeader header : httpRequest.getHeaders()) {
+            if (header.getName().equalsIgnoreCase("Content-Length")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startMetaRequest(S3MetaRequestOptions options, S3MetaRequest metaRequest,
+            S3MetaRequestResponseHandlerNativeAdapter responseHandlerNativeAdapter) {
+        /*
+         * DEFAULT meta requests are sent as-is, as one signed request on a pooled connection. Native reads a small
+         * object's body directly and reports its progress once, when it finishes, rather than once per body chunk.
+         */
+        MetaRequestType metaRequestType = options.isSmallObject() ? MetaRequestType.DEFAULT
+                : options.getMetaRequestType();
+
+        ByteBuffer httpRequestBytes = options.getHttpRequest().marshalForJniDirect();
+        byte[] responseFilePath = options.getResponseFilePath() != null
+                ? options.getResponseFilePath().toString().getBytes(UTF8) : null;
+        byte[] requestFilePath = options.getRequestFilePath() != null
+                ? options.getRequestFilePath().toString().getBytes(UTF8) : null;
+
+        /* Callbacks can arrive before the native handle is returned */
+        responseHandlerNativeAdapter.getMetricsRecorder().onStarted();
+        long metaRequestNativeHandle = s3ClientMakeMetaRequest(getNativeHandle(), metaRequest, metaRequestType.getNativeValue(), httpRequestBytes,
+                httpRequestBytes.limit(),
+                options.getHttpRequest().getBodyStream(), responseHandlerNativeAdapter, responseFilePath,
+                options.getResponseFilePreallocate(), options.getResponseFileSyncOnFinish(), requestFilePath,
+                partSize, options.isSmallObject());
+
+        metaRequest.setMetaRequestNativeHandle(metaRequestNativeHandle);
+    }
+
     /**
      * Determines whether a resource releases its dependencies at the same time the
      * native handle is released or if it waits. Resources that wait are responsible
@@ -100,6 +524,10 @@ public class S3Client extends CrtResource {
 
     private static native void s3ClientDestroy(long client);
 
+    private static native int s3ClientCallbackFailureErrorCode();
+
     private static native long s3ClientMakeMetaRequest(long clientId, S3MetaRequest metaRequest, int metaRequestType,
-            byte[] httpRequestBytes, HttpRequestBodyStream httpRequestBodyStream, S3MetaRequestResponseHandlerNativeAdapter responseHandlerNativeAdapter);
+            ByteBuffer httpRequestBytes, int httpRequestLength, HttpRequestBodyStream httpRequestBodyStream, S3MetaRequestResponseHandlerNativeAdapter responseHandlerNativeAdapter,
+            byte[] responseFilePath, boolean responseFilePreallocate, boolean responseFileSyncOnFinish,
+            byte[] requestFilePath, long partSize, boolean smallObject);
 }
@@ -0,0 +1,175 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics of every meta request an {@link S3Client} has finished, returned by
+ * {@link S3Client#getMetrics()}. Comparing endpoints shows which ones serve slowly, and the part intervals and
+ * time to first byte show whether the part size and throughput target keep the connections busy.
+ */
+public final class S3ClientMetrics {
+
+    private final long metaRequestsSucceeded;
+    private final long metaRequestsFailed;
+    private final long bytesTransferred;
+    private final long partsCompleted;
+    private final S3LatencyHistogram timeToFirstByte;
+    private final S3LatencyHistogram duration;
+    private final S3LatencyHistogram partIntervals;
+    private final Map<String, EndpointMetrics> endpoints;
+
+    /**
+     * Totals of the meta requests sent to one endpoint
+     */
+    public static final class EndpointMetrics {
+        private long metaRequests;
+        private long metaRequestsFailed;
+        private long bytesTransferred;
+        private long busyNanos;
+
+        private EndpointMetrics() {
+        }
+
+        private EndpointMetrics(EndpointMetrics other) {
+            this.metaRequests = other.metaRequests;
+            this.metaRequestsFailed = other.metaRequestsFailed;
+            this.bytesTransferred = other.bytesTransferred;
+            this.busyNanos = other.busyNanos;
+        }
+
+        /**
+         * @return number of meta requests finished, successfully or not
+         */
+        public long getMetaRequests() {
+            return metaRequests;
+        }
+
+        public long getMetaRequestsFailed() {
+            return metaRequestsFailed;
+        }
+
+        public long getBytesTransferred() {
+            return bytesTransferred;
+        }
+
+        /**
+         * @return body bytes per second of meta request duration, i.e. the throughput of an average meta request
+         *         to this endpoint, independent of how many ran at once
+         */
+        public double getThroughputBytesPerSecond() {
+            return busyNanos > 0 ? bytesTransferred * 1e9 / busyNanos : 0;
+        }
+    }
+
+    private S3ClientMetrics(Aggregator aggregator) {
+        this.metaRequestsSucceeded = aggregator.metaRequestsSucceeded;
+        this.metaRequestsFailed = aggregator.metaRequestsFailed;
+        this.bytesTransferred = aggregator.bytesTransferred;
+        this.partsCompleted = aggregator.partsCompleted;
+        this.timeToFirstByte = aggregator.timeToFirstByte.copy();
+        this.duration = aggregator.duration.copy();
+        this.partIntervals = aggregator.partIntervals.copy();
+        Map<String, EndpointMetrics> endpointsCopy = new HashMap<>();
+        for (Map.Entry<String, EndpointMetrics> entry : aggregator.endpoints.entrySet()) {
+            endpointsCopy.put(entry.getKey(), new EndpointMetrics(entry.getValue()));
+        }
+        this.endpoints = Collections.unmodifiableMap(endpointsCopy);
+    }
+
+    public long getMetaRequestsSucceeded() {
+        return metaRequestsSucceeded;
+    }
+
+    public long getMetaRequestsFailed() {
+        return metaRequestsFailed;
+    }
+
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    public long getPartsCompleted() {
+        return partsCompleted;
+    }
+
+    /**
+     * @return time to first byte of every meta request that received a response
+     */
+    public S3LatencyHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    /**
+     * @return duration of every meta request, from start to finish
+     */
+    public S3LatencyHistogram getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return part intervals of every meta request, see {@link S3MetaRequestMetrics#getPartIntervals()}
+     */
+    public S3LatencyHistogram getPartIntervals() {
+        return partIntervals;
+    }
+
+    /**
+     * @return totals keyed by the Host header the meta requests were sent with
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Adds up finished meta requests for a client created with metrics enabled.
+     */
+    static final class Aggregator {
+        /* Guarded by this */
+        private long metaRequestsSucceeded = 0;
+        private long metaRequestsFailed = 0;
+        private long bytesTransferred = 0;
+        private long partsCompleted = 0;
+        private final S3LatencyHistogram timeToFirstByte = new S3LatencyHistogram();
+        private final S3LatencyHistogram duration = new S3LatencyHistogram();
+        private final S3LatencyHistogram partIntervals = new S3LatencyHistogram();
+        private final Map<String, EndpointMetrics> endpoints = new HashMap<>();
+
+        synchronized void add(S3MetaRequestMetrics metrics) {
+            boolean failed = metrics.getErrorCode() != 0;
+            if (failed) {
+                ++metaRequestsFailed;
+            } else {
+                ++metaRequestsSucceeded;
+            }
+            bytesTransferred += metrics.getBytesTransferred();
+            partsCompleted += metrics.getPartsCompleted();
+            if (metrics.getTimeToFirstByteNanos() >= 0) {
+                timeToFirstByte.record(metrics.getTimeToFirstByteNanos());
+            }
+            duration.record(metrics.getDurationNanos());
+            partIntervals.add(metrics.getPartIntervals());
+
+            EndpointMetrics endpoint = endpoints.get(metrics.getEndpoint());
+            if (endpoint == null) {
+                endpoint = new EndpointMetrics();
+                endpoints.put(metrics.getEndpoint(), endpoint);
+            }
+            ++endpoint.metaRequests;
+            if (failed) {
+                ++endpoint.metaRequestsFailed;
+            }
+            endpoint.bytesTransferred += metrics.getBytesTransferred();
+            endpoint.busyNanos += metrics.getDurationNanos();
+        }
+
+        synchronized S3ClientMetrics snapshot() {
+            return new S3ClientMetrics(this);
+        }
+    }
+}
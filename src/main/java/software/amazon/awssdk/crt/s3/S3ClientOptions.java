@@ -13,6 +13,9 @@ public class S3ClientOptions {
     private CredentialsProvider credentialsProvider;
     private long partSize;
     private double throughputTargetGbps;
+    private long admissionBudgetInBytes;
+    private double initialRequestRate;
+    private boolean metricsEnabled;
 
     public S3ClientOptions() {
 
@@ -80,4 +83,73 @@ public class S3ClientOptions {
     public TlsContext getTlsContext() {
         return tlsContext;
     }
+
+    /**
+     * Turns on admission control. Every meta request reserves an estimate of its part buffers from this budget when
+     * it is started, and gives it back when it finishes: its part size times its reservation in parts (one part
+     * unless overridden in S3MetaRequestOptions). Meta requests that don't fit are queued and started in order as
+     * earlier ones finish. The budget is not tied to the buffers aws-c-s3 actually allocates, so it bounds how much
+     * work is admitted rather than the memory in use. 0 (the default) admits everything.
+     *
+     * @param admissionBudgetInBytes client-wide admission budget in bytes, or 0 for unlimited
+     * @return this
+     */
+    public S3ClientOptions withAdmissionBudgetInBytes(long admissionBudgetInBytes) {
+        if (admissionBudgetInBytes < 0) {
+            throw new IllegalArgumentException(
+                    "admissionBudgetInBytes must be >= 0. Actual value: " + admissionBudgetInBytes);
+        }
+        this.admissionBudgetInBytes = admissionBudgetInBytes;
+        return this;
+    }
+
+    public long getAdmissionBudgetInBytes() {
+        return admissionBudgetInBytes;
+    }
+
+    /**
+     * Turns on adaptive admission-rate limiting, which paces how fast meta requests are started. It does not limit
+     * the HTTP requests aws-c-s3 sends for them. Each bucket and top-level key prefix gets its own token bucket,
+     * starting at this many meta request starts per second. A 503 SlowDown response halves the rate of its prefix,
+     * while requests that succeed as the limiter holds others back raise it by a tenth of the initial rate per second,
+     * so the rate settles just below the point where S3 starts throttling instead of swinging between retry storms.
+     * Meta requests waiting for their turn are started once it comes, from a scheduler thread shared by every
+     * client. 0 (the default) means no limit.
+     *
+     * Because only starts are paced, a multipart GET or PUT takes a single slot however many parts it sends, and only
+     * its final response status is fed back. aws-c-s3 retries a throttled part internally, so SlowDown responses
+     * during a multipart transfer are rarely seen by the limiter. It is most effective for many small objects, e.g.
+     * meta requests marked as small objects.
+     *
+     * @param initialRequestRate meta request starts per second each bucket and prefix starts at, or 0 for no limit
+     * @return this
+     */
+    public S3ClientOptions withInitialRequestRate(double initialRequestRate) {
+        if (initialRequestRate < 0) {
+            throw new IllegalArgumentException("initialRequestRate must be >= 0. Actual value: " + initialRequestRate);
+        }
+        this.initialRequestRate = initialRequestRate;
+        return this;
+    }
+
+    public double getInitialRequestRate() {
+        return initialRequestRate;
+    }
+
+    /**
+     * Adds the metrics of every finished meta request up into client-wide totals, read with
+     * {@link S3Client#getMetrics()}. Each meta request's own metrics are always available from
+     * {@link S3MetaRequest#getMetrics()}. Off by default.
+     *
+     * @param metricsEnabled whether to keep client-wide metrics
+     * @return this
+     */
+    public S3ClientOptions withMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+        return this;
+    }
+
+    public boolean getMetricsEnabled() {
+        return metricsEnabled;
+    }
 }
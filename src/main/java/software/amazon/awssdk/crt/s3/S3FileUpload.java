@@ -0,0 +1,152 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import software.amazon.awssdk.crt.Log;
+import software.amazon.awssdk.crt.http.FileBodyStream;
+
+/**
+ * A PUT_OBJECT of a file larger than one part, split into parts in Java. The aws-c-s3 version bound here reads the
+ * body of a meta request it splits itself through a single stream, one part after another. Here every UploadPart is
+ * its own meta request with a FileBodyStream over its range of the file, which native opens and reads with positional
+ * reads of its own, so up to maxConcurrentParts parts of the one file are read and sent at once.
+ */
+class S3FileUpload extends S3MultipartUpload {
+
+    final Path sourcePath;
+    final long partSize;
+
+    /* Everything below is guarded by this */
+    long sourceLength;
+    private final Deque<Integer> remainingParts = new ArrayDeque<>();
+
+    S3FileUpload(S3Client client, S3MetaRequestOptions options, long partSize) {
+        super(client, options);
+        this.sourcePath = options.getRequestFilePath();
+        this.partSize = partSize;
+    }
+
+    void start() {
+        synchronized (this) {
+            startUpload();
+        }
+        deliverCallbacks();
+    }
+
+    /* Must be called with this locked */
+    void startUpload() {
+        try {
+            sourceLength = Files.size(sourcePath);
+        } catch (IOException e) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                    getLogName() + " failed to open upload source: " + e.getMessage());
+            fail(S3Client.getCallbackFailureErrorCode());
+            return;
+        }
+
+        if (!checkPartCount()) {
+            return;
+        }
+        createUpload();
+    }
+
+    /**
+     * Fails the upload if the source needs more parts than S3 allows. Must be called with this locked.
+     *
+     * @return false if the upload failed
+     */
+    boolean checkPartCount() {
+        if (getPartCount() <= MAX_PARTS) {
+            return true;
+        }
+
+        Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, String.format(
+                "%s needs %d parts of %d bytes, more than the %d S3 allows", getLogName(), getPartCount(), partSize,
+                MAX_PARTS));
+        fail(S3Client.getCallbackFailureErrorCode());
+        return false;
+    }
+
+    int getPartCount() {
+        return (int) Math.max(1, (sourceLength + partSize - 1) / partSize);
+    }
+
+    long getPartLength(int partNumber) {
+        long offset = (partNumber - 1) * partSize;
+        return Math.min(partSize, sourceLength - offset);
+    }
+
+    @Override
+    void onUploadCreated() {
+        uploadParts();
+    }
+
+    /* Parts are only tracked in memory, so a failed multipart upload is aborted */
+    @Override
+    boolean abortOnFailure() {
+        return true;
+    }
+
+    /**
+     * Called with this locked as each part is recorded, before its progress is reported
+     */
+    void onPartRecorded() {
+    }
+
+    /* Uploads every part not in completedParts yet. Must be called with this locked. */
+    void uploadParts() {
+        for (int partNumber = 1; partNumber <= getPartCount(); ++partNumber) {
+            if (!completedParts.containsKey(partNumber)) {
+                remainingParts.add(partNumber);
+            }
+        }
+
+        if (bytesCompleted > 0) {
+            reportProgress(completedParts.size());
+        }
+
+        if (remainingParts.isEmpty()) {
+            completeUpload();
+            return;
+        }
+
+        while (!finished && !remainingParts.isEmpty() && inFlight.size() < maxConcurrentParts) {
+            uploadPart(remainingParts.poll());
+        }
+    }
+
+    private void uploadPart(int partNumber) {
+        long partLength = getPartLength(partNumber);
+        FileBodyStream body;
+        try {
+            body = new FileBodyStream(sourcePath, (partNumber - 1) * partSize, partLength);
+        } catch (IOException | IllegalArgumentException e) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                    getLogName() + " failed to read part " + partNumber + " of upload source: " + e.getMessage());
+            fail(S3Client.getCallbackFailureErrorCode());
+            return;
+        }
+
+        uploadPart(partNumber, body, new PartHandler(partNumber, partLength) {
+            @Override
+            void onPartUploaded() {
+                onPartRecorded();
+                reportProgress(completedParts.size());
+
+                if (!remainingParts.isEmpty()) {
+                    uploadPart(remainingParts.poll());
+                } else if (completedParts.size() == getPartCount()) {
+                    completeUpload();
+                }
+            }
+        });
+    }
+}
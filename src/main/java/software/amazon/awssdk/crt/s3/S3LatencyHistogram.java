@@ -0,0 +1,104 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds with power-of-two buckets, so recording is a few atomic increments and
+ * percentiles are accurate to within a factor of two.
+ */
+public final class S3LatencyHistogram {
+
+    /* Bucket i counts durations in [2^i, 2^(i+1)) nanoseconds, bucket 0 also takes 0 */
+    private final static int BUCKET_COUNT = 63;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    S3LatencyHistogram() {
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(value | 1));
+        count.incrementAndGet();
+        sumNanos.addAndGet(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    void add(S3LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            buckets.addAndGet(i, other.buckets.get(i));
+        }
+        count.addAndGet(other.count.get());
+        sumNanos.addAndGet(other.sumNanos.get());
+        maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+    }
+
+    S3LatencyHistogram copy() {
+        S3LatencyHistogram copy = new S3LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * @return number of durations recorded
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return mean of the recorded durations, or 0 if there are none
+     */
+    public double getMeanNanos() {
+        long samples = count.get();
+        return samples == 0 ? 0 : (double) sumNanos.get() / samples;
+    }
+
+    /**
+     * @return longest recorded duration, or 0 if there are none
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100, e.g. 99 for p99
+     * @return upper bound of the bucket holding that percentile, never more than the longest duration, or 0 if
+     *         nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100. Actual value: " + percentile);
+        }
+
+        long samples = count.get();
+        if (samples == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * samples));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                long upperBound = i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upperBound, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fns p50=%dns p99=%dns max=%dns", getCount(), getMeanNanos(),
+                getPercentileNanos(50), getPercentileNanos(99), getMaxNanos());
+    }
+}
@@ -8,11 +8,20 @@ public class S3MetaRequest extends CrtResource {
 
     private final CompletableFuture<Void> shutdownComplete = new CompletableFuture<>();
 
+    /* Only set with manual window management */
+    private volatile S3ReadWindow readWindow;
+
+    /* Guarded by this, so cancel() never reaches native code after the handle was destroyed */
+    private boolean cancelled = false;
+    private boolean destroyed = false;
+
+    private volatile S3MetaRequestMetrics metrics;
+
     S3MetaRequest() {
 
     }
 
-    private void onShutdownComplete() {
+    void onShutdownComplete() {
         releaseReferences();
         
         this.shutdownComplete.complete(null);
@@ -34,19 +43,116 @@ public class S3MetaRequest extends CrtResource {
      */
     @Override
     protected void releaseNativeHandle() {
-        if (!isNull()) {
-            s3MetaRequestDestroy(getNativeHandle());
+        synchronized (this) {
+            destroyed = true;
+            if (!isNull()) {
+                s3MetaRequestDestroy(getNativeHandle());
+            }
         }
     }
 
-    void setMetaRequestNativeHandle(long nativeHandle) {
+    synchronized void setMetaRequestNativeHandle(long nativeHandle) {
         acquireNativeHandle(nativeHandle);
+
+        /* cancelled while still queued for admission */
+        if (cancelled) {
+            s3MetaRequestCancel(nativeHandle);
+        }
+    }
+
+    /**
+     * Cancels the meta request. No new parts are started, body delivery stops, and the response handler's
+     * onFinished is invoked with a non-zero error code. Parts already on the wire are abandoned as soon as their
+     * response arrives, and their connections go back to the client. Cancelling a finished meta request has no
+     * effect.
+     */
+    public void cancel() {
+        S3ReadWindow window = readWindow;
+        if (window != null) {
+            window.discardPending();
+        }
+
+        synchronized (this) {
+            cancelled = true;
+            if (!isNull() && !destroyed) {
+                s3MetaRequestCancel(getNativeHandle());
+            }
+        }
+    }
+
+    /**
+     * @return true if cancel() has been called
+     */
+    public synchronized boolean isCancelled() {
+        return cancelled;
     }
 
     public CompletableFuture<Void> getShutdownCompleteFuture() { return shutdownComplete; }
 
+    /**
+     * Metrics are set before the response handler's onFinished is invoked, so they can be read from there. Meta
+     * requests the client drives from Java, such as resumable and unknown-length uploads, have none of their own;
+     * each of their requests is counted in the client-wide metrics instead.
+     *
+     * @return timings and counters of the finished meta request, or null if it hasn't finished
+     */
+    public S3MetaRequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    void setMetrics(S3MetaRequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Opens the read window of a meta request created with manual window management, allowing that many more
+     * body bytes to be delivered to the response handler. Chunks that arrived while the window was closed are
+     * delivered on the calling thread before this returns, as far as the window allows. Has no effect otherwise.
+     *
+     * @param bytes How many bytes to increment the read window by.
+     */
+    public void incrementReadWindow(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("bytes must be >= 0. Actual value: " + bytes);
+        }
+
+        S3ReadWindow window = readWindow;
+        if (window != null && bytes > 0) {
+            window.increment(bytes);
+        }
+    }
+
+    /**
+     * @return bytes that may still be delivered before the read window closes, 0 without manual window management.
+     *         Negative when the last delivered chunk was larger than the window that admitted it.
+     */
+    public long getReadWindow() {
+        S3ReadWindow window = readWindow;
+        return window != null ? window.getWindow() : 0;
+    }
+
+    /**
+     * @return body bytes received while the read window was closed and not delivered yet, 0 without manual window
+     *         management
+     */
+    public long getPendingReadBytes() {
+        S3ReadWindow window = readWindow;
+        return window != null ? window.getPendingBytes() : 0;
+    }
+
+    void initReadWindow(S3MetaRequestResponseHandler responseHandler, long initialReadWindow,
+            long maxPendingReadBytes) {
+        this.readWindow = new S3ReadWindow(responseHandler, initialReadWindow, maxPendingReadBytes);
+    }
+
+    S3ReadWindow getManualReadWindow() {
+        return readWindow;
+    }
+
     /*******************************************************************************
      * native methods
      ******************************************************************************/
     private static native void s3MetaRequestDestroy(long s3MetaRequest);
+
+    private static native void s3MetaRequestCancel(long s3MetaRequest);
 }
@@ -0,0 +1,187 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+/**
+ * Timings and counters of one finished meta request, as seen from its callbacks. Times are measured from when the
+ * meta request was handed to native, after any wait for the client's admission budget or request rate.
+ */
+public final class S3MetaRequestMetrics {
+
+    private final String endpoint;
+    private final int errorCode;
+    private final int responseStatus;
+    private final long queuedNanos;
+    private final long timeToFirstByteNanos;
+    private final long durationNanos;
+    private final long bytesTransferred;
+    private final long partsCompleted;
+    private final S3LatencyHistogram partIntervals;
+
+    private S3MetaRequestMetrics(String endpoint, int errorCode, int responseStatus, long queuedNanos,
+            long timeToFirstByteNanos, long durationNanos, long bytesTransferred, long partsCompleted,
+            S3LatencyHistogram partIntervals) {
+        this.endpoint = endpoint;
+        this.errorCode = errorCode;
+        this.responseStatus = responseStatus;
+        this.queuedNanos = queuedNanos;
+        this.timeToFirstByteNanos = timeToFirstByteNanos;
+        this.durationNanos = durationNanos;
+        this.bytesTransferred = bytesTransferred;
+        this.partsCompleted = partsCompleted;
+        this.partIntervals = partIntervals;
+    }
+
+    /**
+     * @return value of the request's Host header, or an empty string if it had none
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the error code the meta request finished with, 0 on success
+     */
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return the final HTTP status, or 0 if no response was received
+     */
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    /**
+     * @return time spent waiting for the client's admission budget or request rate before being started
+     */
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    /**
+     * @return time from start until the first response headers or body bytes arrived, or -1 if none did
+     */
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    /**
+     * @return time from start until the meta request finished
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return body bytes transferred, counted as in {@link S3MetaRequestProgress#getBytesTransferred()}
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * @return number of parts transferred
+     */
+    public long getPartsCompleted() {
+        return partsCompleted;
+    }
+
+    /**
+     * Time between consecutive parts being transferred, the first measured from the start. With parts in flight
+     * concurrently, this is the rate parts come out at rather than the latency of each one; a part that took longer
+     * than its neighbours shows up as a long interval.
+     *
+     * @return histogram with one entry per part
+     */
+    public S3LatencyHistogram getPartIntervals() {
+        return partIntervals;
+    }
+
+    /**
+     * @return body bytes per second over the duration of the meta request
+     */
+    public double getThroughputBytesPerSecond() {
+        return durationNanos > 0 ? bytesTransferred * 1e9 / durationNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "endpoint=%s errorCode=%d status=%d queued=%dns ttfb=%dns duration=%dns bytes=%d parts=%d "
+                        + "partIntervals={%s}",
+                endpoint, errorCode, responseStatus, queuedNanos, timeToFirstByteNanos, durationNanos,
+                bytesTransferred, partsCompleted, partIntervals);
+    }
+
+    /**
+     * Collects the metrics of one meta request from its native callbacks.
+     */
+    static final class Recorder {
+        private final String endpoint;
+        private final S3ClientMetrics.Aggregator aggregator;
+        private final long createdNanos = System.nanoTime();
+        private volatile long startedNanos = 0;
+        private volatile long firstByteNanos = 0;
+
+        /* Guarded by this */
+        private final S3LatencyHistogram partIntervals = new S3LatencyHistogram();
+        private long lastPartNanos = 0;
+        private long bytesTransferred = 0;
+        private long partsCompleted = 0;
+
+        /**
+         * @param aggregator client-wide metrics each finished meta request is added to, or null
+         */
+        Recorder(String endpoint, S3ClientMetrics.Aggregator aggregator) {
+            this.endpoint = endpoint != null ? endpoint : "";
+            this.aggregator = aggregator;
+        }
+
+        void onStarted() {
+            startedNanos = System.nanoTime();
+        }
+
+        void onFirstByte() {
+            if (firstByteNanos == 0) {
+                firstByteNanos = System.nanoTime();
+            }
+        }
+
+        synchronized void onProgress(long bytesTransferred, long partsCompleted) {
+            long newParts = partsCompleted - this.partsCompleted;
+            if (newParts > 0) {
+                long now = System.nanoTime();
+                long interval = (now - (lastPartNanos != 0 ? lastPartNanos : getStartedNanos())) / newParts;
+                for (long part = 0; part < newParts; ++part) {
+                    partIntervals.record(interval);
+                }
+                lastPartNanos = now;
+                this.partsCompleted = partsCompleted;
+            }
+            this.bytesTransferred = Math.max(this.bytesTransferred, bytesTransferred);
+        }
+
+        synchronized S3MetaRequestMetrics finish(int errorCode, int responseStatus) {
+            long now = System.nanoTime();
+            long started = getStartedNanos();
+            long firstByte = firstByteNanos;
+            S3MetaRequestMetrics metrics = new S3MetaRequestMetrics(endpoint, errorCode, responseStatus,
+                    started - createdNanos, firstByte != 0 ? firstByte - started : -1, now - started,
+                    bytesTransferred, partsCompleted, partIntervals.copy());
+            if (aggregator != null) {
+                aggregator.add(metrics);
+            }
+            return metrics;
+        }
+
+        /* A meta request that failed before it was started is treated as started when created */
+        private long getStartedNanos() {
+            long started = startedNanos;
+            return started != 0 ? started : createdNanos;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package software.amazon.awssdk.crt.s3;
 import software.amazon.awssdk.crt.http.HttpRequest;
 import software.amazon.awssdk.crt.io.TlsContext;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,6 +45,18 @@ public class S3MetaRequestOptions {
     private MetaRequestType metaRequestType;
     private HttpRequest httpRequest;
     private S3MetaRequestResponseHandler responseHandler;
+    private Path responseFilePath;
+    private boolean responseFilePreallocate;
+    private boolean responseFileSyncOnFinish;
+    private Path requestFilePath;
+    private boolean manualWindowManagement;
+    private long initialReadWindow;
+    private long maxPendingReadBytes;
+    private long partSize;
+    private int maxConcurrentParts;
+    private int reservationInParts;
+    private boolean smallObject;
+    private Path checkpointFilePath;
 
     public S3MetaRequestOptions withMetaRequestType(MetaRequestType metaRequestType) {
         this.metaRequestType = metaRequestType;
@@ -71,4 +84,241 @@ public class S3MetaRequestOptions {
     public S3MetaRequestResponseHandler getResponseHandler() {
         return responseHandler;
     }
+
+    /**
+     * Download the response body straight to a file. Native code writes each part at its offset in the object as it
+     * arrives, and the body is never delivered to {@link S3MetaRequestResponseHandler#onResponseBody}; headers and
+     * onFinished are still delivered. Any existing file at this path is truncated.
+     * Only meaningful for GET_OBJECT meta requests.
+     *
+     * @param responseFilePath destination file for the object, or null to deliver the body to the response handler
+     * @return this
+     */
+    public S3MetaRequestOptions withResponseFilePath(Path responseFilePath) {
+        this.responseFilePath = responseFilePath;
+        return this;
+    }
+
+    public Path getResponseFilePath() {
+        return responseFilePath;
+    }
+
+    /**
+     * When downloading to a file, reserve space for the whole object as soon as its size is known from the response
+     * headers (fallocate where the platform supports it), rather than growing the file part by part.
+     *
+     * @param responseFilePreallocate true to preallocate the response file
+     * @return this
+     */
+    public S3MetaRequestOptions withResponseFilePreallocate(boolean responseFilePreallocate) {
+        this.responseFilePreallocate = responseFilePreallocate;
+        return this;
+    }
+
+    public boolean getResponseFilePreallocate() {
+        return responseFilePreallocate;
+    }
+
+    /**
+     * When downloading to a file, flush it to stable storage (fsync) before onFinished is invoked. A failed sync is
+     * reported as the meta request's error code.
+     *
+     * @param responseFileSyncOnFinish true to fsync the response file before completing
+     * @return this
+     */
+    public S3MetaRequestOptions withResponseFileSyncOnFinish(boolean responseFileSyncOnFinish) {
+        this.responseFileSyncOnFinish = responseFileSyncOnFinish;
+        return this;
+    }
+
+    public boolean getResponseFileSyncOnFinish() {
+        return responseFileSyncOnFinish;
+    }
+
+    /**
+     * Upload the request body from a file. Native code reads each part straight from the file with positional reads,
+     * so no body bytes pass through Java and no {@link software.amazon.awssdk.crt.http.HttpRequestBodyStream} is
+     * needed. A file larger than one part is uploaded as a multipart upload split in Java, with each part sent as its
+     * own request reading its own range of the file, so up to the max concurrent parts are read at once.
+     * Content-Length is set from the file size if the request doesn't already have one.
+     * Only meaningful for PUT_OBJECT meta requests, and the HttpRequest must not have its own body stream.
+     *
+     * @param requestFilePath file to upload, or null to use the HttpRequest's body stream
+     * @return this
+     */
+    public S3MetaRequestOptions withRequestFilePath(Path requestFilePath) {
+        this.requestFilePath = requestFilePath;
+        return this;
+    }
+
+    public Path getRequestFilePath() {
+        return requestFilePath;
+    }
+
+    /**
+     * Applies flow control to the response body. When enabled, body data is only delivered to the response handler
+     * while the read window is open; delivery of a chunk shrinks the window by its size, and the window is reopened by
+     * returning a positive value from onResponseBody or by calling {@link S3MetaRequest#incrementReadWindow(long)}.
+     * The transfer itself is not paused: chunks that arrive while the window is closed are copied to the heap and
+     * queued, and are delivered in order once the window reopens. The queue is capped by
+     * {@link #withMaxPendingReadBytes(long)}, and the meta request fails if a chunk would exceed the cap. onFinished is
+     * held back until the queue has been delivered, unless the meta request failed. Has no effect on bodies written
+     * straight to a response file.
+     *
+     * @param manualWindowManagement true to enable the read window
+     * @return this
+     */
+    public S3MetaRequestOptions withManualWindowManagement(boolean manualWindowManagement) {
+        this.manualWindowManagement = manualWindowManagement;
+        return this;
+    }
+
+    public boolean isManualWindowManagement() {
+        return manualWindowManagement;
+    }
+
+    /**
+     * @param initialReadWindow number of body bytes that may be delivered before the window has to be incremented.
+     *                          Only used with manual window management.
+     * @return this
+     */
+    public S3MetaRequestOptions withInitialReadWindow(long initialReadWindow) {
+        if (initialReadWindow < 0) {
+            throw new IllegalArgumentException("initialReadWindow must be >= 0. Actual value: " + initialReadWindow);
+        }
+        this.initialReadWindow = initialReadWindow;
+        return this;
+    }
+
+    public long getInitialReadWindow() {
+        return initialReadWindow;
+    }
+
+    /**
+     * Caps the body bytes queued on the heap while the read window is closed. The aws-c-s3 version bound here can't
+     * pause the transfer, so a chunk that would take the queue past the cap fails the meta request rather than letting
+     * the queue grow with the object. Only used with manual window management.
+     *
+     * @param maxPendingReadBytes cap in bytes, or 0 for four times the part size
+     * @return this
+     */
+    public S3MetaRequestOptions withMaxPendingReadBytes(long maxPendingReadBytes) {
+        if (maxPendingReadBytes < 0) {
+            throw new IllegalArgumentException(
+                    "maxPendingReadBytes must be >= 0. Actual value: " + maxPendingReadBytes);
+        }
+        this.maxPendingReadBytes = maxPendingReadBytes;
+        return this;
+    }
+
+    public long getMaxPendingReadBytes() {
+        return maxPendingReadBytes;
+    }
+
+    /**
+     * Overrides the client's part size for this PUT_OBJECT, e.g. large parts for very large uploads. aws-c-s3 fixes
+     * the part size for the whole client, so a PUT with an override is split into parts in Java and each part is sent
+     * on the client's own connections, using exactly this size. makeMetaRequest throws IllegalArgumentException for an
+     * override on any other meta request, including small objects, rather than use a different size.
+     *
+     * @param partSize part size in bytes, or 0 to use the client's part size
+     * @return this
+     */
+    public S3MetaRequestOptions withPartSize(long partSize) {
+        if (partSize < 0) {
+            throw new IllegalArgumentException("partSize must be >= 0. Actual value: " + partSize);
+        }
+        this.partSize = partSize;
+        return this;
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Limits how many parts of an upload the client splits in Java are in flight at once: a PUT_OBJECT from a
+     * request file larger than one part, or one whose body stream has no Content-Length header. For a body stream this
+     * is also the number of part-sized buffers that exist at once, and reading the stream waits while they are all
+     * being uploaded. Defaults to 4.
+     *
+     * Setting this on a PUT_OBJECT with a body of known length also has it split in Java. The aws-c-s3 version bound
+     * here can't limit the concurrency of a single meta request it splits itself, so makeMetaRequest throws
+     * IllegalArgumentException for this option on any other meta request. See
+     * {@link #withReservationInParts(int)} to weigh its buffers for admission instead.
+     *
+     * @param maxConcurrentParts number of parts, or 0 for the default
+     * @return this
+     */
+    public S3MetaRequestOptions withMaxConcurrentParts(int maxConcurrentParts) {
+        if (maxConcurrentParts < 0) {
+            throw new IllegalArgumentException("maxConcurrentParts must be >= 0. Actual value: " + maxConcurrentParts);
+        }
+        this.maxConcurrentParts = maxConcurrentParts;
+        return this;
+    }
+
+    public int getMaxConcurrentParts() {
+        return maxConcurrentParts;
+    }
+
+    /**
+     * Sets how many parts this meta request reserves from the client's admission budget while it runs. aws-c-s3 may
+     * buffer several parts of one meta request at once, so reserving that many lets a budgeted client admit fewer
+     * wide meta requests side by side. This is a weight for admission only; it does not change how many parts are in
+     * flight or what native allocates.
+     *
+     * @param reservationInParts number of parts, or 0 to reserve a single part
+     * @return this
+     */
+    public S3MetaRequestOptions withReservationInParts(int reservationInParts) {
+        if (reservationInParts < 0) {
+            throw new IllegalArgumentException(
+                    "reservationInParts must be >= 0. Actual value: " + reservationInParts);
+        }
+        this.reservationInParts = reservationInParts;
+        return this;
+    }
+
+    public int getReservationInParts() {
+        return reservationInParts;
+    }
+
+    /**
+     * Marks the object as fitting in a single part. The request is then sent as one signed GET or PUT on one of the
+     * client's pooled connections, skipping the ranged GET / multipart upload machinery (a small PUT otherwise costs
+     * three round trips). Native reads the request body as it is and reports progress once, when the request
+     * finishes, instead of once per body chunk. Part size and max concurrent parts overrides can't be combined with
+     * this. A PUT must carry a Content-Length header or use a request file.
+     *
+     * @param smallObject true if the object is smaller than one part
+     * @return this
+     */
+    public S3MetaRequestOptions withSmallObject(boolean smallObject) {
+        this.smallObject = smallObject;
+        return this;
+    }
+
+    public boolean isSmallObject() {
+        return smallObject;
+    }
+
+    /**
+     * Makes a PUT_OBJECT from a request file resumable. The upload ID and the ETag of every finished part are
+     * persisted to this file as the upload progresses. If the file already describes an upload of the same source
+     * file (same size, modification time and part size) to the same key, that upload is continued and its finished
+     * parts are skipped. The checkpoint is deleted once the upload completes and kept if it fails or is cancelled.
+     * Parts are uploaded with up to max concurrent parts in flight (4 if not set).
+     *
+     * @param checkpointFilePath file to persist upload progress to, or null for a non-resumable upload
+     * @return this
+     */
+    public S3MetaRequestOptions withCheckpointFilePath(Path checkpointFilePath) {
+        this.checkpointFilePath = checkpointFilePath;
+        return this;
+    }
+
+    public Path getCheckpointFilePath() {
+        return checkpointFilePath;
+    }
 }
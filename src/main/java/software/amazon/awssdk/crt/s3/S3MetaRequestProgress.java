@@ -0,0 +1,34 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+/**
+ * Cumulative progress of a meta request, reported once per part.
+ */
+public class S3MetaRequestProgress {
+
+    private final long bytesTransferred;
+    private final long partsCompleted;
+
+    public S3MetaRequestProgress(long bytesTransferred, long partsCompleted) {
+        this.bytesTransferred = bytesTransferred;
+        this.partsCompleted = partsCompleted;
+    }
+
+    /**
+     * @return body bytes transferred so far. For downloads these are bytes received, for uploads bytes read from
+     *         the request body to fill parts.
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * @return number of parts transferred so far
+     */
+    public long getPartsCompleted() {
+        return partsCompleted;
+    }
+}
@@ -1,13 +1,76 @@
 package software.amazon.awssdk.crt.s3;
 
 import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpHeaders;
+
+import java.nio.ByteBuffer;
 
 public interface S3MetaRequestResponseHandler {
     default void onResponseHeaders(final int statusCode, final HttpHeader[] headers) { }
-    
+
+    /**
+     * Invoked with the response headers without copying them into HttpHeader objects first. Override this instead of
+     * {@link #onResponseHeaders(int, HttpHeader[])} to only decode the headers that are read.
+     * The default implementation copies every header into an array and forwards it to
+     * {@link #onResponseHeaders(int, HttpHeader[])}.
+     *
+     * headers is only valid for the duration of this call, use {@link HttpHeaders#copy()} to keep it.
+     *
+     * @param statusCode HTTP status of the response
+     * @param headers the response headers
+     */
+    default void onResponseHeaders(final int statusCode, final HttpHeaders headers) {
+        onResponseHeaders(statusCode, headers.toArray());
+    }
+
     default int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
         return 0;
     }
 
+    /**
+     * Invoked with each chunk of the response body directly from native memory, without a copy onto the Java heap.
+     * Override this instead of {@link #onResponseBody(byte[], long, long)} to write parts straight to their final
+     * destination, e.g. with {@code FileChannel.write(bodyBytesIn, objectRangeStart)}.
+     * The default implementation copies the buffer into a new array and forwards it to
+     * {@link #onResponseBody(byte[], long, long)}.
+     *
+     * bodyBytesIn is a direct ByteBuffer over memory owned by the S3 client and must be treated as read-only. It is
+     * only valid for the duration of this call: do NOT keep a reference to it, or to any slice/duplicate of it, after
+     * returning. Parts may be delivered on different threads. With manual window management, chunks that arrived
+     * while the read window was closed are delivered later as heap copies, on the thread that reopens the window.
+     *
+     * @param bodyBytesIn the body bytes for [objectRangeStart, objectRangeEnd), from position to limit
+     * @param objectRangeStart offset in the object of the first byte in bodyBytesIn
+     * @param objectRangeEnd offset in the object one past the last byte in bodyBytesIn
+     * @return with manual window management, how many bytes to reopen the read window by; otherwise unused, should
+     *         be 0
+     */
+    default int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+        byte[] payload = new byte[bodyBytesIn.remaining()];
+        bodyBytesIn.get(payload);
+        return onResponseBody(payload, objectRangeStart, objectRangeEnd);
+    }
+
+    /**
+     * Invoked once per part as the transfer advances, never per chunk, so it is cheap enough to leave enabled.
+     * Downloads report a part once its body has been received (or written to the response file), uploads once the
+     * part has been read from the request body. Invoked on a client thread, must not block.
+     *
+     * @param progress cumulative progress of the meta request
+     */
+    default void onProgress(final S3MetaRequestProgress progress) { }
+
     default void onFinished(int errorCode) { }
+
+    /**
+     * Invoked once when the meta request finishes. Override this instead of {@link #onFinished(int)} to see the
+     * HTTP status of a failed request, e.g. 304 Not Modified for a conditional GET or 412 Precondition Failed.
+     * The default implementation forwards to {@link #onFinished(int)}.
+     *
+     * @param errorCode 0 on success, otherwise the CRT error code the meta request failed with
+     * @param responseStatus HTTP status of the final response, or 0 if no response was received
+     */
+    default void onFinished(int errorCode, int responseStatus) {
+        onFinished(errorCode);
+    }
 }
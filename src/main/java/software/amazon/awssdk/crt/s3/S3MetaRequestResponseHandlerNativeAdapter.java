@@ -1,27 +1,74 @@
 package software.amazon.awssdk.crt.s3;
 
-import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpHeaders;
 
 import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
 
 class S3MetaRequestResponseHandlerNativeAdapter {
     private S3MetaRequestResponseHandler responseHandler;
+    private S3MetaRequest metaRequest;
+    /* Called with the response status before the response handler hears the meta request finished */
+    private IntConsumer onFinishedHook;
+    private S3MetaRequestMetrics.Recorder metricsRecorder;
 
     S3MetaRequestResponseHandlerNativeAdapter(S3MetaRequestResponseHandler responseHandler) {
+        this(responseHandler, null, null, null);
+    }
+
+    S3MetaRequestResponseHandlerNativeAdapter(S3MetaRequestResponseHandler responseHandler, S3MetaRequest metaRequest,
+            IntConsumer onFinishedHook, S3MetaRequestMetrics.Recorder metricsRecorder) {
         this.responseHandler = responseHandler;
+        this.metaRequest = metaRequest;
+        this.onFinishedHook = onFinishedHook;
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    S3MetaRequestMetrics.Recorder getMetricsRecorder() {
+        return metricsRecorder;
     }
 
     int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
-        byte[] payload = new byte[bodyBytesIn.limit()];
-        bodyBytesIn.get(payload);
-        return this.responseHandler.onResponseBody(payload, objectRangeStart, objectRangeEnd);
+        if (metricsRecorder != null) {
+            metricsRecorder.onFirstByte();
+        }
+
+        S3ReadWindow readWindow = metaRequest != null ? metaRequest.getManualReadWindow() : null;
+        if (readWindow != null) {
+            return readWindow.onResponseBody(bodyBytesIn, objectRangeStart, objectRangeEnd);
+        }
+        return this.responseHandler.onResponseBody(bodyBytesIn, objectRangeStart, objectRangeEnd);
     }
 
-    void onFinished(int errorCode) {
-        this.responseHandler.onFinished(errorCode);
+    void onFinished(int errorCode, int responseStatus) {
+        if (metricsRecorder != null) {
+            S3MetaRequestMetrics metrics = metricsRecorder.finish(errorCode, responseStatus);
+            if (metaRequest != null) {
+                metaRequest.setMetrics(metrics);
+            }
+        }
+        if (onFinishedHook != null) {
+            onFinishedHook.accept(responseStatus);
+        }
+        S3ReadWindow readWindow = metaRequest != null ? metaRequest.getManualReadWindow() : null;
+        if (readWindow != null) {
+            readWindow.onFinished(errorCode, responseStatus);
+            return;
+        }
+        this.responseHandler.onFinished(errorCode, responseStatus);
     }
     
+    void onProgress(long bytesTransferred, long partsCompleted) {
+        if (metricsRecorder != null) {
+            metricsRecorder.onProgress(bytesTransferred, partsCompleted);
+        }
+        responseHandler.onProgress(new S3MetaRequestProgress(bytesTransferred, partsCompleted));
+    }
+
     void onResponseHeaders(final int statusCode, final ByteBuffer headersBlob) {
-        responseHandler.onResponseHeaders(statusCode, HttpHeader.loadHeadersFromMarshalledHeadersBlob(headersBlob));
+        if (metricsRecorder != null) {
+            metricsRecorder.onFirstByte();
+        }
+        responseHandler.onResponseHeaders(statusCode, HttpHeaders.fromMarshalledHeadersBlob(headersBlob));
     }
 }
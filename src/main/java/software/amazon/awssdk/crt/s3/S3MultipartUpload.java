@@ -0,0 +1,480 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import software.amazon.awssdk.crt.Log;
+import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpHeaders;
+import software.amazon.awssdk.crt.http.HttpRequest;
+import software.amazon.awssdk.crt.http.HttpRequestBodyStream;
+import software.amazon.awssdk.crt.s3.S3MetaRequestOptions.MetaRequestType;
+
+/**
+ * A multipart upload driven from Java rather than by aws-c-s3. CreateMultipartUpload, each UploadPart and
+ * CompleteMultipartUpload are sent as single-request meta requests on the owning client. Subclasses decide where
+ * the parts come from and when to send them; this class tracks the requests in flight and reports the outcome
+ * once the last of them finishes.
+ *
+ * All state is guarded by this, and the subclass hooks are called with this locked. Callbacks to the user's response
+ * handler are queued with this locked and delivered, serially and in order, by {@link #deliverCallbacks} once it is
+ * released, so a slow or re-entrant handler never runs while the upload is locked.
+ */
+abstract class S3MultipartUpload extends S3MetaRequest {
+
+    final static Charset UTF8 = java.nio.charset.StandardCharsets.UTF_8;
+    /* S3 accepts part numbers 1 to 10,000 */
+    final static int MAX_PARTS = 10000;
+    private final static int DEFAULT_MAX_CONCURRENT_PARTS = 4;
+
+    private final static Pattern UPLOAD_ID_PATTERN = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+    private final static Pattern ERROR_PATTERN = Pattern.compile("<Error>");
+    private final static Pattern ERROR_CODE_PATTERN = Pattern.compile("<Code>([^<]+)</Code>");
+
+    private final S3Client client;
+    final S3MetaRequestResponseHandler responseHandler;
+    final String objectPath;
+    /* Content headers (type, metadata, ...) belong on CreateMultipartUpload, only Host goes on the rest */
+    final List<HttpHeader> createHeaders = new ArrayList<>();
+    private final String host;
+    final int maxConcurrentParts;
+
+    /* Everything below is guarded by this */
+    String uploadId;
+    final SortedMap<Integer, String> completedParts = new TreeMap<>();
+    final Set<S3MetaRequest> inFlight = new HashSet<>();
+    long bytesCompleted = 0;
+    int failureErrorCode = 0;
+    boolean finished = false;
+    private boolean aborted = false;
+    private boolean reported = false;
+    private final Deque<Runnable> callbacks = new ArrayDeque<>();
+    /* set while one thread delivers callbacks, which keeps them serial and in order */
+    private boolean deliveringCallbacks = false;
+
+    S3MultipartUpload(S3Client client, S3MetaRequestOptions options) {
+        this.client = client;
+        this.responseHandler = options.getResponseHandler();
+        this.maxConcurrentParts = options.getMaxConcurrentParts() > 0
+                ? options.getMaxConcurrentParts() : DEFAULT_MAX_CONCURRENT_PARTS;
+
+        HttpRequest httpRequest = options.getHttpRequest();
+        String path = httpRequest.getEncodedPath();
+        int queryStart = path.indexOf('?');
+        this.objectPath = queryStart >= 0 ? path.substring(0, queryStart) : path;
+
+        String hostValue = null;
+        for (HttpHeader header : httpRequest.getHeaders()) {
+            if (header.getName().equalsIgnoreCase("Content-Length")) {
+                continue;
+            }
+            if (header.getName().equalsIgnoreCase("Host")) {
+                hostValue = header.getValue();
+            }
+            createHeaders.add(header);
+        }
+        this.host = hostValue;
+    }
+
+    /**
+     * Stops the upload and cancels every request in flight. See {@link #abortOnFailure} for what happens to a
+     * multipart upload that was already created.
+     */
+    @Override
+    public void cancel() {
+        super.cancel();
+
+        List<S3MetaRequest> toCancel;
+        synchronized (this) {
+            fail(S3Client.getCallbackFailureErrorCode());
+            toCancel = new ArrayList<>(inFlight);
+        }
+        deliverCallbacks();
+
+        for (S3MetaRequest part : toCancel) {
+            part.cancel();
+        }
+    }
+
+    /* Must be called with this locked */
+    void reportProgress(long partsCompleted) {
+        final S3MetaRequestProgress progress = new S3MetaRequestProgress(bytesCompleted, partsCompleted);
+        callbacks.add(() -> responseHandler.onProgress(progress));
+    }
+
+    /* Must be called with this locked */
+    void reportResponseHeaders(final int statusCode, final HttpHeaders headers) {
+        callbacks.add(() -> responseHandler.onResponseHeaders(statusCode, headers));
+    }
+
+    /**
+     * Delivers the queued callbacks. Must be called without this locked, by every entry point after it has released
+     * the lock; if another thread is already delivering, it picks up what was queued here as well.
+     */
+    void deliverCallbacks() {
+        synchronized (this) {
+            if (deliveringCallbacks) {
+                return;
+            }
+            deliveringCallbacks = true;
+        }
+
+        while (true) {
+            Runnable callback;
+            synchronized (this) {
+                callback = callbacks.poll();
+                if (callback == null) {
+                    deliveringCallbacks = false;
+                    return;
+                }
+            }
+
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                /* the upload goes on regardless, and the callbacks behind this one are still owed */
+                Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                        getLogName() + " response handler threw: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Called once CreateMultipartUpload has returned the upload ID
+     */
+    abstract void onUploadCreated();
+
+    /**
+     * Called once CompleteMultipartUpload succeeded, before the response headers are passed on
+     */
+    void onUploadCompleted() {
+    }
+
+    /**
+     * @return true to abort a created multipart upload when the upload fails, false to leave it for a later resume
+     */
+    abstract boolean abortOnFailure();
+
+    /**
+     * Called right before onFinished is reported, to release whatever the upload still holds
+     */
+    void onReported() {
+    }
+
+    /**
+     * @return true while the subclass has work of its own outstanding that the outcome must wait for. Once it is
+     *         done, the subclass calls {@link #finishIfIdle} with this locked.
+     */
+    boolean hasPendingWork() {
+        return false;
+    }
+
+    String getLogName() {
+        return getClass().getSimpleName();
+    }
+
+    String encodedUploadId() {
+        try {
+            return URLEncoder.encode(uploadId, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    HttpHeader[] singleRequestHeaders(long contentLength) {
+        List<HttpHeader> headers = new ArrayList<>();
+        if (host != null) {
+            headers.add(new HttpHeader("Host", host));
+        }
+        headers.add(new HttpHeader("Content-Length", Long.toString(contentLength)));
+        return headers.toArray(new HttpHeader[0]);
+    }
+
+    /**
+     * Sends one request as its own single-request meta request, collecting status, headers and body.
+     */
+    abstract class SingleRequestHandler implements S3MetaRequestResponseHandler {
+        int statusCode;
+        HttpHeaders headers;
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        S3MetaRequest metaRequest;
+
+        @Override
+        public void onResponseHeaders(final int statusCode, final HttpHeaders headers) {
+            this.statusCode = statusCode;
+            this.headers = headers.copy();
+        }
+
+        @Override
+        public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+            byte[] chunk = new byte[bodyBytesIn.remaining()];
+            bodyBytesIn.get(chunk);
+            body.write(chunk, 0, chunk.length);
+            return 0;
+        }
+
+        @Override
+        public void onFinished(int errorCode, int responseStatus) {
+            /* an error response may finish the request without its headers being passed on */
+            if (statusCode == 0) {
+                statusCode = responseStatus;
+            }
+
+            synchronized (S3MultipartUpload.this) {
+                inFlight.remove(metaRequest);
+                if (statusCode != 0 && statusCode / 100 != 2) {
+                    if (finished || !onErrorResponse()) {
+                        Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                                getLogName() + " request failed with status " + statusCode);
+                        fail(errorCode != 0 ? errorCode : S3Client.getCallbackFailureErrorCode());
+                    }
+                } else if (errorCode != 0) {
+                    fail(errorCode);
+                } else if (!finished) {
+                    onSuccess();
+                }
+                onDone();
+                if (metaRequest != null) {
+                    metaRequest.close();
+                }
+                finishIfIdle();
+            }
+            deliverCallbacks();
+        }
+
+        String getHeader(String name) {
+            return headers != null ? headers.get(name) : null;
+        }
+
+        /**
+         * @return the Code of the S3 error document in the body, or null if there is none
+         */
+        String getErrorCode() {
+            Matcher matcher = ERROR_CODE_PATTERN.matcher(new String(body.toByteArray(), UTF8));
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        abstract void onSuccess();
+
+        /**
+         * Called instead of failing the upload when the response status isn't 2xx
+         *
+         * @return true if the error was handled, false to fail the upload
+         */
+        boolean onErrorResponse() {
+            return false;
+        }
+
+        /* Called after the outcome, whether it succeeded or not */
+        void onDone() {
+        }
+    }
+
+    /**
+     * Handler for one UploadPart, which records the part's ETag before calling {@link #onPartUploaded}
+     */
+    abstract class PartHandler extends SingleRequestHandler {
+        final int partNumber;
+        final long partLength;
+
+        PartHandler(int partNumber, long partLength) {
+            this.partNumber = partNumber;
+            this.partLength = partLength;
+        }
+
+        @Override
+        void onSuccess() {
+            String etag = getHeader("ETag");
+            if (etag == null) {
+                Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                        getLogName() + " got no ETag for part " + partNumber);
+                fail(S3Client.getCallbackFailureErrorCode());
+                return;
+            }
+
+            completedParts.put(partNumber, etag);
+            bytesCompleted += partLength;
+            onPartUploaded();
+        }
+
+        abstract void onPartUploaded();
+    }
+
+    /* Must be called with this locked */
+    void send(String method, String path, HttpHeader[] headers, HttpRequestBodyStream body,
+            SingleRequestHandler handler) {
+        S3MetaRequestOptions options = new S3MetaRequestOptions()
+                .withMetaRequestType(MetaRequestType.DEFAULT)
+                .withSmallObject(true)
+                .withHttpRequest(new HttpRequest(method, path, headers, body))
+                .withResponseHandler(handler);
+
+        S3MetaRequest metaRequest = null;
+        try {
+            metaRequest = client.makeMetaRequest(options);
+        } catch (RuntimeException e) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                    getLogName() + " failed to start request: " + e.getMessage());
+        }
+        if (metaRequest == null) {
+            handler.onDone();
+            fail(S3Client.getCallbackFailureErrorCode());
+            return;
+        }
+
+        /* Sent with this locked, so the request's onFinished can't run before it is tracked */
+        handler.metaRequest = metaRequest;
+        inFlight.add(metaRequest);
+    }
+
+    /* Must be called with this locked */
+    void createUpload() {
+        send("POST", objectPath + "?uploads", createHeaders.toArray(new HttpHeader[0]), null,
+                new SingleRequestHandler() {
+                    @Override
+                    void onSuccess() {
+                        Matcher matcher = UPLOAD_ID_PATTERN.matcher(new String(body.toByteArray(), UTF8));
+                        if (!matcher.find()) {
+                            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                                    getLogName() + " got no UploadId from CreateMultipartUpload");
+                            fail(S3Client.getCallbackFailureErrorCode());
+                            return;
+                        }
+
+                        uploadId = matcher.group(1);
+                        onUploadCreated();
+                    }
+                });
+    }
+
+    /* Must be called with this locked */
+    void uploadPart(int partNumber, HttpRequestBodyStream body, PartHandler handler) {
+        String path = String.format("%s?partNumber=%d&uploadId=%s", objectPath, partNumber, encodedUploadId());
+        send("PUT", path, singleRequestHeaders(handler.partLength), body, handler);
+    }
+
+    /* Must be called with this locked */
+    void completeUpload() {
+        StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+        for (Map.Entry<Integer, String> part : completedParts.entrySet()) {
+            xml.append("<Part><PartNumber>").append(part.getKey()).append("</PartNumber><ETag>")
+                    .append(part.getValue().replace("\"", "&quot;")).append("</ETag></Part>");
+        }
+        xml.append("</CompleteMultipartUpload>");
+        final ByteBuffer xmlBytes = ByteBuffer.wrap(xml.toString().getBytes(UTF8));
+
+        String path = String.format("%s?uploadId=%s", objectPath, encodedUploadId());
+        send("POST", path, singleRequestHeaders(xmlBytes.remaining()), new ByteBufferBodyStream(xmlBytes),
+                new SingleRequestHandler() {
+                    @Override
+                    void onSuccess() {
+                        /* CompleteMultipartUpload can fail with a 200 status and an error document */
+                        if (ERROR_PATTERN.matcher(new String(body.toByteArray(), UTF8)).find()) {
+                            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                                    getLogName() + " CompleteMultipartUpload failed: "
+                                            + new String(body.toByteArray(), UTF8));
+                            fail(S3Client.getCallbackFailureErrorCode());
+                            return;
+                        }
+
+                        onUploadCompleted();
+                        reportResponseHeaders(statusCode, headers);
+                        finished = true;
+                    }
+                });
+    }
+
+    /* Must be called with this locked. The first failure wins, the rest of the upload drains. */
+    void fail(int errorCode) {
+        if (finished) {
+            return;
+        }
+        failureErrorCode = errorCode;
+        finished = true;
+        /* wakes any subclass thread waiting on this for the upload to make progress */
+        notifyAll();
+        finishIfIdle();
+    }
+
+    /* Reports the outcome once nothing is left in flight. Must be called with this locked. */
+    void finishIfIdle() {
+        if (!finished || !inFlight.isEmpty() || hasPendingWork() || reported) {
+            return;
+        }
+
+        if (failureErrorCode != 0 && uploadId != null && !aborted && abortOnFailure()) {
+            aborted = true;
+            send("DELETE", String.format("%s?uploadId=%s", objectPath, encodedUploadId()), singleRequestHeaders(0),
+                    null, new SingleRequestHandler() {
+                        @Override
+                        void onSuccess() {
+                        }
+                    });
+            if (!inFlight.isEmpty()) {
+                return;
+            }
+        }
+
+        reported = true;
+        onReported();
+        final int errorCode = failureErrorCode;
+        callbacks.add(() -> {
+            try {
+                responseHandler.onFinished(errorCode);
+            } finally {
+                onShutdownComplete();
+            }
+        });
+    }
+
+    /**
+     * Sends a buffer from position 0 to its limit
+     */
+    static class ByteBufferBodyStream implements HttpRequestBodyStream {
+        private final ByteBuffer body;
+
+        ByteBufferBodyStream(ByteBuffer body) {
+            this.body = body;
+        }
+
+        @Override
+        public boolean sendRequestBody(ByteBuffer bodyBytesOut) {
+            int length = Math.min(body.remaining(), bodyBytesOut.remaining());
+            ByteBuffer chunk = body.duplicate();
+            ((Buffer) chunk).limit(chunk.position() + length);
+            bodyBytesOut.put(chunk);
+            ((Buffer) body).position(body.position() + length);
+            return !body.hasRemaining();
+        }
+
+        @Override
+        public boolean resetPosition() {
+            ((Buffer) body).rewind();
+            return true;
+        }
+
+        @Override
+        public long getLength() {
+            return body.limit();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Read window of a meta request created with manual window management. The aws-c-s3 version bound here can't pause
+ * the transfer, and a client thread must never be parked, so chunks arriving while the window is closed are copied
+ * and queued instead, up to maxPendingBytes. A chunk past that throws, which native turns into a failure of the meta
+ * request. Queued chunks are delivered, in order, by whichever thread reopens the window. onFinished is held back
+ * until the queue is empty, except for failures, which drop the queue and are reported right away.
+ */
+final class S3ReadWindow {
+
+    private static final class Chunk {
+        final ByteBuffer body;
+        final long objectRangeStart;
+        final long objectRangeEnd;
+
+        Chunk(ByteBuffer body, long objectRangeStart, long objectRangeEnd) {
+            this.body = body;
+            this.objectRangeStart = objectRangeStart;
+            this.objectRangeEnd = objectRangeEnd;
+        }
+    }
+
+    private final S3MetaRequestResponseHandler responseHandler;
+    private final long maxPendingBytes;
+
+    /* Guarded by this */
+    private long window;
+    private final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+    private long pendingBytes = 0;
+    /* set while one thread delivers to the handler, which keeps deliveries serial and in order */
+    private boolean delivering = false;
+    private boolean finishPending = false;
+    private int finishErrorCode = 0;
+    private int finishResponseStatus = 0;
+
+    S3ReadWindow(S3MetaRequestResponseHandler responseHandler, long initialWindow, long maxPendingBytes) {
+        this.responseHandler = responseHandler;
+        this.window = initialWindow;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * Called on the client thread with each body chunk. Never blocks: a chunk the window doesn't admit is copied.
+     *
+     * @return the handler's window increment, or 0 if the chunk was queued
+     * @throws IllegalStateException if queueing the chunk would exceed maxPendingBytes
+     */
+    int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+        synchronized (this) {
+            if (delivering || !pending.isEmpty() || window <= 0) {
+                if (pendingBytes + bodyBytesIn.remaining() > maxPendingBytes) {
+                    /* the meta request fails on this, so what is queued will never be delivered */
+                    pending.clear();
+                    pendingBytes = 0;
+                    throw new IllegalStateException("Read window closed with more than " + maxPendingBytes
+                            + " body bytes queued; failing the meta request");
+                }
+                ByteBuffer copy = ByteBuffer.allocate(bodyBytesIn.remaining());
+                copy.put(bodyBytesIn);
+                ((Buffer) copy).flip();
+                pending.add(new Chunk(copy, objectRangeStart, objectRangeEnd));
+                pendingBytes += copy.remaining();
+                return 0;
+            }
+            delivering = true;
+        }
+
+        int windowIncrement;
+        try {
+            windowIncrement = deliver(bodyBytesIn, objectRangeStart, objectRangeEnd);
+        } finally {
+            drain();
+        }
+        return windowIncrement;
+    }
+
+    void onFinished(int errorCode, int responseStatus) {
+        synchronized (this) {
+            if (errorCode != 0) {
+                /* the body is incomplete anyway, so don't make the failure wait behind it */
+                pending.clear();
+                pendingBytes = 0;
+            }
+            if (delivering || !pending.isEmpty()) {
+                finishPending = true;
+                finishErrorCode = errorCode;
+                finishResponseStatus = responseStatus;
+                return;
+            }
+        }
+
+        responseHandler.onFinished(errorCode, responseStatus);
+    }
+
+    void increment(long bytes) {
+        synchronized (this) {
+            window += bytes;
+            if (delivering) {
+                return;
+            }
+            delivering = true;
+        }
+
+        drain();
+    }
+
+    /**
+     * Drops queued chunks that were not delivered yet. onFinished still arrives once the transfer ends.
+     */
+    synchronized void discardPending() {
+        pending.clear();
+        pendingBytes = 0;
+    }
+
+    synchronized long getWindow() {
+        return window;
+    }
+
+    synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Delivers queued chunks while the window is open, then the held back onFinished once the queue is empty. Must be
+     * called by the thread that set delivering.
+     */
+    private void drain() {
+        while (true) {
+            Chunk chunk;
+            boolean finish = false;
+            int errorCode = 0;
+            int responseStatus = 0;
+            synchronized (this) {
+                chunk = window > 0 ? pending.poll() : null;
+                if (chunk != null) {
+                    pendingBytes -= chunk.body.remaining();
+                } else {
+                    delivering = false;
+                    if (finishPending && pending.isEmpty()) {
+                        finishPending = false;
+                        finish = true;
+                        errorCode = finishErrorCode;
+                        responseStatus = finishResponseStatus;
+                    }
+                }
+            }
+
+            if (chunk == null) {
+                if (finish) {
+                    responseHandler.onFinished(errorCode, responseStatus);
+                }
+                return;
+            }
+
+            try {
+                deliver(chunk.body, chunk.objectRangeStart, chunk.objectRangeEnd);
+            } catch (RuntimeException e) {
+                /* surfaces on the thread that reopened the window; the chunks behind it go on the next increment */
+                synchronized (this) {
+                    delivering = false;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private int deliver(ByteBuffer body, long objectRangeStart, long objectRangeEnd) {
+        long length = body.remaining();
+        int windowIncrement = responseHandler.onResponseBody(body, objectRangeStart, objectRangeEnd);
+        synchronized (this) {
+            window -= length;
+            if (windowIncrement > 0) {
+                window += windowIncrement;
+            }
+        }
+        return windowIncrement;
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpRequest;
+
+/**
+ * Admission-rate limiter for meta request starts: adaptive token buckets, one per bucket and top-level key prefix,
+ * which is the granularity S3 scales request rates at. Rates follow AIMD: a throttled response halves the rate, and
+ * every successful response that arrives while requests are being held back adds a little, so the rate climbs back
+ * at a steady requests-per-second-per-second pace. Requests reserve their slot up front and are told how long to
+ * wait for it, so nothing polls.
+ *
+ * A slot is one meta request start, and only its final status is fed back; the parts aws-c-s3 sends and retries
+ * within a meta request are not seen here.
+ */
+class S3RequestRateLimiter {
+
+    private final static long NANOS_PER_SECOND = 1000L * 1000 * 1000;
+    private final static int THROTTLED_STATUS = 503;
+    private final static double MIN_RATE = 1.0;
+    private final static double DECREASE_FACTOR = 0.5;
+    /* Fraction of the initial rate regained per second while the limiter is the bottleneck */
+    private final static double INCREASE_FRACTION_PER_SECOND = 0.1;
+    /* Idle buckets let up to a second's worth of requests through at once */
+    private final static double BURST_SECONDS = 1.0;
+    private final static int MAX_TRACKED_PREFIXES = 1024;
+
+    private final double initialRate;
+    private final double increasePerSecond;
+
+    /* Least recently used first, guarded by itself */
+    private final Map<String, TokenBucket> buckets = new LinkedHashMap<String, TokenBucket>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > MAX_TRACKED_PREFIXES;
+        }
+    };
+
+    private static class TokenBucket {
+        double rate;
+        /* When the next request may go, in System.nanoTime() terms */
+        long nextFreeNanos;
+        long lastDecreaseNanos;
+
+        TokenBucket(double rate, long now) {
+            this.rate = rate;
+            this.nextFreeNanos = now;
+            this.lastDecreaseNanos = now;
+        }
+
+        long intervalNanos() {
+            return (long) (NANOS_PER_SECOND / rate);
+        }
+    }
+
+    /**
+     * A slot taken in a bucket's schedule
+     */
+    static class Reservation {
+        final String key;
+        final long reservedAtNanos;
+        final long delayNanos;
+
+        Reservation(String key, long reservedAtNanos, long delayNanos) {
+            this.key = key;
+            this.reservedAtNanos = reservedAtNanos;
+            this.delayNanos = delayNanos;
+        }
+    }
+
+    S3RequestRateLimiter(double initialRate) {
+        this.initialRate = Math.max(MIN_RATE, initialRate);
+        this.increasePerSecond = Math.max(MIN_RATE, this.initialRate * INCREASE_FRACTION_PER_SECOND);
+    }
+
+    /**
+     * @return the bucket host and first path segment of the object key, e.g. "bucket.s3.amazonaws.com/logs"
+     */
+    static String keyOf(HttpRequest request) {
+        String host = "";
+        for (HttpHeader header : request.getHeaders()) {
+            if (header.getName().equalsIgnoreCase("Host")) {
+                host = header.getValue();
+                break;
+            }
+        }
+
+        String path = request.getEncodedPath();
+        int end = path.length();
+        for (int i = 1; i < path.length(); ++i) {
+            char c = path.charAt(i);
+            if (c == '/' || c == '?') {
+                end = i;
+                break;
+            }
+        }
+        return host + path.substring(0, end);
+    }
+
+    /**
+     * Takes the next slot in the schedule of the request's bucket and prefix.
+     */
+    Reservation reserve(String key) {
+        return reserve(key, System.nanoTime());
+    }
+
+    /* now is a System.nanoTime() reading, passed in so the schedule can be tested without sleeping */
+    Reservation reserve(String key, long now) {
+        synchronized (buckets) {
+            TokenBucket bucket = getBucket(key, now);
+            long interval = bucket.intervalNanos();
+            long earliest = now - (long) (BURST_SECONDS * bucket.rate) * interval;
+            long start = Math.max(bucket.nextFreeNanos, earliest);
+            bucket.nextFreeNanos = start + interval;
+            return new Reservation(key, now, Math.max(0, start - now));
+        }
+    }
+
+    /**
+     * Adjusts the rate by the outcome of a request sent on a reservation.
+     *
+     * @param responseStatus the final HTTP status, or 0 if the request never got a response
+     */
+    void onFinished(Reservation reservation, int responseStatus) {
+        onFinished(reservation, responseStatus, System.nanoTime());
+    }
+
+    /* now is a System.nanoTime() reading */
+    void onFinished(Reservation reservation, int responseStatus, long now) {
+        synchronized (buckets) {
+            TokenBucket bucket = buckets.get(reservation.key);
+            if (bucket == null) {
+                return;
+            }
+
+            if (responseStatus == THROTTLED_STATUS) {
+                /* Requests already sent at the old rate say nothing about the new one, so only cut once for them */
+                if (reservation.reservedAtNanos >= bucket.lastDecreaseNanos) {
+                    bucket.rate = Math.max(MIN_RATE, bucket.rate * DECREASE_FACTOR);
+                    bucket.lastDecreaseNanos = now;
+                }
+            } else if (responseStatus / 100 == 2 && bucket.nextFreeNanos > now) {
+                /* One success per interval at full rate adds increasePerSecond each second */
+                bucket.rate += increasePerSecond / bucket.rate;
+            }
+        }
+    }
+
+    /**
+     * @return the current rate in requests per second of a bucket and prefix
+     */
+    double getRate(String key) {
+        synchronized (buckets) {
+            TokenBucket bucket = buckets.get(key);
+            return bucket != null ? bucket.rate : initialRate;
+        }
+    }
+
+    Map<String, Double> getRates() {
+        Map<String, Double> rates = new HashMap<>();
+        synchronized (buckets) {
+            for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+                rates.put(entry.getKey(), entry.getValue().rate);
+            }
+        }
+        return rates;
+    }
+
+    /* Must be called with buckets locked */
+    private TokenBucket getBucket(String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new TokenBucket(initialRate, now);
+            buckets.put(key, bucket);
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+
+import software.amazon.awssdk.crt.Log;
+
+/**
+ * A file upload whose state is checkpointed, so it can be resumed after a failure or restart. aws-c-s3 keeps its
+ * upload ID and part ETags internal, so its own PUT_OBJECT meta request cannot be resumed.
+ *
+ * A resumed upload ID is checked with ListParts first, since S3 drops uploads that were neither completed nor
+ * aborted after a while. If it is gone, the checkpoint is deleted and the upload starts over. Checkpoints are written
+ * by the client's scheduler thread rather than the thread a part finished on, and the outcome is only reported once
+ * the last one is on disk.
+ */
+class S3ResumableUpload extends S3FileUpload {
+
+    private final static int CHECKPOINT_VERSION = 1;
+    private final static String CHECKPOINT_VERSION_KEY = "version";
+    private final static String CHECKPOINT_OBJECT_PATH_KEY = "objectPath";
+    private final static String CHECKPOINT_UPLOAD_ID_KEY = "uploadId";
+    private final static String CHECKPOINT_PART_SIZE_KEY = "partSize";
+    private final static String CHECKPOINT_SOURCE_LENGTH_KEY = "sourceLength";
+    private final static String CHECKPOINT_SOURCE_LAST_MODIFIED_KEY = "sourceLastModified";
+    private final static String CHECKPOINT_PART_PREFIX = "part.";
+    private final static String NO_SUCH_UPLOAD_ERROR_CODE = "NoSuchUpload";
+
+    private final Path checkpointPath;
+
+    /* Everything below is guarded by this */
+    private long sourceLastModified;
+    /* The latest checkpoint not written yet, or a pending delete of the file. Only the latest one is written. */
+    private Properties pendingCheckpoint;
+    private boolean checkpointDeletePending = false;
+    private boolean checkpointWriterRunning = false;
+
+    S3ResumableUpload(S3Client client, S3MetaRequestOptions options, long partSize) {
+        super(client, options, partSize);
+        this.checkpointPath = options.getCheckpointFilePath();
+    }
+
+    @Override
+    void startUpload() {
+        try {
+            sourceLength = Files.size(sourcePath);
+            sourceLastModified = Files.getLastModifiedTime(sourcePath).toMillis();
+            loadCheckpoint();
+        } catch (IOException e) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                    "S3ResumableUpload failed to open upload source or checkpoint: " + e.getMessage());
+            fail(S3Client.getCallbackFailureErrorCode());
+            return;
+        }
+
+        if (!checkPartCount()) {
+            return;
+        }
+
+        if (uploadId == null) {
+            createUpload();
+        } else {
+            Log.log(Log.LogLevel.Info, Log.LogSubject.S3Client, String.format(
+                    "S3ResumableUpload resuming upload %s with %d parts already finished", uploadId,
+                    completedParts.size()));
+            resumeUpload();
+        }
+    }
+
+    /* Must be called with this locked */
+    private void resumeUpload() {
+        /* One part is enough to tell the upload still exists; the checkpoint already holds the ETags */
+        String path = String.format("%s?uploadId=%s&max-parts=1", objectPath, encodedUploadId());
+        send("GET", path, singleRequestHeaders(0), null, new SingleRequestHandler() {
+            @Override
+            void onSuccess() {
+                uploadParts();
+            }
+
+            @Override
+            boolean onErrorResponse() {
+                String errorCode = getErrorCode();
+                if (statusCode != 404 || (errorCode != null && !errorCode.equals(NO_SUCH_UPLOAD_ERROR_CODE))) {
+                    return false;
+                }
+
+                Log.log(Log.LogLevel.Warn, Log.LogSubject.S3Client, String.format(
+                        "S3ResumableUpload upload %s no longer exists, starting over", uploadId));
+                uploadId = null;
+                completedParts.clear();
+                bytesCompleted = 0;
+                deleteCheckpoint();
+                createUpload();
+                return true;
+            }
+        });
+    }
+
+    private void loadCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return;
+        }
+
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointPath)) {
+            checkpoint.load(in);
+        }
+
+        boolean matches = Integer.toString(CHECKPOINT_VERSION).equals(checkpoint.getProperty(CHECKPOINT_VERSION_KEY))
+                && objectPath.equals(checkpoint.getProperty(CHECKPOINT_OBJECT_PATH_KEY))
+                && Long.toString(partSize).equals(checkpoint.getProperty(CHECKPOINT_PART_SIZE_KEY))
+                && Long.toString(sourceLength).equals(checkpoint.getProperty(CHECKPOINT_SOURCE_LENGTH_KEY))
+                && Long.toString(sourceLastModified)
+                        .equals(checkpoint.getProperty(CHECKPOINT_SOURCE_LAST_MODIFIED_KEY))
+                && checkpoint.getProperty(CHECKPOINT_UPLOAD_ID_KEY) != null;
+        if (!matches) {
+            Log.log(Log.LogLevel.Warn, Log.LogSubject.S3Client,
+                    "S3ResumableUpload ignoring checkpoint that doesn't match this upload: " + checkpointPath);
+            return;
+        }
+
+        uploadId = checkpoint.getProperty(CHECKPOINT_UPLOAD_ID_KEY);
+        int partCount = getPartCount();
+        for (String name : checkpoint.stringPropertyNames()) {
+            if (!name.startsWith(CHECKPOINT_PART_PREFIX)) {
+                continue;
+            }
+            int partNumber = Integer.parseInt(name.substring(CHECKPOINT_PART_PREFIX.length()));
+            if (partNumber >= 1 && partNumber <= partCount) {
+                completedParts.put(partNumber, checkpoint.getProperty(name));
+                bytesCompleted += getPartLength(partNumber);
+            }
+        }
+    }
+
+    /* Must be called with this locked */
+    private Properties snapshotCheckpoint() {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(CHECKPOINT_VERSION_KEY, Integer.toString(CHECKPOINT_VERSION));
+        checkpoint.setProperty(CHECKPOINT_OBJECT_PATH_KEY, objectPath);
+        checkpoint.setProperty(CHECKPOINT_UPLOAD_ID_KEY, uploadId);
+        checkpoint.setProperty(CHECKPOINT_PART_SIZE_KEY, Long.toString(partSize));
+        checkpoint.setProperty(CHECKPOINT_SOURCE_LENGTH_KEY, Long.toString(sourceLength));
+        checkpoint.setProperty(CHECKPOINT_SOURCE_LAST_MODIFIED_KEY, Long.toString(sourceLastModified));
+        for (Map.Entry<Integer, String> part : completedParts.entrySet()) {
+            checkpoint.setProperty(CHECKPOINT_PART_PREFIX + part.getKey(), part.getValue());
+        }
+        return checkpoint;
+    }
+
+    /* Written to a temporary file and moved into place, so a crash never leaves a torn checkpoint */
+    private void saveCheckpoint(Properties checkpoint) throws IOException {
+        Path tempPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempPath)) {
+            checkpoint.store(out, null);
+        }
+        Files.move(tempPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    void onUploadCreated() {
+        persistCheckpoint();
+        uploadParts();
+    }
+
+    @Override
+    void onPartRecorded() {
+        persistCheckpoint();
+    }
+
+    /* The checkpoint is kept on failure, so the upload can be resumed later */
+    @Override
+    boolean abortOnFailure() {
+        return false;
+    }
+
+    @Override
+    void onUploadCompleted() {
+        deleteCheckpoint();
+    }
+
+    @Override
+    boolean hasPendingWork() {
+        return checkpointWriterRunning;
+    }
+
+    /* Must be called with this locked */
+    private void persistCheckpoint() {
+        pendingCheckpoint = snapshotCheckpoint();
+        checkpointDeletePending = false;
+        startCheckpointWriter();
+    }
+
+    /* Must be called with this locked */
+    private void deleteCheckpoint() {
+        pendingCheckpoint = null;
+        checkpointDeletePending = true;
+        startCheckpointWriter();
+    }
+
+    /* Must be called with this locked */
+    private void startCheckpointWriter() {
+        if (!checkpointWriterRunning) {
+            checkpointWriterRunning = true;
+            S3Client.getScheduler().execute(this::writeCheckpoints);
+        }
+    }
+
+    /* Runs on the client's scheduler until nothing is left to write, then lets the outcome be reported */
+    private void writeCheckpoints() {
+        while (true) {
+            Properties checkpoint;
+            synchronized (this) {
+                checkpoint = pendingCheckpoint;
+                boolean delete = checkpointDeletePending;
+                pendingCheckpoint = null;
+                checkpointDeletePending = false;
+                if (checkpoint == null && !delete) {
+                    checkpointWriterRunning = false;
+                    finishIfIdle();
+                    break;
+                }
+            }
+
+            if (checkpoint != null) {
+                try {
+                    saveCheckpoint(checkpoint);
+                } catch (IOException e) {
+                    Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                            "S3ResumableUpload failed to write checkpoint: " + e.getMessage());
+                    synchronized (this) {
+                        fail(S3Client.getCallbackFailureErrorCode());
+                    }
+                }
+            } else {
+                try {
+                    Files.deleteIfExists(checkpointPath);
+                } catch (IOException e) {
+                    Log.log(Log.LogLevel.Warn, Log.LogSubject.S3Client,
+                            "S3ResumableUpload failed to delete checkpoint: " + e.getMessage());
+                }
+            }
+        }
+        deliverCallbacks();
+    }
+}
@@ -0,0 +1,387 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import software.amazon.awssdk.crt.CrtRuntimeException;
+import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpHeaders;
+import software.amazon.awssdk.crt.http.HttpRequest;
+import software.amazon.awssdk.crt.http.HttpRequestTemplate;
+import software.amazon.awssdk.crt.s3.S3MetaRequestOptions.MetaRequestType;
+
+/**
+ * Read-only SeekableByteChannel over an S3 object. The object is fetched in fixed-size blocks, each a single
+ * ranged GET on the client. Sequential reads grow the number of blocks fetched ahead of the read position, up to
+ * maxReadAheadBlocks; a seek outside the blocks already fetched cancels the outstanding prefetches and starts
+ * over with no read-ahead, which suits columnar formats that seek to a footer and then read short column chunks.
+ *
+ * At most maxReadAheadBlocks + 1 blocks are held at once. Reads and seeks are synchronized on the channel.
+ */
+public class S3SeekableByteChannel implements SeekableByteChannel {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    public static final int DEFAULT_MAX_READ_AHEAD_BLOCKS = 8;
+
+    private final S3Client client;
+    private final String objectPath;
+    /* every ranged GET shares the object request's method and headers, marshalled once */
+    private final HttpRequestTemplate objectTemplate;
+    private final int blockSize;
+    private final int maxReadAheadBlocks;
+
+    /* insertion-ordered by block index as fetched, guarded by this */
+    private final LinkedHashMap<Long, Block> blocks = new LinkedHashMap<>();
+    private long position = 0;
+    private long nextSequentialPosition = 0;
+    private int readAheadBlocks = 0;
+    private volatile long objectSize = -1;
+    private boolean open = true;
+
+    /**
+     * Block fetched by one ranged GET
+     */
+    private class Block {
+        private final long index;
+        private final byte[] data;
+        private int length = 0;
+        private boolean rangeIgnored = false;
+        private final CompletableFuture<Block> future = new CompletableFuture<>();
+        private S3MetaRequest metaRequest;
+
+        private Block(long index) {
+            this.index = index;
+            this.data = new byte[blockSize];
+        }
+
+        private long start() {
+            return index * blockSize;
+        }
+    }
+
+    /**
+     * @param client client to send the ranged GETs on
+     * @param objectRequest GET request for the object, including its Host header. It must not carry a Range
+     *                      header or a body.
+     */
+    public S3SeekableByteChannel(S3Client client, HttpRequest objectRequest) {
+        this(client, objectRequest, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_READ_AHEAD_BLOCKS);
+    }
+
+    /**
+     * @param client client to send the ranged GETs on
+     * @param objectRequest GET request for the object, including its Host header. It must not carry a Range
+     *                      header or a body.
+     * @param blockSize size in bytes of each ranged GET
+     * @param maxReadAheadBlocks maximum number of blocks fetched ahead of the read position
+     */
+    public S3SeekableByteChannel(S3Client client, HttpRequest objectRequest, int blockSize,
+                                 int maxReadAheadBlocks) {
+        if (client == null || objectRequest == null) {
+            throw new IllegalArgumentException("client and objectRequest must not be null");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        if (maxReadAheadBlocks < 0) {
+            throw new IllegalArgumentException("maxReadAheadBlocks must not be negative");
+        }
+        for (HttpHeader header : objectRequest.getHeaders()) {
+            if ("Range".equalsIgnoreCase(header.getName())) {
+                throw new IllegalArgumentException("objectRequest must not carry a Range header");
+            }
+        }
+        this.client = client;
+        this.objectPath = objectRequest.getEncodedPath();
+        this.objectTemplate = new HttpRequestTemplate(objectRequest.getMethod(), objectRequest.getHeadersAsArray());
+        this.blockSize = blockSize;
+        this.maxReadAheadBlocks = maxReadAheadBlocks;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return number of blocks currently fetched ahead of the read position on sequential reads
+     */
+    public synchronized int getReadAheadBlocks() {
+        return readAheadBlocks;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        long size = objectSize;
+        if (size >= 0 && position >= size) {
+            return -1;
+        }
+
+        long blockIndex = position / blockSize;
+        boolean sequential = position == nextSequentialPosition;
+        if (!sequential && !blocks.containsKey(blockIndex)) {
+            /* random access: whatever was prefetched is for the wrong part of the object */
+            readAheadBlocks = 0;
+            cancelBlocksOutside(blockIndex, blockIndex);
+        } else if (sequential && position % blockSize == 0 && position > 0) {
+            readAheadBlocks = Math.min(maxReadAheadBlocks, Math.max(1, readAheadBlocks * 2));
+        }
+        dropBlocksBefore(blockIndex);
+        fetchBlocks(blockIndex, blockIndex + readAheadBlocks);
+
+        Block block = awaitBlock(blocks.get(blockIndex));
+        int offset = (int) (position - block.start());
+        if (offset >= block.length) {
+            /* the block was cut short by the end of the object */
+            return -1;
+        }
+        int count = Math.min(dst.remaining(), block.length - offset);
+        dst.put(block.data, offset, count);
+        position += count;
+        nextSequentialPosition = position;
+        return count;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("position must not be negative");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    /**
+     * @return size of the object. Fetches the block at the current position if no response has been seen yet.
+     */
+    @Override
+    public synchronized long size() throws IOException {
+        ensureOpen();
+        if (objectSize < 0) {
+            long blockIndex = position / blockSize;
+            fetchBlocks(blockIndex, blockIndex);
+            awaitBlock(blocks.get(blockIndex));
+            if (objectSize < 0) {
+                throw new IOException("Response did not report the object size");
+            }
+        }
+        return objectSize;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Cancels any outstanding ranged GETs.
+     */
+    @Override
+    public synchronized void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        cancelBlocksOutside(0, -1);
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private void fetchBlocks(long firstIndex, long lastIndex) throws IOException {
+        long size = objectSize;
+        for (long index = firstIndex; index <= lastIndex; ++index) {
+            if (size >= 0 && index * blockSize >= size && index != firstIndex) {
+                break;
+            }
+            if (!blocks.containsKey(index)) {
+                evictForNewBlock(firstIndex);
+                Block block = new Block(index);
+                blocks.put(index, block);
+                startBlock(block);
+            }
+        }
+    }
+
+    /**
+     * Keeps at most maxReadAheadBlocks + 1 blocks, dropping the oldest block other than the current one.
+     */
+    private void evictForNewBlock(long currentIndex) {
+        Iterator<Block> iterator = blocks.values().iterator();
+        while (blocks.size() > maxReadAheadBlocks && iterator.hasNext()) {
+            Block block = iterator.next();
+            if (block.index != currentIndex) {
+                iterator.remove();
+                cancel(block);
+            }
+        }
+    }
+
+    private void dropBlocksBefore(long index) {
+        Iterator<Block> iterator = blocks.values().iterator();
+        while (iterator.hasNext()) {
+            Block block = iterator.next();
+            if (block.index < index) {
+                iterator.remove();
+                cancel(block);
+            }
+        }
+    }
+
+    private void cancelBlocksOutside(long firstIndex, long lastIndex) {
+        List<Block> cancelled = new ArrayList<>();
+        Iterator<Block> iterator = blocks.values().iterator();
+        while (iterator.hasNext()) {
+            Block block = iterator.next();
+            if (block.index < firstIndex || block.index > lastIndex) {
+                iterator.remove();
+                cancelled.add(block);
+            }
+        }
+        for (Block block : cancelled) {
+            cancel(block);
+        }
+    }
+
+    private static void cancel(Block block) {
+        if (!block.future.isDone() && block.metaRequest != null) {
+            block.metaRequest.cancel();
+        }
+    }
+
+    private Block awaitBlock(Block block) throws IOException {
+        try {
+            return block.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for block " + block.index);
+        } catch (ExecutionException e) {
+            blocks.remove(block.index, block);
+            throw new IOException("Failed to fetch bytes " + block.start() + "-" + (block.start() + blockSize - 1),
+                    e.getCause());
+        }
+    }
+
+    private void startBlock(final Block block) throws IOException {
+        HttpHeader range = new HttpHeader("Range",
+                "bytes=" + block.start() + "-" + (block.start() + blockSize - 1));
+        HttpRequest rangeRequest = objectTemplate.newRequest(objectPath, new HttpHeader[] { range }, null);
+
+        S3MetaRequestResponseHandler handler = new S3MetaRequestResponseHandler() {
+            @Override
+            public void onResponseHeaders(final int statusCode, final HttpHeaders headers) {
+                if (statusCode == 206 || statusCode == 416) {
+                    String contentRange = headers.get("Content-Range");
+                    if (contentRange != null) {
+                        setObjectSize(parseContentRangeTotal(contentRange));
+                    }
+                } else if (statusCode == 200) {
+                    /* Range was ignored, so this is the whole object */
+                    String contentLength = headers.get("Content-Length");
+                    if (contentLength != null) {
+                        setObjectSize(Long.parseLong(contentLength));
+                    }
+                }
+                block.rangeIgnored = statusCode == 200 && block.start() > 0;
+            }
+
+            @Override
+            public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                /* a single request, so the body arrives in order on one thread */
+                if (!block.rangeIgnored) {
+                    int count = Math.min(bodyBytesIn.remaining(), block.data.length - block.length);
+                    bodyBytesIn.get(block.data, block.length, count);
+                    block.length += count;
+                }
+                return 0;
+            }
+
+            @Override
+            public void onFinished(int errorCode, int responseStatus) {
+                if (responseStatus == 416) {
+                    /* the block starts at or past the end of the object */
+                    block.future.complete(block);
+                } else if (errorCode != 0) {
+                    block.future.completeExceptionally(new CrtRuntimeException(errorCode));
+                } else if (block.rangeIgnored) {
+                    block.future.completeExceptionally(new IOException("Server ignored the Range header"));
+                } else {
+                    block.future.complete(block);
+                }
+            }
+        };
+
+        S3MetaRequestOptions options = new S3MetaRequestOptions()
+                .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                .withHttpRequest(rangeRequest)
+                .withResponseHandler(handler)
+                .withSmallObject(true);
+        S3MetaRequest metaRequest = client.makeMetaRequest(options);
+        if (metaRequest == null) {
+            blocks.remove(block.index, block);
+            throw new IOException("Failed to start ranged GET for block " + block.index);
+        }
+        block.metaRequest = metaRequest;
+        block.future.whenComplete((result, ex) -> metaRequest.close());
+    }
+
+    private void setObjectSize(long size) {
+        if (size >= 0) {
+            objectSize = size;
+        }
+    }
+
+    /**
+     * @return the complete length from a Content-Range value such as "bytes 0-1023/4096" or "bytes * /4096", or
+     *         -1 if it is not known
+     */
+    private static long parseContentRangeTotal(String contentRange) {
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0) {
+            return -1;
+        }
+        String total = contentRange.substring(slash + 1).trim();
+        try {
+            return "*".equals(total) ? -1 : Long.parseLong(total);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import software.amazon.awssdk.crt.Log;
+import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpRequestBodyStream;
+
+/**
+ * A PUT whose body length isn't known up front. A pump task on the client's upload executor reads the body stream
+ * into part-sized buffers and
+ * sends each full buffer as an UploadPart as soon as it fills, so nothing is spooled to disk. At most
+ * maxConcurrentParts buffers exist; once they are all in flight the pump blocks until a part finishes and its buffer
+ * comes back to the pool. The upload is completed at end of stream. A stream that ends within the first part is
+ * sent as a single PutObject instead.
+ */
+class S3StreamingUpload extends S3MultipartUpload {
+
+    private final HttpRequestBodyStream source;
+    private final int partSize;
+
+    /* Everything below is guarded by this */
+    private final Deque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private int allocatedBuffers = 0;
+    private int partsStarted = 0;
+    private boolean streamEnded = false;
+
+    S3StreamingUpload(S3Client client, S3MetaRequestOptions options, int partSize) {
+        super(client, options);
+        this.source = options.getHttpRequest().getBodyStream();
+        this.partSize = partSize;
+    }
+
+    /* Runs on the client's upload executor, since reading the stream and waiting for a free buffer both block */
+    void start(Executor executor) {
+        executor.execute(() -> {
+            try {
+                pump();
+            } finally {
+                deliverCallbacks();
+            }
+        });
+    }
+
+    private void pump() {
+        try {
+            while (true) {
+                ByteBuffer buffer = acquireBuffer();
+                if (buffer == null) {
+                    return;
+                }
+
+                boolean endOfStream = fill(buffer);
+                ((Buffer) buffer).flip();
+
+                synchronized (this) {
+                    if (finished) {
+                        freeBuffers.add(buffer);
+                        return;
+                    }
+
+                    if (partsStarted == 0 && endOfStream) {
+                        ++partsStarted;
+                        putObject(buffer);
+                        streamEnded = true;
+                        return;
+                    }
+
+                    if (uploadId == null) {
+                        createUpload();
+                        while (uploadId == null && !finished) {
+                            wait();
+                        }
+                        if (finished) {
+                            freeBuffers.add(buffer);
+                            return;
+                        }
+                    }
+
+                    if (buffer.hasRemaining() && partsStarted >= MAX_PARTS) {
+                        Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client, String.format(
+                                "S3StreamingUpload body is longer than the %d parts of %d bytes S3 allows",
+                                MAX_PARTS, partSize));
+                        freeBuffers.add(buffer);
+                        fail(S3Client.getCallbackFailureErrorCode());
+                        return;
+                    }
+
+                    /* A stream ending exactly on a part boundary leaves one empty buffer behind */
+                    if (buffer.hasRemaining()) {
+                        uploadPart(++partsStarted, buffer);
+                    } else {
+                        freeBuffers.add(buffer);
+                    }
+
+                    if (endOfStream) {
+                        streamEnded = true;
+                        completeIfDone();
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (this) {
+                fail(S3Client.getCallbackFailureErrorCode());
+            }
+        } catch (RuntimeException e) {
+            Log.log(Log.LogLevel.Error, Log.LogSubject.S3Client,
+                    "S3StreamingUpload failed reading the request body: " + e.getMessage());
+            synchronized (this) {
+                fail(S3Client.getCallbackFailureErrorCode());
+            }
+        }
+    }
+
+    /**
+     * Takes a buffer from the pool, allocating up to maxConcurrentParts of them, or waits for one to be returned.
+     *
+     * @return the buffer, or null if the upload has already failed
+     */
+    private synchronized ByteBuffer acquireBuffer() throws InterruptedException {
+        while (!finished && freeBuffers.isEmpty() && allocatedBuffers >= maxConcurrentParts) {
+            wait();
+        }
+        if (finished) {
+            return null;
+        }
+        if (!freeBuffers.isEmpty()) {
+            ByteBuffer buffer = freeBuffers.poll();
+            ((Buffer) buffer).clear();
+            return buffer;
+        }
+        ++allocatedBuffers;
+        /* direct, like the buffers native hands to body streams, so existing stream implementations behave the same */
+        return ByteBuffer.allocateDirect(partSize);
+    }
+
+    /* Must be called with this locked */
+    private void releaseBuffer(ByteBuffer buffer) {
+        freeBuffers.add(buffer);
+        notifyAll();
+    }
+
+    /**
+     * Reads the stream until the buffer is full or the stream ends. Each call to the stream gets a fresh window
+     * over the unfilled space, so streams that fill their buffer from the start see the same thing as from native.
+     *
+     * @return true if the stream has ended
+     */
+    private boolean fill(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            ByteBuffer window = buffer.slice();
+            boolean done = source.sendRequestBody(window);
+            ((Buffer) buffer).position(buffer.position() + window.position());
+            if (done) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putObject(final ByteBuffer buffer) {
+        final long length = buffer.remaining();
+        List<HttpHeader> putHeaders = new ArrayList<>(createHeaders);
+        putHeaders.add(new HttpHeader("Content-Length", Long.toString(length)));
+
+        send("PUT", objectPath, putHeaders.toArray(new HttpHeader[0]),
+                new ByteBufferBodyStream(buffer),
+                new SingleRequestHandler() {
+                    @Override
+                    void onSuccess() {
+                        bytesCompleted = length;
+                        reportProgress(1);
+                        reportResponseHeaders(statusCode, headers);
+                        finished = true;
+                    }
+
+                    @Override
+                    void onDone() {
+                        releaseBuffer(buffer);
+                    }
+                });
+    }
+
+    @Override
+    void onUploadCreated() {
+        /* wakes the pump waiting for the upload ID */
+        notifyAll();
+    }
+
+    /* Parts can't be resumed from a stream, so a failed multipart upload is aborted */
+    @Override
+    boolean abortOnFailure() {
+        return true;
+    }
+
+    private void uploadPart(int partNumber, final ByteBuffer buffer) {
+        uploadPart(partNumber, new ByteBufferBodyStream(buffer), new PartHandler(partNumber, buffer.remaining()) {
+            @Override
+            void onPartUploaded() {
+                reportProgress(completedParts.size());
+                completeIfDone();
+            }
+
+            @Override
+            void onDone() {
+                releaseBuffer(buffer);
+            }
+        });
+    }
+
+    /* Completes once the stream has ended and all of its parts are uploaded. Must be called with this locked. */
+    private void completeIfDone() {
+        if (streamEnded && !finished && completedParts.size() == partsStarted) {
+            completeUpload();
+        }
+    }
+}
@@ -302,7 +302,8 @@ void JNICALL Java_software_amazon_awssdk_crt_auth_signing_AwsSigner_awsSignerSig
     JNIEnv *env,
     jclass jni_class,
     jobject java_http_request,
-    jbyteArray marshalled_request,
+    jobject marshalled_request,
+    jint marshalled_request_length,
     jobject java_signing_config,
     jobject java_future) {
 
@@ -338,8 +339,8 @@ void JNICALL Java_software_amazon_awssdk_crt_auth_signing_AwsSigner_awsSignerSig
     jobject java_http_request_body_stream =
         (*env)->GetObjectField(env, java_http_request, http_request_properties.body_stream_field_id);
 
-    callback_data->native_request =
-        aws_http_request_new_from_java_http_request(env, marshalled_request, java_http_request_body_stream);
+    callback_data->native_request = aws_http_request_new_from_java_http_request_buffer(
+        env, marshalled_request, marshalled_request_length, java_http_request_body_stream);
     if (callback_data->native_request == NULL) {
         aws_jni_throw_runtime_exception(env, "Failed to create native http request from Java HttpRequest");
         goto on_error;
@@ -0,0 +1,49 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+#ifndef AWS_JNI_CRT_FILE_IO_H
+#define AWS_JNI_CRT_FILE_IO_H
+
+#include <aws/common/byte_buf.h>
+
+struct aws_allocator;
+
+/*******************************************************************************
+ * Minimal positional file I/O, used so native code can move S3 bodies to and
+ * from disk without crossing into Java. Implemented per platform in
+ * posix/file_io.c and windows/file_io.c. Positional reads/writes do not share
+ * a file offset, so they are safe to issue concurrently from several threads.
+ ******************************************************************************/
+struct aws_jni_file;
+
+enum aws_jni_file_mode {
+    AWS_JNI_FILE_READ,
+    AWS_JNI_FILE_WRITE_TRUNCATE,
+};
+
+/* path is UTF-8 and need not be null-terminated. Returns NULL and raises an error on failure. */
+struct aws_jni_file *aws_jni_file_open(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path,
+    enum aws_jni_file_mode mode);
+
+/* Reads up to the remaining capacity of dest from offset, appending to dest. *out_read is 0 at end of file. */
+int aws_jni_file_read_at(struct aws_jni_file *file, struct aws_byte_buf *dest, uint64_t offset, size_t *out_read);
+
+/* Current size of the file in bytes */
+int aws_jni_file_get_length(struct aws_jni_file *file, uint64_t *out_length);
+
+/* Writes all of data at offset. */
+int aws_jni_file_write_at(struct aws_jni_file *file, struct aws_byte_cursor data, uint64_t offset);
+
+/* Reserves disk space for size bytes, extending the file if needed. Best effort where the OS has no fallocate. */
+int aws_jni_file_preallocate(struct aws_jni_file *file, uint64_t size);
+
+/* Flushes written data to stable storage. */
+int aws_jni_file_sync(struct aws_jni_file *file);
+
+void aws_jni_file_close(struct aws_jni_file *file);
+
+#endif /* AWS_JNI_CRT_FILE_IO_H */
@@ -278,7 +278,8 @@ JNIEXPORT jobject JNICALL Java_software_amazon_awssdk_crt_http_HttpClientConnect
     JNIEnv *env,
     jclass jni_class,
     jlong jni_connection,
-    jbyteArray marshalled_request,
+    jobject marshalled_request,
+    jint marshalled_request_length,
     jobject jni_http_request_body_stream,
     jobject jni_http_response_callback_handler) {
 
@@ -303,8 +304,8 @@ JNIEXPORT jobject JNICALL Java_software_amazon_awssdk_crt_http_HttpClientConnect
         return (jobject)NULL;
     }
 
-    callback_data->native_request =
-        aws_http_request_new_from_java_http_request(env, marshalled_request, jni_http_request_body_stream);
+    callback_data->native_request = aws_http_request_new_from_java_http_request_buffer(
+        env, marshalled_request, marshalled_request_length, jni_http_request_body_stream);
     if (callback_data->native_request == NULL) {
         /* Exception already thrown */
         http_stream_callback_destroy(env, callback_data);
@@ -386,6 +387,59 @@ static void s_write_chunk_complete(struct aws_http_stream *stream, int error_cod
     s_cleanup_chunked_callback_data(env, chunked_callback_data);
 }
 
+/*
+ * Writes the chunk held in chunked_callback_data, followed by the terminating chunk if is_final_chunk. An empty final
+ * chunk is only the terminating chunk, and completes the callback itself.
+ */
+static jint s_write_chunk_and_final(
+    JNIEnv *env,
+    struct aws_http_stream *stream,
+    struct http_stream_chunked_callback_data *chunked_callback_data,
+    bool is_final_chunk) {
+
+    if (is_final_chunk && chunked_callback_data->chunk_data.len == 0) {
+        struct aws_http1_chunk_options final_chunk_options = {
+            .chunk_data_size = 0,
+            .user_data = chunked_callback_data,
+            .on_complete = s_write_chunk_complete,
+        };
+
+        if (aws_http1_stream_write_chunk(stream, &final_chunk_options)) {
+            s_cleanup_chunked_callback_data(env, chunked_callback_data);
+            return AWS_OP_ERR;
+        }
+
+        return AWS_OP_SUCCESS;
+    }
+
+    struct aws_http1_chunk_options chunk_options = {
+        .chunk_data_size = chunked_callback_data->chunk_data.len,
+        .user_data = chunked_callback_data,
+        .on_complete = s_write_chunk_complete,
+    };
+
+    struct aws_byte_cursor chunk_cur = aws_byte_cursor_from_buf(&chunked_callback_data->chunk_data);
+    chunked_callback_data->chunk_stream = aws_input_stream_new_from_cursor(aws_jni_get_allocator(), &chunk_cur);
+    chunk_options.chunk_data = chunked_callback_data->chunk_stream;
+
+    if (aws_http1_stream_write_chunk(stream, &chunk_options)) {
+        s_cleanup_chunked_callback_data(env, chunked_callback_data);
+        return AWS_OP_ERR;
+    }
+
+    if (is_final_chunk) {
+        struct aws_http1_chunk_options final_chunk_options = {
+            .chunk_data_size = 0,
+        };
+
+        if (aws_http1_stream_write_chunk(stream, &final_chunk_options)) {
+            return AWS_OP_ERR;
+        }
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
 JNIEXPORT jint JNICALL Java_software_amazon_awssdk_crt_http_HttpStream_httpStreamWriteChunk(
     JNIEnv *env,
     jclass jni_class,
@@ -408,32 +462,79 @@ JNIEXPORT jint JNICALL Java_software_amazon_awssdk_crt_http_HttpStream_httpStrea
     aws_byte_buf_init_copy_from_cursor(&chunked_callback_data->chunk_data, aws_jni_get_allocator(), chunk_cur);
     aws_jni_byte_cursor_from_jbyteArray_release(env, chunk_data, chunk_cur);
 
-    struct aws_http1_chunk_options chunk_options = {
-        .chunk_data_size = chunked_callback_data->chunk_data.len,
-        .user_data = chunked_callback_data,
-        .on_complete = s_write_chunk_complete,
-    };
+    return s_write_chunk_and_final(env, stream, chunked_callback_data, is_final_chunk);
+}
 
-    chunk_cur = aws_byte_cursor_from_buf(&chunked_callback_data->chunk_data);
-    chunked_callback_data->chunk_stream = aws_input_stream_new_from_cursor(aws_jni_get_allocator(), &chunk_cur);
-    chunk_options.chunk_data = chunked_callback_data->chunk_stream;
+JNIEXPORT jint JNICALL Java_software_amazon_awssdk_crt_http_HttpStream_httpStreamWriteChunkBuffers(
+    JNIEnv *env,
+    jclass jni_class,
+    jlong jni_cb_data,
+    jobjectArray sources,
+    jintArray offsets,
+    jintArray lengths,
+    jboolean is_final_chunk,
+    jobject completion_callback) {
+    (void)jni_class;
 
-    if (aws_http1_stream_write_chunk(stream, &chunk_options)) {
-        s_cleanup_chunked_callback_data(env, chunked_callback_data);
+    struct http_stream_callback_data *cb_data = (struct http_stream_callback_data *)jni_cb_data;
+    struct aws_http_stream *stream = cb_data->native_stream;
+
+    jsize source_count = (*env)->GetArrayLength(env, sources);
+    if ((*env)->GetArrayLength(env, offsets) != source_count || (*env)->GetArrayLength(env, lengths) != source_count) {
+        aws_jni_throw_runtime_exception(env, "HttpStream.writeChunk: mismatched chunk buffer arrays");
         return AWS_OP_ERR;
     }
 
-    if (is_final_chunk) {
-        struct aws_http1_chunk_options final_chunk_options = {
-            .chunk_data_size = 0,
-        };
+    jint *source_offsets = (*env)->GetIntArrayElements(env, offsets, NULL);
+    jint *source_lengths = (*env)->GetIntArrayElements(env, lengths, NULL);
 
-        if (aws_http1_stream_write_chunk(stream, &final_chunk_options)) {
-            return AWS_OP_ERR;
+    size_t total_length = 0;
+    for (jsize i = 0; i < source_count; ++i) {
+        total_length += (size_t)source_lengths[i];
+    }
+
+    struct http_stream_chunked_callback_data *chunked_callback_data =
+        aws_mem_calloc(aws_jni_get_allocator(), 1, sizeof(struct http_stream_chunked_callback_data));
+
+    chunked_callback_data->stream_cb_data = cb_data;
+    chunked_callback_data->completion_callback = (*env)->NewGlobalRef(env, completion_callback);
+    aws_byte_buf_init(&chunked_callback_data->chunk_data, aws_jni_get_allocator(), total_length);
+
+    /* gather every source into the one chunk buffer: direct buffers in place, arrays without pinning */
+    bool failed = false;
+    for (jsize i = 0; i < source_count && !failed; ++i) {
+        jobject source = (*env)->GetObjectArrayElement(env, sources, i);
+        uint8_t *dest = chunked_callback_data->chunk_data.buffer + chunked_callback_data->chunk_data.len;
+
+        if ((*env)->IsInstanceOf(env, source, byte_buffer_properties.cls)) {
+            uint8_t *address = (*env)->GetDirectBufferAddress(env, source);
+            if (address == NULL) {
+                aws_jni_throw_runtime_exception(env, "HttpStream.writeChunk: buffer is not direct");
+                failed = true;
+            } else if (source_lengths[i] > 0) {
+                memcpy(dest, address + source_offsets[i], (size_t)source_lengths[i]);
+            }
+        } else {
+            (*env)->GetByteArrayRegion(env, source, source_offsets[i], source_lengths[i], (jbyte *)dest);
+            failed = aws_jni_check_and_clear_exception(env);
+            if (failed) {
+                aws_jni_throw_runtime_exception(env, "HttpStream.writeChunk: invalid chunk array region");
+            }
         }
+
+        chunked_callback_data->chunk_data.len += (size_t)source_lengths[i];
+        (*env)->DeleteLocalRef(env, source);
     }
 
-    return AWS_OP_SUCCESS;
+    (*env)->ReleaseIntArrayElements(env, offsets, source_offsets, JNI_ABORT);
+    (*env)->ReleaseIntArrayElements(env, lengths, source_lengths, JNI_ABORT);
+
+    if (failed) {
+        s_cleanup_chunked_callback_data(env, chunked_callback_data);
+        return AWS_OP_ERR;
+    }
+
+    return s_write_chunk_and_final(env, stream, chunked_callback_data, is_final_chunk);
 }
 
 JNIEXPORT void JNICALL Java_software_amazon_awssdk_crt_http_HttpStream_httpStreamActivate(
@@ -6,6 +6,7 @@
 #include "http_request_utils.h"
 
 #include "crt.h"
+#include "file_io.h"
 #include "java_class_ids.h"
 
 #include <aws/common/byte_order.h>
@@ -21,6 +22,15 @@ struct aws_http_request_body_stream_impl {
     JavaVM *jvm;
     jobject http_request_body_stream;
     bool body_done;
+
+    /*
+     * Bulk read mode, see HttpRequestBodyStream.getBulkReadSize(). bulk_buffer is a direct ByteBuffer over
+     * bulk_storage, reused for every refill, and bulk_pending the part of it not yet copied out.
+     */
+    jobject bulk_buffer;
+    struct aws_byte_buf bulk_storage;
+    struct aws_byte_cursor bulk_pending;
+    bool bulk_source_done;
 };
 
 static int s_aws_input_stream_seek(
@@ -48,11 +58,63 @@ static int s_aws_input_stream_seek(
 
     if (result == AWS_OP_SUCCESS) {
         impl->body_done = false;
+        impl->bulk_source_done = false;
+        AWS_ZERO_STRUCT(impl->bulk_pending);
     }
 
     return result;
 }
 
+/* Serves reads from the reused bulk buffer, refilling it with one up-call whenever it runs dry */
+static int s_aws_input_stream_read_bulk(
+    struct aws_http_request_body_stream_impl *impl,
+    JNIEnv *env,
+    struct aws_byte_buf *dest) {
+
+    while (dest->len < dest->capacity) {
+        if (impl->bulk_pending.len == 0) {
+            if (impl->bulk_source_done) {
+                break;
+            }
+
+            jint filled = (*env)->CallStaticIntMethod(
+                env,
+                http_request_body_stream_pump_properties.cls,
+                http_request_body_stream_pump_properties.fill,
+                impl->http_request_body_stream,
+                impl->bulk_buffer);
+
+            if (aws_jni_check_and_clear_exception(env)) {
+                return aws_raise_error(AWS_ERROR_HTTP_CALLBACK_FAILURE);
+            }
+
+            if (filled < 0) {
+                impl->bulk_source_done = true;
+                filled = -1 - filled;
+            }
+
+            if ((size_t)filled > impl->bulk_storage.capacity) {
+                return aws_raise_error(AWS_ERROR_HTTP_CALLBACK_FAILURE);
+            }
+
+            impl->bulk_pending = aws_byte_cursor_from_array(impl->bulk_storage.buffer, (size_t)filled);
+            if (filled == 0 && !impl->bulk_source_done) {
+                /* the stream has nothing to send right now */
+                break;
+            }
+        }
+
+        size_t space = dest->capacity - dest->len;
+        size_t amount = impl->bulk_pending.len < space ? impl->bulk_pending.len : space;
+        struct aws_byte_cursor chunk = aws_byte_cursor_advance(&impl->bulk_pending, amount);
+        aws_byte_buf_write_from_whole_cursor(dest, chunk);
+    }
+
+    impl->body_done = impl->bulk_source_done && impl->bulk_pending.len == 0;
+
+    return AWS_OP_SUCCESS;
+}
+
 static int s_aws_input_stream_read(struct aws_input_stream *stream, struct aws_byte_buf *dest) {
     struct aws_http_request_body_stream_impl *impl = stream->impl;
 
@@ -67,6 +129,10 @@ static int s_aws_input_stream_read(struct aws_input_stream *stream, struct aws_b
 
     JNIEnv *env = aws_jni_get_thread_env(impl->jvm);
 
+    if (impl->bulk_buffer != NULL) {
+        return s_aws_input_stream_read_bulk(impl, env, dest);
+    }
+
     size_t out_remaining = dest->capacity - dest->len;
 
     jobject direct_buffer = aws_jni_direct_byte_buffer_from_raw_ptr(env, dest->buffer + dest->len, out_remaining);
@@ -121,6 +187,11 @@ static void s_aws_input_stream_destroy(struct aws_input_stream *stream) {
         (*env)->DeleteGlobalRef(env, impl->http_request_body_stream);
     }
 
+    if (impl->bulk_buffer != NULL) {
+        (*env)->DeleteGlobalRef(env, impl->bulk_buffer);
+    }
+    aws_byte_buf_clean_up(&impl->bulk_storage);
+
     aws_mem_release(stream->allocator, stream);
 }
 
@@ -132,10 +203,175 @@ static struct aws_input_stream_vtable s_aws_input_stream_vtable = {
     .destroy = s_aws_input_stream_destroy,
 };
 
+/*
+ * Body stream over the memory of a Java DirectByteBufferBodyStream, read in place. The global ref keeps the Java
+ * stream, and so its buffer, alive for as long as native may read it.
+ */
+struct aws_direct_byte_buffer_body_stream_impl {
+    JavaVM *jvm;
+    jobject direct_byte_buffer_body_stream;
+    struct aws_byte_cursor body;
+    size_t position;
+};
+
+static int s_direct_byte_buffer_body_stream_seek(
+    struct aws_input_stream *stream,
+    aws_off_t offset,
+    enum aws_stream_seek_basis basis) {
+    struct aws_direct_byte_buffer_body_stream_impl *impl = stream->impl;
+
+    int64_t base = (basis == AWS_SSB_BEGIN) ? 0 : (int64_t)impl->body.len;
+    int64_t new_position = base + (int64_t)offset;
+    if (new_position < 0 || (uint64_t)new_position > impl->body.len) {
+        return aws_raise_error(AWS_IO_STREAM_INVALID_SEEK_POSITION);
+    }
+
+    impl->position = (size_t)new_position;
+    return AWS_OP_SUCCESS;
+}
+
+static int s_direct_byte_buffer_body_stream_read(struct aws_input_stream *stream, struct aws_byte_buf *dest) {
+    struct aws_direct_byte_buffer_body_stream_impl *impl = stream->impl;
+
+    size_t remaining = impl->body.len - impl->position;
+    size_t space = dest->capacity - dest->len;
+    size_t amount = remaining < space ? remaining : space;
+    if (amount > 0) {
+        aws_byte_buf_write(dest, impl->body.ptr + impl->position, amount);
+        impl->position += amount;
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+static int s_direct_byte_buffer_body_stream_get_status(
+    struct aws_input_stream *stream,
+    struct aws_stream_status *status) {
+    struct aws_direct_byte_buffer_body_stream_impl *impl = stream->impl;
+
+    status->is_end_of_stream = impl->position >= impl->body.len;
+    status->is_valid = true;
+
+    return AWS_OP_SUCCESS;
+}
+
+static int s_direct_byte_buffer_body_stream_get_length(struct aws_input_stream *stream, int64_t *length) {
+    struct aws_direct_byte_buffer_body_stream_impl *impl = stream->impl;
+
+    *length = (int64_t)impl->body.len;
+    return AWS_OP_SUCCESS;
+}
+
+static void s_direct_byte_buffer_body_stream_destroy(struct aws_input_stream *stream) {
+    struct aws_direct_byte_buffer_body_stream_impl *impl = stream->impl;
+
+    if (impl->direct_byte_buffer_body_stream != NULL) {
+        JNIEnv *env = aws_jni_get_thread_env(impl->jvm);
+        (*env)->DeleteGlobalRef(env, impl->direct_byte_buffer_body_stream);
+    }
+
+    aws_mem_release(stream->allocator, stream);
+}
+
+static struct aws_input_stream_vtable s_direct_byte_buffer_body_stream_vtable = {
+    .seek = s_direct_byte_buffer_body_stream_seek,
+    .read = s_direct_byte_buffer_body_stream_read,
+    .get_status = s_direct_byte_buffer_body_stream_get_status,
+    .get_length = s_direct_byte_buffer_body_stream_get_length,
+    .destroy = s_direct_byte_buffer_body_stream_destroy,
+};
+
+static struct aws_input_stream *s_input_stream_new_from_direct_byte_buffer_body_stream(
+    struct aws_allocator *allocator,
+    JNIEnv *env,
+    jobject direct_byte_buffer_body_stream) {
+
+    jobject body = (*env)->GetObjectField(
+        env, direct_byte_buffer_body_stream, direct_byte_buffer_body_stream_properties.body_field_id);
+    uint8_t *body_ptr = body != NULL ? (*env)->GetDirectBufferAddress(env, body) : NULL;
+    jlong body_len = body != NULL ? (*env)->GetDirectBufferCapacity(env, body) : -1;
+    if (body != NULL) {
+        (*env)->DeleteLocalRef(env, body);
+    }
+    if (body_len < 0 || (body_ptr == NULL && body_len > 0)) {
+        aws_raise_error(AWS_ERROR_INVALID_ARGUMENT);
+        return NULL;
+    }
+
+    struct aws_input_stream *input_stream = NULL;
+    struct aws_direct_byte_buffer_body_stream_impl *impl = NULL;
+
+    aws_mem_acquire_many(
+        allocator,
+        2,
+        &input_stream,
+        sizeof(struct aws_input_stream),
+        &impl,
+        sizeof(struct aws_direct_byte_buffer_body_stream_impl));
+
+    if (!input_stream) {
+        return NULL;
+    }
+
+    AWS_ZERO_STRUCT(*input_stream);
+    AWS_ZERO_STRUCT(*impl);
+
+    input_stream->allocator = allocator;
+    input_stream->vtable = &s_direct_byte_buffer_body_stream_vtable;
+    input_stream->impl = impl;
+
+    jint jvmresult = (*env)->GetJavaVM(env, &impl->jvm);
+    AWS_FATAL_ASSERT(jvmresult == 0);
+
+    impl->body = aws_byte_cursor_from_array(body_ptr, (size_t)body_len);
+    impl->direct_byte_buffer_body_stream = (*env)->NewGlobalRef(env, direct_byte_buffer_body_stream);
+    if (impl->direct_byte_buffer_body_stream == NULL) {
+        aws_input_stream_destroy(input_stream);
+        return NULL;
+    }
+
+    return input_stream;
+}
+
+static struct aws_input_stream *s_input_stream_new_from_file_body_stream(
+    struct aws_allocator *allocator,
+    JNIEnv *env,
+    jobject file_body_stream) {
+
+    jbyteArray path_bytes =
+        (jbyteArray)(*env)->GetObjectField(env, file_body_stream, file_body_stream_properties.path_bytes_field_id);
+    if (path_bytes == NULL) {
+        aws_raise_error(AWS_ERROR_INVALID_ARGUMENT);
+        return NULL;
+    }
+
+    jlong offset = (*env)->GetLongField(env, file_body_stream, file_body_stream_properties.offset_field_id);
+    jlong length = (*env)->GetLongField(env, file_body_stream, file_body_stream_properties.length_field_id);
+
+    struct aws_byte_cursor path = aws_jni_byte_cursor_from_jbyteArray_acquire(env, path_bytes);
+    struct aws_input_stream *input_stream =
+        aws_jni_input_stream_new_from_file_range(allocator, path, (uint64_t)offset, (uint64_t)length);
+    aws_jni_byte_cursor_from_jbyteArray_release(env, path_bytes, path);
+    (*env)->DeleteLocalRef(env, path_bytes);
+
+    return input_stream;
+}
+
 struct aws_input_stream *aws_input_stream_new_from_java_http_request_body_stream(
     struct aws_allocator *allocator,
     JNIEnv *env,
     jobject http_request_body_stream) {
+
+    /* Bodies already in native memory or on disk are read natively, without calling back into Java */
+    if (http_request_body_stream != NULL) {
+        if ((*env)->IsInstanceOf(env, http_request_body_stream, direct_byte_buffer_body_stream_properties.cls)) {
+            return s_input_stream_new_from_direct_byte_buffer_body_stream(allocator, env, http_request_body_stream);
+        }
+        if ((*env)->IsInstanceOf(env, http_request_body_stream, file_body_stream_properties.cls)) {
+            return s_input_stream_new_from_file_body_stream(allocator, env, http_request_body_stream);
+        }
+    }
+
     struct aws_input_stream *input_stream = NULL;
     struct aws_http_request_body_stream_impl *impl = NULL;
 
@@ -166,6 +402,30 @@ struct aws_input_stream *aws_input_stream_new_from_java_http_request_body_stream
         if (impl->http_request_body_stream == NULL) {
             goto on_error;
         }
+
+        jint bulk_read_size = (*env)->CallIntMethod(
+            env, http_request_body_stream, http_request_body_stream_properties.get_bulk_read_size);
+        if (aws_jni_check_and_clear_exception(env)) {
+            aws_raise_error(AWS_ERROR_HTTP_CALLBACK_FAILURE);
+            goto on_error;
+        }
+
+        if (bulk_read_size > 0) {
+            if (aws_byte_buf_init(&impl->bulk_storage, allocator, (size_t)bulk_read_size)) {
+                goto on_error;
+            }
+
+            jobject bulk_buffer =
+                aws_jni_direct_byte_buffer_from_raw_ptr(env, impl->bulk_storage.buffer, impl->bulk_storage.capacity);
+            if (bulk_buffer == NULL) {
+                goto on_error;
+            }
+            impl->bulk_buffer = (*env)->NewGlobalRef(env, bulk_buffer);
+            (*env)->DeleteLocalRef(env, bulk_buffer);
+            if (impl->bulk_buffer == NULL) {
+                goto on_error;
+            }
+        }
     } else {
         impl->body_done = true;
     }
@@ -179,6 +439,156 @@ on_error:
     return NULL;
 }
 
+/*
+ * Body stream over a file on disk, or a range of one, read natively with positional reads. The length is fixed when
+ * the stream is opened so it always agrees with the Content-Length that was sent.
+ */
+struct aws_file_body_stream_impl {
+    struct aws_jni_file *file;
+    /* where the range starts in the file; position and length are relative to it */
+    uint64_t offset;
+    uint64_t position;
+    uint64_t length;
+};
+
+static int s_file_body_stream_seek(
+    struct aws_input_stream *stream,
+    aws_off_t offset,
+    enum aws_stream_seek_basis basis) {
+    struct aws_file_body_stream_impl *impl = stream->impl;
+
+    int64_t base = (basis == AWS_SSB_BEGIN) ? 0 : (int64_t)impl->length;
+    int64_t new_position = base + (int64_t)offset;
+    if (new_position < 0 || (uint64_t)new_position > impl->length) {
+        return aws_raise_error(AWS_IO_STREAM_INVALID_SEEK_POSITION);
+    }
+
+    impl->position = (uint64_t)new_position;
+    return AWS_OP_SUCCESS;
+}
+
+static int s_file_body_stream_read(struct aws_input_stream *stream, struct aws_byte_buf *dest) {
+    struct aws_file_body_stream_impl *impl = stream->impl;
+
+    uint64_t remaining = impl->length - impl->position;
+    size_t space = dest->capacity - dest->len;
+    if (remaining == 0 || space == 0) {
+        return AWS_OP_SUCCESS;
+    }
+
+    size_t to_read = (remaining < (uint64_t)space) ? (size_t)remaining : space;
+    struct aws_byte_buf window = aws_byte_buf_from_empty_array(dest->buffer + dest->len, to_read);
+    size_t amount_read = 0;
+    if (aws_jni_file_read_at(impl->file, &window, impl->offset + impl->position, &amount_read)) {
+        return AWS_OP_ERR;
+    }
+
+    if (amount_read == 0) {
+        /* file shrank underneath us, the request can't be completed with the promised length */
+        return aws_raise_error(AWS_IO_STREAM_READ_FAILED);
+    }
+
+    dest->len += amount_read;
+    impl->position += amount_read;
+    return AWS_OP_SUCCESS;
+}
+
+static int s_file_body_stream_get_status(struct aws_input_stream *stream, struct aws_stream_status *status) {
+    struct aws_file_body_stream_impl *impl = stream->impl;
+
+    status->is_end_of_stream = impl->position >= impl->length;
+    status->is_valid = true;
+
+    return AWS_OP_SUCCESS;
+}
+
+static int s_file_body_stream_get_length(struct aws_input_stream *stream, int64_t *length) {
+    struct aws_file_body_stream_impl *impl = stream->impl;
+
+    *length = (int64_t)impl->length;
+    return AWS_OP_SUCCESS;
+}
+
+static void s_file_body_stream_destroy(struct aws_input_stream *stream) {
+    struct aws_file_body_stream_impl *impl = stream->impl;
+
+    aws_jni_file_close(impl->file);
+    aws_mem_release(stream->allocator, stream);
+}
+
+static struct aws_input_stream_vtable s_file_body_stream_vtable = {
+    .seek = s_file_body_stream_seek,
+    .read = s_file_body_stream_read,
+    .get_status = s_file_body_stream_get_status,
+    .get_length = s_file_body_stream_get_length,
+    .destroy = s_file_body_stream_destroy,
+};
+
+static struct aws_input_stream *s_input_stream_new_from_file(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path,
+    uint64_t offset,
+    const uint64_t *length) {
+    struct aws_input_stream *input_stream = NULL;
+    struct aws_file_body_stream_impl *impl = NULL;
+
+    aws_mem_acquire_many(
+        allocator, 2, &input_stream, sizeof(struct aws_input_stream), &impl, sizeof(struct aws_file_body_stream_impl));
+
+    if (!input_stream) {
+        return NULL;
+    }
+
+    AWS_ZERO_STRUCT(*input_stream);
+    AWS_ZERO_STRUCT(*impl);
+
+    input_stream->allocator = allocator;
+    input_stream->vtable = &s_file_body_stream_vtable;
+    input_stream->impl = impl;
+
+    impl->file = aws_jni_file_open(allocator, path, AWS_JNI_FILE_READ);
+    if (impl->file == NULL) {
+        goto on_error;
+    }
+
+    uint64_t file_length = 0;
+    if (aws_jni_file_get_length(impl->file, &file_length)) {
+        goto on_error;
+    }
+
+    if (length == NULL) {
+        impl->length = file_length;
+    } else if (offset > file_length || *length > file_length - offset) {
+        aws_raise_error(AWS_ERROR_INVALID_ARGUMENT);
+        goto on_error;
+    } else {
+        impl->offset = offset;
+        impl->length = *length;
+    }
+
+    return input_stream;
+
+on_error:
+    aws_jni_file_close(impl->file);
+    aws_mem_release(allocator, input_stream);
+
+    return NULL;
+}
+
+struct aws_input_stream *aws_jni_input_stream_new_from_file(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path) {
+    return s_input_stream_new_from_file(allocator, path, 0, NULL);
+}
+
+struct aws_input_stream *aws_jni_input_stream_new_from_file_range(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path,
+    uint64_t offset,
+    uint64_t length) {
+    return s_input_stream_new_from_file(allocator, path, offset, &length);
+}
+
 static inline int s_marshal_http_header_to_buffer(
     struct aws_byte_buf *buf,
     const struct aws_byte_cursor *name,
@@ -256,31 +666,62 @@ static inline int s_unmarshal_http_request(struct aws_http_message *message, str
     return AWS_OP_SUCCESS;
 }
 
-int aws_apply_java_http_request_changes_to_native_request(
+/*
+ * Unmarshals a request blob from Java into message. The blob is either a byte[] or the first
+ * marshalled_request_length bytes of a direct ByteBuffer; whichever is NULL is ignored.
+ */
+static int s_unmarshal_java_http_request(
     JNIEnv *env,
     jbyteArray marshalled_request,
-    jobject jni_body_stream,
+    jobject marshalled_request_buffer,
+    jint marshalled_request_length,
     struct aws_http_message *message) {
 
-    /* come back to this when we decide we need to. */
-    (void)jni_body_stream;
+    if (marshalled_request_buffer != NULL) {
+        /* The buffer is reused by the calling Java thread, so everything is copied into message before returning */
+        uint8_t *marshalled_request_data = (*env)->GetDirectBufferAddress(env, marshalled_request_buffer);
+        jlong capacity = (*env)->GetDirectBufferCapacity(env, marshalled_request_buffer);
+        if (marshalled_request_data == NULL || marshalled_request_length < 0 ||
+            (jlong)marshalled_request_length > capacity) {
+            return aws_raise_error(AWS_ERROR_INVALID_ARGUMENT);
+        }
 
-    struct aws_http_headers *headers = aws_http_message_get_headers(message);
-    aws_http_headers_clear(headers);
-    int result = AWS_OP_SUCCESS;
+        struct aws_byte_cursor marshalled_cur =
+            aws_byte_cursor_from_array(marshalled_request_data, (size_t)marshalled_request_length);
+        return s_unmarshal_http_request(message, &marshalled_cur);
+    }
 
-    const size_t marshalled_request_length = (*env)->GetArrayLength(env, marshalled_request);
+    const size_t array_length = (*env)->GetArrayLength(env, marshalled_request);
 
-    uint8_t *marshalled_request_data = (*env)->GetPrimitiveArrayCritical(env, marshalled_request, NULL);
+    jbyte *marshalled_request_data = (*env)->GetPrimitiveArrayCritical(env, marshalled_request, NULL);
     struct aws_byte_cursor marshalled_cur =
-        aws_byte_cursor_from_array((uint8_t *)marshalled_request_data, marshalled_request_length);
-
-    result = s_unmarshal_http_request(message, &marshalled_cur);
+        aws_byte_cursor_from_array((uint8_t *)marshalled_request_data, array_length);
+    int result = s_unmarshal_http_request(message, &marshalled_cur);
     (*env)->ReleasePrimitiveArrayCritical(env, marshalled_request, marshalled_request_data, 0);
 
+    return result;
+}
+
+static int s_apply_java_http_request_changes_to_native_request(
+    JNIEnv *env,
+    jbyteArray marshalled_request,
+    jobject marshalled_request_buffer,
+    jint marshalled_request_length,
+    jobject jni_body_stream,
+    struct aws_http_message *message) {
+
+    struct aws_http_headers *headers = aws_http_message_get_headers(message);
+    aws_http_headers_clear(headers);
+
+    int result = s_unmarshal_java_http_request(
+        env, marshalled_request, marshalled_request_buffer, marshalled_request_length, message);
+
     if (jni_body_stream) {
         struct aws_input_stream *body_stream =
             aws_input_stream_new_from_java_http_request_body_stream(aws_jni_get_allocator(), env, jni_body_stream);
+        if (body_stream == NULL) {
+            result = AWS_OP_ERR;
+        }
 
         aws_http_message_set_body_stream(message, body_stream);
     }
@@ -293,9 +734,32 @@ int aws_apply_java_http_request_changes_to_native_request(
     return result;
 }
 
-struct aws_http_message *aws_http_request_new_from_java_http_request(
+int aws_apply_java_http_request_changes_to_native_request(
     JNIEnv *env,
     jbyteArray marshalled_request,
+    jobject jni_body_stream,
+    struct aws_http_message *message) {
+
+    return s_apply_java_http_request_changes_to_native_request(
+        env, marshalled_request, NULL, 0, jni_body_stream, message);
+}
+
+int aws_apply_java_http_request_buffer_changes_to_native_request(
+    JNIEnv *env,
+    jobject marshalled_request,
+    jint marshalled_request_length,
+    jobject jni_body_stream,
+    struct aws_http_message *message) {
+
+    return s_apply_java_http_request_changes_to_native_request(
+        env, NULL, marshalled_request, marshalled_request_length, jni_body_stream, message);
+}
+
+static struct aws_http_message *s_http_request_new_from_java_http_request(
+    JNIEnv *env,
+    jbyteArray marshalled_request,
+    jobject marshalled_request_buffer,
+    jint marshalled_request_length,
     jobject jni_body_stream) {
     const char *exception_message = NULL;
     struct aws_http_message *request = aws_http_message_new_request(aws_jni_get_allocator());
@@ -303,14 +767,9 @@ struct aws_http_message *aws_http_request_new_from_java_http_request(
         aws_jni_throw_runtime_exception(env, "aws_http_request_new_from_java_http_request: Unable to allocate request");
         return NULL;
     }
-    const size_t marshalled_request_length = (*env)->GetArrayLength(env, marshalled_request);
-
-    jbyte *marshalled_request_data = (*env)->GetPrimitiveArrayCritical(env, marshalled_request, NULL);
-    struct aws_byte_cursor marshalled_cur =
-        aws_byte_cursor_from_array((uint8_t *)marshalled_request_data, marshalled_request_length);
-    int result = s_unmarshal_http_request(request, &marshalled_cur);
-    (*env)->ReleasePrimitiveArrayCritical(env, marshalled_request, marshalled_request_data, 0);
 
+    int result = s_unmarshal_java_http_request(
+        env, marshalled_request, marshalled_request_buffer, marshalled_request_length, request);
     if (result) {
         exception_message = "aws_http_request_new_from_java_http_request: Invalid marshalled request data.";
         goto on_error;
@@ -340,6 +799,24 @@ on_error:
     return NULL;
 }
 
+struct aws_http_message *aws_http_request_new_from_java_http_request(
+    JNIEnv *env,
+    jbyteArray marshalled_request,
+    jobject jni_body_stream) {
+
+    return s_http_request_new_from_java_http_request(env, marshalled_request, NULL, 0, jni_body_stream);
+}
+
+struct aws_http_message *aws_http_request_new_from_java_http_request_buffer(
+    JNIEnv *env,
+    jobject marshalled_request,
+    jint marshalled_request_length,
+    jobject jni_body_stream) {
+
+    return s_http_request_new_from_java_http_request(
+        env, NULL, marshalled_request, marshalled_request_length, jni_body_stream);
+}
+
 static inline int s_marshall_http_request(const struct aws_http_message *message, struct aws_byte_buf *request_buf) {
     struct aws_byte_cursor method;
     AWS_ZERO_STRUCT(method);
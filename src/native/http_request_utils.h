@@ -16,16 +16,46 @@ struct aws_http_headers;
 struct aws_http_message;
 struct aws_input_stream;
 
+/*
+ * DirectByteBufferBodyStream and FileBodyStream are read natively, other body streams through their Java callbacks.
+ * NULL on failure.
+ */
 struct aws_input_stream *aws_input_stream_new_from_java_http_request_body_stream(
     struct aws_allocator *allocator,
     JNIEnv *env,
     jobject http_request_body_stream);
 
+/* Body stream that reads a file natively with positional reads, never calling into Java. NULL on failure. */
+struct aws_input_stream *aws_jni_input_stream_new_from_file(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path);
+
+/*
+ * Like aws_jni_input_stream_new_from_file, but reads length bytes starting at offset. Each stream opens the file
+ * itself, so streams over different ranges of one file read independently. NULL on failure, including a range past
+ * the end of the file.
+ */
+struct aws_input_stream *aws_jni_input_stream_new_from_file_range(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path,
+    uint64_t offset,
+    uint64_t length);
+
 struct aws_http_message *aws_http_request_new_from_java_http_request(
     JNIEnv *env,
     jbyteArray marshalled_request,
     jobject jni_body_stream);
 
+/*
+ * Like aws_http_request_new_from_java_http_request, but reads the first marshalled_request_length bytes of a direct
+ * ByteBuffer, as filled in by HttpRequest.marshalForJniDirect(). Nothing refers to the buffer once this returns.
+ */
+struct aws_http_message *aws_http_request_new_from_java_http_request_buffer(
+    JNIEnv *env,
+    jobject marshalled_request,
+    jint marshalled_request_length,
+    jobject jni_body_stream);
+
 int aws_marshal_http_headers_to_dynamic_buffer(
     struct aws_byte_buf *buf,
     const struct aws_http_header *header_array,
@@ -38,6 +68,14 @@ int aws_apply_java_http_request_changes_to_native_request(
     jobject jni_body_stream,
     struct aws_http_message *message);
 
+/* Direct ByteBuffer variant of the above. If this fails a java exception has been set. */
+int aws_apply_java_http_request_buffer_changes_to_native_request(
+    JNIEnv *env,
+    jobject marshalled_request,
+    jint marshalled_request_length,
+    jobject jni_body_stream,
+    struct aws_http_message *message);
+
 /* if this fails a java exception has been set. */
 jobject aws_java_http_request_from_native(JNIEnv *env, struct aws_http_message *message, jobject request_body_stream);
 
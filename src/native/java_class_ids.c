@@ -22,6 +22,54 @@ static void s_cache_http_request_body_stream(JNIEnv *env) {
 
     http_request_body_stream_properties.get_length = (*env)->GetMethodID(env, cls, "getLength", "()J");
     AWS_FATAL_ASSERT(http_request_body_stream_properties.get_length);
+
+    http_request_body_stream_properties.get_bulk_read_size =
+        (*env)->GetMethodID(env, cls, "getBulkReadSize", "()I");
+    AWS_FATAL_ASSERT(http_request_body_stream_properties.get_bulk_read_size);
+}
+
+struct java_http_request_body_stream_pump_properties http_request_body_stream_pump_properties;
+
+static void s_cache_http_request_body_stream_pump(JNIEnv *env) {
+    jclass cls = (*env)->FindClass(env, "software/amazon/awssdk/crt/http/HttpRequestBodyStreamPump");
+    AWS_FATAL_ASSERT(cls);
+    http_request_body_stream_pump_properties.cls = (*env)->NewGlobalRef(env, cls);
+
+    http_request_body_stream_pump_properties.fill = (*env)->GetStaticMethodID(
+        env,
+        cls,
+        "fill",
+        "(Lsoftware/amazon/awssdk/crt/http/HttpRequestBodyStream;Ljava/nio/ByteBuffer;)I");
+    AWS_FATAL_ASSERT(http_request_body_stream_pump_properties.fill);
+}
+
+struct java_direct_byte_buffer_body_stream_properties direct_byte_buffer_body_stream_properties;
+
+static void s_cache_direct_byte_buffer_body_stream(JNIEnv *env) {
+    jclass cls = (*env)->FindClass(env, "software/amazon/awssdk/crt/http/DirectByteBufferBodyStream");
+    AWS_FATAL_ASSERT(cls);
+    direct_byte_buffer_body_stream_properties.cls = (*env)->NewGlobalRef(env, cls);
+
+    direct_byte_buffer_body_stream_properties.body_field_id =
+        (*env)->GetFieldID(env, cls, "body", "Ljava/nio/ByteBuffer;");
+    AWS_FATAL_ASSERT(direct_byte_buffer_body_stream_properties.body_field_id);
+}
+
+struct java_file_body_stream_properties file_body_stream_properties;
+
+static void s_cache_file_body_stream(JNIEnv *env) {
+    jclass cls = (*env)->FindClass(env, "software/amazon/awssdk/crt/http/FileBodyStream");
+    AWS_FATAL_ASSERT(cls);
+    file_body_stream_properties.cls = (*env)->NewGlobalRef(env, cls);
+
+    file_body_stream_properties.path_bytes_field_id = (*env)->GetFieldID(env, cls, "pathBytes", "[B");
+    AWS_FATAL_ASSERT(file_body_stream_properties.path_bytes_field_id);
+
+    file_body_stream_properties.offset_field_id = (*env)->GetFieldID(env, cls, "offset", "J");
+    AWS_FATAL_ASSERT(file_body_stream_properties.offset_field_id);
+
+    file_body_stream_properties.length_field_id = (*env)->GetFieldID(env, cls, "length", "J");
+    AWS_FATAL_ASSERT(file_body_stream_properties.length_field_id);
 }
 
 struct java_aws_signing_config_properties aws_signing_config_properties;
@@ -518,12 +566,16 @@ static void s_cache_s3_meta_request_response_handler_native_adapter_properties(J
     AWS_FATAL_ASSERT(s3_meta_request_response_handler_native_adapter_properties.onResponseBody);
 
     s3_meta_request_response_handler_native_adapter_properties.onFinished =
-        (*env)->GetMethodID(env, cls, "onFinished", "(I)V");
+        (*env)->GetMethodID(env, cls, "onFinished", "(II)V");
     AWS_FATAL_ASSERT(s3_meta_request_response_handler_native_adapter_properties.onFinished);
 
     s3_meta_request_response_handler_native_adapter_properties.onResponseHeaders =
         (*env)->GetMethodID(env, cls, "onResponseHeaders", "(ILjava/nio/ByteBuffer;)V");
     AWS_FATAL_ASSERT(s3_meta_request_response_handler_native_adapter_properties.onResponseHeaders);
+
+    s3_meta_request_response_handler_native_adapter_properties.onProgress =
+        (*env)->GetMethodID(env, cls, "onProgress", "(JJ)V");
+    AWS_FATAL_ASSERT(s3_meta_request_response_handler_native_adapter_properties.onProgress);
 }
 
 struct java_completable_future_properties completable_future_properties;
@@ -569,6 +621,9 @@ static void s_cache_http_header(JNIEnv *env) {
 
 void cache_java_class_ids(JNIEnv *env) {
     s_cache_http_request_body_stream(env);
+    s_cache_http_request_body_stream_pump(env);
+    s_cache_direct_byte_buffer_body_stream(env);
+    s_cache_file_body_stream(env);
     s_cache_aws_signing_config(env);
     s_cache_predicate(env);
     s_cache_http_request(env);
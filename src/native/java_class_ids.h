@@ -13,9 +13,33 @@ struct java_http_request_body_stream_properties {
     jmethodID send_outgoing_body;
     jmethodID reset_position;
     jmethodID get_length;
+    jmethodID get_bulk_read_size;
 };
 extern struct java_http_request_body_stream_properties http_request_body_stream_properties;
 
+/* HttpRequestBodyStreamPump */
+struct java_http_request_body_stream_pump_properties {
+    jclass cls;
+    jmethodID fill;
+};
+extern struct java_http_request_body_stream_pump_properties http_request_body_stream_pump_properties;
+
+/* DirectByteBufferBodyStream */
+struct java_direct_byte_buffer_body_stream_properties {
+    jclass cls;
+    jfieldID body_field_id;
+};
+extern struct java_direct_byte_buffer_body_stream_properties direct_byte_buffer_body_stream_properties;
+
+/* FileBodyStream */
+struct java_file_body_stream_properties {
+    jclass cls;
+    jfieldID path_bytes_field_id;
+    jfieldID offset_field_id;
+    jfieldID length_field_id;
+};
+extern struct java_file_body_stream_properties file_body_stream_properties;
+
 /* AwsSigningConfig */
 struct java_aws_signing_config_properties {
     jclass aws_signing_config_class;
@@ -232,6 +256,7 @@ struct java_s3_meta_request_response_handler_native_adapter_properties {
     jmethodID onResponseBody;
     jmethodID onFinished;
     jmethodID onResponseHeaders;
+    jmethodID onProgress;
 };
 struct java_s3_meta_request_response_handler_native_adapter_properties
     s3_meta_request_response_handler_native_adapter_properties;
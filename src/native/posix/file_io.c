@@ -0,0 +1,133 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+#include "../file_io.h"
+
+#include <aws/common/string.h>
+
+#include <errno.h>
+#include <fcntl.h>
+#include <sys/stat.h>
+#include <sys/types.h>
+#include <unistd.h>
+
+struct aws_jni_file {
+    struct aws_allocator *allocator;
+    int fd;
+};
+
+struct aws_jni_file *aws_jni_file_open(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path,
+    enum aws_jni_file_mode mode) {
+
+    struct aws_string *path_str = aws_string_new_from_array(allocator, path.ptr, path.len);
+    if (path_str == NULL) {
+        return NULL;
+    }
+
+    int flags = O_CLOEXEC;
+    if (mode == AWS_JNI_FILE_READ) {
+        flags |= O_RDONLY;
+    } else {
+        flags |= O_WRONLY | O_CREAT | O_TRUNC;
+    }
+
+    int fd = open(aws_string_c_str(path_str), flags, 0644);
+    aws_string_destroy(path_str);
+
+    if (fd < 0) {
+        aws_raise_error(errno == ENOENT ? AWS_ERROR_FILE_INVALID_PATH : AWS_ERROR_SYS_CALL_FAILURE);
+        return NULL;
+    }
+
+    struct aws_jni_file *file = aws_mem_calloc(allocator, 1, sizeof(struct aws_jni_file));
+    if (file == NULL) {
+        close(fd);
+        return NULL;
+    }
+
+    file->allocator = allocator;
+    file->fd = fd;
+    return file;
+}
+
+int aws_jni_file_read_at(struct aws_jni_file *file, struct aws_byte_buf *dest, uint64_t offset, size_t *out_read) {
+    *out_read = 0;
+    ssize_t amount_read = 0;
+    do {
+        amount_read = pread(file->fd, dest->buffer + dest->len, dest->capacity - dest->len, (off_t)offset);
+    } while (amount_read < 0 && errno == EINTR);
+
+    if (amount_read < 0) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+
+    dest->len += (size_t)amount_read;
+    *out_read = (size_t)amount_read;
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_get_length(struct aws_jni_file *file, uint64_t *out_length) {
+    struct stat file_stats;
+    if (fstat(file->fd, &file_stats)) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+
+    *out_length = (uint64_t)file_stats.st_size;
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_write_at(struct aws_jni_file *file, struct aws_byte_cursor data, uint64_t offset) {
+    while (data.len > 0) {
+        ssize_t written = pwrite(file->fd, data.ptr, data.len, (off_t)offset);
+        if (written < 0) {
+            if (errno == EINTR) {
+                continue;
+            }
+            return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+        }
+
+        aws_byte_cursor_advance(&data, (size_t)written);
+        offset += (uint64_t)written;
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_preallocate(struct aws_jni_file *file, uint64_t size) {
+#if defined(__linux__) || defined(__FreeBSD__)
+    int result = posix_fallocate(file->fd, 0, (off_t)size);
+    if (result == 0) {
+        return AWS_OP_SUCCESS;
+    }
+    /* Some filesystems don't support fallocate, fall back to just sizing the file */
+    if (result != EINVAL && result != EOPNOTSUPP) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+#endif
+    if (ftruncate(file->fd, (off_t)size)) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_sync(struct aws_jni_file *file) {
+    if (fsync(file->fd)) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+void aws_jni_file_close(struct aws_jni_file *file) {
+    if (file == NULL) {
+        return;
+    }
+
+    close(file->fd);
+    aws_mem_release(file->allocator, file);
+}
@@ -3,13 +3,18 @@
  * SPDX-License-Identifier: Apache-2.0.
  */
 #include "crt.h"
+#include "file_io.h"
 #include "http_request_utils.h"
 #include "java_class_ids.h"
+#include <aws/common/atomics.h>
 #include <aws/http/request_response.h>
 #include <aws/io/tls_channel_handler.h>
 #include <aws/s3/s3_client.h>
 #include <jni.h>
 
+#include <inttypes.h>
+#include <stdio.h>
+
 /* on 32-bit platforms, casting pointers to longs throws a warning we don't need */
 #if UINTPTR_MAX == 0xffffffff
 #    if defined(_MSC_VER)
@@ -32,8 +37,189 @@ struct s3_client_make_meta_request_callback_data {
     JavaVM *jvm;
     jobject java_s3_meta_request;
     jobject java_s3_meta_request_response_handler_native_adapter;
+
+    /* When set, the response body is written here instead of being delivered to Java */
+    struct aws_jni_file *response_file;
+    bool response_file_preallocate;
+    bool response_file_sync_on_finish;
+
+    /*
+     * Request body owned by this meta request, destroyed once the meta request has shut down. It wraps whichever
+     * body the request uses (a file or a Java HttpRequestBodyStream) so reads observe cancellation and report progress.
+     */
+    struct aws_input_stream *request_body_stream;
+
+    /* This struct is the handle Java holds, so cancellation can reach it without touching the meta request */
+    struct aws_s3_meta_request *meta_request;
+    struct aws_atomic_var cancelled;
+
+    /* Upload progress is reported each time another part_size bytes of the body have been read */
+    uint64_t part_size;
+
+    /* Download progress. Body callbacks for one meta request are delivered one at a time, so no locking needed */
+    uint64_t progress_bytes;
+    uint64_t progress_parts;
+
+    /*
+     * A small object is a single request, so its body isn't wrapped and it reports progress once, when it finishes,
+     * instead of calling into Java for every body chunk. small_object_upload_length is the request body's length.
+     */
+    bool small_object;
+    uint64_t small_object_upload_length;
 };
 
+static bool s_is_meta_request_cancelled(struct s3_client_make_meta_request_callback_data *callback_data) {
+    return aws_atomic_load_int(&callback_data->cancelled) != 0;
+}
+
+static void s_report_progress(
+    struct s3_client_make_meta_request_callback_data *callback_data,
+    uint64_t bytes_transferred,
+    uint64_t parts_completed) {
+
+    if (callback_data->java_s3_meta_request_response_handler_native_adapter == NULL) {
+        return;
+    }
+
+    JNIEnv *env = aws_jni_get_thread_env(callback_data->jvm);
+    (*env)->CallVoidMethod(
+        env,
+        callback_data->java_s3_meta_request_response_handler_native_adapter,
+        s3_meta_request_response_handler_native_adapter_properties.onProgress,
+        (jlong)bytes_transferred,
+        (jlong)parts_completed);
+
+    if (aws_jni_check_and_clear_exception(env)) {
+        AWS_LOGF_ERROR(
+            AWS_LS_S3_META_REQUEST,
+            "id=%p: Ignored Exception from S3MetaRequest.onProgress callback",
+            (void *)callback_data->meta_request);
+    }
+}
+
+/*
+ * Request body wrapper: forwards to the real body stream, fails reads once the meta request is cancelled, and
+ * reports a progress event whenever another full part (or the final partial part) has been read. Only forward
+ * progress counts, so a part that is re-read after a seek is not reported twice.
+ */
+struct s3_request_body_stream_impl {
+    struct aws_input_stream *inner;
+    struct s3_client_make_meta_request_callback_data *callback_data;
+    uint64_t position;
+    uint64_t high_water_mark;
+    uint64_t parts_reported;
+};
+
+static int s_s3_request_body_stream_seek(
+    struct aws_input_stream *stream,
+    aws_off_t offset,
+    enum aws_stream_seek_basis basis) {
+    struct s3_request_body_stream_impl *impl = stream->impl;
+
+    if (aws_input_stream_seek(impl->inner, offset, basis)) {
+        return AWS_OP_ERR;
+    }
+
+    int64_t length = 0;
+    if (basis == AWS_SSB_BEGIN) {
+        impl->position = (uint64_t)offset;
+    } else if (aws_input_stream_get_length(impl->inner, &length) == AWS_OP_SUCCESS) {
+        impl->position = (uint64_t)(length + (int64_t)offset);
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+static int s_s3_request_body_stream_read(struct aws_input_stream *stream, struct aws_byte_buf *dest) {
+    struct s3_request_body_stream_impl *impl = stream->impl;
+    struct s3_client_make_meta_request_callback_data *callback_data = impl->callback_data;
+
+    if (s_is_meta_request_cancelled(callback_data)) {
+        return aws_raise_error(AWS_ERROR_INVALID_STATE);
+    }
+
+    size_t len_before = dest->len;
+    if (aws_input_stream_read(impl->inner, dest)) {
+        return AWS_OP_ERR;
+    }
+    impl->position += dest->len - len_before;
+
+    if (impl->position <= impl->high_water_mark) {
+        return AWS_OP_SUCCESS;
+    }
+    impl->high_water_mark = impl->position;
+
+    uint64_t parts_read = impl->high_water_mark / callback_data->part_size;
+    struct aws_stream_status status;
+    AWS_ZERO_STRUCT(status);
+    if (aws_input_stream_get_status(impl->inner, &status) == AWS_OP_SUCCESS && status.is_end_of_stream &&
+        impl->high_water_mark % callback_data->part_size != 0) {
+        ++parts_read;
+    }
+
+    if (parts_read > impl->parts_reported) {
+        impl->parts_reported = parts_read;
+        s_report_progress(callback_data, impl->high_water_mark, parts_read);
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+static int s_s3_request_body_stream_get_status(struct aws_input_stream *stream, struct aws_stream_status *status) {
+    struct s3_request_body_stream_impl *impl = stream->impl;
+    return aws_input_stream_get_status(impl->inner, status);
+}
+
+static int s_s3_request_body_stream_get_length(struct aws_input_stream *stream, int64_t *length) {
+    struct s3_request_body_stream_impl *impl = stream->impl;
+    return aws_input_stream_get_length(impl->inner, length);
+}
+
+static void s_s3_request_body_stream_destroy(struct aws_input_stream *stream) {
+    struct s3_request_body_stream_impl *impl = stream->impl;
+
+    aws_input_stream_destroy(impl->inner);
+    aws_mem_release(stream->allocator, stream);
+}
+
+static struct aws_input_stream_vtable s_s3_request_body_stream_vtable = {
+    .seek = s_s3_request_body_stream_seek,
+    .read = s_s3_request_body_stream_read,
+    .get_status = s_s3_request_body_stream_get_status,
+    .get_length = s_s3_request_body_stream_get_length,
+    .destroy = s_s3_request_body_stream_destroy,
+};
+
+/* Takes ownership of inner */
+static struct aws_input_stream *s_s3_request_body_stream_new(
+    struct aws_allocator *allocator,
+    struct aws_input_stream *inner,
+    struct s3_client_make_meta_request_callback_data *callback_data) {
+    struct aws_input_stream *input_stream = NULL;
+    struct s3_request_body_stream_impl *impl = NULL;
+
+    aws_mem_acquire_many(
+        allocator,
+        2,
+        &input_stream,
+        sizeof(struct aws_input_stream),
+        &impl,
+        sizeof(struct s3_request_body_stream_impl));
+    AWS_FATAL_ASSERT(input_stream);
+
+    AWS_ZERO_STRUCT(*input_stream);
+    AWS_ZERO_STRUCT(*impl);
+
+    input_stream->allocator = allocator;
+    input_stream->vtable = &s_s3_request_body_stream_vtable;
+    input_stream->impl = impl;
+
+    impl->inner = inner;
+    impl->callback_data = callback_data;
+
+    return input_stream;
+}
+
 static void s_on_s3_client_shutdown_complete_callback(void *user_data);
 static void s_on_s3_meta_request_shutdown_complete_callback(void *user_data);
 
@@ -148,6 +334,17 @@ static void s_on_s3_client_shutdown_complete_callback(void *user_data) {
     aws_mem_release(aws_jni_get_allocator(), user_data);
 }
 
+/* Each body callback carries one whole part, so downloads report progress once per callback */
+static void s_report_download_progress(
+    struct s3_client_make_meta_request_callback_data *callback_data,
+    size_t part_length) {
+    callback_data->progress_bytes += part_length;
+    ++callback_data->progress_parts;
+    if (!callback_data->small_object) {
+        s_report_progress(callback_data, callback_data->progress_bytes, callback_data->progress_parts);
+    }
+}
+
 static int s_on_s3_meta_request_body_callback(
     struct aws_s3_meta_request *meta_request,
     const struct aws_byte_cursor *body,
@@ -162,6 +359,24 @@ static int s_on_s3_meta_request_body_callback(
     struct s3_client_make_meta_request_callback_data *callback_data =
         (struct s3_client_make_meta_request_callback_data *)user_data;
 
+    if (s_is_meta_request_cancelled(callback_data)) {
+        return aws_raise_error(AWS_ERROR_INVALID_STATE);
+    }
+
+    if (callback_data->response_file != NULL) {
+        if (aws_jni_file_write_at(callback_data->response_file, *body, range_start)) {
+            AWS_LOGF_ERROR(
+                AWS_LS_S3_META_REQUEST,
+                "id=%p: Failed writing response body to file at offset %llu: %s",
+                (void *)meta_request,
+                (unsigned long long)range_start,
+                aws_error_debug_str(aws_last_error()));
+            return AWS_OP_ERR;
+        }
+        s_report_download_progress(callback_data, body->len);
+        return AWS_OP_SUCCESS;
+    }
+
     JNIEnv *env = aws_jni_get_thread_env(callback_data->jvm);
 
     jobject jni_payload = aws_jni_direct_byte_buffer_from_raw_ptr(env, body->ptr, body->len);
@@ -175,16 +390,20 @@ static int s_on_s3_meta_request_body_callback(
             jni_payload,
             range_start,
             range_end);
+        /* The read window is applied by the Java adapter before it returns; it throws instead of queueing more than
+         * its cap, which fails the meta request below */
         (void)body_response_result;
 
         if (aws_jni_check_and_clear_exception(env)) {
             AWS_LOGF_ERROR(
                 AWS_LS_S3_META_REQUEST,
-                "id=%p: Ignored Exception from S3MetaRequest.onResponseBody callback",
+                "id=%p: Exception thrown from S3MetaRequest.onResponseBody callback",
                 (void *)meta_request);
+            aws_raise_error(AWS_ERROR_HTTP_CALLBACK_FAILURE);
             goto cleanup;
         }
     }
+    s_report_download_progress(callback_data, body->len);
     return_value = AWS_OP_SUCCESS;
 
 cleanup:
@@ -193,6 +412,50 @@ cleanup:
     return return_value;
 }
 
+/* Parses an unsigned decimal number, returns false if cursor is empty or contains anything but digits */
+static bool s_parse_u64(struct aws_byte_cursor cursor, uint64_t *out_value) {
+    if (cursor.len == 0) {
+        return false;
+    }
+
+    uint64_t value = 0;
+    for (size_t i = 0; i < cursor.len; ++i) {
+        uint8_t c = cursor.ptr[i];
+        if (c < '0' || c > '9' || value > (UINT64_MAX - 9) / 10) {
+            return false;
+        }
+        value = value * 10 + (c - '0');
+    }
+
+    *out_value = value;
+    return true;
+}
+
+/* Total object size is the part after '/' in "Content-Range: bytes 0-8388607/10737418240", or Content-Length for
+ * a non-ranged response */
+static bool s_get_object_size_from_headers(const struct aws_http_headers *headers, uint64_t *out_size) {
+    struct aws_byte_cursor value;
+    AWS_ZERO_STRUCT(value);
+
+    if (aws_http_headers_get(headers, aws_byte_cursor_from_c_str("Content-Range"), &value) == AWS_OP_SUCCESS) {
+        size_t slash = value.len;
+        while (slash > 0 && value.ptr[slash - 1] != '/') {
+            --slash;
+        }
+        if (slash == 0) {
+            return false;
+        }
+        aws_byte_cursor_advance(&value, slash);
+        return s_parse_u64(value, out_size);
+    }
+
+    if (aws_http_headers_get(headers, aws_byte_cursor_from_c_str("Content-Length"), &value) == AWS_OP_SUCCESS) {
+        return s_parse_u64(value, out_size);
+    }
+
+    return false;
+}
+
 static int s_on_s3_meta_request_headers_callback(
     struct aws_s3_meta_request *meta_request,
     const struct aws_http_headers *headers,
@@ -202,6 +465,26 @@ static int s_on_s3_meta_request_headers_callback(
     struct s3_client_make_meta_request_callback_data *callback_data =
         (struct s3_client_make_meta_request_callback_data *)user_data;
 
+    if (s_is_meta_request_cancelled(callback_data)) {
+        return aws_raise_error(AWS_ERROR_INVALID_STATE);
+    }
+
+    if (callback_data->response_file != NULL && callback_data->response_file_preallocate &&
+        response_status / 100 == 2) {
+        uint64_t object_size = 0;
+        if (s_get_object_size_from_headers(headers, &object_size) &&
+            aws_jni_file_preallocate(callback_data->response_file, object_size)) {
+            AWS_LOGF_WARN(
+                AWS_LS_S3_META_REQUEST,
+                "id=%p: Failed to preallocate %llu bytes for response file: %s",
+                (void *)meta_request,
+                (unsigned long long)object_size,
+                aws_error_debug_str(aws_last_error()));
+        }
+        /* only the first successful response carries the size we need */
+        callback_data->response_file_preallocate = false;
+    }
+
     JNIEnv *env = aws_jni_get_thread_env(callback_data->jvm);
     struct aws_allocator *allocator = aws_jni_get_allocator();
     /* calculate initial header capacity */
@@ -239,6 +522,7 @@ static int s_on_s3_meta_request_headers_callback(
                 AWS_LS_S3_META_REQUEST,
                 "id=%p: Exception thrown from S3MetaRequest.onResponseHeaders callback",
                 (void *)meta_request);
+            aws_raise_error(AWS_ERROR_HTTP_CALLBACK_FAILURE);
             goto cleanup;
         }
     }
@@ -264,12 +548,30 @@ static void s_on_s3_meta_request_finish_callback(
         (struct s3_client_make_meta_request_callback_data *)user_data;
     JNIEnv *env = aws_jni_get_thread_env(callback_data->jvm);
 
+    int error_code = meta_request_result->error_code;
+
+    /* the file must be complete and closed before Java hears the request is done */
+    if (callback_data->response_file != NULL) {
+        if (error_code == AWS_ERROR_SUCCESS && callback_data->response_file_sync_on_finish &&
+            aws_jni_file_sync(callback_data->response_file)) {
+            error_code = aws_last_error();
+        }
+        aws_jni_file_close(callback_data->response_file);
+        callback_data->response_file = NULL;
+    }
+
+    if (callback_data->small_object && error_code == AWS_ERROR_SUCCESS) {
+        s_report_progress(
+            callback_data, callback_data->small_object_upload_length + callback_data->progress_bytes, 1);
+    }
+
     if (callback_data->java_s3_meta_request_response_handler_native_adapter != NULL) {
         (*env)->CallVoidMethod(
             env,
             callback_data->java_s3_meta_request_response_handler_native_adapter,
             s3_meta_request_response_handler_native_adapter_properties.onFinished,
-            meta_request_result->error_code);
+            error_code,
+            meta_request_result->response_status);
 
         if (aws_jni_check_and_clear_exception(env)) {
             AWS_LOGF_ERROR(
@@ -284,6 +586,10 @@ static void s_s3_meta_request_callback_cleanup(
     JNIEnv *env,
     struct s3_client_make_meta_request_callback_data *callback_data) {
     if (callback_data) {
+        aws_jni_file_close(callback_data->response_file);
+        if (callback_data->request_body_stream != NULL) {
+            aws_input_stream_destroy(callback_data->request_body_stream);
+        }
         (*env)->DeleteGlobalRef(env, callback_data->java_s3_meta_request);
         (*env)->DeleteGlobalRef(env, callback_data->java_s3_meta_request_response_handler_native_adapter);
         aws_mem_release(aws_jni_get_allocator(), callback_data);
@@ -296,16 +602,23 @@ JNIEXPORT jlong JNICALL Java_software_amazon_awssdk_crt_s3_S3Client_s3ClientMake
     jlong jni_s3_client,
     jobject java_s3_meta_request_jobject,
     jint meta_request_type,
-    jbyteArray jni_marshalled_message_data,
+    jobject jni_marshalled_message_data,
+    jint jni_marshalled_message_length,
     jobject jni_http_request_body_stream,
-    jobject java_response_handler_jobject) {
+    jobject java_response_handler_jobject,
+    jbyteArray jni_response_file_path,
+    jboolean jni_response_file_preallocate,
+    jboolean jni_response_file_sync_on_finish,
+    jbyteArray jni_request_file_path,
+    jlong jni_part_size,
+    jboolean jni_small_object) {
     (void)jni_class;
 
     struct aws_allocator *allocator = aws_jni_get_allocator();
     struct aws_s3_client *client = (struct aws_s3_client *)jni_s3_client;
 
     struct s3_client_make_meta_request_callback_data *callback_data =
-        aws_mem_acquire(allocator, sizeof(struct s3_client_make_meta_request_callback_data));
+        aws_mem_calloc(allocator, 1, sizeof(struct s3_client_make_meta_request_callback_data));
     AWS_FATAL_ASSERT(callback_data);
 
     jint jvmresult = (*env)->GetJavaVM(env, &callback_data->jvm);
@@ -319,12 +632,83 @@ JNIEXPORT jlong JNICALL Java_software_amazon_awssdk_crt_s3_S3Client_s3ClientMake
         (*env)->NewGlobalRef(env, java_response_handler_jobject);
     AWS_FATAL_ASSERT(callback_data->java_s3_meta_request_response_handler_native_adapter != NULL);
 
+    aws_atomic_init_int(&callback_data->cancelled, 0);
+    callback_data->part_size = jni_part_size > 0 ? (uint64_t)jni_part_size : 1;
+    callback_data->small_object = jni_small_object;
+
+    if (jni_response_file_path != NULL) {
+        struct aws_byte_cursor file_path = aws_jni_byte_cursor_from_jbyteArray_acquire(env, jni_response_file_path);
+        callback_data->response_file = aws_jni_file_open(allocator, file_path, AWS_JNI_FILE_WRITE_TRUNCATE);
+        aws_jni_byte_cursor_from_jbyteArray_release(env, jni_response_file_path, file_path);
+
+        if (callback_data->response_file == NULL) {
+            aws_jni_throw_runtime_exception(
+                env,
+                "S3Client.aws_s3_client_make_meta_request: unable to open response file: %s",
+                aws_error_debug_str(aws_last_error()));
+            s_s3_meta_request_callback_cleanup(env, callback_data);
+            return (jlong)0;
+        }
+
+        callback_data->response_file_preallocate = jni_response_file_preallocate;
+        callback_data->response_file_sync_on_finish = jni_response_file_sync_on_finish;
+    }
+
     struct aws_http_message *request_message = aws_http_message_new_request(allocator);
     AWS_FATAL_ASSERT(request_message);
 
-    AWS_FATAL_ASSERT(
-        AWS_OP_SUCCESS == aws_apply_java_http_request_changes_to_native_request(
-                              env, jni_marshalled_message_data, jni_http_request_body_stream, request_message));
+    if (aws_apply_java_http_request_buffer_changes_to_native_request(
+            env,
+            jni_marshalled_message_data,
+            jni_marshalled_message_length,
+            jni_http_request_body_stream,
+            request_message)) {
+        /* a Java exception has been set, e.g. the file of a FileBodyStream could not be opened */
+        goto error_cleanup;
+    }
+
+    /* A Java body stream, if any, was attached above. The message doesn't own it, so take it over here */
+    struct aws_input_stream *request_body_stream = aws_http_message_get_body_stream(request_message);
+
+    if (jni_request_file_path != NULL) {
+        struct aws_byte_cursor file_path = aws_jni_byte_cursor_from_jbyteArray_acquire(env, jni_request_file_path);
+        request_body_stream = aws_jni_input_stream_new_from_file(allocator, file_path);
+        aws_jni_byte_cursor_from_jbyteArray_release(env, jni_request_file_path, file_path);
+
+        if (request_body_stream == NULL) {
+            aws_jni_throw_runtime_exception(
+                env,
+                "S3Client.aws_s3_client_make_meta_request: unable to open request file: %s",
+                aws_error_debug_str(aws_last_error()));
+            goto error_cleanup;
+        }
+
+        struct aws_http_headers *headers = aws_http_message_get_headers(request_message);
+        struct aws_byte_cursor content_length_name = aws_byte_cursor_from_c_str("Content-Length");
+        struct aws_byte_cursor existing_content_length;
+        if (aws_http_headers_get(headers, content_length_name, &existing_content_length)) {
+            int64_t file_length = 0;
+            aws_input_stream_get_length(request_body_stream, &file_length);
+
+            char content_length_str[32];
+            snprintf(content_length_str, sizeof(content_length_str), "%" PRId64, file_length);
+            aws_http_headers_set(headers, content_length_name, aws_byte_cursor_from_c_str(content_length_str));
+        }
+    }
+
+    if (request_body_stream != NULL && callback_data->small_object) {
+        /* Still owned here, but read directly. A cancelled small PUT fails once its response headers arrive */
+        int64_t upload_length = 0;
+        if (aws_input_stream_get_length(request_body_stream, &upload_length) == AWS_OP_SUCCESS && upload_length > 0) {
+            callback_data->small_object_upload_length = (uint64_t)upload_length;
+        }
+        callback_data->request_body_stream = request_body_stream;
+        aws_http_message_set_body_stream(request_message, request_body_stream);
+    } else if (request_body_stream != NULL) {
+        callback_data->request_body_stream =
+            s_s3_request_body_stream_new(allocator, request_body_stream, callback_data);
+        aws_http_message_set_body_stream(request_message, callback_data->request_body_stream);
+    }
 
     struct aws_s3_meta_request_options meta_request_options = {
         .type = meta_request_type,
@@ -344,7 +728,9 @@ JNIEXPORT jlong JNICALL Java_software_amazon_awssdk_crt_s3_S3Client_s3ClientMake
     }
 
     aws_http_message_release(request_message);
-    return (jlong)meta_request;
+
+    callback_data->meta_request = meta_request;
+    return (jlong)callback_data;
 
 error_cleanup:
     aws_http_message_release(request_message);
@@ -372,19 +758,50 @@ static void s_on_s3_meta_request_shutdown_complete_callback(void *user_data) {
     s_s3_meta_request_callback_cleanup(env, callback_data);
 }
 
+JNIEXPORT jint JNICALL Java_software_amazon_awssdk_crt_s3_S3Client_s3ClientCallbackFailureErrorCode(
+    JNIEnv *env,
+    jclass jni_class) {
+    (void)env;
+    (void)jni_class;
+
+    return AWS_ERROR_HTTP_CALLBACK_FAILURE;
+}
+
 JNIEXPORT void JNICALL Java_software_amazon_awssdk_crt_s3_S3MetaRequest_s3MetaRequestDestroy(
     JNIEnv *env,
     jclass jni_class,
     jlong jni_s3_meta_request) {
     (void)jni_class;
 
-    struct aws_s3_meta_request *meta_request = (struct aws_s3_meta_request *)jni_s3_meta_request;
-    if (!meta_request) {
-        aws_jni_throw_runtime_exception(env, "S3Client.s3_client_clean_up: Invalid/null client");
+    struct s3_client_make_meta_request_callback_data *callback_data =
+        (struct s3_client_make_meta_request_callback_data *)jni_s3_meta_request;
+    if (!callback_data) {
+        aws_jni_throw_runtime_exception(env, "S3MetaRequest.s3MetaRequestDestroy: Invalid/null meta request");
+        return;
+    }
+
+    /* may run the shutdown callback and free callback_data, so it must not be touched afterwards */
+    aws_s3_meta_request_release(callback_data->meta_request);
+}
+
+JNIEXPORT void JNICALL Java_software_amazon_awssdk_crt_s3_S3MetaRequest_s3MetaRequestCancel(
+    JNIEnv *env,
+    jclass jni_class,
+    jlong jni_s3_meta_request) {
+    (void)jni_class;
+
+    struct s3_client_make_meta_request_callback_data *callback_data =
+        (struct s3_client_make_meta_request_callback_data *)jni_s3_meta_request;
+    if (!callback_data) {
+        aws_jni_throw_runtime_exception(env, "S3MetaRequest.s3MetaRequestCancel: Invalid/null meta request");
         return;
     }
 
-    aws_s3_meta_request_release(meta_request);
+    /*
+     * aws-c-s3 has no way to abort a meta request from outside, so the next header, body or request body
+     * callback fails instead. That finishes the meta request with an error and stops it scheduling more parts.
+     */
+    aws_atomic_store_int(&callback_data->cancelled, 1);
 }
 
 #if UINTPTR_MAX == 0xffffffff
@@ -0,0 +1,137 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+#include "../file_io.h"
+
+#include <windows.h>
+
+struct aws_jni_file {
+    struct aws_allocator *allocator;
+    HANDLE handle;
+};
+
+struct aws_jni_file *aws_jni_file_open(
+    struct aws_allocator *allocator,
+    struct aws_byte_cursor path,
+    enum aws_jni_file_mode mode) {
+
+    int wide_len = MultiByteToWideChar(CP_UTF8, 0, (const char *)path.ptr, (int)path.len, NULL, 0);
+    if (wide_len <= 0) {
+        aws_raise_error(AWS_ERROR_FILE_INVALID_PATH);
+        return NULL;
+    }
+
+    wchar_t *wide_path = aws_mem_calloc(allocator, (size_t)wide_len + 1, sizeof(wchar_t));
+    if (wide_path == NULL) {
+        return NULL;
+    }
+    MultiByteToWideChar(CP_UTF8, 0, (const char *)path.ptr, (int)path.len, wide_path, wide_len);
+
+    HANDLE handle = INVALID_HANDLE_VALUE;
+    if (mode == AWS_JNI_FILE_READ) {
+        handle = CreateFileW(
+            wide_path, GENERIC_READ, FILE_SHARE_READ, NULL, OPEN_EXISTING, FILE_ATTRIBUTE_NORMAL, NULL);
+    } else {
+        handle = CreateFileW(wide_path, GENERIC_WRITE, 0, NULL, CREATE_ALWAYS, FILE_ATTRIBUTE_NORMAL, NULL);
+    }
+    aws_mem_release(allocator, wide_path);
+
+    if (handle == INVALID_HANDLE_VALUE) {
+        DWORD error = GetLastError();
+        aws_raise_error(
+            (error == ERROR_FILE_NOT_FOUND || error == ERROR_PATH_NOT_FOUND) ? AWS_ERROR_FILE_INVALID_PATH
+                                                                             : AWS_ERROR_SYS_CALL_FAILURE);
+        return NULL;
+    }
+
+    struct aws_jni_file *file = aws_mem_calloc(allocator, 1, sizeof(struct aws_jni_file));
+    if (file == NULL) {
+        CloseHandle(handle);
+        return NULL;
+    }
+
+    file->allocator = allocator;
+    file->handle = handle;
+    return file;
+}
+
+int aws_jni_file_read_at(struct aws_jni_file *file, struct aws_byte_buf *dest, uint64_t offset, size_t *out_read) {
+    *out_read = 0;
+
+    OVERLAPPED overlapped;
+    AWS_ZERO_STRUCT(overlapped);
+    overlapped.Offset = (DWORD)(offset & 0xFFFFFFFF);
+    overlapped.OffsetHigh = (DWORD)(offset >> 32);
+
+    size_t space = dest->capacity - dest->len;
+    DWORD to_read = space > MAXDWORD ? MAXDWORD : (DWORD)space;
+    DWORD amount_read = 0;
+    if (!ReadFile(file->handle, dest->buffer + dest->len, to_read, &amount_read, &overlapped)) {
+        if (GetLastError() != ERROR_HANDLE_EOF) {
+            return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+        }
+    }
+
+    dest->len += amount_read;
+    *out_read = amount_read;
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_get_length(struct aws_jni_file *file, uint64_t *out_length) {
+    LARGE_INTEGER size;
+    if (!GetFileSizeEx(file->handle, &size)) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+
+    *out_length = (uint64_t)size.QuadPart;
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_write_at(struct aws_jni_file *file, struct aws_byte_cursor data, uint64_t offset) {
+    while (data.len > 0) {
+        OVERLAPPED overlapped;
+        AWS_ZERO_STRUCT(overlapped);
+        overlapped.Offset = (DWORD)(offset & 0xFFFFFFFF);
+        overlapped.OffsetHigh = (DWORD)(offset >> 32);
+
+        DWORD to_write = data.len > MAXDWORD ? MAXDWORD : (DWORD)data.len;
+        DWORD written = 0;
+        if (!WriteFile(file->handle, data.ptr, to_write, &written, &overlapped)) {
+            return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+        }
+
+        aws_byte_cursor_advance(&data, (size_t)written);
+        offset += written;
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_preallocate(struct aws_jni_file *file, uint64_t size) {
+    FILE_ALLOCATION_INFO allocation_info;
+    allocation_info.AllocationSize.QuadPart = (LONGLONG)size;
+    if (!SetFileInformationByHandle(file->handle, FileAllocationInfo, &allocation_info, sizeof(allocation_info))) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+int aws_jni_file_sync(struct aws_jni_file *file) {
+    if (!FlushFileBuffers(file->handle)) {
+        return aws_raise_error(AWS_ERROR_SYS_CALL_FAILURE);
+    }
+
+    return AWS_OP_SUCCESS;
+}
+
+void aws_jni_file_close(struct aws_jni_file *file) {
+    if (file == NULL) {
+        return;
+    }
+
+    CloseHandle(file->handle);
+    aws_mem_release(file->allocator, file);
+}
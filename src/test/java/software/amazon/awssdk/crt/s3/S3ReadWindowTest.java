@@ -0,0 +1,110 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/* In the read window's package, since it isn't public. Chunks are fed in directly, so nothing here needs native. */
+public class S3ReadWindowTest {
+
+    private static class RecordingHandler implements S3MetaRequestResponseHandler {
+        final List<Long> rangeStarts = new ArrayList<>();
+        long bytes = 0;
+        int finishedCount = 0;
+        int finishedErrorCode = -1;
+
+        @Override
+        public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+            rangeStarts.add(objectRangeStart);
+            bytes += bodyBytesIn.remaining();
+            return 0;
+        }
+
+        @Override
+        public void onFinished(int errorCode, int responseStatus) {
+            ++finishedCount;
+            finishedErrorCode = errorCode;
+        }
+    }
+
+    private static ByteBuffer chunk(int length) {
+        return ByteBuffer.allocate(length);
+    }
+
+    @Test
+    public void testQueuesWhileClosedAndDeliversInOrder() {
+        RecordingHandler handler = new RecordingHandler();
+        S3ReadWindow window = new S3ReadWindow(handler, 10, 100);
+
+        Assert.assertEquals(0, window.onResponseBody(chunk(10), 0, 10));
+        window.onResponseBody(chunk(10), 10, 20);
+        window.onResponseBody(chunk(10), 20, 30);
+        window.onFinished(0, 200);
+
+        Assert.assertEquals(10, handler.bytes);
+        Assert.assertEquals(20, window.getPendingBytes());
+        Assert.assertEquals(0, handler.finishedCount);
+
+        window.increment(10);
+        Assert.assertEquals(20, handler.bytes);
+        Assert.assertEquals(0, handler.finishedCount);
+
+        window.increment(10);
+        Assert.assertEquals(30, handler.bytes);
+        Assert.assertEquals(0, window.getPendingBytes());
+        Assert.assertEquals(1, handler.finishedCount);
+        Assert.assertEquals(0, handler.finishedErrorCode);
+
+        List<Long> expectedStarts = new ArrayList<>();
+        expectedStarts.add(0L);
+        expectedStarts.add(10L);
+        expectedStarts.add(20L);
+        Assert.assertEquals(expectedStarts, handler.rangeStarts);
+    }
+
+    @Test
+    public void testChunkPastTheCapThrowsAndDropsTheQueue() {
+        RecordingHandler handler = new RecordingHandler();
+        S3ReadWindow window = new S3ReadWindow(handler, 0, 25);
+
+        window.onResponseBody(chunk(10), 0, 10);
+        window.onResponseBody(chunk(10), 10, 20);
+        Assert.assertEquals(20, window.getPendingBytes());
+
+        try {
+            window.onResponseBody(chunk(10), 20, 30);
+            Assert.fail("expected the read window to reject a chunk past its cap");
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(0, window.getPendingBytes());
+
+        /* native fails the meta request on the exception, and the failure is reported right away */
+        window.onFinished(1, 0);
+        Assert.assertEquals(1, handler.finishedCount);
+        Assert.assertEquals(1, handler.finishedErrorCode);
+        Assert.assertEquals(0, handler.bytes);
+    }
+
+    @Test
+    public void testFailureDropsTheQueue() {
+        RecordingHandler handler = new RecordingHandler();
+        S3ReadWindow window = new S3ReadWindow(handler, 0, 100);
+
+        window.onResponseBody(chunk(10), 0, 10);
+        window.onFinished(1, 500);
+
+        Assert.assertEquals(1, handler.finishedCount);
+        Assert.assertEquals(0, window.getPendingBytes());
+
+        window.increment(10);
+        Assert.assertEquals(0, handler.bytes);
+        Assert.assertEquals(1, handler.finishedCount);
+    }
+}
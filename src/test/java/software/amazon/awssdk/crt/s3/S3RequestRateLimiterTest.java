@@ -0,0 +1,128 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+package software.amazon.awssdk.crt.s3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpRequest;
+
+/* In the limiter's package, since it isn't public. The clock is passed in, so nothing here sleeps. */
+public class S3RequestRateLimiterTest {
+    private final static long SECOND = 1000L * 1000 * 1000;
+    private final static long T0 = 1000 * SECOND;
+    private final static String KEY = "bucket.s3.amazonaws.com/logs";
+    private final static double DELTA = 1e-9;
+
+    @Test
+    public void testKeyOf() {
+        HttpHeader[] headers = new HttpHeader[] { new HttpHeader("host", "bucket.s3.amazonaws.com") };
+        Assert.assertEquals(KEY, S3RequestRateLimiter.keyOf(new HttpRequest("GET", "/logs/2021/a.txt", headers, null)));
+        Assert.assertEquals(KEY, S3RequestRateLimiter.keyOf(new HttpRequest("PUT", "/logs?uploads", headers, null)));
+        Assert.assertEquals("bucket.s3.amazonaws.com/",
+                S3RequestRateLimiter.keyOf(new HttpRequest("GET", "/", headers, null)));
+        Assert.assertEquals("/a", S3RequestRateLimiter.keyOf(new HttpRequest("GET", "/a/b", new HttpHeader[0], null)));
+    }
+
+    @Test
+    public void testSpacesRequestsAtTheRate() {
+        S3RequestRateLimiter limiter = new S3RequestRateLimiter(10);
+        for (int i = 0; i < 20; ++i) {
+            Assert.assertEquals(i * SECOND / 10, limiter.reserve(KEY, T0).delayNanos);
+        }
+        /* other prefixes have buckets of their own */
+        Assert.assertEquals(0, limiter.reserve("bucket.s3.amazonaws.com/other", T0).delayNanos);
+    }
+
+    @Test
+    public void testIdleBucketAllowsBurst() {
+        S3RequestRateLimiter limiter = new S3RequestRateLimiter(10);
+        limiter.reserve(KEY, T0);
+
+        /* after a long idle time, a second's worth of slots plus the current one are free */
+        long now = T0 + 60 * SECOND;
+        for (int i = 0; i < 11; ++i) {
+            Assert.assertEquals(0, limiter.reserve(KEY, now).delayNanos);
+        }
+        Assert.assertEquals(SECOND / 10, limiter.reserve(KEY, now).delayNanos);
+    }
+
+    @Test
+    public void testThrottlingHalvesTheRateOncePerRound() {
+        S3RequestRateLimiter limiter = new S3RequestRateLimiter(10);
+        S3RequestRateLimiter.Reservation first = limiter.reserve(KEY, T0);
+        S3RequestRateLimiter.Reservation second = limiter.reserve(KEY, T0);
+
+        limiter.onFinished(first, 503, T0 + 1);
+        Assert.assertEquals(5.0, limiter.getRate(KEY), DELTA);
+
+        /* reserved before the cut, so it was sent at the old rate and doesn't cut again */
+        limiter.onFinished(second, 503, T0 + 2);
+        Assert.assertEquals(5.0, limiter.getRate(KEY), DELTA);
+
+        S3RequestRateLimiter.Reservation third = limiter.reserve(KEY, T0 + 3);
+        limiter.onFinished(third, 503, T0 + 4);
+        Assert.assertEquals(2.5, limiter.getRate(KEY), DELTA);
+
+        /* the rate never drops below one request per second */
+        for (int i = 0; i < 10; ++i) {
+            limiter.onFinished(limiter.reserve(KEY, T0 + 5 + 2 * i), 503, T0 + 6 + 2 * i);
+        }
+        Assert.assertEquals(1.0, limiter.getRate(KEY), DELTA);
+    }
+
+    @Test
+    public void testSuccessIncreasesTheRateOnlyWhenBacklogged() {
+        S3RequestRateLimiter limiter = new S3RequestRateLimiter(10);
+        S3RequestRateLimiter.Reservation first = limiter.reserve(KEY, T0);
+
+        /* the next slot is already free, so the limiter isn't what holds requests back */
+        limiter.onFinished(first, 200, T0 + SECOND);
+        Assert.assertEquals(10.0, limiter.getRate(KEY), DELTA);
+
+        /* more than the burst, so the schedule runs ahead of the clock */
+        for (int i = 0; i < 15; ++i) {
+            limiter.reserve(KEY, T0 + SECOND);
+        }
+        /* backlogged: each success adds 10% of the initial rate divided by the current rate */
+        limiter.onFinished(first, 200, T0 + SECOND);
+        Assert.assertEquals(10.1, limiter.getRate(KEY), DELTA);
+        limiter.onFinished(first, 204, T0 + SECOND);
+        Assert.assertEquals(10.1 + 1 / 10.1, limiter.getRate(KEY), DELTA);
+
+        /* neither throttling nor success */
+        limiter.onFinished(first, 404, T0 + SECOND);
+        limiter.onFinished(first, 0, T0 + SECOND);
+        Assert.assertEquals(10.1 + 1 / 10.1, limiter.getRate(KEY), DELTA);
+    }
+
+    @Test
+    public void testRateLimits() {
+        /* initial rates and increases below one request per second are raised to it */
+        S3RequestRateLimiter limiter = new S3RequestRateLimiter(0.2);
+        Assert.assertEquals(1.0, limiter.getRate(KEY), DELTA);
+        S3RequestRateLimiter.Reservation reservation = limiter.reserve(KEY, T0);
+        limiter.reserve(KEY, T0);
+        limiter.onFinished(reservation, 200, T0);
+        Assert.assertEquals(2.0, limiter.getRate(KEY), DELTA);
+    }
+
+    @Test
+    public void testTracksALimitedNumberOfPrefixes() {
+        S3RequestRateLimiter limiter = new S3RequestRateLimiter(10);
+        S3RequestRateLimiter.Reservation evicted = limiter.reserve("prefix-0", T0);
+        for (int i = 1; i <= 1024; ++i) {
+            limiter.reserve("prefix-" + i, T0);
+        }
+
+        Assert.assertEquals(1024, limiter.getRates().size());
+        Assert.assertFalse(limiter.getRates().containsKey("prefix-0"));
+        /* feedback for a forgotten prefix is dropped, and it starts over at the initial rate */
+        limiter.onFinished(evicted, 503, T0);
+        Assert.assertFalse(limiter.getRates().containsKey("prefix-0"));
+        Assert.assertEquals(10.0, limiter.getRate("prefix-0"), DELTA);
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0.
+ */
+
+package software.amazon.awssdk.crt.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import software.amazon.awssdk.crt.http.HttpHeader;
+import software.amazon.awssdk.crt.http.HttpHeaders;
+import software.amazon.awssdk.crt.http.HttpRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/* HttpHeaders is plain Java over a byte buffer, so none of this needs the native library or a connection */
+public class HttpHeadersTest {
+
+    private static byte[] marshal(String... namesAndValues) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (String field : namesAndValues) {
+            byte[] encoded = field.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testHttpHeadersView() throws Exception {
+        HttpHeader[] expected = new HttpHeader[] {
+                new HttpHeader("Content-Length", "1024"),
+                new HttpHeader("etag", "\"abc\""),
+                new HttpHeader("x-amz-meta-caf\u00e9", "cr\u00e8me"),
+                new HttpHeader("x-amz-request-id", ""),
+        };
+        byte[] marshalled = new HttpRequest("GET", "/", expected, null).marshalForJni();
+        ByteBuffer blob = ByteBuffer.allocateDirect(marshalled.length);
+        blob.put(marshalled);
+        ((Buffer) blob).flip();
+        // skip method and path
+        ((Buffer) blob).position(blob.position() + blob.getInt(blob.position()) + 4);
+        ((Buffer) blob).position(blob.position() + blob.getInt(blob.position()) + 4);
+
+        HttpHeaders headers = HttpHeaders.fromMarshalledHeadersBlob(blob);
+        Assert.assertEquals(expected.length, headers.size());
+        Assert.assertEquals("1024", headers.get("content-length"));
+        Assert.assertEquals("\"abc\"", headers.get("ETag"));
+        Assert.assertEquals("cr\u00e8me", headers.get("X-Amz-Meta-Caf\u00e9"));
+        Assert.assertEquals("", headers.get("x-amz-request-id"));
+        Assert.assertNull(headers.get("Content-Range"));
+        Assert.assertFalse(headers.contains("Content-Lengt"));
+        Assert.assertEquals("etag", headers.getName(1));
+
+        HttpHeaders copy = headers.copy();
+        // common names are shared rather than decoded again
+        Assert.assertSame(headers.getName(0), copy.getName(0));
+        Assert.assertSame(headers.getName(1), copy.getName(1));
+        ((Buffer) blob).clear();
+        while (blob.hasRemaining()) {
+            blob.put((byte) 0);
+        }
+        int i = 0;
+        for (HttpHeader header : copy) {
+            Assert.assertEquals(expected[i].getName(), header.getName());
+            Assert.assertEquals(expected[i].getValue(), header.getValue());
+            ++i;
+        }
+        Assert.assertEquals(expected.length, copy.toArray().length);
+    }
+
+    @Test
+    public void testHeapBlobWithOffset() throws Exception {
+        byte[] marshalled = marshal("Server", "AmazonS3", "", "skipped", "X-Custom", "1", "x-custom", "2");
+        byte[] padded = new byte[marshalled.length + 10];
+        System.arraycopy(marshalled, 0, padded, 7, marshalled.length);
+        /* a slice with a non-zero array offset, positioned at the start of the headers */
+        ByteBuffer blob = ByteBuffer.wrap(padded, 5, marshalled.length + 2).slice();
+        ((Buffer) blob).position(2);
+        ((Buffer) blob).limit(2 + marshalled.length);
+
+        HttpHeaders headers = HttpHeaders.fromMarshalledHeadersBlob(blob);
+        // the header with an empty name is skipped
+        Assert.assertEquals(3, headers.size());
+        Assert.assertEquals("Server", headers.getName(0));
+        Assert.assertEquals("AmazonS3", headers.getValue(0));
+        // the first of several headers with the same name wins
+        Assert.assertEquals(1, headers.indexOf("X-CUSTOM"));
+        Assert.assertEquals("1", headers.get("x-custom"));
+        Assert.assertEquals("x-custom", headers.getHeader(2).getName());
+        Assert.assertEquals("[Server:AmazonS3, X-Custom:1, x-custom:2]", headers.toString());
+        // reading the view leaves the caller's buffer alone
+        Assert.assertEquals(2, blob.position());
+    }
+
+    @Test
+    public void testManyHeaders() throws Exception {
+        String[] fields = new String[2 * 100];
+        for (int i = 0; i < 100; ++i) {
+            fields[2 * i] = "x-amz-meta-" + i;
+            fields[2 * i + 1] = Integer.toString(i * i);
+        }
+
+        HttpHeaders headers = HttpHeaders.fromMarshalledHeadersBlob(ByteBuffer.wrap(marshal(fields)));
+        Assert.assertEquals(100, headers.size());
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(Integer.toString(i * i), headers.get("X-Amz-Meta-" + i));
+        }
+    }
+
+    @Test
+    public void testLowerCaseCommonNamesAreShared() throws Exception {
+        /* HTTP/2 sends lower case names, which are shared just like the canonical spelling */
+        byte[] marshalled = marshal("content-type", "text/plain", "Content-Type", "text/html");
+        HttpHeaders first = HttpHeaders.fromMarshalledHeadersBlob(ByteBuffer.wrap(marshalled));
+        HttpHeaders second = HttpHeaders.fromMarshalledHeadersBlob(ByteBuffer.wrap(marshalled.clone()));
+
+        Assert.assertEquals("content-type", first.getName(0));
+        Assert.assertSame(first.getName(0), second.getName(0));
+        Assert.assertEquals("Content-Type", first.getName(1));
+        Assert.assertSame(first.getName(1), second.getName(1));
+    }
+
+    @Test
+    public void testEmptyBlob() {
+        HttpHeaders headers = HttpHeaders.fromMarshalledHeadersBlob(ByteBuffer.allocate(0));
+        Assert.assertEquals(0, headers.size());
+        Assert.assertEquals(0, headers.toArray().length);
+        Assert.assertEquals("[]", headers.toString());
+
+        Iterator<HttpHeader> iterator = headers.iterator();
+        Assert.assertFalse(iterator.hasNext());
+        try {
+            iterator.next();
+            Assert.fail("next() past the end must throw");
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfRange() throws Exception {
+        HttpHeaders.fromMarshalledHeadersBlob(ByteBuffer.wrap(marshal("Date", "today"))).getValue(1);
+    }
+}
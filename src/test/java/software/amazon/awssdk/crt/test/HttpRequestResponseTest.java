@@ -18,8 +18,10 @@ import software.amazon.awssdk.crt.http.HttpClientConnectionManagerOptions;
 import software.amazon.awssdk.crt.http.HttpHeader;
 import software.amazon.awssdk.crt.http.HttpRequest;
 import software.amazon.awssdk.crt.http.HttpRequestBodyStream;
+import software.amazon.awssdk.crt.http.HttpRequestTemplate;
 import software.amazon.awssdk.crt.http.HttpStreamResponseHandler;
 import software.amazon.awssdk.crt.http.HttpStream;
+import software.amazon.awssdk.crt.http.HttpStreamChunkWriter;
 import software.amazon.awssdk.crt.io.ClientBootstrap;
 import software.amazon.awssdk.crt.io.EventLoopGroup;
 import software.amazon.awssdk.crt.io.HostResolver;
@@ -28,6 +30,7 @@ import software.amazon.awssdk.crt.io.TlsContext;
 import software.amazon.awssdk.crt.io.TlsContextOptions;
 
 import java.net.URI;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -44,6 +47,10 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
     private final String EMPTY_BODY = "";
     private final static String TEST_DOC_LINE = "This is a sample to prove that http downloads and uploads work. It doesn't really matter what's in here, we mainly just need to verify the downloads and uploads work.";
     private final static String TEST_DOC_SHA256 = "C7FDB5314B9742467B16BD5EA2F8012190B5E2C44A005F7984F89AAB58219534";
+    /* when set, chunked bodies are sent as many small chunks through an HttpStreamChunkWriter with this limit */
+    private long chunkWriterMaxInFlightBytes = 0;
+    /* when set, response bodies are read through the ByteBuffer flavor of onResponseBody */
+    private boolean useDirectBodyBuffer = false;
 
     private class TestHttpResponse {
         int statusCode = -1;
@@ -51,6 +58,8 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
         List<HttpHeader> headers = new ArrayList<>();
         ByteBuffer bodyBuffer = ByteBuffer.wrap(new byte[16*1024*1024]); // Allow up to 16 MB Responses
         int onCompleteErrorCode = -1;
+        int directBodyChunks = 0;
+        int heapBodyChunks = 0;
 
         public String getBody() {
             bodyBuffer.flip();
@@ -138,6 +147,21 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
                         return amountRead;
                     }
 
+                    @Override
+                    public int onResponseBody(HttpStream stream, ByteBuffer bodyBytesIn) {
+                        if (!useDirectBodyBuffer) {
+                            return HttpStreamResponseHandler.super.onResponseBody(stream, bodyBytesIn);
+                        }
+                        if (bodyBytesIn.isDirect()) {
+                            response.directBodyChunks++;
+                        } else {
+                            response.heapBodyChunks++;
+                        }
+                        int amountRead = bodyBytesIn.remaining();
+                        response.bodyBuffer.put(bodyBytesIn);
+                        return amountRead;
+                    }
+
                     @Override
                     public void onResponseComplete(HttpStream stream, int errorCode) {
                         response.onCompleteErrorCode = errorCode;
@@ -149,7 +173,9 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
                 HttpStream stream = conn.makeRequest(request, streamHandler);
                 stream.activate();
 
-                if (chunkedData != null) {
+                if (chunkedData != null && chunkWriterMaxInFlightBytes > 0) {
+                    writeSmallChunks(stream, chunkedData).get(5, TimeUnit.SECONDS);
+                } else if (chunkedData != null) {
                     stream.writeChunk(chunkedData, true).get(5, TimeUnit.SECONDS);
                 }
                 // Give the request up to 60 seconds to complete, otherwise throw a TimeoutException
@@ -168,6 +194,25 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
         return response;
     }
 
+    private CompletableFuture<Void> writeSmallChunks(HttpStream stream, byte[] chunkedData) throws Exception {
+        HttpStreamChunkWriter writer = new HttpStreamChunkWriter(stream, chunkWriterMaxInFlightBytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        int position = 0;
+        while (position < chunkedData.length) {
+            int length = Math.min(16, chunkedData.length - position);
+            // alternate gathering heap and direct buffers, reusing the direct buffer for every chunk
+            int half = length / 2;
+            direct.clear();
+            direct.put(chunkedData, position + half, length - half);
+            direct.flip();
+            writer.write(ByteBuffer.wrap(chunkedData, position, half), direct);
+            Assert.assertFalse(direct.hasRemaining());
+            Assert.assertTrue(writer.getInFlightBytes() <= Math.max(length, chunkWriterMaxInFlightBytes));
+            position += length;
+        }
+        return writer.finish();
+    }
+
     private boolean shouldRetry(TestHttpResponse response) {
         // Retry if we couldn't connect or if we got 503 response
         if (response.onCompleteErrorCode != CRT.AWS_CRT_SUCCESS || response.statusCode == 503) {
@@ -319,6 +364,57 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
         Assert.assertEquals(TEST_DOC_SHA256, calculateBodyHash(body));
     }
 
+    @Test
+    public void testHttpDownloadDirectBuffer() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        useDirectBodyBuffer = true;
+        TestHttpResponse response = testRequest("GET", "https://aws-crt-test-stuff.s3.amazonaws.com",
+                "/http_test_doc.txt", EMPTY_BODY, false, 200);
+
+        // every chunk came straight from native memory, none through a heap copy
+        Assert.assertTrue(response.directBodyChunks > 0);
+        Assert.assertEquals(0, response.heapBodyChunks);
+
+        ByteBuffer body = response.bodyBuffer;
+        ((Buffer) body).flip();
+        for (HttpHeader h: response.headers) {
+            if (h.getName().equalsIgnoreCase("Content-Length")) {
+                Assert.assertEquals(Integer.parseInt(h.getValue()), body.remaining());
+            }
+        }
+        Assert.assertEquals(TEST_DOC_SHA256, calculateBodyHash(body));
+    }
+
+    @Test
+    public void testResponseBodyBufferDefault() {
+        final List<byte[]> received = new ArrayList<>();
+        HttpStreamResponseHandler handler = new HttpStreamResponseHandler() {
+            @Override
+            public int onResponseBody(HttpStream stream, byte[] bodyBytesIn) {
+                received.add(bodyBytesIn);
+                return bodyBytesIn.length;
+            }
+
+            @Override
+            public void onResponseComplete(HttpStream stream, int errorCode) {
+            }
+        };
+
+        ByteBuffer body = ByteBuffer.allocateDirect(16);
+        for (int i = 0; i < 16; ++i) {
+            body.put((byte) i);
+        }
+        // only position to limit is the chunk
+        ((Buffer) body).position(3);
+        ((Buffer) body).limit(10);
+
+        // handlers that only implement the byte[] flavor still see exactly the chunk's bytes
+        Assert.assertEquals(7, handler.onResponseBody(null, body));
+        Assert.assertEquals(1, received.size());
+        Assert.assertArrayEquals(new byte[] { 3, 4, 5, 6, 7, 8, 9 }, received.get(0));
+        Assert.assertFalse(body.hasRemaining());
+    }
+
     /**
      * Removes trailing commas, and trims quote characters from a string.
      *
@@ -391,6 +487,13 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
         testHttpUpload(true);
     }
 
+    @Test
+    public void testHttpUploadChunkWriter() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        chunkWriterMaxInFlightBytes = 64;
+        testHttpUpload(true);
+    }
+
     @Test
     public void testHttpRequestUnActivated() throws Exception {
         Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
@@ -445,4 +548,191 @@ public class HttpRequestResponseTest extends HttpClientTestFixture {
         CrtResource.waitForNoResources();
     }
 
+    private static class AllocationStats {
+        long bodyBytes = 0;
+        long bodyCallbacks = 0;
+        long allocatedBytes = 0;
+        int errorCode = -1;
+    }
+
+    /**
+     * Downloads a single object and measures the Java heap allocated by the event loop thread while body chunks are
+     * delivered, using either the byte[] or the direct ByteBuffer flavor of onResponseBody.
+     */
+    private AllocationStats measureDownloadAllocations(URI uri, String path, boolean useDirectBuffer) throws Exception {
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        final AllocationStats stats = new AllocationStats();
+        final CompletableFuture<Void> reqCompleted = new CompletableFuture<>();
+        final long[] firstAllocated = { -1 };
+
+        HttpHeader[] requestHeaders = new HttpHeader[] { new HttpHeader("Host", uri.getHost()) };
+        HttpRequest request = new HttpRequest("GET", path, requestHeaders, null);
+
+        CompletableFuture<Void> shutdownComplete = null;
+        try (HttpClientConnectionManager connPool = createConnectionPoolManager(uri)) {
+            shutdownComplete = connPool.getShutdownCompleteFuture();
+            try (HttpClientConnection conn = connPool.acquireConnection().get(60, TimeUnit.SECONDS)) {
+                HttpStreamResponseHandler streamHandler = new HttpStreamResponseHandler() {
+                    private void sample(int length) {
+                        long allocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+                        if (firstAllocated[0] < 0) {
+                            firstAllocated[0] = allocated;
+                        }
+                        stats.allocatedBytes = allocated - firstAllocated[0];
+                        stats.bodyBytes += length;
+                        stats.bodyCallbacks++;
+                    }
+
+                    @Override
+                    public void onResponseHeaders(HttpStream stream, int responseStatusCode, int blockType, HttpHeader[] nextHeaders) {
+                    }
+
+                    @Override
+                    public int onResponseBody(HttpStream stream, byte[] bodyBytesIn) {
+                        sample(bodyBytesIn.length);
+                        return bodyBytesIn.length;
+                    }
+
+                    @Override
+                    public int onResponseBody(HttpStream stream, ByteBuffer bodyBytesIn) {
+                        if (!useDirectBuffer) {
+                            return HttpStreamResponseHandler.super.onResponseBody(stream, bodyBytesIn);
+                        }
+                        int length = bodyBytesIn.remaining();
+                        sample(length);
+                        return length;
+                    }
+
+                    @Override
+                    public void onResponseComplete(HttpStream stream, int errorCode) {
+                        stats.errorCode = errorCode;
+                        reqCompleted.complete(null);
+                        stream.close();
+                    }
+                };
+
+                HttpStream stream = conn.makeRequest(request, streamHandler);
+                stream.activate();
+                reqCompleted.get(300, TimeUnit.SECONDS);
+            }
+        }
+
+        if (shutdownComplete != null) {
+            shutdownComplete.get();
+        }
+
+        CrtResource.waitForNoResources();
+
+        return stats;
+    }
+
+    @Test
+    public void benchmarkHttpDownloadAllocations() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeNotNull(System.getProperty("aws.crt.http.benchmark"));
+
+        // Override defaults with values from system properties, via -D on mvn commandline
+        final URI uri = new URI(System.getProperty("aws.crt.http.benchmark.endpoint", "https://aws-crt-test-stuff.s3.amazonaws.com"));
+        final String path = System.getProperty("aws.crt.http.benchmark.path", "/http_test_doc.txt");
+        final int iterations = Integer.parseInt(System.getProperty("aws.crt.http.benchmark.iterations", "5"));
+
+        for (boolean useDirectBuffer : new boolean[] { false, true }) {
+            // first pass is warm up
+            measureDownloadAllocations(uri, path, useDirectBuffer);
+
+            long bodyBytes = 0;
+            long bodyCallbacks = 0;
+            long allocatedBytes = 0;
+            for (int i = 0; i < iterations; ++i) {
+                AllocationStats stats = measureDownloadAllocations(uri, path, useDirectBuffer);
+                Assert.assertEquals(CRT.AWS_CRT_SUCCESS, stats.errorCode);
+                bodyBytes += stats.bodyBytes;
+                bodyCallbacks += stats.bodyCallbacks;
+                allocatedBytes += stats.allocatedBytes;
+            }
+
+            System.out.println(String.format("onResponseBody(%s): %d bytes in %d chunks, %.1f bytes allocated per chunk, %.3f allocated bytes per body byte",
+                    useDirectBuffer ? "ByteBuffer" : "byte[]", bodyBytes, bodyCallbacks,
+                    (double) allocatedBytes / Math.max(1, bodyCallbacks), (double) allocatedBytes / Math.max(1, bodyBytes)));
+        }
+    }
+
+    private static HttpHeader[] objectHeaders() {
+        return new HttpHeader[] {
+                new HttpHeader("Host", "aws-crt-test-stuff.s3.amazonaws.com"),
+                new HttpHeader("User-Agent", "aws-crt-java"),
+                new HttpHeader("Accept", "*/*"),
+                new HttpHeader("x-amz-request-payer", "requester"),
+                new HttpHeader("x-amz-expected-bucket-owner", "123456789012"),
+        };
+    }
+
+    @Test
+    public void testHttpRequestTemplateMarshalling() throws Exception {
+        // multi-byte characters must be sized by their encoded length
+        String path = "/r\u00e9sum\u00e9/\u6587\u4ef6.txt";
+        HttpHeader range = new HttpHeader("Range", "bytes=0-1023");
+
+        List<HttpHeader> headers = new ArrayList<>(Arrays.asList(objectHeaders()));
+        headers.add(range);
+        HttpRequest request = new HttpRequest("GET", path, headers.toArray(new HttpHeader[0]), null);
+
+        HttpRequestTemplate template = new HttpRequestTemplate("GET", objectHeaders());
+        HttpRequest templated = template.newRequest(path, new HttpHeader[] { range }, null);
+
+        byte[] expected = request.marshalForJni();
+        Assert.assertArrayEquals(expected, templated.marshalForJni());
+        Assert.assertEquals(headers.size(), templated.getHeaders().size());
+
+        ByteBuffer marshalled = ByteBuffer.wrap(expected);
+        int methodLength = marshalled.getInt();
+        marshalled.position(marshalled.position() + methodLength);
+        byte[] pathBytes = new byte[marshalled.getInt()];
+        marshalled.get(pathBytes);
+        Assert.assertEquals(path, new String(pathBytes, UTF8));
+        Assert.assertEquals(headers.size(), HttpHeader.loadHeadersListFromMarshalledHeadersBlob(marshalled).size());
+
+        // headers added after creation are marshalled too
+        templated.addHeader("x-amz-checksum-mode", "ENABLED");
+        request = new HttpRequest("GET", path, templated.getHeadersAsArray(), null);
+        Assert.assertArrayEquals(request.marshalForJni(), templated.marshalForJni());
+    }
+
+    @Test
+    public void benchmarkHttpRequestMarshalling() throws Exception {
+        Assume.assumeNotNull(System.getProperty("aws.crt.http.benchmark"));
+
+        final int iterations = Integer.parseInt(System.getProperty("aws.crt.http.benchmark.iterations", "1000000"));
+        final HttpHeader[] constantHeaders = objectHeaders();
+        final HttpRequestTemplate template = new HttpRequestTemplate("GET", constantHeaders);
+
+        for (boolean useTemplate : new boolean[] { false, true }) {
+            long bytes = 0;
+            long startNanos = 0;
+            // first pass is warm up
+            for (int pass = 0; pass < 2; ++pass) {
+                bytes = 0;
+                startNanos = System.nanoTime();
+                for (int i = 0; i < iterations; ++i) {
+                    HttpHeader range = new HttpHeader("Range", "bytes=" + i * 1024L + "-" + (i * 1024L + 1023));
+                    HttpRequest request;
+                    if (useTemplate) {
+                        request = template.newRequest("/http_test_doc.txt", new HttpHeader[] { range }, null);
+                    } else {
+                        HttpHeader[] headers = Arrays.copyOf(constantHeaders, constantHeaders.length + 1);
+                        headers[constantHeaders.length] = range;
+                        request = new HttpRequest("GET", "/http_test_doc.txt", headers, null);
+                    }
+                    bytes += request.marshalForJni().length;
+                }
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            System.out.println(String.format("marshalForJni(%s): %d requests, %.1f ns per request, %d bytes",
+                    useTemplate ? "HttpRequestTemplate" : "HttpRequest", iterations,
+                    (double) elapsedNanos / iterations, bytes));
+        }
+    }
+
 }
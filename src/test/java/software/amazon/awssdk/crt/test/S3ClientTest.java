@@ -7,13 +7,19 @@ import software.amazon.awssdk.crt.io.HostResolver;
 import software.amazon.awssdk.crt.io.TlsContext;
 import software.amazon.awssdk.crt.io.TlsContextOptions;
 import software.amazon.awssdk.crt.s3.S3Client;
+import software.amazon.awssdk.crt.s3.S3ClientMetrics;
 import software.amazon.awssdk.crt.s3.S3ClientOptions;
 import software.amazon.awssdk.crt.s3.S3MetaRequest;
+import software.amazon.awssdk.crt.s3.S3MetaRequestMetrics;
 import software.amazon.awssdk.crt.s3.S3MetaRequestOptions;
+import software.amazon.awssdk.crt.s3.S3MetaRequestProgress;
 import software.amazon.awssdk.crt.s3.S3MetaRequestResponseHandler;
 import software.amazon.awssdk.crt.s3.S3MetaRequestOptions.MetaRequestType;
+import software.amazon.awssdk.crt.s3.S3SeekableByteChannel;
 import software.amazon.awssdk.crt.utils.ByteBufferUtils;
 import software.amazon.awssdk.crt.auth.credentials.DefaultChainCredentialsProvider;
+import software.amazon.awssdk.crt.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.crt.http.DirectByteBufferBodyStream;
 import software.amazon.awssdk.crt.http.HttpRequest;
 import software.amazon.awssdk.crt.http.HttpRequestBodyStream;
 import software.amazon.awssdk.crt.http.HttpHeader;
@@ -21,13 +27,23 @@ import software.amazon.awssdk.crt.Log;
 import software.amazon.awssdk.crt.Log.LogLevel;
 import software.amazon.awssdk.crt.CrtRuntimeException;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.nio.Buffer;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.time.Instant;
@@ -39,6 +55,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -47,77 +64,945 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.DoubleStream;
 import java.util.stream.LongStream;
 import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.OptionalDouble;
+import java.util.Properties;
+import java.util.Random;
 
 public class S3ClientTest extends CrtTestFixture {
 
-    static final String ENDPOINT = "aws-crt-test-stuff-us-west-2.s3.us-west-2.amazonaws.com";
-    static final String REGION = "us-west-2";
+    static final String ENDPOINT = "aws-crt-test-stuff-us-west-2.s3.us-west-2.amazonaws.com";
+    static final String REGION = "us-west-2";
+
+    public S3ClientTest() {
+    }
+
+	private S3Client createS3Client(S3ClientOptions options, int numThreads) {
+    	return createS3Client(options, numThreads, 0);
+	}
+
+    private S3Client createS3Client(S3ClientOptions options, int numThreads, int cpuGroup) {
+        try (EventLoopGroup elg = new EventLoopGroup(cpuGroup, numThreads);
+                HostResolver hostResolver = new HostResolver(elg);
+                ClientBootstrap clientBootstrap = new ClientBootstrap(elg, hostResolver)) {
+            Assert.assertNotNull(clientBootstrap);
+
+            try (DefaultChainCredentialsProvider credentialsProvider = new DefaultChainCredentialsProvider.DefaultChainCredentialsProviderBuilder()
+                    .withClientBootstrap(clientBootstrap).build()) {
+                Assert.assertNotNull(credentialsProvider);
+                options.withClientBootstrap(clientBootstrap)
+                        .withCredentialsProvider(credentialsProvider);
+                return new S3Client(options);
+            }
+        } catch (NullPointerException ex) {
+            ex.printStackTrace();
+            System.err.println(ex.getMessage());
+            return null;
+        }
+    }
+
+    private S3Client createS3Client(S3ClientOptions options) {
+        return createS3Client(options, 1);
+    }
+
+    @Test
+    public void testS3ClientCreateDestroy() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+
+        }
+    }
+
+    @Test
+    public void testS3Get() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3,
+                            "Body Response: " + bodyBytesIn.toString());
+                    return 0;
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3,
+                            "Meta request finished with error code " + errorCode);
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3GetWithRequestRateLimit() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        final double initialRate = 2;
+        final int metaRequestCount = 6;
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION)
+                .withInitialRequestRate(initialRate);
+        try (S3Client client = createS3Client(clientOptions)) {
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+            Assert.assertEquals(initialRate, client.getRequestRate(httpRequest), 0);
+
+            List<CompletableFuture<Integer>> onFinishedFutures = new LinkedList<>();
+            List<S3MetaRequest> metaRequests = new LinkedList<>();
+            Instant start = Instant.now();
+            for (int i = 0; i < metaRequestCount; ++i) {
+                CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+                onFinishedFutures.add(onFinishedFuture);
+                S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+                    @Override
+                    public void onFinished(int errorCode) {
+                        onFinishedFuture.complete(Integer.valueOf(errorCode));
+                    }
+                };
+
+                metaRequests.add(client.makeMetaRequest(new S3MetaRequestOptions()
+                        .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                        .withHttpRequest(httpRequest)
+                        .withResponseHandler(responseHandler)));
+            }
+
+            for (CompletableFuture<Integer> onFinishedFuture : onFinishedFutures) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+            for (S3MetaRequest metaRequest : metaRequests) {
+                metaRequest.close();
+            }
+
+            /* the first two go right away, the rest are spaced half a second apart */
+            Assert.assertTrue(Duration.between(start, Instant.now()).toMillis() >= 1500);
+            Assert.assertTrue(client.getRequestRate(httpRequest) >= initialRate);
+            Assert.assertEquals(1, client.getRequestRates().size());
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3GetMetrics() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION)
+                .withMetricsEnabled(true);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<S3MetaRequestMetrics> onFinishedFuture = new CompletableFuture<>();
+            AtomicReference<S3MetaRequest> metaRequestReference = new AtomicReference<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+                @Override
+                public void onFinished(int errorCode) {
+                    /* set before onFinished, if the meta request was returned in time to be read here */
+                    S3MetaRequest metaRequest = metaRequestReference.get();
+                    onFinishedFuture.complete(metaRequest != null ? metaRequest.getMetrics() : null);
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                metaRequestReference.set(metaRequest);
+                onFinishedFuture.get();
+
+                S3MetaRequestMetrics metrics = metaRequest.getMetrics();
+                Assert.assertNotNull(metrics);
+                Assert.assertEquals(0, metrics.getErrorCode());
+                Assert.assertEquals(ENDPOINT, metrics.getEndpoint());
+                Assert.assertTrue(metrics.getTimeToFirstByteNanos() > 0);
+                Assert.assertTrue(metrics.getDurationNanos() >= metrics.getTimeToFirstByteNanos());
+                Assert.assertEquals(metrics.getPartsCompleted(), metrics.getPartIntervals().getCount());
+            }
+
+            S3ClientMetrics clientMetrics = client.getMetrics();
+            Assert.assertEquals(1, clientMetrics.getMetaRequestsSucceeded());
+            Assert.assertTrue(clientMetrics.getEndpoints().get(ENDPOINT).getBytesTransferred() > 0);
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3GetToFile() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        File downloadFile = File.createTempFile("s3_get_to_file", ".txt");
+        downloadFile.deleteOnExit();
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicLong bodyBytesDelivered = new AtomicLong(0);
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                    bodyBytesDelivered.addAndGet(bodyBytesIn.length);
+                    return 0;
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withResponseFilePath(downloadFile.toPath())
+                    .withResponseFilePreallocate(true)
+                    .withResponseFileSyncOnFinish(true);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+
+            Assert.assertEquals(0, bodyBytesDelivered.get());
+            Assert.assertTrue(downloadFile.length() > 0);
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        } finally {
+            downloadFile.delete();
+        }
+    }
+
+    @Test
+    public void testS3GetWithAdmissionBudget() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        final long partSize = 5 * 1024 * 1024;
+        final int metaRequestCount = 4;
+
+        /* Room for two parts, so at most two of the four GETs may be active at once */
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION)
+                .withPartSize(partSize).withAdmissionBudgetInBytes(2 * partSize);
+        try (S3Client client = createS3Client(clientOptions)) {
+            List<CompletableFuture<Integer>> onFinishedFutures = new LinkedList<>();
+            List<S3MetaRequest> metaRequests = new LinkedList<>();
+
+            for (int i = 0; i < metaRequestCount; ++i) {
+                CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+                S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                    @Override
+                    public void onFinished(int errorCode) {
+                        if (errorCode != 0) {
+                            onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                            return;
+                        }
+                        onFinishedFuture.complete(Integer.valueOf(errorCode));
+                    }
+                };
+
+                HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+                HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+
+                S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                        .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                        .withHttpRequest(httpRequest)
+                        .withResponseHandler(responseHandler);
+
+                onFinishedFutures.add(onFinishedFuture);
+                metaRequests.add(client.makeMetaRequest(metaRequestOptions));
+            }
+
+            Assert.assertTrue(client.getReservedBytes() <= 2 * partSize);
+
+            for (CompletableFuture<Integer> onFinishedFuture : onFinishedFutures) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+
+            for (S3MetaRequest metaRequest : metaRequests) {
+                metaRequest.close();
+            }
+
+            Assert.assertEquals(0, client.getReservedBytes());
+            Assert.assertEquals(0, client.getPendingMetaRequestCount());
+            Assert.assertTrue(client.getPeakReservedBytes() <= 2 * partSize);
+            Assert.assertTrue(client.getPeakReservedBytes() >= partSize);
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3GetWithManualWindowManagement() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicLong bodyBytesDelivered = new AtomicLong(0);
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                    bodyBytesDelivered.addAndGet(bodyBytesIn.remaining());
+                    return 0;
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withManualWindowManagement(true)
+                    .withInitialReadWindow(0);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                /* Nothing may be delivered while the window is closed */
+                Thread.sleep(1000);
+                Assert.assertEquals(0, bodyBytesDelivered.get());
+                Assert.assertFalse(onFinishedFuture.isDone());
+
+                /* Chunks received meanwhile were queued, and are delivered on this thread as the window opens */
+                long pendingBytes = metaRequest.getPendingReadBytes();
+                metaRequest.incrementReadWindow(Integer.MAX_VALUE);
+                Assert.assertTrue(bodyBytesDelivered.get() >= pendingBytes);
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+                Assert.assertTrue(bodyBytesDelivered.get() > 0);
+                Assert.assertEquals(0, metaRequest.getPendingReadBytes());
+                Assert.assertEquals(Integer.MAX_VALUE - bodyBytesDelivered.get(), metaRequest.getReadWindow());
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3GetCancel() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public void onFinished(int errorCode) {
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+
+            /* A closed read window holds back delivery, so nothing reaches the handler before the cancel */
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withManualWindowManagement(true)
+                    .withInitialReadWindow(0);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                metaRequest.cancel();
+                Assert.assertTrue(metaRequest.isCancelled());
+                Assert.assertEquals(0, metaRequest.getPendingReadBytes());
+                /* Releases onFinished should the transfer have completed before the cancel reached it */
+                metaRequest.incrementReadWindow(Integer.MAX_VALUE);
+                Assert.assertNotEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3GetProgress() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicLong bodyBytesDelivered = new AtomicLong(0);
+            AtomicReference<S3MetaRequestProgress> lastProgress = new AtomicReference<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                    bodyBytesDelivered.addAndGet(bodyBytesIn.remaining());
+                    return 0;
+                }
+
+                @Override
+                public void onProgress(S3MetaRequestProgress progress) {
+                    lastProgress.set(progress);
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+
+            Assert.assertNotNull(lastProgress.get());
+            Assert.assertEquals(bodyBytesDelivered.get(), lastProgress.get().getBytesTransferred());
+            Assert.assertTrue(lastProgress.get().getPartsCompleted() >= 1);
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3PartSizeOverrideOnlyOnPut() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        final long partSizeOverride = 5 * 1024 * 1024;
+        final byte[] payload = new byte[(int) (partSizeOverride * 5 / 2)];
+        new Random(0).nextBytes(payload);
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            HttpHeader[] getHeaders = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest getRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", getHeaders, null);
+            S3MetaRequestResponseHandler ignoringHandler = new S3MetaRequestResponseHandler() {
+            };
+
+            /* aws-c-s3 splits a GET with the client's part size, so an override is refused rather than changed */
+            for (S3MetaRequestOptions getOptions : new S3MetaRequestOptions[] {
+                    new S3MetaRequestOptions().withPartSize(partSizeOverride),
+                    new S3MetaRequestOptions().withMaxConcurrentParts(2) }) {
+                getOptions.withMetaRequestType(MetaRequestType.GET_OBJECT).withHttpRequest(getRequest)
+                        .withResponseHandler(ignoringHandler);
+                try {
+                    client.makeMetaRequest(getOptions);
+                    Assert.fail("expected a part override on a GET to be rejected");
+                } catch (IllegalArgumentException expected) {
+                }
+            }
+
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicReference<S3MetaRequestProgress> lastProgress = new AtomicReference<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public void onProgress(S3MetaRequestProgress progress) {
+                    lastProgress.set(progress);
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            ByteBuffer body = ByteBuffer.allocateDirect(payload.length);
+            body.put(payload);
+            ((Buffer) body).flip();
+            HttpHeader[] putHeaders = { new HttpHeader("Host", ENDPOINT),
+                    new HttpHeader("Content-Length", Integer.toString(payload.length)) };
+            HttpRequest putRequest = new HttpRequest("PUT", "/put_object_test_part_size_override.bin", putHeaders,
+                    new DirectByteBufferBodyStream(body));
+
+            /* the PUT is split in Java, using exactly the override */
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT)
+                    .withHttpRequest(putRequest)
+                    .withResponseHandler(responseHandler)
+                    .withPartSize(partSizeOverride);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+
+            Assert.assertEquals(payload.length, lastProgress.get().getBytesTransferred());
+            Assert.assertEquals(3, lastProgress.get().getPartsCompleted());
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    /**
+     * Downloads an object, placing every body chunk at the object offset it was delivered with, and checks that the
+     * chunks cover the object exactly once. Problems seen on the event loop are collected and asserted afterwards.
+     */
+    private byte[] getObjectByOffsets(S3Client client, String key, boolean directBuffers, boolean smallObject)
+            throws Exception {
+        final ConcurrentSkipListMap<Long, byte[]> chunks = new ConcurrentSkipListMap<>();
+        final ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+        S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+            private void record(byte[] chunk, long objectRangeStart, long objectRangeEnd) {
+                if (objectRangeEnd - objectRangeStart != chunk.length) {
+                    problems.add(String.format("chunk [%d, %d) has %d bytes", objectRangeStart, objectRangeEnd,
+                            chunk.length));
+                }
+                if (chunks.put(objectRangeStart, chunk) != null) {
+                    problems.add("two chunks start at " + objectRangeStart);
+                }
+            }
+
+            @Override
+            public int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                record(bodyBytesIn, objectRangeStart, objectRangeEnd);
+                return 0;
+            }
+
+            @Override
+            public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                if (!directBuffers) {
+                    /* the default copies into a byte[] and calls the other flavor */
+                    return S3MetaRequestResponseHandler.super.onResponseBody(bodyBytesIn, objectRangeStart,
+                            objectRangeEnd);
+                }
+                if (!bodyBytesIn.isDirect()) {
+                    problems.add("heap buffer at " + objectRangeStart);
+                }
+                byte[] chunk = new byte[bodyBytesIn.remaining()];
+                bodyBytesIn.get(chunk);
+                record(chunk, objectRangeStart, objectRangeEnd);
+                return 0;
+            }
+
+            @Override
+            public void onFinished(int errorCode) {
+                if (errorCode != 0) {
+                    onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                    return;
+                }
+                onFinishedFuture.complete(Integer.valueOf(errorCode));
+            }
+        };
+
+        HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+        HttpRequest httpRequest = new HttpRequest("GET", key, headers, null);
+        S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                .withMetaRequestType(MetaRequestType.GET_OBJECT)
+                .withHttpRequest(httpRequest)
+                .withResponseHandler(responseHandler)
+                .withSmallObject(smallObject);
+
+        try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+            Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+        }
+
+        Assert.assertTrue(problems.toString(), problems.isEmpty());
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        for (Map.Entry<Long, byte[]> chunk : chunks.entrySet()) {
+            Assert.assertEquals("gap or overlap at offset " + chunk.getKey(), (long) object.size(),
+                    (long) chunk.getKey());
+            object.write(chunk.getValue(), 0, chunk.getValue().length);
+        }
+        return object.toByteArray();
+    }
+
+    @Test
+    public void testS3GetDirectBuffers() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            byte[] direct = getObjectByOffsets(client, "/get_object_test_1MB.txt", true, false);
+            byte[] copied = getObjectByOffsets(client, "/get_object_test_1MB.txt", false, false);
+
+            Assert.assertTrue(direct.length > 0);
+            Assert.assertArrayEquals(copied, direct);
+        }
+    }
+
+    @Test
+    public void testS3SeekableChannel() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+
+            try (S3SeekableByteChannel channel = new S3SeekableByteChannel(client, httpRequest, 64 * 1024, 4)) {
+                long size = channel.size();
+                Assert.assertTrue(size > 0);
+
+                ByteBuffer buffer = ByteBuffer.allocate(10 * 1000);
+                long total = 0;
+                int read;
+                while ((read = channel.read(buffer)) != -1) {
+                    total += read;
+                    buffer.clear();
+                }
+                Assert.assertEquals(size, total);
+                Assert.assertEquals(4, channel.getReadAheadBlocks());
+
+                /* a seek back to the start is random access, so read-ahead starts over */
+                channel.position(0);
+                buffer.clear();
+                Assert.assertTrue(channel.read(buffer) > 0);
+                Assert.assertEquals(0, channel.getReadAheadBlocks());
+
+                channel.position(size);
+                buffer.clear();
+                Assert.assertEquals(-1, channel.read(buffer));
+            }
+        }
+    }
+
+    private byte[] createTestPayload() {
+        String msg = "This is an S3 Java CRT Client Test";
+        ByteBuffer payload = ByteBuffer.allocate(1024 * 1024);
+        while (true) {
+            try {
+                payload.put(msg.getBytes());
+            }
+            catch (BufferOverflowException ex1) {
+                while (true) {
+                    try {
+                        payload.put("#".getBytes());
+                    } catch (BufferOverflowException ex2) {
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return payload.array();
+    }
+
+    @Test
+    public void testS3Put() {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3, "Body Response: " + bodyBytesIn.toString());
+                    return 0;
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3,
+                            "Meta request finished with error code " + errorCode);
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            final ByteBuffer payload = ByteBuffer.wrap(createTestPayload());
+            HttpRequestBodyStream payloadStream = new HttpRequestBodyStream() {
+                @Override
+                public boolean sendRequestBody(ByteBuffer outBuffer) {
+                    ByteBufferUtils.transferData(payload, outBuffer);
+                    return payload.remaining() == 0;
+                }
+
+                @Override
+                public boolean resetPosition() {
+                    return true;
+                }
+
+                @Override
+                public long getLength() {
+                    return payload.capacity();
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT),
+                    new HttpHeader("Content-Length", Integer.valueOf(payload.capacity()).toString()), };
+            HttpRequest httpRequest = new HttpRequest("PUT", "/put_object_test_1MB.txt", headers, payloadStream);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT).withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testS3SmallObjectPutGet() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        final String key = "/put_object_test_small.txt";
+        final byte[] payload = new byte[16 * 1024];
+        for (int i = 0; i < payload.length; ++i) {
+            payload[i] = (byte) (i * 31);
+        }
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicInteger responseStatus = new AtomicInteger(0);
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public void onResponseHeaders(int statusCode, HttpHeader[] headers) {
+                    responseStatus.set(statusCode);
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            final ByteBuffer payloadBuffer = ByteBuffer.wrap(payload);
+            HttpRequestBodyStream payloadStream = new HttpRequestBodyStream() {
+                @Override
+                public boolean sendRequestBody(ByteBuffer outBuffer) {
+                    ByteBufferUtils.transferData(payloadBuffer, outBuffer);
+                    return payloadBuffer.remaining() == 0;
+                }
 
-    public S3ClientTest() {
-    }
+                @Override
+                public boolean resetPosition() {
+                    ((Buffer) payloadBuffer).rewind();
+                    return true;
+                }
 
-	private S3Client createS3Client(S3ClientOptions options, int numThreads) {
-    	return createS3Client(options, numThreads, 0);
-	}
+                @Override
+                public long getLength() {
+                    return payload.length;
+                }
+            };
 
-    private S3Client createS3Client(S3ClientOptions options, int numThreads, int cpuGroup) {
-        try (EventLoopGroup elg = new EventLoopGroup(cpuGroup, numThreads);
-                HostResolver hostResolver = new HostResolver(elg);
-                ClientBootstrap clientBootstrap = new ClientBootstrap(elg, hostResolver)) {
-            Assert.assertNotNull(clientBootstrap);
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT),
+                    new HttpHeader("Content-Length", Integer.toString(payload.length)), };
+            HttpRequest httpRequest = new HttpRequest("PUT", key, headers, payloadStream);
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT)
+                    .withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler)
+                    .withSmallObject(true);
 
-            try (DefaultChainCredentialsProvider credentialsProvider = new DefaultChainCredentialsProvider.DefaultChainCredentialsProviderBuilder()
-                    .withClientBootstrap(clientBootstrap).build()) {
-                Assert.assertNotNull(credentialsProvider);
-                options.withClientBootstrap(clientBootstrap)
-                        .withCredentialsProvider(credentialsProvider);
-                return new S3Client(options);
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
             }
-        } catch (NullPointerException ex) {
-            ex.printStackTrace();
-            System.err.println(ex.getMessage());
-            return null;
+            Assert.assertEquals(200, responseStatus.get());
+
+            /* the single-request GET must hand back the same bytes, at the same offsets, as the ranged one */
+            Assert.assertArrayEquals(payload, getObjectByOffsets(client, key, true, true));
+            Assert.assertArrayEquals(payload, getObjectByOffsets(client, key, true, false));
         }
     }
 
-    private S3Client createS3Client(S3ClientOptions options) {
-        return createS3Client(options, 1);
+    @Test
+    public void testS3PutFromFile() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        File uploadFile = File.createTempFile("s3_put_from_file", ".txt");
+        uploadFile.deleteOnExit();
+        java.nio.file.Files.write(uploadFile.toPath(), createTestPayload());
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            // Content-Length is filled in from the file
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("PUT", "/put_object_test_1MB.txt", headers, null);
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT).withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler).withRequestFilePath(uploadFile.toPath());
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        } finally {
+            uploadFile.delete();
+        }
     }
 
     @Test
-    public void testS3ClientCreateDestroy() {
+    public void testS3PutFromFileInParts() throws Exception {
         Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
 
-        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        final long partSize = 5 * 1024 * 1024;
+        File uploadFile = File.createTempFile("s3_put_from_file_in_parts", ".bin");
+        uploadFile.deleteOnExit();
+        byte[] payload = new byte[(int) (2 * partSize + 17)];
+        new Random(0).nextBytes(payload);
+        java.nio.file.Files.write(uploadFile.toPath(), payload);
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION)
+                .withPartSize(partSize);
         try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicReference<S3MetaRequestProgress> lastProgress = new AtomicReference<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public void onProgress(S3MetaRequestProgress progress) {
+                    lastProgress.set(progress);
+                }
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
+                    }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
+                }
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("PUT", "/put_object_test_file_parts.bin", headers, null);
 
+            // all three parts read their own range of the file at once
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT).withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler).withRequestFilePath(uploadFile.toPath())
+                    .withMaxConcurrentParts(3);
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+            }
+
+            Assert.assertEquals(payload.length, lastProgress.get().getBytesTransferred());
+            Assert.assertEquals(3, lastProgress.get().getPartsCompleted());
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        } finally {
+            uploadFile.delete();
         }
     }
 
     @Test
-    public void testS3Get() {
+    public void testS3ResumablePutFromFile() throws Exception {
         Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
         Assume.assumeTrue(hasAwsCredentials());
 
+        File uploadFile = File.createTempFile("s3_resumable_put", ".txt");
+        uploadFile.deleteOnExit();
+        java.nio.file.Files.write(uploadFile.toPath(), createTestPayload());
+        File checkpointFile = new File(uploadFile.getPath() + ".checkpoint");
+        checkpointFile.deleteOnExit();
+
         S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
         try (S3Client client = createS3Client(clientOptions)) {
             CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicReference<S3MetaRequestProgress> lastProgress = new AtomicReference<>();
             S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
 
                 @Override
-                public int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
-                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3,
-                            "Body Response: " + bodyBytesIn.toString());
-                    return 0;
+                public void onProgress(S3MetaRequestProgress progress) {
+                    lastProgress.set(progress);
                 }
 
                 @Override
                 public void onFinished(int errorCode) {
-                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3,
-                            "Meta request finished with error code " + errorCode);
                     if (errorCode != 0) {
                         onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
                         return;
@@ -127,62 +1012,120 @@ public class S3ClientTest extends CrtTestFixture {
             };
 
             HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
-            HttpRequest httpRequest = new HttpRequest("GET", "/get_object_test_1MB.txt", headers, null);
+            HttpRequest httpRequest = new HttpRequest("PUT", "/put_object_test_resumable.txt", headers, null);
 
             S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
-                    .withMetaRequestType(MetaRequestType.GET_OBJECT)
-                    .withHttpRequest(httpRequest)
-                    .withResponseHandler(responseHandler);
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT).withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler).withRequestFilePath(uploadFile.toPath())
+                    .withCheckpointFilePath(checkpointFile.toPath());
 
             try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
                 Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+                metaRequest.getShutdownCompleteFuture().get();
             }
+
+            /* a completed upload leaves nothing to resume */
+            Assert.assertFalse(checkpointFile.exists());
+            Assert.assertEquals(uploadFile.length(), lastProgress.get().getBytesTransferred());
         } catch (InterruptedException | ExecutionException ex) {
             Assert.fail(ex.getMessage());
+        } finally {
+            uploadFile.delete();
+            checkpointFile.delete();
         }
     }
 
-    private byte[] createTestPayload() {
-        String msg = "This is an S3 Java CRT Client Test";
-        ByteBuffer payload = ByteBuffer.allocate(1024 * 1024);
-        while (true) {
-            try {
-                payload.put(msg.getBytes());
-            }
-            catch (BufferOverflowException ex1) {
-                while (true) {
-                    try {
-                        payload.put("#".getBytes());
-                    } catch (BufferOverflowException ex2) {
-                        break;
+    @Test
+    public void testS3ResumablePutRestartsExpiredUpload() throws Exception {
+        Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
+        Assume.assumeTrue(hasAwsCredentials());
+
+        final long partSize = 8 * 1024 * 1024;
+        final String objectPath = "/put_object_test_resumable_expired.txt";
+        File uploadFile = File.createTempFile("s3_resumable_put_expired", ".txt");
+        uploadFile.deleteOnExit();
+        java.nio.file.Files.write(uploadFile.toPath(), createTestPayload());
+        File checkpointFile = new File(uploadFile.getPath() + ".checkpoint");
+        checkpointFile.deleteOnExit();
+
+        /* A checkpoint matching the file, for an upload S3 doesn't know (any more) */
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("version", "1");
+        checkpoint.setProperty("objectPath", objectPath);
+        checkpoint.setProperty("uploadId", "expired-upload-id");
+        checkpoint.setProperty("partSize", Long.toString(partSize));
+        checkpoint.setProperty("sourceLength", Long.toString(uploadFile.length()));
+        checkpoint.setProperty("sourceLastModified",
+                Long.toString(java.nio.file.Files.getLastModifiedTime(uploadFile.toPath()).toMillis()));
+        checkpoint.setProperty("part.1", "\"etag-of-a-lost-part\"");
+        try (OutputStream out = new FileOutputStream(checkpointFile)) {
+            checkpoint.store(out, null);
+        }
+
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION)
+                .withPartSize(partSize);
+        try (S3Client client = createS3Client(clientOptions)) {
+            CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+                @Override
+                public void onFinished(int errorCode) {
+                    if (errorCode != 0) {
+                        onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                        return;
                     }
+                    onFinishedFuture.complete(Integer.valueOf(errorCode));
                 }
-                break;
+            };
+
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("PUT", objectPath, headers, null);
+
+            /* S3 takes at most 10,000 parts, so an upload needing more is refused before anything is sent */
+            Assert.assertNull(client.makeMetaRequest(new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT).withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler).withRequestFilePath(uploadFile.toPath())
+                    .withCheckpointFilePath(checkpointFile.toPath()).withPartSize(64)));
+
+            S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                    .withMetaRequestType(MetaRequestType.PUT_OBJECT).withHttpRequest(httpRequest)
+                    .withResponseHandler(responseHandler).withRequestFilePath(uploadFile.toPath())
+                    .withCheckpointFilePath(checkpointFile.toPath());
+
+            try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
+                Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+                metaRequest.getShutdownCompleteFuture().get();
             }
+
+            Assert.assertFalse(checkpointFile.exists());
+        } catch (InterruptedException | ExecutionException ex) {
+            Assert.fail(ex.getMessage());
+        } finally {
+            uploadFile.delete();
+            checkpointFile.delete();
         }
-        return payload.array();
     }
 
     @Test
-    public void testS3Put() {
+    public void testS3PutUnknownLength() {
         Assume.assumeTrue(System.getProperty("NETWORK_TESTS_DISABLED") == null);
         Assume.assumeTrue(hasAwsCredentials());
 
-        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION);
+        final long partSize = 5 * 1024 * 1024;
+        S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(ENDPOINT).withRegion(REGION)
+                .withPartSize(partSize);
         try (S3Client client = createS3Client(clientOptions)) {
             CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+            AtomicReference<S3MetaRequestProgress> lastProgress = new AtomicReference<>();
             S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
 
                 @Override
-                public int onResponseBody(byte[] bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
-                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3, "Body Response: " + bodyBytesIn.toString());
-                    return 0;
+                public void onProgress(S3MetaRequestProgress progress) {
+                    lastProgress.set(progress);
                 }
 
                 @Override
                 public void onFinished(int errorCode) {
-                    Log.log(Log.LogLevel.Info, Log.LogSubject.JavaCrtS3,
-                            "Meta request finished with error code " + errorCode);
                     if (errorCode != 0) {
                         onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
                         return;
@@ -191,36 +1134,36 @@ public class S3ClientTest extends CrtTestFixture {
                 }
             };
 
-            final ByteBuffer payload = ByteBuffer.wrap(createTestPayload());
+            /* two and a half parts, handed out a megabyte at a time like a pipe would */
+            final byte[] chunk = createTestPayload();
+            final long totalLength = partSize * 5 / 2;
             HttpRequestBodyStream payloadStream = new HttpRequestBodyStream() {
-                @Override
-                public boolean sendRequestBody(ByteBuffer outBuffer) {
-                    ByteBufferUtils.transferData(payload, outBuffer);
-                    return payload.remaining() == 0;
-                }
-
-                @Override
-                public boolean resetPosition() {
-                    return true;
-                }
+                long sent = 0;
 
                 @Override
-                public long getLength() {
-                    return payload.capacity();
+                public boolean sendRequestBody(ByteBuffer outBuffer) {
+                    int length = (int) Math.min(Math.min(chunk.length, outBuffer.remaining()), totalLength - sent);
+                    outBuffer.put(chunk, 0, length);
+                    sent += length;
+                    return sent == totalLength;
                 }
             };
 
-            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT),
-                    new HttpHeader("Content-Length", Integer.valueOf(payload.capacity()).toString()), };
-            HttpRequest httpRequest = new HttpRequest("PUT", "/put_object_test_1MB.txt", headers, payloadStream);
+            HttpHeader[] headers = { new HttpHeader("Host", ENDPOINT) };
+            HttpRequest httpRequest = new HttpRequest("PUT", "/put_object_test_unknown_length.txt", headers,
+                    payloadStream);
 
             S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
                     .withMetaRequestType(MetaRequestType.PUT_OBJECT).withHttpRequest(httpRequest)
-                    .withResponseHandler(responseHandler);
+                    .withResponseHandler(responseHandler).withMaxConcurrentParts(2);
 
             try (S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions)) {
                 Assert.assertEquals(Integer.valueOf(0), onFinishedFuture.get());
+                metaRequest.getShutdownCompleteFuture().get();
             }
+
+            Assert.assertEquals(totalLength, lastProgress.get().getBytesTransferred());
+            Assert.assertEquals(3, lastProgress.get().getPartsCompleted());
         } catch (InterruptedException | ExecutionException ex) {
             Assert.fail(ex.getMessage());
         }
@@ -457,4 +1400,243 @@ public class S3ClientTest extends CrtTestFixture {
             }
         }
     }
+
+    /**
+     * Minimal in-process stand-in for S3, just enough for GET (with Range), PUT and multipart upload. Signatures
+     * are not checked.
+     */
+    static class LocalS3StandIn implements AutoCloseable {
+        private final HttpServer server;
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        private final AtomicLong nextUploadId = new AtomicLong(0);
+
+        /* Binds an ephemeral port on the loopback address */
+        LocalS3StandIn() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.setExecutor(Executors.newFixedThreadPool(8));
+            server.start();
+        }
+
+        /**
+         * @return the Host header and client endpoint that reach the stand-in
+         */
+        String getEndpoint() {
+            return "127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        private static byte[] readBody(HttpExchange exchange) throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = exchange.getRequestBody()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            return body.toByteArray();
+        }
+
+        private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        }
+
+        private static String queryParam(String query, String name) {
+            if (query == null) {
+                return null;
+            }
+            for (String param : query.split("&")) {
+                String[] kv = param.split("=", 2);
+                if (kv[0].equals(name)) {
+                    return kv.length > 1 ? kv[1] : "";
+                }
+            }
+            return null;
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String key = exchange.getRequestURI().getPath();
+            String query = exchange.getRequestURI().getRawQuery();
+            String method = exchange.getRequestMethod();
+
+            if (method.equals("GET")) {
+                byte[] object = objects.get(key);
+                if (object == null) {
+                    respond(exchange, 404, new byte[0]);
+                    return;
+                }
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                if (range == null) {
+                    respond(exchange, 200, object);
+                    return;
+                }
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                int start = Integer.parseInt(bounds[0]);
+                int end = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+                exchange.getResponseHeaders().add("Content-Range",
+                        String.format("bytes %d-%d/%d", start, end, object.length));
+                respond(exchange, 206, Arrays.copyOfRange(object, start, end + 1));
+            } else if (method.equals("PUT") && queryParam(query, "uploadId") != null) {
+                int partNumber = Integer.parseInt(queryParam(query, "partNumber"));
+                uploads.get(queryParam(query, "uploadId")).put(partNumber, readBody(exchange));
+                exchange.getResponseHeaders().add("ETag", "\"part-" + partNumber + "\"");
+                respond(exchange, 200, new byte[0]);
+            } else if (method.equals("PUT")) {
+                objects.put(key, readBody(exchange));
+                exchange.getResponseHeaders().add("ETag", "\"object\"");
+                respond(exchange, 200, new byte[0]);
+            } else if (method.equals("POST") && queryParam(query, "uploads") != null) {
+                readBody(exchange);
+                String uploadId = Long.toString(nextUploadId.incrementAndGet());
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                respond(exchange, 200, String.format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                        + "<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>%s</Key>"
+                        + "<UploadId>%s</UploadId></InitiateMultipartUploadResult>", key, uploadId).getBytes());
+            } else if (method.equals("POST") && queryParam(query, "uploadId") != null) {
+                readBody(exchange);
+                Map<Integer, byte[]> parts = uploads.remove(queryParam(query, "uploadId"));
+                ByteArrayOutputStream object = new ByteArrayOutputStream();
+                parts.keySet().stream().sorted().forEach(partNumber -> object.write(parts.get(partNumber), 0,
+                        parts.get(partNumber).length));
+                objects.put(key, object.toByteArray());
+                respond(exchange, 200, String.format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                        + "<CompleteMultipartUploadResult><Key>%s</Key><ETag>\"object\"</ETag>"
+                        + "</CompleteMultipartUploadResult>", key).getBytes());
+            } else {
+                respond(exchange, 400, new byte[0]);
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+
+    private long timeLocalMetaRequest(S3Client client, String endpoint, MetaRequestType type, String key,
+            byte[] payload, boolean smallObject) throws Exception {
+        CompletableFuture<Integer> onFinishedFuture = new CompletableFuture<>();
+        S3MetaRequestResponseHandler responseHandler = new S3MetaRequestResponseHandler() {
+
+            @Override
+            public int onResponseBody(ByteBuffer bodyBytesIn, long objectRangeStart, long objectRangeEnd) {
+                return 0;
+            }
+
+            @Override
+            public void onFinished(int errorCode) {
+                if (errorCode != 0) {
+                    onFinishedFuture.completeExceptionally(new CrtRuntimeException(errorCode));
+                    return;
+                }
+                onFinishedFuture.complete(Integer.valueOf(errorCode));
+            }
+        };
+
+        HttpRequestBodyStream payloadStream = null;
+        List<HttpHeader> headers = new LinkedList<>();
+        headers.add(new HttpHeader("Host", endpoint));
+        if (type == MetaRequestType.PUT_OBJECT) {
+            final ByteBuffer payloadBuffer = ByteBuffer.wrap(payload);
+            payloadStream = new HttpRequestBodyStream() {
+                @Override
+                public boolean sendRequestBody(ByteBuffer outBuffer) {
+                    ByteBufferUtils.transferData(payloadBuffer, outBuffer);
+                    return payloadBuffer.remaining() == 0;
+                }
+
+                @Override
+                public boolean resetPosition() {
+                    payloadBuffer.rewind();
+                    return true;
+                }
+
+                @Override
+                public long getLength() {
+                    return payload.length;
+                }
+            };
+            headers.add(new HttpHeader("Content-Length", Integer.toString(payload.length)));
+        }
+
+        HttpRequest httpRequest = new HttpRequest(type == MetaRequestType.PUT_OBJECT ? "PUT" : "GET", key,
+                headers.toArray(new HttpHeader[0]), payloadStream);
+        S3MetaRequestOptions metaRequestOptions = new S3MetaRequestOptions()
+                .withMetaRequestType(type)
+                .withHttpRequest(httpRequest)
+                .withResponseHandler(responseHandler)
+                .withSmallObject(smallObject);
+
+        long start = System.nanoTime();
+        S3MetaRequest metaRequest = client.makeMetaRequest(metaRequestOptions);
+        try {
+            onFinishedFuture.get();
+            return System.nanoTime() - start;
+        } finally {
+            metaRequest.close();
+        }
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Compares p50/p99 latency of the small-object fast path against the regular ranged GET / multipart PUT path,
+     * against an in-process S3 stand-in listening on an ephemeral port, reached over plain HTTP.
+     */
+    @Test
+    public void benchmarkS3SmallObjectLatency() throws Exception {
+        Assume.assumeNotNull(System.getProperty("aws.crt.s3.benchmark"));
+
+        final int iterations = Integer.parseInt(System.getProperty("aws.crt.s3.benchmark.iterations", "200"));
+        final int[] objectSizes = { 1024, 16 * 1024, 256 * 1024, 1024 * 1024 };
+
+        try (LocalS3StandIn standIn = new LocalS3StandIn();
+                EventLoopGroup elg = new EventLoopGroup(0, 1);
+                HostResolver hostResolver = new HostResolver(elg);
+                ClientBootstrap clientBootstrap = new ClientBootstrap(elg, hostResolver);
+                StaticCredentialsProvider credentialsProvider = new StaticCredentialsProvider.StaticCredentialsProviderBuilder()
+                        .withAccessKeyId("accessKeyId".getBytes()).withSecretAccessKey("secretAccessKey".getBytes())
+                        .build()) {
+
+            final String endpoint = standIn.getEndpoint();
+            S3ClientOptions clientOptions = new S3ClientOptions().withEndpoint(endpoint).withRegion(REGION)
+                    .withClientBootstrap(clientBootstrap).withCredentialsProvider(credentialsProvider);
+
+            try (S3Client client = new S3Client(clientOptions)) {
+                System.out.println("op   size      path      p50(ms)  p99(ms)");
+                for (int objectSize : objectSizes) {
+                    byte[] payload = new byte[objectSize];
+                    Arrays.fill(payload, (byte) 'x');
+                    String key = String.format("/small-object-%d", objectSize);
+
+                    for (MetaRequestType type : new MetaRequestType[] { MetaRequestType.PUT_OBJECT,
+                            MetaRequestType.GET_OBJECT }) {
+                        for (boolean smallObject : new boolean[] { false, true }) {
+                            long[] latencies = new long[iterations];
+                            /* warm up connections before measuring */
+                            timeLocalMetaRequest(client, endpoint, type, key, payload, smallObject);
+                            for (int i = 0; i < iterations; ++i) {
+                                latencies[i] = timeLocalMetaRequest(client, endpoint, type, key, payload, smallObject);
+                            }
+                            Arrays.sort(latencies);
+                            System.out.println(String.format("%-4s %-9d %-9s %8.3f %8.3f",
+                                    type == MetaRequestType.PUT_OBJECT ? "PUT" : "GET", objectSize,
+                                    smallObject ? "small" : "standard", percentileMs(latencies, 50),
+                                    percentileMs(latencies, 99)));
+                        }
+                    }
+                }
+            }
+        }
+    }
 }
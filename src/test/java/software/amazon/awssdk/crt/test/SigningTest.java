@@ -8,12 +8,17 @@ package software.amazon.awssdk.crt.test;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.TimeZone;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
+import org.junit.Assume;
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -22,6 +27,8 @@ import software.amazon.awssdk.crt.auth.credentials.Credentials;
 import software.amazon.awssdk.crt.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.crt.auth.signing.AwsSigner;
 import software.amazon.awssdk.crt.auth.signing.AwsSigningConfig;
+import software.amazon.awssdk.crt.http.DirectByteBufferBodyStream;
+import software.amazon.awssdk.crt.http.FileBodyStream;
 import software.amazon.awssdk.crt.http.HttpHeader;
 import software.amazon.awssdk.crt.http.HttpRequest;
 import software.amazon.awssdk.crt.http.HttpRequestBodyStream;
@@ -380,4 +387,208 @@ public class SigningTest extends CrtTestFixture {
         signature = finalChunkResult.get();
         assertTrue(signature.equals(EXPECTED_FINAL_CHUNK_SIGNATURE));
     }
+
+    /**
+     * Body of generated bytes, written at most window bytes per sendRequestBody call
+     */
+    private HttpRequestBodyStream makeGeneratedBodyStream(final byte[] body, final int window, final int bulkReadSize) {
+        return new HttpRequestBodyStream() {
+            private int position = 0;
+
+            @Override
+            public boolean sendRequestBody(ByteBuffer bodyBytesOut) {
+                int count = Math.min(window, Math.min(bodyBytesOut.remaining(), body.length - position));
+                bodyBytesOut.put(body, position, count);
+                position += count;
+                return position == body.length;
+            }
+
+            @Override
+            public boolean resetPosition() {
+                position = 0;
+                return true;
+            }
+
+            @Override
+            public long getLength() {
+                return body.length;
+            }
+
+            @Override
+            public int getBulkReadSize() {
+                return bulkReadSize;
+            }
+        };
+    }
+
+    private String signGeneratedBody(StaticCredentialsProvider provider, byte[] body, int window, int bulkReadSize)
+            throws Exception {
+        return signBody(provider, makeGeneratedBodyStream(body, window, bulkReadSize));
+    }
+
+    /* Signs the body with its payload hash, which reads the whole body stream through native */
+    private String signBody(StaticCredentialsProvider provider, HttpRequestBodyStream bodyStream) throws Exception {
+        HttpHeader[] requestHeaders = new HttpHeader[] {
+                new HttpHeader("Host", "example.amazonaws.com"),
+                new HttpHeader("Content-Length", Long.toString(bodyStream.getLength()))
+        };
+        HttpRequest request = new HttpRequest("PUT", "/upload", requestHeaders, bodyStream);
+
+        try (AwsSigningConfig config = new AwsSigningConfig()) {
+            config.setAlgorithm(AwsSigningConfig.AwsSigningAlgorithm.SIGV4);
+            config.setSignatureType(AwsSigningConfig.AwsSignatureType.HTTP_REQUEST_VIA_HEADERS);
+            config.setRegion("us-east-1");
+            config.setService("s3");
+            config.setTime(DATE_FORMAT.parse("2015-08-30T12:36:00Z").getTime());
+            config.setCredentialsProvider(provider);
+
+            HttpRequest signedRequest = AwsSigner.signRequest(request, config).get();
+            for (HttpHeader header : signedRequest.getHeaders()) {
+                if (header.getName().equals("Authorization")) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static byte[] generateBody(int length) {
+        byte[] body = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            body[i] = (byte) (i * 31 + (i >> 8));
+        }
+        return body;
+    }
+
+    @Test
+    public void testSigningBulkReadBodyStream() throws Exception {
+        byte[] body = generateBody(1024 * 1024 + 17);
+
+        try (StaticCredentialsProvider provider = new StaticCredentialsProvider.StaticCredentialsProviderBuilder()
+            .withAccessKeyId(TEST_ACCESS_KEY_ID)
+            .withSecretAccessKey(TEST_SECRET_ACCESS_KEY)
+            .build();) {
+
+            String expected = signGeneratedBody(provider, body, Integer.MAX_VALUE, 0);
+            assertNotNull(expected);
+            assertEquals(expected, signGeneratedBody(provider, body, 100, 0));
+            assertEquals(expected, signGeneratedBody(provider, body, 100, 64 * 1024));
+            assertEquals(expected, signGeneratedBody(provider, body, Integer.MAX_VALUE, 1000));
+        }
+    }
+
+    @Test
+    public void testSigningNativeBodyStreams() throws Exception {
+        byte[] body = generateBody(3 * 1024 * 1024 + 5);
+        ByteBuffer directBody = ByteBuffer.allocateDirect(body.length + 2);
+        directBody.put((byte) 1).put(body).put((byte) 2);
+        directBody.position(1);
+        directBody.limit(1 + body.length);
+        Path bodyFile = Files.createTempFile("SigningTest", ".bin");
+
+        try (StaticCredentialsProvider provider = new StaticCredentialsProvider.StaticCredentialsProviderBuilder()
+            .withAccessKeyId(TEST_ACCESS_KEY_ID)
+            .withSecretAccessKey(TEST_SECRET_ACCESS_KEY)
+            .build();) {
+            Files.write(bodyFile, body);
+
+            String expected = signGeneratedBody(provider, body, Integer.MAX_VALUE, 0);
+            HttpRequestBodyStream directStream = new DirectByteBufferBodyStream(directBody);
+            HttpRequestBodyStream fileStream = new FileBodyStream(bodyFile);
+            assertEquals(expected, signBody(provider, directStream));
+            assertEquals(expected, signBody(provider, fileStream));
+            // native reads don't move the streams, so they can be signed again
+            assertEquals(expected, signBody(provider, directStream));
+            assertEquals(expected, signBody(provider, fileStream));
+
+            // read from Java, the streams send the same bytes
+            for (HttpRequestBodyStream stream : new HttpRequestBodyStream[] { directStream, fileStream }) {
+                ByteBuffer out = ByteBuffer.allocate(body.length);
+                ByteBuffer piece = ByteBuffer.allocate(1000);
+                boolean done = false;
+                while (!done) {
+                    piece.clear();
+                    done = stream.sendRequestBody(piece);
+                    piece.flip();
+                    out.put(piece);
+                }
+                out.flip();
+                assertEquals(ByteBuffer.wrap(body), out);
+                assertTrue(stream.resetPosition());
+            }
+        } finally {
+            Files.deleteIfExists(bodyFile);
+        }
+    }
+
+    @Test
+    public void testSigningFileBodyStreamRange() throws Exception {
+        byte[] body = generateBody(1024 * 1024 + 17);
+        int offset = 1000;
+        int length = 512 * 1024 + 3;
+        Path bodyFile = Files.createTempFile("SigningTest", ".bin");
+
+        try (StaticCredentialsProvider provider = new StaticCredentialsProvider.StaticCredentialsProviderBuilder()
+            .withAccessKeyId(TEST_ACCESS_KEY_ID)
+            .withSecretAccessKey(TEST_SECRET_ACCESS_KEY)
+            .build();) {
+            Files.write(bodyFile, body);
+
+            byte[] range = Arrays.copyOfRange(body, offset, offset + length);
+            String expected = signGeneratedBody(provider, range, Integer.MAX_VALUE, 0);
+            HttpRequestBodyStream rangeStream = new FileBodyStream(bodyFile, offset, length);
+            assertEquals(length, rangeStream.getLength());
+            assertEquals(expected, signBody(provider, rangeStream));
+
+            // read from Java, the range stream sends the same bytes
+            ByteBuffer out = ByteBuffer.allocate(length);
+            ByteBuffer piece = ByteBuffer.allocate(1000);
+            boolean done = false;
+            while (!done) {
+                piece.clear();
+                done = rangeStream.sendRequestBody(piece);
+                piece.flip();
+                out.put(piece);
+            }
+            out.flip();
+            assertEquals(ByteBuffer.wrap(range), out);
+        } finally {
+            Files.deleteIfExists(bodyFile);
+        }
+    }
+
+    @Test
+    public void benchmarkBodyStreamReads() throws Exception {
+        Assume.assumeNotNull(System.getProperty("aws.crt.http.benchmark"));
+
+        final int bodySize = Integer.parseInt(System.getProperty("aws.crt.http.benchmark.bodySize",
+                Integer.toString(64 * 1024 * 1024)));
+        final byte[] body = generateBody(bodySize);
+        final com.sun.management.OperatingSystemMXBean osBean =
+                (com.sun.management.OperatingSystemMXBean) java.lang.management.ManagementFactory.getOperatingSystemMXBean();
+
+        try (StaticCredentialsProvider provider = new StaticCredentialsProvider.StaticCredentialsProviderBuilder()
+            .withAccessKeyId(TEST_ACCESS_KEY_ID)
+            .withSecretAccessKey(TEST_SECRET_ACCESS_KEY)
+            .build();) {
+
+            for (int window : new int[] { 1024, 256 * 1024 }) {
+                for (int bulkReadSize : new int[] { 0, 256 * 1024 }) {
+                    // first pass is warm up
+                    signGeneratedBody(provider, body, window, bulkReadSize);
+
+                    long startCpuNanos = osBean.getProcessCpuTime();
+                    long startNanos = System.nanoTime();
+                    signGeneratedBody(provider, body, window, bulkReadSize);
+                    long cpuNanos = osBean.getProcessCpuTime() - startCpuNanos;
+                    long elapsedNanos = System.nanoTime() - startNanos;
+
+                    System.out.println(String.format(
+                            "body stream read(window=%d, bulkReadSize=%d): %.1f MB/s, %.1f MB/s per core",
+                            window, bulkReadSize, bodySize / 1e6 / (elapsedNanos / 1e9),
+                            bodySize / 1e6 / (Math.max(1, cpuNanos) / 1e9)));
+                }
+            }
+        }
+    }
 };